@@ -0,0 +1,185 @@
+package org.json;
+
+/*
+Copyright (c) 2002 JSON.org
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+The Software shall be used for Good, not Evil.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * A big-endian byte source for the binary encodings, reading from an array
+ * or from a stream. A stream is never read beyond the bytes asked for, so
+ * that several values can be read from one stream; wrap it in a
+ * BufferedInputStream when it is not buffered.
+ *
+ * @author JSON.org
+ */
+final class BinaryInput {
+
+    /**
+     * Byte arrays larger than this are allocated as their bytes arrive, so
+     * that a forged length cannot exhaust the memory.
+     */
+    private static final int CHUNK = 1 << 16;
+
+    private final InputStream in;
+
+    private final byte[] buf;
+
+    private int pos;
+
+    private final int limit;
+
+    /**
+     * Make an input reading from a stream.
+     *
+     * @param in the stream
+     */
+    BinaryInput(InputStream in) {
+        this.in = in;
+        this.buf = null;
+        this.limit = 0;
+    }
+
+    /**
+     * Make an input reading from an array.
+     *
+     * @param bytes the bytes
+     * @param off the index of the first byte
+     * @param len the number of bytes
+     */
+    BinaryInput(byte[] bytes, int off, int len) {
+        this.in = null;
+        this.buf = bytes;
+        this.pos = off;
+        this.limit = off + len;
+    }
+
+    /**
+     * Read a byte.
+     *
+     * @return the byte, or -1 at the end of the input
+     * @throws IOException if the stream fails
+     */
+    int read() throws IOException {
+        if (this.in == null) {
+            return this.pos < this.limit ? this.buf[this.pos++] & 0xFF : -1;
+        }
+        return this.in.read();
+    }
+
+    int readUnsignedByte() throws IOException {
+        final int b = this.read();
+        if (b < 0) {
+            throw endOfInput();
+        }
+        return b;
+    }
+
+    int readUnsignedShort() throws IOException {
+        return (this.readUnsignedByte() << 8) | this.readUnsignedByte();
+    }
+
+    int readInt() throws IOException {
+        return (this.readUnsignedShort() << 16) | this.readUnsignedShort();
+    }
+
+    long readLong() throws IOException {
+        return ((long) this.readInt() << 32) | (this.readInt() & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Read a number of bytes.
+     *
+     * @param n the number of bytes
+     * @return the bytes
+     * @throws IOException if the stream fails
+     */
+    byte[] readBytes(long n) throws IOException {
+        final int length = checkLength(n);
+        if (this.in == null) {
+            if (length > this.limit - this.pos) {
+                throw endOfInput();
+            }
+            this.pos += length;
+            return Arrays.copyOfRange(this.buf, this.pos - length, this.pos);
+        }
+        byte[] b = new byte[Math.min(length, CHUNK)];
+        int got = 0;
+        while (got < length) {
+            if (got == b.length) {
+                b = Arrays.copyOf(b, (int) Math.min(length, 2L * b.length));
+            }
+            final int r = this.in.read(b, got, b.length - got);
+            if (r < 0) {
+                throw endOfInput();
+            }
+            got += r;
+        }
+        return b;
+    }
+
+    /**
+     * Read a string encoded as UTF-8.
+     *
+     * @param n the number of bytes
+     * @return the string
+     * @throws IOException if the stream fails
+     */
+    String readUtf8(long n) throws IOException {
+        if (this.in == null) {
+            final int length = checkLength(n);
+            if (length > this.limit - this.pos) {
+                throw endOfInput();
+            }
+            this.pos += length;
+            return new String(this.buf, this.pos - length, length, StandardCharsets.UTF_8);
+        }
+        return new String(this.readBytes(n), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Get an initial capacity for a container, trusting the announced size
+     * only up to a point.
+     *
+     * @param n the announced number of elements
+     * @return the capacity
+     */
+    static int capacity(long n) {
+        return (int) Math.min(n, 1024);
+    }
+
+    private static int checkLength(long n) {
+        if (n < 0 || n > Integer.MAX_VALUE - 8) {
+            throw new JSONException("Length too large: " + Long.toUnsignedString(n));
+        }
+        return (int) n;
+    }
+
+    static JSONException endOfInput() {
+        return new JSONException("Unexpected end of input.");
+    }
+}
@@ -0,0 +1,317 @@
+package org.json;
+
+/*
+Copyright (c) 2002 JSON.org
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+The Software shall be used for Good, not Evil.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * A big-endian byte sink for the binary encodings, collecting the bytes in a
+ * growable array or passing them on to a stream in blocks.
+ *
+ * @author JSON.org
+ */
+final class BinaryOutput {
+
+    private final OutputStream out;
+
+    private byte[] buf;
+
+    private int count;
+
+    /**
+     * Make an output passing the bytes on to a stream.
+     *
+     * @param out the stream
+     */
+    BinaryOutput(OutputStream out) {
+        this.out = out;
+        this.buf = new byte[8192];
+    }
+
+    /**
+     * Make an output collecting the bytes.
+     *
+     * @param initialCapacity the initial size of the buffer
+     */
+    BinaryOutput(int initialCapacity) {
+        this.out = null;
+        this.buf = new byte[Math.max(initialCapacity, 16)];
+    }
+
+    private void ensure(int n) throws IOException {
+        if (this.buf.length - this.count >= n) {
+            return;
+        }
+        if (this.out != null) {
+            this.out.write(this.buf, 0, this.count);
+            this.count = 0;
+            if (n <= this.buf.length) {
+                return;
+            }
+        }
+        this.buf = Arrays.copyOf(this.buf, Math.max(this.buf.length * 2, this.count + n));
+    }
+
+    void write(int b) throws IOException {
+        if (this.count == this.buf.length) {
+            this.ensure(1);
+        }
+        this.buf[this.count++] = (byte) b;
+    }
+
+    void write(byte[] b, int off, int len) throws IOException {
+        if (this.out != null && len >= this.buf.length) {
+            // too large to buffer
+            this.flush();
+            this.out.write(b, off, len);
+            return;
+        }
+        this.ensure(len);
+        System.arraycopy(b, off, this.buf, this.count, len);
+        this.count += len;
+    }
+
+    void writeShort(int v) throws IOException {
+        this.ensure(2);
+        this.buf[this.count++] = (byte) (v >>> 8);
+        this.buf[this.count++] = (byte) v;
+    }
+
+    void writeInt(int v) throws IOException {
+        this.ensure(4);
+        this.buf[this.count++] = (byte) (v >>> 24);
+        this.buf[this.count++] = (byte) (v >>> 16);
+        this.buf[this.count++] = (byte) (v >>> 8);
+        this.buf[this.count++] = (byte) v;
+    }
+
+    void writeLong(long v) throws IOException {
+        this.writeInt((int) (v >>> 32));
+        this.writeInt((int) v);
+    }
+
+    /**
+     * Get the length of a string encoded as UTF-8 by {@link #writeUtf8}.
+     *
+     * @param s the string
+     * @return the number of bytes
+     */
+    static int utf8Length(String s) {
+        final int length = s.length();
+        int n = length;
+        for (int i = 0; i < length; i += 1) {
+            final char c = s.charAt(i);
+            if (c >= 0x80) {
+                if (c < 0x800) {
+                    n += 1;
+                } else if (Character.isHighSurrogate(c) && i + 1 < length
+                        && Character.isLowSurrogate(s.charAt(i + 1))) {
+                    n += 2;
+                    i += 1;
+                } else if (!Character.isSurrogate(c)) {
+                    n += 2;
+                }
+            }
+        }
+        return n;
+    }
+
+    /**
+     * Write a string as UTF-8. Unpaired surrogates are written as '?', like
+     * the JDK encoder does.
+     *
+     * @param s the string
+     * @throws IOException if the stream fails
+     */
+    void writeUtf8(String s) throws IOException {
+        final int length = s.length();
+        int i = 0;
+        while (i < length) {
+            this.ensure(4);
+            final byte[] b = this.buf;
+            int n = this.count;
+            // copy ASCII runs while they fit
+            final int stop = Math.min(length, i + b.length - n);
+            char c;
+            while (i < stop && (c = s.charAt(i)) < 0x80) {
+                b[n++] = (byte) c;
+                i += 1;
+            }
+            this.count = n;
+            if (i == length) {
+                return;
+            }
+            if (b.length - n < 4) {
+                continue;
+            }
+            c = s.charAt(i);
+            if (c < 0x80) {
+                b[n++] = (byte) c;
+            } else if (c < 0x800) {
+                b[n++] = (byte) (0xC0 | (c >> 6));
+                b[n++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < length
+                    && Character.isLowSurrogate(s.charAt(i + 1))) {
+                final int cp = Character.toCodePoint(c, s.charAt(i + 1));
+                b[n++] = (byte) (0xF0 | (cp >> 18));
+                b[n++] = (byte) (0x80 | ((cp >> 12) & 0x3F));
+                b[n++] = (byte) (0x80 | ((cp >> 6) & 0x3F));
+                b[n++] = (byte) (0x80 | (cp & 0x3F));
+                i += 1;
+            } else if (Character.isSurrogate(c)) {
+                b[n++] = '?';
+            } else {
+                b[n++] = (byte) (0xE0 | (c >> 12));
+                b[n++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                b[n++] = (byte) (0x80 | (c & 0x3F));
+            }
+            this.count = n;
+            i += 1;
+        }
+    }
+
+    /**
+     * Pass the buffered bytes on to the stream, if any. The stream itself is
+     * not flushed.
+     *
+     * @throws IOException if the stream fails
+     */
+    void flush() throws IOException {
+        if (this.out != null && this.count > 0) {
+            this.out.write(this.buf, 0, this.count);
+            this.count = 0;
+        }
+    }
+
+    /**
+     * Get a copy of the collected bytes.
+     *
+     * @return the bytes
+     */
+    byte[] toByteArray() {
+        return Arrays.copyOf(this.buf, this.count);
+    }
+
+    /**
+     * Reduce a value that has no binary form of its own to one that has, the
+     * way it would come back from its JSON text: JSONNumbers are converted,
+     * JSONString values are parsed,
+     * maps, collections and arrays become JSONObjects and JSONArrays, other
+     * Numbers are parsed from their text, and anything else becomes a string.
+     *
+     * @param value a value that is not null, a String, Boolean, Integer,
+     *  Long, Short, Byte, Float, Double, BigInteger, BigDecimal, JSONObject
+     *  or JSONArray
+     * @return the value to write
+     * @throws JSONException if a JSONString is not valid JSON
+     */
+    static Object plain(Object value) throws JSONException {
+        if (value instanceof JSONNumber) {
+            return ((JSONNumber) value).toNumber();
+        }
+        if (value instanceof JSONRaw) {
+            return ((JSONRaw) value).value();
+        }
+        if (value instanceof JSONString) {
+            String text;
+            try {
+                text = ((JSONString) value).toJSONString();
+            } catch (Exception e) {
+                throw new JSONException(e);
+            }
+            if (text == null) {
+                return value.toString();
+            }
+            return new JSONTokener(text).nextValue();
+        }
+        if (value instanceof Map) {
+            return new JSONObject((Map<?, ?>) value);
+        }
+        if (value instanceof Collection) {
+            return new JSONArray((Collection<?>) value);
+        }
+        if (value.getClass().isArray()) {
+            return new JSONArray(value);
+        }
+        if (value instanceof Enum<?>) {
+            return ((Enum<?>) value).name();
+        }
+        if (value instanceof Number) {
+            final String numberAsString = JSONObject.numberToString((Number) value);
+            if (JSONObject.numberPattern().matcher(numberAsString).matches()) {
+                return JSONObject.stringToNumber(numberAsString);
+            }
+            return numberAsString;
+        }
+        return value.toString();
+    }
+
+    /**
+     * Narrow an integer to the smallest of Integer, Long and BigInteger that
+     * holds it, like the JSON text parser does.
+     *
+     * @param n the integer
+     * @return the narrowed number
+     */
+    static Number narrow(BigInteger n) {
+        if (n.bitLength() <= 31) {
+            return Integer.valueOf(n.intValue());
+        }
+        if (n.bitLength() <= 63) {
+            return Long.valueOf(n.longValue());
+        }
+        return n;
+    }
+
+    /**
+     * Narrow a long to an Integer if it fits.
+     *
+     * @param n the integer
+     * @return the narrowed number
+     */
+    static Number narrow(long n) {
+        if (n == (int) n) {
+            return Integer.valueOf((int) n);
+        }
+        return Long.valueOf(n);
+    }
+
+    /**
+     * Check that a double can be written.
+     *
+     * @param d the double
+     * @throws JSONException if the double is not finite
+     */
+    static void testValidity(double d) throws JSONException {
+        if (Double.isInfinite(d) || Double.isNaN(d)) {
+            throw new JSONException("JSON does not allow non-finite numbers.");
+        }
+    }
+}
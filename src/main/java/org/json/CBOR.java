@@ -0,0 +1,570 @@
+package org.json;
+
+/*
+Copyright (c) 2002 JSON.org
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+The Software shall be used for Good, not Evil.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Base64;
+
+/**
+ * Converts between JSON values and CBOR (RFC 8949), without going through a
+ * JSON text.
+ * <p>
+ * Values are written in the smallest form that holds them: integers in 1 to
+ * 9 bytes, doubles as half, single or double precision floats when that is
+ * exact, BigIntegers beyond 64 bits as bignums (tags 2 and 3) and BigDecimals
+ * as decimal fractions (tag 4). Reading gives the values the JSON text
+ * parser would: integers narrowed to Integer, Long or BigInteger, floats as
+ * Double, decimal fractions as BigDecimal. Byte strings are read as base64
+ * strings, other tags are ignored.
+ *
+ * @author JSON.org
+ */
+public class CBOR {
+
+    /** Nesting deeper than this is rejected when reading. */
+    private static final int MAX_DEPTH = 512;
+
+    private static final int UNSIGNED = 0;
+    private static final int NEGATIVE = 1;
+    private static final int BYTES = 2;
+    private static final int TEXT = 3;
+    private static final int ARRAY = 4;
+    private static final int MAP = 5;
+    private static final int TAG = 6;
+    private static final int SIMPLE = 7;
+
+    private static final int TAG_POSITIVE_BIGNUM = 2;
+    private static final int TAG_NEGATIVE_BIGNUM = 3;
+    private static final int TAG_DECIMAL_FRACTION = 4;
+
+    private static final int INDEFINITE = 31;
+    private static final int BREAK = 0xFF;
+
+    private static final BigInteger UNSIGNED_LONG_MASK =
+            BigInteger.ONE.shiftLeft(64).subtract(BigInteger.ONE);
+
+    /**
+     * Write a value as CBOR.
+     *
+     * @param value
+     *            a JSONObject, JSONArray or any other value a JSONObject
+     *            can hold.
+     * @param out
+     *            the stream receiving the bytes. It is not flushed.
+     * @throws JSONException
+     *             if a number is not finite, or the stream fails.
+     */
+    public static void write(Object value, OutputStream out) throws JSONException {
+        try {
+            BinaryOutput output = new BinaryOutput(out);
+            writeValue(output, value);
+            output.flush();
+        } catch (IOException e) {
+            throw new JSONException(e);
+        }
+    }
+
+    /**
+     * Encode a value as CBOR.
+     *
+     * @param value
+     *            a JSONObject, JSONArray or any other value a JSONObject
+     *            can hold.
+     * @return the bytes.
+     * @throws JSONException
+     *             if a number is not finite.
+     */
+    public static byte[] toByteArray(Object value) throws JSONException {
+        try {
+            BinaryOutput output = new BinaryOutput(256);
+            writeValue(output, value);
+            return output.toByteArray();
+        } catch (IOException e) {
+            throw new JSONException(e);
+        }
+    }
+
+    /**
+     * Read one CBOR data item from a stream. The stream is not read beyond
+     * the item.
+     *
+     * @param in
+     *            the stream.
+     * @return a JSONObject, JSONArray, String, Boolean, Number or
+     *         JSONObject.NULL.
+     * @throws JSONException
+     *             if the input is not well formed CBOR or has no JSON value,
+     *             or the stream fails.
+     */
+    public static Object read(InputStream in) throws JSONException {
+        try {
+            return readValue(new BinaryInput(in), 0);
+        } catch (IOException e) {
+            throw new JSONException(e);
+        }
+    }
+
+    /**
+     * Read one CBOR data item from an array.
+     *
+     * @param bytes
+     *            the bytes, holding exactly one data item.
+     * @return a JSONObject, JSONArray, String, Boolean, Number or
+     *         JSONObject.NULL.
+     * @throws JSONException
+     *             if the input is not well formed CBOR or has no JSON value.
+     */
+    public static Object read(byte[] bytes) throws JSONException {
+        try {
+            BinaryInput input = new BinaryInput(bytes, 0, bytes.length);
+            Object value = readValue(input, 0);
+            if (input.read() >= 0) {
+                throw new JSONException("Unexpected bytes after the CBOR data item.");
+            }
+            return value;
+        } catch (IOException e) {
+            throw new JSONException(e);
+        }
+    }
+
+    /**
+     * Read a CBOR map from a stream.
+     *
+     * @param in
+     *            the stream.
+     * @return a JSONObject.
+     * @throws JSONException
+     *             if the input is not a well formed CBOR map.
+     */
+    public static JSONObject toJSONObject(InputStream in) throws JSONException {
+        return asJSONObject(read(in));
+    }
+
+    /**
+     * Read a CBOR map from an array.
+     *
+     * @param bytes
+     *            the bytes.
+     * @return a JSONObject.
+     * @throws JSONException
+     *             if the input is not a well formed CBOR map.
+     */
+    public static JSONObject toJSONObject(byte[] bytes) throws JSONException {
+        return asJSONObject(read(bytes));
+    }
+
+    /**
+     * Read a CBOR array from a stream.
+     *
+     * @param in
+     *            the stream.
+     * @return a JSONArray.
+     * @throws JSONException
+     *             if the input is not a well formed CBOR array.
+     */
+    public static JSONArray toJSONArray(InputStream in) throws JSONException {
+        return asJSONArray(read(in));
+    }
+
+    /**
+     * Read a CBOR array from an array.
+     *
+     * @param bytes
+     *            the bytes.
+     * @return a JSONArray.
+     * @throws JSONException
+     *             if the input is not a well formed CBOR array.
+     */
+    public static JSONArray toJSONArray(byte[] bytes) throws JSONException {
+        return asJSONArray(read(bytes));
+    }
+
+    private static JSONObject asJSONObject(Object value) throws JSONException {
+        if (value instanceof JSONObject) {
+            return (JSONObject) value;
+        }
+        throw new JSONException("CBOR data item is not a map.");
+    }
+
+    private static JSONArray asJSONArray(Object value) throws JSONException {
+        if (value instanceof JSONArray) {
+            return (JSONArray) value;
+        }
+        throw new JSONException("CBOR data item is not an array.");
+    }
+
+    private static void writeHead(BinaryOutput out, int major, long argument) throws IOException {
+        final int mt = major << 5;
+        if (argument >= 0 && argument < 24) {
+            out.write(mt | (int) argument);
+        } else if (argument >= 0 && argument <= 0xFF) {
+            out.write(mt | 24);
+            out.write((int) argument);
+        } else if (argument >= 0 && argument <= 0xFFFF) {
+            out.write(mt | 25);
+            out.writeShort((int) argument);
+        } else if (argument >= 0 && argument <= 0xFFFFFFFFL) {
+            out.write(mt | 26);
+            out.writeInt((int) argument);
+        } else {
+            // also the unsigned longs beyond Long.MAX_VALUE
+            out.write(mt | 27);
+            out.writeLong(argument);
+        }
+    }
+
+    private static void writeInteger(BinaryOutput out, long n) throws IOException {
+        if (n >= 0) {
+            writeHead(out, UNSIGNED, n);
+        } else {
+            writeHead(out, NEGATIVE, -1 - n);
+        }
+    }
+
+    private static void writeInteger(BinaryOutput out, BigInteger n) throws IOException {
+        if (n.bitLength() <= 63) {
+            writeInteger(out, n.longValue());
+        } else if (n.signum() > 0) {
+            if (n.bitLength() <= 64) {
+                writeHead(out, UNSIGNED, n.longValue());
+            } else {
+                writeHead(out, TAG, TAG_POSITIVE_BIGNUM);
+                writeMagnitude(out, n);
+            }
+        } else {
+            BigInteger m = n.negate().subtract(BigInteger.ONE);
+            if (m.bitLength() <= 64) {
+                writeHead(out, NEGATIVE, m.longValue());
+            } else {
+                writeHead(out, TAG, TAG_NEGATIVE_BIGNUM);
+                writeMagnitude(out, m);
+            }
+        }
+    }
+
+    private static void writeMagnitude(BinaryOutput out, BigInteger m) throws IOException {
+        byte[] bytes = m.toByteArray();
+        // drop the sign byte
+        final int off = bytes[0] == 0 ? 1 : 0;
+        writeHead(out, BYTES, bytes.length - off);
+        out.write(bytes, off, bytes.length - off);
+    }
+
+    private static void writeDouble(BinaryOutput out, double d) throws IOException {
+        BinaryOutput.testValidity(d);
+        final float f = (float) d;
+        if (f == d) {
+            final int half = halfBits(f);
+            if (half >= 0) {
+                out.write(0xF9);
+                out.writeShort(half);
+            } else {
+                out.write(0xFA);
+                out.writeInt(Float.floatToIntBits(f));
+            }
+        } else {
+            out.write(0xFB);
+            out.writeLong(Double.doubleToLongBits(d));
+        }
+    }
+
+    /**
+     * Get the half precision bits of a float, if it can be held exactly.
+     *
+     * @param f a finite float
+     * @return the bits, or -1
+     */
+    private static int halfBits(float f) {
+        final int bits = Float.floatToIntBits(f);
+        final int sign = (bits >>> 16) & 0x8000;
+        final int exponent = (bits >>> 23) & 0xFF;
+        final int mantissa = bits & 0x7FFFFF;
+        if (exponent == 0 && mantissa == 0) {
+            return sign;
+        }
+        final int e = exponent - 127;
+        if (e >= -14 && e <= 15) {
+            // normal half: 10 bits of mantissa
+            if ((mantissa & 0x1FFF) != 0) {
+                return -1;
+            }
+            return sign | ((e + 15) << 10) | (mantissa >>> 13);
+        }
+        if (e >= -24 && e < -14) {
+            // subnormal half: the value is m 2^-24
+            final int shift = -14 - e;
+            final int full = mantissa | 0x800000;
+            if ((full & ((1 << (13 + shift)) - 1)) != 0) {
+                return -1;
+            }
+            return sign | (full >>> (13 + shift));
+        }
+        return -1;
+    }
+
+    private static void writeString(BinaryOutput out, String s) throws IOException {
+        writeHead(out, TEXT, BinaryOutput.utf8Length(s));
+        out.writeUtf8(s);
+    }
+
+    private static void writeValue(BinaryOutput out, Object value) throws IOException {
+        if (value == null || JSONObject.NULL.equals(value)) {
+            out.write(0xF6);
+        } else if (value instanceof String) {
+            writeString(out, (String) value);
+        } else if (value instanceof Boolean) {
+            out.write(((Boolean) value).booleanValue() ? 0xF5 : 0xF4);
+        } else if (value instanceof Integer || value instanceof Long
+                || value instanceof Short || value instanceof Byte) {
+            writeInteger(out, ((Number) value).longValue());
+        } else if (value instanceof Double || value instanceof Float) {
+            writeDouble(out, ((Number) value).doubleValue());
+        } else if (value instanceof BigInteger) {
+            writeInteger(out, (BigInteger) value);
+        } else if (value instanceof BigDecimal) {
+            BigDecimal d = (BigDecimal) value;
+            writeHead(out, TAG, TAG_DECIMAL_FRACTION);
+            writeHead(out, ARRAY, 2);
+            writeInteger(out, -(long) d.scale());
+            writeInteger(out, d.unscaledValue());
+        } else if (value instanceof JSONObject) {
+            JSONObject jo = (JSONObject) value;
+            writeHead(out, MAP, jo.length());
+            for (String key : jo.keySet()) {
+                writeString(out, key);
+                writeValue(out, jo.opt(key));
+            }
+        } else if (value instanceof JSONArray) {
+            JSONArray ja = (JSONArray) value;
+            final int length = ja.length();
+            writeHead(out, ARRAY, length);
+            for (int i = 0; i < length; i += 1) {
+                writeValue(out, ja.opt(i));
+            }
+        } else {
+            writeValue(out, BinaryOutput.plain(value));
+        }
+    }
+
+    private static long readArgument(BinaryInput in, int info) throws IOException {
+        if (info < 24) {
+            return info;
+        }
+        switch (info) {
+        case 24:
+            return in.readUnsignedByte();
+        case 25:
+            return in.readUnsignedShort();
+        case 26:
+            return in.readInt() & 0xFFFFFFFFL;
+        case 27:
+            return in.readLong();
+        default:
+            throw new JSONException("Malformed CBOR additional information: " + info);
+        }
+    }
+
+    private static Object readValue(BinaryInput in, int depth) throws IOException {
+        final int initial = in.readUnsignedByte();
+        if (initial == BREAK) {
+            throw new JSONException("Unexpected CBOR break.");
+        }
+        return readValue(in, initial, depth);
+    }
+
+    private static Object readValue(BinaryInput in, int initial, int depth) throws IOException {
+        final int major = initial >>> 5;
+        final int info = initial & 0x1F;
+        if (depth > MAX_DEPTH) {
+            throw new JSONException("Nesting too deep.");
+        }
+        switch (major) {
+        case UNSIGNED: {
+            final long n = readArgument(in, info);
+            if (n < 0) {
+                return new BigInteger(1, longBytes(n));
+            }
+            return BinaryOutput.narrow(n);
+        }
+        case NEGATIVE: {
+            final long n = readArgument(in, info);
+            if (n < 0) {
+                return new BigInteger(1, longBytes(n)).negate().subtract(BigInteger.ONE);
+            }
+            return BinaryOutput.narrow(-1 - n);
+        }
+        case BYTES:
+            return Base64.getEncoder().encodeToString(readByteString(in, info));
+        case TEXT:
+            if (info == INDEFINITE) {
+                StringBuilder sb = new StringBuilder();
+                for (int b; (b = in.readUnsignedByte()) != BREAK; ) {
+                    if (b >>> 5 != TEXT || (b & 0x1F) == INDEFINITE) {
+                        throw new JSONException("Malformed CBOR text string chunk.");
+                    }
+                    sb.append(in.readUtf8(readArgument(in, b & 0x1F)));
+                }
+                return sb.toString();
+            }
+            return in.readUtf8(readArgument(in, info));
+        case ARRAY: {
+            if (info == INDEFINITE) {
+                JSONArray ja = new JSONArray();
+                for (int b; (b = in.readUnsignedByte()) != BREAK; ) {
+                    ja.put(readValue(in, b, depth + 1));
+                }
+                return ja;
+            }
+            final long n = readArgument(in, info);
+            JSONArray ja = new JSONArray(BinaryInput.capacity(n));
+            for (long i = 0; i != n; i += 1) {
+                ja.put(readValue(in, depth + 1));
+            }
+            return ja;
+        }
+        case MAP: {
+            final long n = info == INDEFINITE ? -1 : readArgument(in, info);
+            JSONObject jo = new JSONObject(n < 0 ? 8 : BinaryInput.capacity(n));
+            for (long i = 0; i != n; i += 1) {
+                final int b = in.readUnsignedByte();
+                if (b == BREAK && n < 0) {
+                    break;
+                }
+                Object key = b == BREAK ? null : readValue(in, b, depth + 1);
+                if (!(key instanceof String)) {
+                    throw new JSONException("CBOR map key must be a text string.");
+                }
+                if (jo.has((String) key)) {
+                    throw new JSONException("Duplicate key \"" + key + "\"");
+                }
+                jo.put((String) key, readValue(in, depth + 1));
+            }
+            return jo;
+        }
+        case TAG:
+            return readTagged(in, readArgument(in, info), depth);
+        default:
+            return readSimple(in, info);
+        }
+    }
+
+    private static Object readTagged(BinaryInput in, long tag, int depth) throws IOException {
+        if (tag == TAG_POSITIVE_BIGNUM || tag == TAG_NEGATIVE_BIGNUM) {
+            final int b = in.readUnsignedByte();
+            if (b >>> 5 != BYTES) {
+                throw new JSONException("Malformed CBOR bignum.");
+            }
+            BigInteger m = new BigInteger(1, readByteString(in, b & 0x1F));
+            return BinaryOutput.narrow(tag == TAG_POSITIVE_BIGNUM
+                    ? m : m.negate().subtract(BigInteger.ONE));
+        }
+        if (tag == TAG_DECIMAL_FRACTION) {
+            Object fraction = readValue(in, depth + 1);
+            if (fraction instanceof JSONArray && ((JSONArray) fraction).length() == 2) {
+                Object exponent = ((JSONArray) fraction).opt(0);
+                Object mantissa = ((JSONArray) fraction).opt(1);
+                if ((exponent instanceof Integer)
+                        && (mantissa instanceof Integer || mantissa instanceof Long
+                                || mantissa instanceof BigInteger)) {
+                    BigInteger unscaled = mantissa instanceof BigInteger
+                            ? (BigInteger) mantissa
+                            : BigInteger.valueOf(((Number) mantissa).longValue());
+                    return new BigDecimal(unscaled, -((Integer) exponent).intValue());
+                }
+            }
+            throw new JSONException("Malformed CBOR decimal fraction.");
+        }
+        // the value without the meaning the tag gives it
+        return readValue(in, depth + 1);
+    }
+
+    private static Object readSimple(BinaryInput in, int info) throws IOException {
+        double d;
+        switch (info) {
+        case 20:
+            return Boolean.FALSE;
+        case 21:
+            return Boolean.TRUE;
+        case 22:
+        case 23:
+            return JSONObject.NULL;
+        case 25:
+            d = halfToDouble(in.readUnsignedShort());
+            break;
+        case 26:
+            d = Float.intBitsToFloat(in.readInt());
+            break;
+        case 27:
+            d = Double.longBitsToDouble(in.readLong());
+            break;
+        default:
+            throw new JSONException("Unsupported CBOR simple value: " + info);
+        }
+        BinaryOutput.testValidity(d);
+        return Double.valueOf(d);
+    }
+
+    private static double halfToDouble(int half) {
+        final int exponent = (half >>> 10) & 0x1F;
+        final int mantissa = half & 0x3FF;
+        double d;
+        if (exponent == 0) {
+            d = mantissa * 0x1p-24;
+        } else if (exponent == 0x1F) {
+            d = mantissa == 0 ? Double.POSITIVE_INFINITY : Double.NaN;
+        } else {
+            d = (mantissa + 1024) * Math.pow(2, exponent - 25);
+        }
+        return (half & 0x8000) != 0 ? -d : d;
+    }
+
+    private static byte[] readByteString(BinaryInput in, int info) throws IOException {
+        if (info != INDEFINITE) {
+            return in.readBytes(readArgument(in, info));
+        }
+        java.io.ByteArrayOutputStream chunks = new java.io.ByteArrayOutputStream();
+        for (int b; (b = in.readUnsignedByte()) != BREAK; ) {
+            if (b >>> 5 != BYTES || (b & 0x1F) == INDEFINITE) {
+                throw new JSONException("Malformed CBOR byte string chunk.");
+            }
+            byte[] chunk = in.readBytes(readArgument(in, b & 0x1F));
+            chunks.write(chunk, 0, chunk.length);
+        }
+        return chunks.toByteArray();
+    }
+
+    private static byte[] longBytes(long n) {
+        byte[] bytes = new byte[8];
+        for (int i = 7; i >= 0; i -= 1) {
+            bytes[i] = (byte) n;
+            n >>>= 8;
+        }
+        return bytes;
+    }
+}
@@ -27,7 +27,6 @@ package org.json;
 import java.io.IOException;
 import java.io.StringWriter;
 import java.io.Writer;
-import java.lang.reflect.Array;
 import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.util.ArrayList;
@@ -86,7 +85,15 @@ public class JSONArray implements Iterable<Object> {
     /**
      * The arrayList where the JSONArray's properties are kept.
      */
-    private final ArrayList<Object> myArrayList;
+    private final List<Object> myArrayList;
+
+    /**
+     * The memoized serialized form of this JSONArray, or null if the
+     * serialization cache has not been enabled.
+     *
+     * @see #enableSerializationCache()
+     */
+    private JSONSerializationCache serializationCache;
 
     /**
      * Construct an empty JSONArray.
@@ -108,6 +115,11 @@ public class JSONArray implements Iterable<Object> {
         if (x.nextClean() != '[') {
             throw x.syntaxError("A JSONArray text must start with '['");
         }
+        final String hintKey = x.hintKey();
+        if (hintKey != null) {
+            this.ensureCapacity(x.arrayCapacity());
+            x.hintKey(hintKey + "[]");
+        }
         
         char nextChar = x.nextClean();
         if (nextChar == 0) {
@@ -135,17 +147,20 @@ public class JSONArray implements Iterable<Object> {
                         throw x.syntaxError("Expected a ',' or ']'");
                     }
                     if (nextChar == ']') {
+                        x.parsed(hintKey, this.myArrayList.size());
                         return;
                     }
                     x.back();
                     break;
                 case ']':
+                    x.parsed(hintKey, this.myArrayList.size());
                     return;
                 default:
                     throw x.syntaxError("Expected a ',' or ']'");
                 }
             }
         }
+        x.parsed(hintKey, 0);
     }
 
     /**
@@ -162,6 +177,23 @@ public class JSONArray implements Iterable<Object> {
         this(new JSONTokener(source));
     }
 
+    /**
+     * Construct a JSONArray from a source JSON text, parsing with a
+     * configuration.
+     *
+     * @param source
+     *            A string that begins with <code>[</code>&nbsp;<small>(left
+     *            bracket)</small> and ends with <code>]</code>
+     *            &nbsp;<small>(right bracket)</small>.
+     * @param config
+     *            The parser configuration.
+     * @throws JSONException
+     *             If there is a syntax error.
+     */
+    public JSONArray(String source, JSONParserConfiguration config) throws JSONException {
+        this(new JSONTokener(source, config));
+    }
+
     /**
      * Construct a JSONArray from a Collection.
      *
@@ -228,6 +260,39 @@ public class JSONArray implements Iterable<Object> {
         this.addAll(array, true);
     }
 
+    /**
+     * Construct a JSONArray viewing a list.
+     *
+     * @param elements
+     *            the elements of the view.
+     */
+    private JSONArray(JSONViews.ArrayElements elements) {
+        this.myArrayList = elements;
+    }
+
+    /**
+     * Make a JSONArray backed by a list, without copying it. Unlike
+     * {@link #JSONArray(Collection)}, which wraps all of the elements up
+     * front, the view wraps an element each time it is read, and reads
+     * nested maps and random access lists through views of their own, see
+     * {@link JSONObject#view(Map)}. Since a JSONArray reads its elements by
+     * index, the list should be a random access list.
+     * <p>
+     * The view reflects later changes to the list, and cannot be modified:
+     * <code>put</code> and <code>remove</code> throw
+     * <code>UnsupportedOperationException</code>.
+     *
+     * @param list
+     *            the list. If null, an empty JSONArray is returned.
+     * @return a JSONArray backed by the list.
+     */
+    public static JSONArray view(List<?> list) {
+        if (list == null) {
+            return new JSONArray();
+        }
+        return new JSONArray(new JSONViews.ArrayElements(list));
+    }
+
     /**
      * Construct a JSONArray with the specified initial capacity.
      *
@@ -572,19 +637,29 @@ public class JSONArray implements Iterable<Object> {
      * The JSONArray will be empty after this call returns.
      */
     public void clear() {
+        if (this.serializationCache != null) {
+            for (Object value : this.myArrayList) {
+                this.serializationCache.release(value);
+            }
+            this.serializationCache.invalidate();
+        }
         this.myArrayList.clear();
     }
 
     /**
-     * Get the optional object value associated with an index.
+     * Get the optional object value associated with an index. For a
+     * {@link JSONRaw} value this is its parsed value, a new copy each time if
+     * it is a JSONObject or JSONArray; the JSONRaw stays in place.
      *
      * @param index
      *            The index must be between 0 and length() - 1. If not, null is returned.
      * @return An object value, or null if there is no object at that index.
      */
     public Object opt(int index) {
-        return (index < 0 || index >= this.length()) ? null : this.myArrayList
-                .get(index);
+        if (index < 0 || index >= this.length()) {
+            return null;
+        }
+        return JSONRaw.contents(this.myArrayList.get(index));
     }
 
     /**
@@ -1043,6 +1118,10 @@ public class JSONArray implements Iterable<Object> {
     public JSONArray put(Object value) {
         JSONObject.testValidity(value);
         this.myArrayList.add(value);
+        if (this.serializationCache != null) {
+            this.serializationCache.adopt(value);
+            this.serializationCache.invalidate();
+        }
         return this;
     }
 
@@ -1189,7 +1268,12 @@ public class JSONArray implements Iterable<Object> {
         }
         if (index < this.length()) {
             JSONObject.testValidity(value);
-            this.myArrayList.set(index, value);
+            Object previous = this.myArrayList.set(index, value);
+            if (this.serializationCache != null) {
+                this.serializationCache.release(previous);
+                this.serializationCache.adopt(value);
+                this.serializationCache.invalidate();
+            }
             return this;
         }
         if(index == this.length()){
@@ -1198,7 +1282,7 @@ public class JSONArray implements Iterable<Object> {
         }
         // if we are inserting past the length, we want to grow the array all at once
         // instead of incrementally.
-        this.myArrayList.ensureCapacity(index + 1);
+        this.ensureCapacity(index + 1);
         while (index != this.length()) {
             // we don't need to test validity of NULL objects
             this.myArrayList.add(JSONObject.NULL);
@@ -1240,7 +1324,9 @@ public class JSONArray implements Iterable<Object> {
     public JSONArray putAll(JSONArray array) {
         // directly copy the elements from the source array to this one
         // as all wrapping should have been done already in the source.
+        final int from = this.myArrayList.size();
         this.myArrayList.addAll(array.myArrayList);
+        this.adoptFrom(from);
         return this;
     }
 
@@ -1345,9 +1431,15 @@ public class JSONArray implements Iterable<Object> {
      *         was no value.
      */
     public Object remove(int index) {
-        return index >= 0 && index < this.length()
-            ? this.myArrayList.remove(index)
-            : null;
+        if (index < 0 || index >= this.length()) {
+            return null;
+        }
+        Object previous = this.myArrayList.remove(index);
+        if (this.serializationCache != null) {
+            this.serializationCache.release(previous);
+            this.serializationCache.invalidate();
+        }
+        return previous;
     }
 
     /**
@@ -1366,8 +1458,8 @@ public class JSONArray implements Iterable<Object> {
             return false;
         }
         for (int i = 0; i < len; i += 1) {
-            Object valueThis = this.myArrayList.get(i);
-            Object valueOther = ((JSONArray)other).myArrayList.get(i);
+            Object valueThis = JSONRaw.contents(this.myArrayList.get(i));
+            Object valueOther = JSONRaw.contents(((JSONArray)other).myArrayList.get(i));
             if(valueThis == valueOther) {
             	continue;
             }
@@ -1429,6 +1521,9 @@ public class JSONArray implements Iterable<Object> {
     @Override
     public String toString() {
         try {
+            if (this.serializationCache != null) {
+                return this.serializedText();
+            }
             return this.toString(0);
         } catch (Exception e) {
             return null;
@@ -1513,6 +1608,79 @@ public class JSONArray implements Iterable<Object> {
      */
     public Writer write(Writer writer, int indentFactor, int indent)
             throws JSONException {
+        if (this.serializationCache != null && indentFactor == 0 && indent == 0) {
+            try {
+                writer.write(this.serializedText());
+                return writer;
+            } catch (IOException e) {
+                throw new JSONException(e);
+            }
+        }
+        return this.writeElements(writer, indentFactor, indent);
+    }
+
+    /**
+     * Write the parts of this JSONArray that a filter selects as compact
+     * JSON text, without copying them into a new JSONArray first.
+     * <p><b>
+     * Warning: This method assumes that the data structure is acyclical.
+     * </b>
+     *
+     * @param writer
+     *            Writes the serialized JSON
+     * @param filter
+     *            Selects the elements to write, and the parts of them.
+     * @return The writer.
+     * @throws JSONException if a called function has an error or a write error
+     * occurs
+     * @see JSONObject#write(Writer, JSONSerializationFilter)
+     */
+    public Writer write(Writer writer, JSONSerializationFilter filter)
+            throws JSONException {
+        if (filter == JSONSerializationFilter.ALL) {
+            return this.write(writer);
+        }
+        try {
+            boolean needsComma = false;
+            final int length = this.length();
+            writer.write('[');
+            for (int i = 0; i < length; i += 1) {
+                final JSONSerializationFilter nested = filter.element(i);
+                if (nested == null) {
+                    continue;
+                }
+                if (needsComma) {
+                    writer.write(',');
+                }
+                try {
+                    JSONObject.writeValue(writer, this.myArrayList.get(i), nested);
+                } catch (Exception e) {
+                    throw new JSONException("Unable to write JSONArray value at index: " + i, e);
+                }
+                needsComma = true;
+            }
+            writer.write(']');
+            return writer;
+        } catch (IOException e) {
+            throw new JSONException(e);
+        }
+    }
+
+    /**
+     * Write the contents of the JSONArray as JSON text to a writer without
+     * consulting the serialization cache.
+     *
+     * @param writer
+     *            Writes the serialized JSON
+     * @param indentFactor
+     *            The number of spaces to add to each level of indentation.
+     * @param indent
+     *            The indentation of the top level.
+     * @return The writer.
+     * @throws JSONException if a called function fails or unable to write
+     */
+    private Writer writeElements(Writer writer, int indentFactor, int indent)
+            throws JSONException {
         try {
             boolean needsComma = false;
             int length = this.length();
@@ -1581,6 +1749,36 @@ public class JSONArray implements Iterable<Object> {
         return results;
     }
 
+    /**
+     * Returns a java.util.List view of this array, which holds the elements
+     * the way {@link #toList()} does, without copying them. A nested
+     * JSONObject or JSONArray is seen as a Map or List view of its own, and
+     * <code>NULL</code> as <code>null</code>. The view reflects later changes
+     * to this array, and cannot be modified.
+     *
+     * @return a java.util.List view of this array
+     */
+    public List<Object> asList() {
+        return new JSONViews.ListView(this);
+    }
+
+    /**
+     * Returns a java.util.List containing the elements of this array bound to
+     * new instances of a class, as {@link JSONObject#toBean(Class)} binds
+     * them.
+     *
+     * @param <T>
+     *            the type of the elements.
+     * @param klass
+     *            the class of the elements.
+     * @return a java.util.List containing the bound elements of this array
+     * @throws JSONException
+     *             if an element cannot be bound to the class.
+     */
+    public <T> List<T> toList(Class<T> klass) throws JSONException {
+        return JSONBeanReader.toList(this, klass);
+    }
+
     /**
      * Check if JSONArray is empty.
      *
@@ -1590,6 +1788,122 @@ public class JSONArray implements Iterable<Object> {
         return this.myArrayList.isEmpty();
     }
 
+    /**
+     * Memoize the compact JSON text of this JSONArray. Once enabled,
+     * <code>toString()</code> and <code>write(Writer)</code> serialize the
+     * array only the first time and copy the stored text afterwards, until the
+     * array changes. The cache is enabled for every JSONObject and JSONArray
+     * nested in this one as well. {@link #fingerprint()} is memoized the same
+     * way.
+     *
+     * @see JSONObject#enableSerializationCache()
+     * @return this.
+     * @throws UnsupportedOperationException
+     *             if this JSONArray is a view, see {@link #view(List)}.
+     */
+    public JSONArray enableSerializationCache() {
+        if (this.isView()) {
+            throw new UnsupportedOperationException("A view cannot be cached.");
+        }
+        this.serializationCache();
+        return this;
+    }
+
+    /**
+     * Check whether this JSONArray is a view of a collection it does not own.
+     *
+     * @return true if this JSONArray was made by {@link #view(List)}.
+     */
+    boolean isView() {
+        return this.myArrayList instanceof JSONViews.ArrayElements;
+    }
+
+    /**
+     * Get the serialization cache of this JSONArray, enabling it first if
+     * necessary.
+     *
+     * @return the cache, never null.
+     */
+    JSONSerializationCache serializationCache() {
+        if (this.serializationCache == null) {
+            JSONSerializationCache cache = new JSONSerializationCache();
+            for (Object value : this.myArrayList) {
+                cache.adopt(value);
+            }
+            this.serializationCache = cache;
+        }
+        return this.serializationCache;
+    }
+
+    /**
+     * Compute a 64 bit structural hash of this JSONArray, without producing
+     * its text. JSONArrays that are {@link #similar(Object)} have the same
+     * fingerprint: the order of object members does not matter, and numbers
+     * hash by their value, so <code>2</code>, <code>2.0</code> and
+     * <code>2.00</code> are alike. Different JSONArrays can share a
+     * fingerprint, though rarely; the fingerprint is not a cryptographic hash.
+     * <p>
+     * With the serialization cache enabled the fingerprint is kept until the
+     * JSONArray or a nested container changes, so repeated calls are cheap.
+     *
+     * @return the fingerprint.
+     * @see #enableSerializationCache()
+     */
+    public long fingerprint() {
+        final JSONSerializationCache cache = this.serializationCache;
+        if (cache == null) {
+            return JSONFingerprint.of(this);
+        }
+        final Long cached = cache.fingerprint;
+        if (cached != null) {
+            return cached.longValue();
+        }
+        final long fingerprint = JSONFingerprint.of(this);
+        if (cache.isCacheable()) {
+            cache.fingerprint = Long.valueOf(fingerprint);
+        }
+        return fingerprint;
+    }
+
+    /**
+     * Get the compact JSON text of this JSONArray from the serialization
+     * cache, serializing it if it changed since it was last written.
+     *
+     * @return the compact JSON text.
+     * @throws JSONException
+     *             If the array contains an invalid number.
+     */
+    private String serializedText() throws JSONException {
+        final JSONSerializationCache cache = this.serializationCache;
+        String text = cache.text;
+        if (text == null) {
+            StringWriter sw = new StringWriter();
+            synchronized (sw.getBuffer()) {
+                text = this.writeElements(sw, 0, 0).toString();
+            }
+            if (cache.isCacheable()) {
+                cache.text = text;
+            }
+        }
+        return text;
+    }
+
+    /**
+     * Link values that were copied directly into the backing list to the
+     * serialization cache.
+     *
+     * @param from
+     *            the index of the first value that was added.
+     */
+    private void adoptFrom(int from) {
+        if (this.serializationCache != null) {
+            for (int i = from; i < this.myArrayList.size(); i += 1) {
+                this.serializationCache.adopt(this.myArrayList.get(i));
+            }
+            this.serializationCache.invalidate();
+        }
+    }
+
     /**
      * Add a collection's elements to the JSONArray.
      *
@@ -1601,7 +1915,7 @@ public class JSONArray implements Iterable<Object> {
      *            
      */
     private void addAll(Collection<?> collection, boolean wrap) {
-        this.myArrayList.ensureCapacity(this.myArrayList.size() + collection.size());
+        this.ensureCapacity(this.myArrayList.size() + collection.size());
         if (wrap) {
             for (Object o: collection){
                 this.put(JSONObject.wrap(o));
@@ -1651,23 +1965,33 @@ public class JSONArray implements Iterable<Object> {
      *            Thrown if the array parameter is null.
      */
     private void addAll(Object array, boolean wrap) throws JSONException {
-        if (array.getClass().isArray()) {
-            int length = Array.getLength(array);
-            this.myArrayList.ensureCapacity(this.myArrayList.size() + length);
+        if (array instanceof Object[]) {
+            final Object[] elements = (Object[]) array;
+            this.ensureCapacity(this.myArrayList.size() + elements.length);
             if (wrap) {
-                for (int i = 0; i < length; i += 1) {
-                    this.put(JSONObject.wrap(Array.get(array, i)));
+                for (Object element : elements) {
+                    this.put(JSONObject.wrap(element));
                 }
             } else {
-                for (int i = 0; i < length; i += 1) {
-                    this.put(Array.get(array, i));
+                for (Object element : elements) {
+                    this.put(element);
                 }
             }
+        } else if (array.getClass().isArray()) {
+            // boxed primitives need no wrapping
+            final int from = this.myArrayList.size();
+            try {
+                this.addPrimitives(array);
+            } finally {
+                this.adoptFrom(from);
+            }
         } else if (array instanceof JSONArray) {
             // use the built in array list `addAll` as all object
             // wrapping should have been completed in the original
             // JSONArray
+            final int from = this.myArrayList.size();
             this.myArrayList.addAll(((JSONArray)array).myArrayList);
+            this.adoptFrom(from);
         } else if (array instanceof Collection) {
             this.addAll((Collection<?>)array, wrap);
         } else if (array instanceof Iterable) {
@@ -1678,6 +2002,86 @@ public class JSONArray implements Iterable<Object> {
         }
     }
     
+    /**
+     * Make room for a number of elements, unless this array views a list.
+     *
+     * @param minCapacity
+     *            the number of elements.
+     */
+    private void ensureCapacity(int minCapacity) {
+        if (this.myArrayList instanceof ArrayList) {
+            ((ArrayList<Object>) this.myArrayList).ensureCapacity(minCapacity);
+        }
+    }
+
+    /**
+     * Add the elements of an array of primitives, without going through
+     * <code>java.lang.reflect.Array</code> for each of them.
+     *
+     * @param array
+     *            an array of primitives.
+     * @throws JSONException
+     *            If an element is a non-finite number.
+     */
+    private void addPrimitives(Object array) throws JSONException {
+        final List<Object> list = this.myArrayList;
+        if (array instanceof int[]) {
+            final int[] a = (int[]) array;
+            this.ensureCapacity(list.size() + a.length);
+            for (int e : a) {
+                list.add(Integer.valueOf(e));
+            }
+        } else if (array instanceof long[]) {
+            final long[] a = (long[]) array;
+            this.ensureCapacity(list.size() + a.length);
+            for (long e : a) {
+                list.add(Long.valueOf(e));
+            }
+        } else if (array instanceof double[]) {
+            final double[] a = (double[]) array;
+            this.ensureCapacity(list.size() + a.length);
+            for (double e : a) {
+                if (Double.isInfinite(e) || Double.isNaN(e)) {
+                    throw new JSONException("JSON does not allow non-finite numbers.");
+                }
+                list.add(Double.valueOf(e));
+            }
+        } else if (array instanceof float[]) {
+            final float[] a = (float[]) array;
+            this.ensureCapacity(list.size() + a.length);
+            for (float e : a) {
+                if (Float.isInfinite(e) || Float.isNaN(e)) {
+                    throw new JSONException("JSON does not allow non-finite numbers.");
+                }
+                list.add(Float.valueOf(e));
+            }
+        } else if (array instanceof boolean[]) {
+            final boolean[] a = (boolean[]) array;
+            this.ensureCapacity(list.size() + a.length);
+            for (boolean e : a) {
+                list.add(Boolean.valueOf(e));
+            }
+        } else if (array instanceof char[]) {
+            final char[] a = (char[]) array;
+            this.ensureCapacity(list.size() + a.length);
+            for (char e : a) {
+                list.add(Character.valueOf(e));
+            }
+        } else if (array instanceof short[]) {
+            final short[] a = (short[]) array;
+            this.ensureCapacity(list.size() + a.length);
+            for (short e : a) {
+                list.add(Short.valueOf(e));
+            }
+        } else {
+            final byte[] a = (byte[]) array;
+            this.ensureCapacity(list.size() + a.length);
+            for (byte e : a) {
+                list.add(Byte.valueOf(e));
+            }
+        }
+    }
+
     /**
      * Create a new JSONException in a common format for incorrect conversions.
      * @param idx index of the item
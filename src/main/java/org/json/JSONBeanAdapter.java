@@ -0,0 +1,76 @@
+package org.json;
+
+/*
+Copyright (c) 2002 JSON.org
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+The Software shall be used for Good, not Evil.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+
+
+/**
+ * Reads the properties of the instances of one bean class, the way
+ * {@link JSONObject#JSONObject(Object)} reads them through reflection.
+ * Adapters are generated at compile time by {@link JSONBeanProcessor}, and
+ * found at run time by their name: the adapter of the class
+ * <code>com.example.Outer$Inner</code> is
+ * <code>com.example.Outer_Inner_JSONBeanAdapter</code>. Adapters can also
+ * be registered with {@link JSONBeanAdapters#register}, which needs no
+ * reflection at all. A class without an adapter is read through reflection.
+ * <p>
+ * An adapter must have a public no-argument constructor, and must be safe
+ * to use from several threads.
+ *
+ * @author JSON.org
+ */
+public interface JSONBeanAdapter {
+
+    /**
+     * The suffix appended to the name of a bean class to name its adapter.
+     */
+    String SUFFIX = "_JSONBeanAdapter";
+
+    /**
+     * Get the class this adapter reads.
+     *
+     * @return the bean class.
+     */
+    Class<?> beanClass();
+
+    /**
+     * Get the keys of the properties, in the order they are read.
+     *
+     * @return a new array of the keys.
+     */
+    String[] keys();
+
+    /**
+     * Read a property of a bean.
+     *
+     * @param bean
+     *            an instance of the bean class.
+     * @param index
+     *            the index of the property's key in {@link #keys()}.
+     * @return the value returned by the getter, primitives boxed.
+     * @throws Exception
+     *             whatever the getter throws.
+     */
+    Object get(Object bean, int index) throws Exception;
+}
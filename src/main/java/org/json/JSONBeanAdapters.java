@@ -0,0 +1,86 @@
+package org.json;
+
+/*
+Copyright (c) 2002 JSON.org
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+The Software shall be used for Good, not Evil.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The {@link JSONBeanAdapter}s registered by the application. A registered
+ * adapter is used without looking up its class by name, so no reflection is
+ * involved in reading the bean. This is what a GraalVM native image wants:
+ * register the generated adapters once at startup, for example
+ * <pre>
+ * JSONBeanAdapters.register(new com.example.Order_JSONBeanAdapter(),
+ *         new com.example.Item_JSONBeanAdapter());</pre>
+ * and the bean classes need no reflection metadata of their own.
+ * <p>
+ * Registered adapters are kept for the life of the application, together
+ * with their bean classes.
+ *
+ * @author JSON.org
+ */
+public final class JSONBeanAdapters {
+
+    /**
+     * The registered adapters, by bean class.
+     */
+    private static final ConcurrentHashMap<Class<?>, JSONBeanAdapter> ADAPTERS =
+            new ConcurrentHashMap<Class<?>, JSONBeanAdapter>();
+
+    private JSONBeanAdapters() {
+    }
+
+    /**
+     * Register adapters. An adapter replaces any adapter registered before for
+     * the same bean class, and takes effect for beans read afterwards.
+     *
+     * @param adapters
+     *            the adapters.
+     * @throws NullPointerException
+     *             if an adapter, or its bean class, is null.
+     */
+    public static void register(JSONBeanAdapter... adapters) {
+        for (final JSONBeanAdapter adapter : adapters) {
+            final Class<?> beanClass = adapter.beanClass();
+            if (beanClass == null) {
+                throw new NullPointerException("Null bean class.");
+            }
+            ADAPTERS.put(beanClass, adapter);
+            JSONBeanInfo.forget(beanClass);
+        }
+    }
+
+    /**
+     * Get the adapter registered for a class.
+     *
+     * @param klass
+     *            the bean class.
+     * @return the adapter, or null if there is none.
+     */
+    static JSONBeanAdapter registered(Class<?> klass) {
+        return ADAPTERS.isEmpty() ? null : ADAPTERS.get(klass);
+    }
+}
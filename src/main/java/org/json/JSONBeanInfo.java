@@ -0,0 +1,588 @@
+package org.json;
+
+/*
+Copyright (c) 2002 JSON.org
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+The Software shall be used for Good, not Evil.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * The getters of a bean class and the JSON keys they map to, resolved once
+ * per class. Looking up the methods, the {@link JSONPropertyName} and
+ * {@link JSONPropertyIgnore} annotations along the class hierarchy, and
+ * deriving the key names is the same work for every instance of a class, so
+ * {@link JSONObject#JSONObject(Object)} only replays the result.
+ * <p>
+ * The cache is a <code>ClassValue</code>: the entry for a class is kept with
+ * the class itself, and goes away when the class is unloaded.
+ * <p>
+ * Each getter is read through an {@link Accessor} made along with the
+ * metadata. Where possible it is a <code>Function</code> spun by
+ * <code>LambdaMetafactory</code>, which the JIT can inline like a direct
+ * call. If the bean class cannot be linked from this package, it is a
+ * <code>MethodHandle</code>, and where method handles are not available
+ * either, plain <code>Method.invoke</code>. In a GraalVM native image,
+ * where classes cannot be spun at run time, the handle is used right away.
+ * <p>
+ * A class with a {@link JSONBeanAdapter}, registered with
+ * {@link JSONBeanAdapters} or generated by {@link JSONBeanProcessor}, is read
+ * through the adapter instead, and its getters are not looked up at all.
+ * <p>
+ * The setters and public fields that {@link JSONBeanReader} binds are
+ * resolved the first time an instance of the class is bound, since most
+ * classes are only ever read.
+ *
+ * @author JSON.org
+ */
+final class JSONBeanInfo {
+
+    private static final ClassValue<JSONBeanInfo> CACHE = new ClassValue<JSONBeanInfo>() {
+        @Override
+        protected JSONBeanInfo computeValue(Class<?> type) {
+            return new JSONBeanInfo(type);
+        }
+    };
+
+    /**
+     * Whether this is running as a GraalVM native image, which sets this
+     * property both while the image is built and when it runs.
+     */
+    private static final boolean NATIVE_IMAGE =
+            System.getProperty("org.graalvm.nativeimage.imagecode") != null;
+
+    /**
+     * The getters, in the order <code>populateMap</code> always used, or
+     * null if the class has an adapter.
+     */
+    private final Method[] getters;
+
+    /**
+     * The key of each getter.
+     */
+    final String[] keys;
+
+    /**
+     * The accessor reading each getter.
+     */
+    final Accessor[] accessors;
+
+    /**
+     * The class.
+     */
+    private final Class<?> klass;
+
+    /**
+     * The constructor and the setters, once resolved.
+     */
+    private volatile Binding binding;
+
+    private JSONBeanInfo(Class<?> klass) {
+        this.klass = klass;
+        final JSONBeanAdapter adapter = adapter(klass);
+        if (adapter != null) {
+            this.getters = null;
+            this.keys = adapter.keys();
+            this.accessors = new Accessor[this.keys.length];
+            for (int i = 0; i < this.keys.length; i += 1) {
+                this.accessors[i] = new AdapterAccessor(adapter, i);
+            }
+        } else {
+            final List<Method> getterList = new ArrayList<Method>();
+            final List<String> keyList = new ArrayList<String>();
+            findGetters(klass, getterList, keyList);
+            this.getters = getterList.toArray(new Method[getterList.size()]);
+            this.keys = keyList.toArray(new String[keyList.size()]);
+            this.accessors = new Accessor[this.getters.length];
+            for (int i = 0; i < this.getters.length; i += 1) {
+                this.accessors[i] = accessor(this.getters[i]);
+            }
+        }
+    }
+
+    /**
+     * Find the getters of a class and their keys.
+     *
+     * @param klass
+     *            the class.
+     * @param getterList
+     *            receives the getters.
+     * @param keyList
+     *            receives the key of each getter.
+     */
+    private static void findGetters(Class<?> klass, List<Method> getterList, List<String> keyList) {
+        // If klass is a System class then set includeSuperClass to false.
+        final boolean includeSuperClass = klass.getClassLoader() != null;
+
+        final Method[] methods = includeSuperClass ? klass.getMethods() : klass.getDeclaredMethods();
+        for (final Method method : methods) {
+            final int modifiers = method.getModifiers();
+            if (Modifier.isPublic(modifiers)
+                    && !Modifier.isStatic(modifiers)
+                    && method.getParameterTypes().length == 0
+                    && !method.isBridge()
+                    && method.getReturnType() != Void.TYPE
+                    && JSONObject.isValidMethodName(method.getName())) {
+                final String key = JSONObject.getKeyNameFromMethod(method);
+                if (key != null && !key.isEmpty()) {
+                    getterList.add(method);
+                    keyList.add(key);
+                }
+            }
+        }
+    }
+
+    /**
+     * Find the registered or generated adapter of a class.
+     *
+     * @param klass
+     *            the class.
+     * @return the adapter, or null if the class has none.
+     */
+    private static JSONBeanAdapter adapter(Class<?> klass) {
+        final JSONBeanAdapter registered = JSONBeanAdapters.registered(klass);
+        if (registered != null) {
+            return registered;
+        }
+        final ClassLoader loader = klass.getClassLoader();
+        if (loader == null || klass.isArray()) {
+            return null;
+        }
+        try {
+            final Class<?> adapterClass = Class.forName(
+                    klass.getName().replace('$', '_') + JSONBeanAdapter.SUFFIX, true, loader);
+            if (JSONBeanAdapter.class.isAssignableFrom(adapterClass)) {
+                final JSONBeanAdapter adapter =
+                        (JSONBeanAdapter) adapterClass.getConstructor().newInstance();
+                if (adapter.beanClass() == klass) {
+                    return adapter;
+                }
+            }
+        } catch (ClassNotFoundException e) {
+            // no adapter
+        } catch (ReflectiveOperationException e) {
+            // not usable, use reflection
+        } catch (RuntimeException e) {
+            // not usable, use reflection
+        } catch (LinkageError e) {
+            // not usable, use reflection
+        }
+        return null;
+    }
+
+    /**
+     * Get the getters of a class.
+     *
+     * @param klass
+     *            the class of a bean.
+     * @return the getters, shared by all callers.
+     */
+    static JSONBeanInfo of(Class<?> klass) {
+        return CACHE.get(klass);
+    }
+
+    /**
+     * Drop the cached getters of a class, so that they are resolved again the
+     * next time they are needed.
+     *
+     * @param klass
+     *            the class.
+     */
+    static void forget(Class<?> klass) {
+        CACHE.remove(klass);
+    }
+
+    /**
+     * Get the constructor and setters of the class.
+     *
+     * @return the binding, shared by all callers.
+     */
+    Binding binding() {
+        Binding result = this.binding;
+        if (result == null) {
+            // racing threads resolve equal bindings, any of them will do
+            result = new Binding(this);
+            this.binding = result;
+        }
+        return result;
+    }
+
+    /**
+     * The public no-argument constructor of a bean class and the setters of
+     * its properties, by key.
+     */
+    static final class Binding {
+
+        /**
+         * The public no-argument constructor, or null if there is none.
+         */
+        final Constructor<?> constructor;
+
+        /**
+         * The setters by key.
+         */
+        final Map<String, Setter> setters;
+
+        Binding(JSONBeanInfo info) {
+            final Class<?> klass = info.klass;
+            Constructor<?> ctor = null;
+            if (!klass.isInterface() && !Modifier.isAbstract(klass.getModifiers())) {
+                try {
+                    ctor = klass.getConstructor();
+                } catch (NoSuchMethodException e) {
+                    // not instantiable
+                } catch (SecurityException e) {
+                    // not instantiable
+                }
+            }
+            this.constructor = ctor;
+
+            // a getter named with @JSONPropertyName names its setter too, so
+            // that what a bean is written as can be bound back
+            Method[] getters = info.getters;
+            String[] keys = info.keys;
+            if (getters == null) {
+                // read through an adapter, the getters were not looked up
+                final List<Method> getterList = new ArrayList<Method>();
+                final List<String> keyList = new ArrayList<String>();
+                findGetters(klass, getterList, keyList);
+                getters = getterList.toArray(new Method[getterList.size()]);
+                keys = keyList.toArray(new String[keyList.size()]);
+            }
+            final Map<String, String> getterKeys = new HashMap<String, String>();
+            final Map<String, Class<?>> getterTypes = new HashMap<String, Class<?>>();
+            for (int i = 0; i < getters.length; i += 1) {
+                final String name = getters[i].getName();
+                if (name.startsWith("get")) {
+                    getterKeys.put(name.substring(3), keys[i]);
+                } else if (name.startsWith("is")) {
+                    getterKeys.put(name.substring(2), keys[i]);
+                }
+                getterTypes.put(keys[i], getters[i].getReturnType());
+            }
+
+            final Map<String, Member> members = new LinkedHashMap<String, Member>();
+            for (final Method method : klass.getMethods()) {
+                final int modifiers = method.getModifiers();
+                if (Modifier.isStatic(modifiers)
+                        || method.getParameterTypes().length != 1
+                        || method.isBridge()) {
+                    continue;
+                }
+                String key = JSONObject.getKeyNameFromSetter(method);
+                if (key == null || key.isEmpty()) {
+                    continue;
+                }
+                final String property = method.getName().substring(3);
+                if (key.equals(JSONObject.getKeyNameFromProperty(property))
+                        && getterKeys.containsKey(property)) {
+                    key = getterKeys.get(property);
+                }
+                final Member previous = members.get(key);
+                if (previous != null) {
+                    // of overloaded setters, prefer the one taking what the
+                    // getter returns
+                    final Class<?> type = getterTypes.get(key);
+                    if (type == null || method.getParameterTypes()[0] != type) {
+                        continue;
+                    }
+                }
+                members.put(key, method);
+            }
+            for (final Field field : klass.getFields()) {
+                final int modifiers = field.getModifiers();
+                if (!Modifier.isStatic(modifiers) && !Modifier.isFinal(modifiers)
+                        && !members.containsKey(field.getName())) {
+                    members.put(field.getName(), field);
+                }
+            }
+
+            this.setters = new HashMap<String, Setter>(members.size() * 2);
+            for (final Map.Entry<String, Member> entry : members.entrySet()) {
+                this.setters.put(entry.getKey(),
+                        new Setter(entry.getKey(), entry.getValue(), this.setters.size()));
+            }
+        }
+    }
+
+    /**
+     * Sets a property of a bean, through a setter or a public field.
+     */
+    static final class Setter {
+
+        /**
+         * The key of the property.
+         */
+        final String key;
+
+        /**
+         * The generic type of the property.
+         */
+        final Type type;
+
+        /**
+         * The number of the setter, from 0, among those of its class.
+         */
+        final int index;
+
+        /**
+         * The setter or the field.
+         */
+        private final Member member;
+
+        /**
+         * A handle of type <code>(Object,Object)void</code> setting the
+         * property, or null if there is none.
+         */
+        private final MethodHandle handle;
+
+        Setter(String key, Member member, int index) {
+            this.key = key;
+            this.member = member;
+            this.index = index;
+            this.type = member instanceof Method
+                    ? ((Method) member).getGenericParameterTypes()[0]
+                    : ((Field) member).getGenericType();
+            MethodHandle h;
+            try {
+                if (member instanceof Method) {
+                    h = MethodHandles.lookup().unreflect((Method) member);
+                } else {
+                    h = MethodHandles.lookup().unreflectSetter((Field) member);
+                }
+                h = h.asType(MethodType.methodType(void.class, Object.class, Object.class));
+            } catch (IllegalAccessException e) {
+                h = null;
+            } catch (RuntimeException e) {
+                h = null;
+            } catch (LinkageError e) {
+                h = null;
+            }
+            this.handle = h;
+        }
+
+        /**
+         * Set the property.
+         *
+         * @param bean
+         *            the bean.
+         * @param value
+         *            the value, of the type of the property.
+         * @throws Throwable
+         *             whatever the setter throws, or if it cannot be called.
+         */
+        void set(Object bean, Object value) throws Throwable {
+            if (this.handle != null) {
+                this.handle.invokeExact(bean, value);
+            } else if (this.member instanceof Method) {
+                try {
+                    ((Method) this.member).invoke(bean, value);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+            } else {
+                ((Field) this.member).set(bean, value);
+            }
+        }
+    }
+
+    /**
+     * Reads a getter of a bean. Whatever the getter throws is reported as an
+     * <code>InvocationTargetException</code>, just like
+     * <code>Method.invoke</code> does.
+     */
+    abstract static class Accessor {
+        /**
+         * Call the getter.
+         *
+         * @param bean
+         *            the bean.
+         * @return the value returned by the getter, primitives boxed.
+         * @throws IllegalAccessException
+         *             if the getter is not accessible.
+         * @throws InvocationTargetException
+         *             if the getter throws.
+         */
+        abstract Object get(Object bean) throws IllegalAccessException, InvocationTargetException;
+    }
+
+    /**
+     * Make the fastest accessor that works for a getter.
+     *
+     * @param method
+     *            the getter.
+     * @return the accessor.
+     */
+    private static Accessor accessor(Method method) {
+        final MethodHandle handle;
+        try {
+            handle = MethodHandles.lookup().unreflect(method);
+        } catch (IllegalAccessException e) {
+            return new ReflectiveAccessor(method);
+        } catch (RuntimeException e) {
+            return new ReflectiveAccessor(method);
+        } catch (LinkageError e) {
+            return new ReflectiveAccessor(method);
+        }
+        if (!NATIVE_IMAGE
+                && isVisible(method.getDeclaringClass()) && isVisible(method.getReturnType())) {
+            try {
+                final CallSite site = LambdaMetafactory.metafactory(MethodHandles.lookup(),
+                        "apply", MethodType.methodType(Function.class),
+                        MethodType.methodType(Object.class, Object.class),
+                        handle, handle.type().wrap());
+                @SuppressWarnings("unchecked")
+                final Function<Object, Object> function =
+                        (Function<Object, Object>) site.getTarget().invokeExact();
+                return new FunctionAccessor(function);
+            } catch (Throwable e) {
+                // not supported here, e.g. in a native image; use the handle
+            }
+        }
+        return new HandleAccessor(handle.asType(MethodType.methodType(Object.class, Object.class)));
+    }
+
+    /**
+     * Tell if code spun in this package can link against a class. A bean
+     * loaded by another class loader, a web application's for instance, may
+     * not be visible from here.
+     *
+     * @param klass
+     *            a class.
+     * @return true if the class resolves to itself from this class loader.
+     */
+    private static boolean isVisible(Class<?> klass) {
+        while (klass.isArray()) {
+            klass = klass.getComponentType();
+        }
+        if (klass.isPrimitive()) {
+            return true;
+        }
+        if (!Modifier.isPublic(klass.getModifiers())) {
+            return false;
+        }
+        try {
+            return Class.forName(klass.getName(), false, JSONBeanInfo.class.getClassLoader()) == klass;
+        } catch (ClassNotFoundException e) {
+            return false;
+        } catch (LinkageError e) {
+            return false;
+        }
+    }
+
+    /**
+     * Reads a getter through a <code>Function</code> made by
+     * <code>LambdaMetafactory</code>.
+     */
+    private static final class FunctionAccessor extends Accessor {
+        private final Function<Object, Object> function;
+
+        FunctionAccessor(Function<Object, Object> function) {
+            this.function = function;
+        }
+
+        @Override
+        Object get(Object bean) throws InvocationTargetException {
+            try {
+                return this.function.apply(bean);
+            } catch (Throwable e) {
+                throw new InvocationTargetException(e);
+            }
+        }
+    }
+
+    /**
+     * Reads a getter through a <code>MethodHandle</code> of type
+     * <code>(Object)Object</code>.
+     */
+    private static final class HandleAccessor extends Accessor {
+        private final MethodHandle handle;
+
+        HandleAccessor(MethodHandle handle) {
+            this.handle = handle;
+        }
+
+        @Override
+        Object get(Object bean) throws InvocationTargetException {
+            try {
+                return this.handle.invokeExact(bean);
+            } catch (Throwable e) {
+                throw new InvocationTargetException(e);
+            }
+        }
+    }
+
+    /**
+     * Reads a getter through a generated {@link JSONBeanAdapter}.
+     */
+    private static final class AdapterAccessor extends Accessor {
+        private final JSONBeanAdapter adapter;
+        private final int index;
+
+        AdapterAccessor(JSONBeanAdapter adapter, int index) {
+            this.adapter = adapter;
+            this.index = index;
+        }
+
+        @Override
+        Object get(Object bean) throws InvocationTargetException {
+            try {
+                return this.adapter.get(bean, this.index);
+            } catch (Throwable e) {
+                throw new InvocationTargetException(e);
+            }
+        }
+    }
+
+    /**
+     * Reads a getter with <code>Method.invoke</code>.
+     */
+    private static final class ReflectiveAccessor extends Accessor {
+        private final Method method;
+
+        ReflectiveAccessor(Method method) {
+            this.method = method;
+        }
+
+        @Override
+        Object get(Object bean) throws IllegalAccessException, InvocationTargetException {
+            return this.method.invoke(bean);
+        }
+    }
+}
@@ -0,0 +1,491 @@
+package org.json;
+
+/*
+Copyright (c) 2002 JSON.org
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+The Software shall be used for Good, not Evil.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Messager;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.annotation.processing.SupportedOptions;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+import javax.tools.StandardLocation;
+
+/**
+ * An annotation processor that generates a {@link JSONBeanAdapter} for each
+ * class annotated with {@link JSONBean}, and for each class with a getter
+ * annotated with {@link JSONPropertyName}. The adapter calls the getters
+ * directly, so that {@link JSONObject#JSONObject(Object)} neither looks the
+ * getters up nor invokes them through reflection.
+ * <p>
+ * The getters and their keys are found with the rules of
+ * <code>JSONObject</code>: public, non-static methods without parameters
+ * named <code>getXxx</code> or <code>isXxx</code>, including the inherited
+ * ones, named or ignored with {@link JSONPropertyName} and
+ * {@link JSONPropertyIgnore} along the class hierarchy. Since the adapter
+ * is made when the bean is compiled, a superclass from another library that
+ * later gains getters is not read through them until the bean is compiled
+ * again.
+ * <p>
+ * The processor is not registered as a service, so that compiling against
+ * this library does not run it. Name it to the compiler with
+ * <code>-processor org.json.JSONBeanProcessor</code>, and put this library
+ * on the processor path. Abstract classes, interfaces, enums, and classes
+ * that cannot be referred to from their own package get no adapter.
+ * <p>
+ * Along with the adapters the processor writes GraalVM reachability
+ * metadata, <code>META-INF/native-image/&lt;dir&gt;/reflect-config.json</code>,
+ * which lets a native image find the adapters by name. The directory is
+ * given with <code>-Aorg.json.nativeImageDir=com.example/app</code>, and is
+ * <code>&lt;package of the first bean&gt;/json-bean-adapters</code> otherwise.
+ * Applications registering the adapters with {@link JSONBeanAdapters} do not
+ * need the metadata.
+ *
+ * @author JSON.org
+ */
+@SupportedAnnotationTypes({ "org.json.JSONBean", "org.json.JSONPropertyName" })
+@SupportedOptions(JSONBeanProcessor.NATIVE_IMAGE_DIR)
+public class JSONBeanProcessor extends AbstractProcessor {
+
+    /**
+     * The names of the classes adapters were generated for.
+     */
+    private final Set<String> generated = new HashSet<String>();
+
+    /**
+     * The option naming the directory of the reachability metadata.
+     */
+    static final String NATIVE_IMAGE_DIR = "org.json.nativeImageDir";
+
+    /**
+     * The names of the adapters written.
+     */
+    private final List<String> adapterNames = new ArrayList<String>();
+
+    /**
+     * The classes of the adapters written.
+     */
+    private final List<Element> adapterOrigins = new ArrayList<Element>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        final Messager messager = this.processingEnv.getMessager();
+        if (roundEnv.processingOver()) {
+            if (!this.adapterNames.isEmpty()) {
+                this.writeReflectConfig();
+            }
+            return false;
+        }
+        final Set<TypeElement> beans = new LinkedHashSet<TypeElement>();
+        for (final Element element : roundEnv.getElementsAnnotatedWith(JSONBean.class)) {
+            final TypeElement type = (TypeElement) element;
+            final String problem = problem(type);
+            if (problem != null) {
+                messager.printMessage(Diagnostic.Kind.ERROR,
+                        "@JSONBean " + type.getQualifiedName() + " " + problem + ".", type);
+            } else {
+                beans.add(type);
+            }
+        }
+        for (final Element element : roundEnv.getElementsAnnotatedWith(JSONPropertyName.class)) {
+            final Element enclosing = element.getEnclosingElement();
+            if (enclosing instanceof TypeElement && problem((TypeElement) enclosing) == null) {
+                beans.add((TypeElement) enclosing);
+            }
+        }
+        for (final TypeElement type : beans) {
+            if (this.generated.add(type.getQualifiedName().toString())) {
+                this.generate(type);
+            }
+        }
+        // the annotations are used at run time too
+        return false;
+    }
+
+    /**
+     * Tell why a type cannot have an adapter.
+     *
+     * @param type
+     *            the type.
+     * @return the reason, or null if it can have one.
+     */
+    private static String problem(TypeElement type) {
+        if (type.getKind() != ElementKind.CLASS) {
+            return "is not a class";
+        }
+        if (type.getModifiers().contains(Modifier.ABSTRACT)) {
+            return "is abstract";
+        }
+        for (Element e = type; e instanceof TypeElement; e = e.getEnclosingElement()) {
+            final TypeElement t = (TypeElement) e;
+            if (t.getNestingKind() == NestingKind.LOCAL
+                    || t.getNestingKind() == NestingKind.ANONYMOUS) {
+                return "is a local class";
+            }
+            if (t.getModifiers().contains(Modifier.PRIVATE)) {
+                return "is private";
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Generate the adapter of a class.
+     *
+     * @param type
+     *            the class.
+     */
+    private void generate(TypeElement type) {
+        final Elements elements = this.processingEnv.getElementUtils();
+        final Messager messager = this.processingEnv.getMessager();
+        final List<ExecutableElement> getters = new ArrayList<ExecutableElement>();
+        final List<String> keys = new ArrayList<String>();
+        for (final ExecutableElement method : this.methods(type)) {
+            final Set<Modifier> modifiers = method.getModifiers();
+            if (modifiers.contains(Modifier.PUBLIC)
+                    && !modifiers.contains(Modifier.STATIC)
+                    && method.getParameters().isEmpty()
+                    && method.getReturnType().getKind() != TypeKind.VOID
+                    && JSONObject.isValidMethodName(method.getSimpleName().toString())) {
+                final String key = this.getKeyNameFromMethod(method);
+                if (key != null && !key.isEmpty()) {
+                    if (!this.throwsOnlyExceptions(method)) {
+                        messager.printMessage(Diagnostic.Kind.WARNING, "No JSONBeanAdapter for "
+                                + type.getQualifiedName() + ", " + method.getSimpleName()
+                                + "() throws more than exceptions.", type);
+                        return;
+                    }
+                    getters.add(method);
+                    keys.add(key);
+                }
+            }
+        }
+
+        final String binaryName = elements.getBinaryName(type).toString();
+        final String adapterName = binaryName.replace('$', '_') + JSONBeanAdapter.SUFFIX;
+        final String packageName = elements.getPackageOf(type).getQualifiedName().toString();
+        final String simpleName = adapterName.substring(adapterName.lastIndexOf('.') + 1);
+        final String beanName = type.getQualifiedName().toString();
+
+        final StringBuilder sb = new StringBuilder();
+        if (!packageName.isEmpty()) {
+            sb.append("package ").append(packageName).append(";\n\n");
+        }
+        sb.append("/**\n * Reads the properties of {@link ").append(beanName)
+                .append("}.\n * Generated by org.json.JSONBeanProcessor.\n */\n");
+        sb.append("public final class ").append(simpleName)
+                .append(" implements org.json.JSONBeanAdapter {\n\n");
+        sb.append("    private static final String[] KEYS = {");
+        for (int i = 0; i < keys.size(); i += 1) {
+            sb.append(i == 0 ? " " : ", ");
+            appendLiteral(sb, keys.get(i));
+        }
+        sb.append(keys.isEmpty() ? "};\n\n" : " };\n\n");
+        sb.append("    @Override\n    public Class<?> beanClass() {\n        return ")
+                .append(beanName).append(".class;\n    }\n\n");
+        sb.append("    @Override\n    public String[] keys() {\n")
+                .append("        return KEYS.clone();\n    }\n\n");
+        sb.append("    @Override\n    public Object get(Object bean, int index) throws Exception {\n");
+        if (!getters.isEmpty()) {
+            sb.append("        final ").append(beanName).append(" b = (").append(beanName)
+                    .append(") bean;\n");
+            sb.append("        switch (index) {\n");
+            for (int i = 0; i < getters.size(); i += 1) {
+                sb.append("        case ").append(i).append(":\n            return b.")
+                        .append(getters.get(i).getSimpleName()).append("();\n");
+            }
+            sb.append("        default:\n            break;\n        }\n");
+        }
+        sb.append("        throw new IndexOutOfBoundsException(\"No property \" + index);\n");
+        sb.append("    }\n}\n");
+
+        try {
+            final Writer writer = this.processingEnv.getFiler()
+                    .createSourceFile(adapterName, type).openWriter();
+            try {
+                writer.write(sb.toString());
+            } finally {
+                writer.close();
+            }
+            this.adapterNames.add(adapterName);
+            this.adapterOrigins.add(type);
+        } catch (IOException e) {
+            messager.printMessage(Diagnostic.Kind.ERROR, "Unable to write " + adapterName
+                    + ": " + e.getMessage(), type);
+        }
+    }
+
+    /**
+     * Write the reachability metadata registering the no-argument
+     * constructors of the adapters written.
+     */
+    private void writeReflectConfig() {
+        String dir = this.processingEnv.getOptions().get(NATIVE_IMAGE_DIR);
+        if (dir == null || dir.isEmpty()) {
+            final String first = this.adapterNames.get(0);
+            final int dot = first.lastIndexOf('.');
+            dir = (dot < 0 ? "default" : first.substring(0, dot)) + "/json-bean-adapters";
+        }
+        final String path = "META-INF/native-image/" + dir + "/reflect-config.json";
+
+        final StringBuilder sb = new StringBuilder("[\n");
+        for (int i = 0; i < this.adapterNames.size(); i += 1) {
+            sb.append(i == 0 ? "  {\n" : "  },\n  {\n");
+            sb.append("    \"name\": ").append(JSONObject.quote(this.adapterNames.get(i)))
+                    .append(",\n");
+            sb.append("    \"methods\": [ { \"name\": \"<init>\", \"parameterTypes\": [] } ]\n");
+        }
+        sb.append("  }\n]\n");
+
+        try {
+            final Writer writer = this.processingEnv.getFiler().createResource(
+                    StandardLocation.CLASS_OUTPUT, "", path,
+                    this.adapterOrigins.toArray(new Element[this.adapterOrigins.size()]))
+                    .openWriter();
+            try {
+                writer.write(sb.toString());
+            } finally {
+                writer.close();
+            }
+        } catch (IOException e) {
+            this.processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    "Unable to write " + path + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Append a string as a Java string literal.
+     *
+     * @param sb
+     *            the source being generated.
+     * @param string
+     *            the string.
+     */
+    private static void appendLiteral(StringBuilder sb, String string) {
+        sb.append('"');
+        for (int i = 0; i < string.length(); i += 1) {
+            final char c = string.charAt(i);
+            if (c == '"' || c == '\\') {
+                sb.append('\\').append(c);
+            } else if (c >= ' ' && c < 0x7f) {
+                sb.append(c);
+            } else if (c < 0x80) {
+                // a unicode escape of a line break would break the line
+                sb.append(String.format("\\%03o", Integer.valueOf(c)));
+            } else {
+                sb.append(String.format("\\u%04x", Integer.valueOf(c)));
+            }
+        }
+        sb.append('"');
+    }
+
+    /**
+     * Get the public methods of a type, declared and inherited, the way
+     * <code>Class.getMethods()</code> gets them, less those that are
+     * overridden.
+     *
+     * @param type
+     *            the type.
+     * @return the methods.
+     */
+    private List<ExecutableElement> methods(TypeElement type) {
+        final Elements elements = this.processingEnv.getElementUtils();
+        final List<ExecutableElement> all =
+                ElementFilter.methodsIn(elements.getAllMembers(type));
+        final List<ExecutableElement> methods = new ArrayList<ExecutableElement>();
+        for (final ExecutableElement method : all) {
+            if (!method.getModifiers().contains(Modifier.PUBLIC)) {
+                continue;
+            }
+            boolean overridden = false;
+            for (final ExecutableElement other : all) {
+                if (other != method && elements.overrides(other, method, type)) {
+                    overridden = true;
+                    break;
+                }
+            }
+            if (!overridden) {
+                methods.add(method);
+            }
+        }
+        return methods;
+    }
+
+    /**
+     * Find a public method without parameters, like
+     * <code>Class.getMethod(name)</code> finds it.
+     *
+     * @param type
+     *            the type to search.
+     * @param name
+     *            the name of the method.
+     * @return the method, or null if there is none.
+     */
+    private ExecutableElement getMethod(TypeMirror type, CharSequence name) {
+        if (type.getKind() != TypeKind.DECLARED) {
+            return null;
+        }
+        for (final ExecutableElement method
+                : this.methods((TypeElement) ((DeclaredType) type).asElement())) {
+            if (method.getParameters().isEmpty() && method.getSimpleName().contentEquals(name)) {
+                return method;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Get the key of a getter, like <code>JSONObject</code> gets it.
+     *
+     * @param method
+     *            the getter.
+     * @return the key, or null if the method is not a getter or is ignored.
+     */
+    private String getKeyNameFromMethod(ExecutableElement method) {
+        final int ignoreDepth = this.getAnnotationDepth(method, JSONPropertyIgnore.class);
+        if (ignoreDepth > 0) {
+            final int forcedNameDepth = this.getAnnotationDepth(method, JSONPropertyName.class);
+            if (forcedNameDepth < 0 || ignoreDepth <= forcedNameDepth) {
+                // the hierarchy asked to ignore, and the nearest name override
+                // was higher or non-existent
+                return null;
+            }
+        }
+        final JSONPropertyName annotation = this.getAnnotation(method);
+        if (annotation != null && annotation.value() != null && !annotation.value().isEmpty()) {
+            return annotation.value();
+        }
+        final String name = method.getSimpleName().toString();
+        if (name.startsWith("get") && name.length() > 3) {
+            return JSONObject.getKeyNameFromProperty(name.substring(3));
+        } else if (name.startsWith("is") && name.length() > 2) {
+            return JSONObject.getKeyNameFromProperty(name.substring(2));
+        }
+        return null;
+    }
+
+    /**
+     * Find the {@link JSONPropertyName} of a method or of what it overrides,
+     * searching the class hierarchy the way <code>JSONObject</code> does.
+     */
+    private JSONPropertyName getAnnotation(ExecutableElement method) {
+        final JSONPropertyName annotation = method.getAnnotation(JSONPropertyName.class);
+        if (annotation != null) {
+            return annotation;
+        }
+        final TypeElement c = (TypeElement) method.getEnclosingElement();
+        if (c.getSuperclass().getKind() == TypeKind.NONE) {
+            return null;
+        }
+        for (final TypeMirror i : c.getInterfaces()) {
+            final ExecutableElement im = this.getMethod(i, method.getSimpleName());
+            if (im != null) {
+                return this.getAnnotation(im);
+            }
+        }
+        final ExecutableElement sm = this.getMethod(c.getSuperclass(), method.getSimpleName());
+        return sm == null ? null : this.getAnnotation(sm);
+    }
+
+    /**
+     * Find the depth of an annotation on a method or on what it overrides,
+     * searching the class hierarchy the way <code>JSONObject</code> does.
+     *
+     * @return the depth, or -1 if the annotation is not on the method.
+     */
+    private int getAnnotationDepth(ExecutableElement method,
+            Class<? extends java.lang.annotation.Annotation> annotationClass) {
+        if (method.getAnnotation(annotationClass) != null) {
+            return 1;
+        }
+        final TypeElement c = (TypeElement) method.getEnclosingElement();
+        if (c.getSuperclass().getKind() == TypeKind.NONE) {
+            return -1;
+        }
+        for (final TypeMirror i : c.getInterfaces()) {
+            final ExecutableElement im = this.getMethod(i, method.getSimpleName());
+            if (im != null) {
+                final int d = this.getAnnotationDepth(im, annotationClass);
+                if (d > 0) {
+                    // since the annotation was on the interface, add 1
+                    return d + 1;
+                }
+            }
+        }
+        final ExecutableElement sm = this.getMethod(c.getSuperclass(), method.getSimpleName());
+        if (sm != null) {
+            final int d = this.getAnnotationDepth(sm, annotationClass);
+            if (d > 0) {
+                // since the annotation was on the superclass, add 1
+                return d + 1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Tell if a method declares nothing but exceptions, which the adapter
+     * can pass on.
+     */
+    private boolean throwsOnlyExceptions(ExecutableElement method) {
+        final Types types = this.processingEnv.getTypeUtils();
+        final TypeMirror exception = this.processingEnv.getElementUtils()
+                .getTypeElement("java.lang.Exception").asType();
+        for (final TypeMirror thrown : method.getThrownTypes()) {
+            if (!types.isAssignable(thrown, exception)
+                    && !types.isAssignable(thrown, this.processingEnv.getElementUtils()
+                            .getTypeElement("java.lang.Error").asType())) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
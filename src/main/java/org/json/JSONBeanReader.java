@@ -0,0 +1,676 @@
+package org.json;
+
+/*
+Copyright (c) 2002 JSON.org
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+The Software shall be used for Good, not Evil.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+
+
+import java.lang.reflect.Array;
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.lang.reflect.WildcardType;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Binds JSON values to Java objects, the reverse of
+ * {@link JSONObject#JSONObject(Object)}. JSONObjects are bound to beans and
+ * maps, JSONArrays to lists, sets and arrays, and the values in them to the
+ * types of the properties, elements or map values they are bound to.
+ * <p>
+ * A bean needs a public no-argument constructor. Each member of the
+ * JSONObject is bound through the public setter whose key, derived like
+ * the key of a getter, is the member's name, or else through the public
+ * field of that name. {@link JSONPropertyName} and
+ * {@link JSONPropertyIgnore} on setters are honored, and a setter takes the
+ * name its getter was given, so that a bean written with
+ * <code>new JSONObject(bean)</code> binds back. Members without a setter
+ * are ignored, and properties without a member are left alone. The
+ * setters of a class are looked up once and kept with it.
+ * <p>
+ * Values are converted the way the getters of JSONObject convert them, so
+ * <code>"12"</code> binds to an <code>int</code> as
+ * <code>getInt</code> would read it, and a number with a fraction is
+ * truncated. Collections and maps declared with interface types are bound
+ * to <code>ArrayList</code>, <code>LinkedHashSet</code>,
+ * <code>TreeSet</code>, <code>LinkedList</code>,
+ * <code>LinkedHashMap</code> or <code>TreeMap</code>. Properties declared
+ * as <code>Object</code> receive maps, lists and plain values, as
+ * <code>toMap()</code> gives them.
+ * <p>
+ * The <code>read</code> methods bind straight from the tokens of a
+ * <code>JSONTokener</code>, without building JSONObjects and JSONArrays for
+ * the parts that are bound to beans, maps, collections and arrays. They
+ * accept what <code>JSONObject(JSONTokener)</code> accepts, and skip
+ * members that do not bind to anything.
+ *
+ * @author JSON.org
+ */
+public class JSONBeanReader {
+
+    /**
+     * Bind a JSONObject to a new instance of a class.
+     *
+     * @param <T>
+     *            the type of the result.
+     * @param jsonObject
+     *            the JSONObject.
+     * @param klass
+     *            a bean class, or a map class.
+     * @return the new instance.
+     * @throws JSONException
+     *             if the class cannot be instantiated, or a value does not
+     *             fit the property it is bound to.
+     */
+    public static <T> T toBean(JSONObject jsonObject, Class<T> klass) throws JSONException {
+        return cast(toValue(jsonObject, klass), klass);
+    }
+
+    /**
+     * Bind the elements of a JSONArray to new instances of a class.
+     *
+     * @param <T>
+     *            the type of the elements.
+     * @param jsonArray
+     *            the JSONArray.
+     * @param klass
+     *            the class of the elements.
+     * @return a new list of the elements.
+     * @throws JSONException
+     *             if an element cannot be bound.
+     */
+    public static <T> List<T> toList(JSONArray jsonArray, Class<T> klass) throws JSONException {
+        final int length = jsonArray.length();
+        final List<T> list = new ArrayList<T>(length);
+        for (int i = 0; i < length; i += 1) {
+            list.add(cast(convert(jsonArray.opt(i), klass, Integer.valueOf(i)), klass));
+        }
+        return list;
+    }
+
+    /**
+     * Bind a value to a type, which can be generic, like
+     * <code>Map&lt;String, List&lt;Item&gt;&gt;</code>.
+     *
+     * @param value
+     *            a JSONObject, JSONArray or any other value a JSONObject
+     *            can hold.
+     * @param type
+     *            the type.
+     * @return the value bound to the type.
+     * @throws JSONException
+     *             if the value does not fit the type.
+     */
+    public static Object toValue(Object value, Type type) throws JSONException {
+        return convert(value, type, null);
+    }
+
+    /**
+     * Read the next value from a tokener and bind it to a new instance of
+     * a class.
+     *
+     * @param <T>
+     *            the type of the result.
+     * @param x
+     *            the tokener.
+     * @param klass
+     *            the class.
+     * @return the new instance.
+     * @throws JSONException
+     *             if the text is not valid, or a value does not fit the
+     *             property it is bound to.
+     */
+    public static <T> T read(JSONTokener x, Class<T> klass) throws JSONException {
+        return cast(read(x, (Type) klass, null), klass);
+    }
+
+    /**
+     * Read the next value from a tokener, which must be an array, and bind
+     * its elements to new instances of a class.
+     *
+     * @param <T>
+     *            the type of the elements.
+     * @param x
+     *            the tokener.
+     * @param klass
+     *            the class of the elements.
+     * @return a new list of the elements.
+     * @throws JSONException
+     *             if the text is not valid, or an element cannot be bound.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> List<T> readList(JSONTokener x, Class<T> klass) throws JSONException {
+        final char c = x.nextClean();
+        x.back();
+        if (c != '[') {
+            throw x.syntaxError("A JSONArray text must start with '['");
+        }
+        final List<Object> list = new ArrayList<Object>();
+        readArray(x, list, klass);
+        return (List<T>) list;
+    }
+
+    /**
+     * Read the next value from a tokener and bind it to a type, which can be
+     * generic.
+     *
+     * @param x
+     *            the tokener.
+     * @param type
+     *            the type.
+     * @return the value bound to the type.
+     * @throws JSONException
+     *             if the text is not valid, or a value does not fit the type.
+     */
+    public static Object read(JSONTokener x, Type type) throws JSONException {
+        return read(x, type, null);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T cast(Object value, Class<T> klass) {
+        // primitive classes cannot cast, their values are boxed anyway
+        return klass.isPrimitive() ? (T) value : klass.cast(value);
+    }
+
+    /**
+     * Read the next value and bind it.
+     *
+     * @param type
+     *            the type to bind to, or null to skip the value.
+     * @param where
+     *            the key or the index of the value, for messages.
+     */
+    private static Object read(JSONTokener x, Type type, Object where) throws JSONException {
+        final char c = x.nextClean();
+        x.back();
+        final Class<?> raw = type == null ? null : rawType(type);
+        if (c == '{' && (raw == null || Map.class.isAssignableFrom(raw) || isBean(raw))) {
+            return readObject(x, type, raw, where);
+        }
+        if (c == '[' && (raw == null || raw.isArray() || isCollection(raw))) {
+            if (raw == null) {
+                readArray(x, null, null);
+                return null;
+            }
+            if (raw.isArray()) {
+                final List<Object> list = new ArrayList<Object>();
+                final Type componentType = componentType(type);
+                readArray(x, list, componentType);
+                return toArray(list, componentType);
+            }
+            final Collection<Object> collection = newCollection(raw, type, where);
+            readArray(x, collection, typeArgument(type, 0));
+            return collection;
+        }
+        final Object value = x.nextValue();
+        return type == null ? null : convert(value, type, where);
+    }
+
+    /**
+     * Read an object into a new map or bean, like
+     * <code>JSONObject(JSONTokener)</code> reads it.
+     */
+    @SuppressWarnings("unchecked")
+    private static Object readObject(JSONTokener x, Type type, Class<?> raw, Object where)
+            throws JSONException {
+        if (x.nextClean() != '{') {
+            throw x.syntaxError("A JSONObject text must begin with '{'");
+        }
+        Object target = null;
+        Map<Object, Object> map = null;
+        Type keyType = null;
+        Type valueType = null;
+        JSONBeanInfo.Binding binding = null;
+        boolean[] seen = null;
+        if (raw != null) {
+            if (Map.class.isAssignableFrom(raw)) {
+                map = newMap(raw, type, where);
+                keyType = typeArgument(type, 0);
+                valueType = typeArgument(type, 1);
+                target = map;
+            } else {
+                binding = JSONBeanInfo.of(raw).binding();
+                target = newInstance(binding, raw);
+                seen = new boolean[binding.setters.size()];
+            }
+        }
+        for (;;) {
+            switch (x.nextClean()) {
+            case 0:
+                throw x.syntaxError("A JSONObject text must end with '}'");
+            case '}':
+                return target;
+            default:
+                x.back();
+            }
+            final String key = x.nextValue().toString();
+            if (x.nextClean() != ':') {
+                throw x.syntaxError("Expected a ':' after a key");
+            }
+            final JSONBeanInfo.Setter setter = binding == null ? null : binding.setters.get(key);
+            if (map != null) {
+                final Object mapKey = convert(key, keyType, key);
+                if (map.containsKey(mapKey)) {
+                    throw x.syntaxError("Duplicate key \"" + key + "\"");
+                }
+                map.put(mapKey, read(x, valueType, key));
+            } else if (setter != null) {
+                if (seen[setter.index]) {
+                    throw x.syntaxError("Duplicate key \"" + key + "\"");
+                }
+                seen[setter.index] = true;
+                set(target, setter, read(x, setter.type, key));
+            } else {
+                read(x, null, key);
+            }
+            switch (x.nextClean()) {
+            case ';':
+            case ',':
+                if (x.nextClean() == '}') {
+                    return target;
+                }
+                x.back();
+                break;
+            case '}':
+                return target;
+            default:
+                throw x.syntaxError("Expected a ',' or '}'");
+            }
+        }
+    }
+
+    /**
+     * Read an array into a collection, like <code>JSONArray(JSONTokener)</code>
+     * reads it.
+     *
+     * @param collection
+     *            receives the elements, or null to skip them.
+     * @param elementType
+     *            the type of the elements.
+     */
+    private static void readArray(JSONTokener x, Collection<Object> collection, Type elementType)
+            throws JSONException {
+        if (x.nextClean() != '[') {
+            throw x.syntaxError("A JSONArray text must start with '['");
+        }
+        char nextChar = x.nextClean();
+        if (nextChar == 0) {
+            // array is unclosed. No ']' found, instead EOF
+            throw x.syntaxError("Expected a ',' or ']'");
+        }
+        if (nextChar == ']') {
+            return;
+        }
+        x.back();
+        for (int index = 0;; index += 1) {
+            final Integer where = Integer.valueOf(index);
+            Object element;
+            if (x.nextClean() == ',') {
+                x.back();
+                element = collection == null ? null : convert(JSONObject.NULL, elementType, where);
+            } else {
+                x.back();
+                element = read(x, collection == null ? null : elementType, where);
+            }
+            if (collection != null) {
+                collection.add(element);
+            }
+            switch (x.nextClean()) {
+            case 0:
+                // array is unclosed. No ']' found, instead EOF
+                throw x.syntaxError("Expected a ',' or ']'");
+            case ',':
+                nextChar = x.nextClean();
+                if (nextChar == 0) {
+                    // array is unclosed. No ']' found, instead EOF
+                    throw x.syntaxError("Expected a ',' or ']'");
+                }
+                if (nextChar == ']') {
+                    return;
+                }
+                x.back();
+                break;
+            case ']':
+                return;
+            default:
+                throw x.syntaxError("Expected a ',' or ']'");
+            }
+        }
+    }
+
+    /**
+     * Bind a value to a type.
+     *
+     * @param where
+     *            the key or the index of the value, for messages.
+     */
+    @SuppressWarnings("unchecked")
+    private static Object convert(Object value, Type type, Object where) throws JSONException {
+        final Class<?> raw = rawType(type);
+        if (value == null || JSONObject.NULL.equals(value)) {
+            if (raw.isPrimitive()) {
+                throw mismatch(where, type, null);
+            }
+            return null;
+        }
+        if (raw == Object.class) {
+            if (value instanceof JSONObject) {
+                return ((JSONObject) value).toMap();
+            }
+            if (value instanceof JSONArray) {
+                return ((JSONArray) value).toList();
+            }
+            return value;
+        }
+        if (isScalar(raw)) {
+            Object result;
+            try {
+                result = scalar(value, raw);
+            } catch (RuntimeException e) {
+                throw mismatch(where, type, e);
+            }
+            if (result == null) {
+                throw mismatch(where, type, null);
+            }
+            return result;
+        }
+        if (value instanceof JSONArray && (raw.isArray() || isCollection(raw))) {
+            final JSONArray jsonArray = (JSONArray) value;
+            final int length = jsonArray.length();
+            if (raw.isArray()) {
+                final Type componentType = componentType(type);
+                final Object array = Array.newInstance(rawType(componentType), length);
+                for (int i = 0; i < length; i += 1) {
+                    Array.set(array, i, convert(jsonArray.opt(i), componentType, Integer.valueOf(i)));
+                }
+                return array;
+            }
+            final Collection<Object> collection = newCollection(raw, type, where);
+            final Type elementType = typeArgument(type, 0);
+            for (int i = 0; i < length; i += 1) {
+                collection.add(convert(jsonArray.opt(i), elementType, Integer.valueOf(i)));
+            }
+            return collection;
+        }
+        if (value instanceof JSONObject && Map.class.isAssignableFrom(raw)) {
+            final JSONObject jsonObject = (JSONObject) value;
+            final Map<Object, Object> map = newMap(raw, type, where);
+            final Type keyType = typeArgument(type, 0);
+            final Type valueType = typeArgument(type, 1);
+            for (final String key : jsonObject.keySet()) {
+                map.put(convert(key, keyType, key), convert(jsonObject.opt(key), valueType, key));
+            }
+            return map;
+        }
+        if (raw.isInstance(value)) {
+            return value;
+        }
+        if (value instanceof JSONObject && isBean(raw)) {
+            final JSONObject jsonObject = (JSONObject) value;
+            final JSONBeanInfo.Binding binding = JSONBeanInfo.of(raw).binding();
+            final Object bean = newInstance(binding, raw);
+            for (final String key : jsonObject.keySet()) {
+                final JSONBeanInfo.Setter setter = binding.setters.get(key);
+                if (setter != null) {
+                    set(bean, setter, convert(jsonObject.opt(key), setter.type, key));
+                }
+            }
+            return bean;
+        }
+        throw mismatch(where, type, null);
+    }
+
+    /**
+     * Convert a plain value like the getters of JSONObject do.
+     *
+     * @return the value, or null if it cannot be converted.
+     */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private static Object scalar(Object value, Class<?> raw) {
+        if (raw == String.class) {
+            return value instanceof String ? value : null;
+        }
+        if (raw == int.class || raw == Integer.class) {
+            return value instanceof Number ? Integer.valueOf(((Number) value).intValue())
+                    : Integer.valueOf(Integer.parseInt(value.toString()));
+        }
+        if (raw == long.class || raw == Long.class) {
+            return value instanceof Number ? Long.valueOf(((Number) value).longValue())
+                    : Long.valueOf(Long.parseLong(value.toString()));
+        }
+        if (raw == double.class || raw == Double.class) {
+            return value instanceof Number ? Double.valueOf(((Number) value).doubleValue())
+                    : Double.valueOf(Double.parseDouble(value.toString()));
+        }
+        if (raw == float.class || raw == Float.class) {
+            return value instanceof Number ? Float.valueOf(((Number) value).floatValue())
+                    : Float.valueOf(Float.parseFloat(value.toString()));
+        }
+        if (raw == short.class || raw == Short.class) {
+            return value instanceof Number ? Short.valueOf(((Number) value).shortValue())
+                    : Short.valueOf(Short.parseShort(value.toString()));
+        }
+        if (raw == byte.class || raw == Byte.class) {
+            return value instanceof Number ? Byte.valueOf(((Number) value).byteValue())
+                    : Byte.valueOf(Byte.parseByte(value.toString()));
+        }
+        if (raw == boolean.class || raw == Boolean.class) {
+            if (value.equals(Boolean.FALSE)
+                    || (value instanceof String && ((String) value).equalsIgnoreCase("false"))) {
+                return Boolean.FALSE;
+            }
+            if (value.equals(Boolean.TRUE)
+                    || (value instanceof String && ((String) value).equalsIgnoreCase("true"))) {
+                return Boolean.TRUE;
+            }
+            return null;
+        }
+        if (raw == char.class || raw == Character.class) {
+            if (value instanceof Character) {
+                return value;
+            }
+            return value instanceof String && ((String) value).length() == 1
+                    ? Character.valueOf(((String) value).charAt(0)) : null;
+        }
+        if (raw == BigDecimal.class) {
+            return JSONObject.objectToBigDecimal(value, null);
+        }
+        if (raw == BigInteger.class) {
+            return JSONObject.objectToBigInteger(value, null);
+        }
+        if (raw == Number.class) {
+            return value instanceof Number ? value : JSONObject.stringToNumber(value.toString());
+        }
+        // an enum
+        if (raw.isInstance(value)) {
+            return value;
+        }
+        return value instanceof String ? Enum.valueOf((Class<? extends Enum>) raw, (String) value) : null;
+    }
+
+    private static boolean isScalar(Class<?> raw) {
+        return raw.isPrimitive() || raw == String.class
+                || raw == Integer.class || raw == Long.class
+                || raw == Double.class || raw == Float.class
+                || raw == Short.class || raw == Byte.class
+                || raw == Boolean.class || raw == Character.class
+                || raw == BigDecimal.class || raw == BigInteger.class
+                || raw == Number.class || raw.isEnum();
+    }
+
+    private static boolean isCollection(Class<?> raw) {
+        return Collection.class.isAssignableFrom(raw) || raw == Iterable.class;
+    }
+
+    /**
+     * Tell if a class is bound like a bean, through its setters.
+     */
+    private static boolean isBean(Class<?> raw) {
+        return !raw.isPrimitive() && !raw.isArray() && !raw.isEnum()
+                && !Map.class.isAssignableFrom(raw) && !isCollection(raw)
+                && !JSONObject.class.isAssignableFrom(raw)
+                && !JSONArray.class.isAssignableFrom(raw)
+                && !JSONString.class.isAssignableFrom(raw)
+                && !JSONObject.wrapsAsString(raw);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Collection<Object> newCollection(Class<?> raw, Type type, Object where)
+            throws JSONException {
+        if (!raw.isInterface() && !Modifier.isAbstract(raw.getModifiers())) {
+            return (Collection<Object>) newInstance(JSONBeanInfo.of(raw).binding(), raw);
+        }
+        if (raw.isAssignableFrom(ArrayList.class)) {
+            return new ArrayList<Object>();
+        }
+        if (raw.isAssignableFrom(LinkedHashSet.class)) {
+            return new LinkedHashSet<Object>();
+        }
+        if (raw.isAssignableFrom(TreeSet.class)) {
+            return new TreeSet<Object>();
+        }
+        if (raw.isAssignableFrom(LinkedList.class)) {
+            return new LinkedList<Object>();
+        }
+        throw mismatch(where, type, null);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<Object, Object> newMap(Class<?> raw, Type type, Object where)
+            throws JSONException {
+        if (!raw.isInterface() && !Modifier.isAbstract(raw.getModifiers())) {
+            return (Map<Object, Object>) newInstance(JSONBeanInfo.of(raw).binding(), raw);
+        }
+        if (raw.isAssignableFrom(LinkedHashMap.class)) {
+            return new LinkedHashMap<Object, Object>();
+        }
+        if (raw.isAssignableFrom(TreeMap.class)) {
+            return new TreeMap<Object, Object>();
+        }
+        throw mismatch(where, type, null);
+    }
+
+    private static Object newInstance(JSONBeanInfo.Binding binding, Class<?> raw)
+            throws JSONException {
+        if (binding.constructor == null) {
+            throw new JSONException("Unable to create " + raw.getName()
+                    + ", it has no public no-argument constructor.");
+        }
+        try {
+            return binding.constructor.newInstance();
+        } catch (InvocationTargetException e) {
+            throw new JSONException("Unable to create " + raw.getName(), e.getCause());
+        } catch (Exception e) {
+            throw new JSONException("Unable to create " + raw.getName(), e);
+        }
+    }
+
+    private static void set(Object bean, JSONBeanInfo.Setter setter, Object value)
+            throws JSONException {
+        try {
+            setter.set(bean, value);
+        } catch (Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new JSONException("Unable to set JSONObject value for key: " + setter.key, e);
+        }
+    }
+
+    private static Object toArray(List<Object> list, Type componentType) {
+        final Object array = Array.newInstance(rawType(componentType), list.size());
+        for (int i = 0; i < list.size(); i += 1) {
+            Array.set(array, i, list.get(i));
+        }
+        return array;
+    }
+
+    private static JSONException mismatch(Object where, Type type, Throwable cause) {
+        final String name = type instanceof Class ? ((Class<?>) type).getSimpleName()
+                : type.toString();
+        if (where instanceof String) {
+            return new JSONException("JSONObject[" + JSONObject.quote((String) where)
+                    + "] is not a " + name + ".", cause);
+        }
+        if (where instanceof Integer) {
+            return new JSONException("JSONArray[" + where + "] is not a " + name + ".", cause);
+        }
+        return new JSONException("Value is not a " + name + ".", cause);
+    }
+
+    /**
+     * Get the class a type erases to.
+     */
+    private static Class<?> rawType(Type type) {
+        if (type instanceof Class) {
+            return (Class<?>) type;
+        }
+        if (type instanceof ParameterizedType) {
+            return rawType(((ParameterizedType) type).getRawType());
+        }
+        if (type instanceof GenericArrayType) {
+            return Array.newInstance(rawType(((GenericArrayType) type).getGenericComponentType()), 0)
+                    .getClass();
+        }
+        if (type instanceof TypeVariable) {
+            return rawType(((TypeVariable<?>) type).getBounds()[0]);
+        }
+        if (type instanceof WildcardType) {
+            return rawType(((WildcardType) type).getUpperBounds()[0]);
+        }
+        return Object.class;
+    }
+
+    private static Type componentType(Type type) {
+        if (type instanceof GenericArrayType) {
+            return ((GenericArrayType) type).getGenericComponentType();
+        }
+        return rawType(type).getComponentType();
+    }
+
+    /**
+     * Get a type argument of a collection or map type, or Object if the
+     * type is raw.
+     */
+    private static Type typeArgument(Type type, int index) {
+        if (type instanceof ParameterizedType) {
+            final Type[] arguments = ((ParameterizedType) type).getActualTypeArguments();
+            if (index < arguments.length) {
+                return arguments[index];
+            }
+        }
+        return Object.class;
+    }
+}
@@ -0,0 +1,409 @@
+package org.json;
+
+/*
+Copyright (c) 2002 JSON.org
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+The Software shall be used for Good, not Evil.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.lang.reflect.Array;
+import java.lang.reflect.InvocationTargetException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Map.Entry;
+
+/**
+ * Writes beans, collections, arrays and maps as JSON text without turning
+ * them into JSONObjects and JSONArrays first. The text is the one
+ * <code>JSONObject.wrap(value)</code> would write: for a bean, the same as
+ * <code>new JSONObject(bean).toString()</code>, with the same getters, the
+ * same {@link JSONPropertyName} and {@link JSONPropertyIgnore} handling, and
+ * the members in the same order. For example, <pre>
+ * new JSONBeanWriter().write(myBean, writer);</pre>
+ * writes the same text as <code>new JSONObject(myBean).write(writer)</code>
+ * while reading each getter only once and keeping no copy of the bean.
+ * <p>
+ * The values the getters of a bean return, and the entries of a map, are
+ * put into a <code>HashMap</code> made the way a JSONObject makes its own,
+ * and written in the order that map iterates them, which is the order a
+ * JSONObject would write them in. The values themselves are not wrapped.
+ * <p>
+ * A collection or an array that holds a number that is not finite cannot be
+ * turned into a JSONArray, and is written as <code>null</code>, as are
+ * values that <code>wrap</code> fails on.
+ * <p><b>
+ * Warning: This class assumes that the data structure is acyclical.
+ * </b>
+ * <p>
+ * A writer keeps no state between writes, so it can be shared.
+ *
+ * @author JSON.org
+ */
+public class JSONBeanWriter {
+
+    /**
+     * Make a writer.
+     */
+    public JSONBeanWriter() {
+    }
+
+    /**
+     * Produce the compact JSON text of a value.
+     *
+     * @param value
+     *            a bean, collection, array, map or any value a JSONObject
+     *            can hold.
+     * @return the text.
+     * @throws JSONException
+     *             if a value cannot be written.
+     */
+    public static String toString(Object value) throws JSONException {
+        return toString(value, 0);
+    }
+
+    /**
+     * Produce the JSON text of a value, indented like
+     * <code>toString(indentFactor)</code>.
+     *
+     * @param value
+     *            a bean, collection, array, map or any value a JSONObject
+     *            can hold.
+     * @param indentFactor
+     *            the number of spaces to add to each level of indentation.
+     * @return the text.
+     * @throws JSONException
+     *             if a value cannot be written.
+     */
+    public static String toString(Object value, int indentFactor) throws JSONException {
+        StringWriter writer = new StringWriter();
+        new JSONBeanWriter().write(value, writer, indentFactor, 0);
+        return writer.toString();
+    }
+
+    /**
+     * Write the compact JSON text of a value as UTF-8 bytes.
+     *
+     * @param value
+     *            a bean, collection, array, map or any value a JSONObject
+     *            can hold.
+     * @param out
+     *            the destination. It is flushed, but not closed.
+     * @return the stream.
+     * @throws JSONException
+     *             if a value cannot be written, or the stream fails.
+     */
+    public OutputStream write(Object value, OutputStream out) throws JSONException {
+        JSONUtf8Writer writer = new JSONUtf8Writer(out);
+        this.write(value, writer, 0, 0);
+        try {
+            writer.flush();
+        } catch (IOException e) {
+            throw new JSONException(e);
+        }
+        return out;
+    }
+
+    /**
+     * Write the compact JSON text of a value.
+     *
+     * @param value
+     *            a bean, collection, array, map or any value a JSONObject
+     *            can hold.
+     * @param writer
+     *            the destination.
+     * @return the writer.
+     * @throws JSONException
+     *             if a value cannot be written, or the writer fails.
+     */
+    public Writer write(Object value, Writer writer) throws JSONException {
+        return this.write(value, writer, 0, 0);
+    }
+
+    /**
+     * Write the JSON text of a value, indented like
+     * <code>write(writer, indentFactor, indent)</code>.
+     *
+     * @param value
+     *            a bean, collection, array, map or any value a JSONObject
+     *            can hold.
+     * @param writer
+     *            the destination.
+     * @param indentFactor
+     *            the number of spaces to add to each level of indentation.
+     * @param indent
+     *            the indentation of the top level.
+     * @return the writer.
+     * @throws JSONException
+     *             if a value cannot be written, or the writer fails.
+     */
+    public Writer write(Object value, Writer writer, int indentFactor, int indent)
+            throws JSONException {
+        try {
+            this.writeValue(writer, value, indentFactor, indent);
+            return writer;
+        } catch (IOException e) {
+            throw new JSONException(e);
+        }
+    }
+
+    /**
+     * Write a value the way <code>JSONObject.wrap</code> would turn it into
+     * a JSON value.
+     */
+    private void writeValue(Writer writer, Object value, int indentFactor, int indent)
+            throws JSONException, IOException {
+        if (value == null) {
+            JSONObject.writeValue(writer, value, indentFactor, indent);
+            return;
+        }
+        switch (JSONObject.WRAP_KINDS.get(value.getClass())) {
+        case AS_IS:
+            JSONObject.writeValue(writer, value, indentFactor, indent);
+            break;
+        case COLLECTION:
+            this.writeCollection(writer, (Collection<?>) value, indentFactor, indent);
+            break;
+        case ARRAY:
+            this.writeArray(writer, value, indentFactor, indent);
+            break;
+        case MAP:
+            this.writeMap(writer, (Map<?, ?>) value, indentFactor, indent);
+            break;
+        case STRING:
+            String string;
+            try {
+                string = value.toString();
+            } catch (Exception e) {
+                string = null;
+            }
+            JSONObject.writeValue(writer, string, indentFactor, indent);
+            break;
+        default:
+            this.writeBean(writer, value, indentFactor, indent);
+        }
+    }
+
+    private void writeCollection(Writer writer, Collection<?> collection,
+            int indentFactor, int indent) throws JSONException, IOException {
+        int length = 0;
+        try {
+            for (Object element : collection) {
+                if (!isValid(element)) {
+                    writer.write("null");
+                    return;
+                }
+                length += 1;
+            }
+        } catch (RuntimeException e) {
+            writer.write("null");
+            return;
+        }
+        this.writeElements(writer, collection.iterator(), null, length, indentFactor, indent);
+    }
+
+    private void writeArray(Writer writer, Object array, int indentFactor, int indent)
+            throws JSONException, IOException {
+        final int length = Array.getLength(array);
+        final Class<?> component = array.getClass().getComponentType();
+        if (!component.isPrimitive() || component == double.class || component == float.class) {
+            for (int i = 0; i < length; i += 1) {
+                if (!isValid(Array.get(array, i))) {
+                    writer.write("null");
+                    return;
+                }
+            }
+        }
+        this.writeElements(writer, null, array, length, indentFactor, indent);
+    }
+
+    /**
+     * Tell if a JSONArray accepts a value.
+     */
+    private static boolean isValid(Object element) {
+        return !(element instanceof Number) || JSONObject.numberIsFinite((Number) element);
+    }
+
+    /**
+     * Write the elements of a collection or an array like
+     * <code>JSONArray.write</code> does.
+     */
+    private void writeElements(Writer writer, Iterator<?> iterator, Object array, int length,
+            int indentFactor, int indent) throws JSONException, IOException {
+        writer.write('[');
+        if (length == 1) {
+            this.writeElement(writer, iterator != null ? iterator.next() : Array.get(array, 0),
+                    0, indentFactor, indent);
+        } else if (length != 0) {
+            final int newIndent = indent + indentFactor;
+            for (int i = 0; i < length; i += 1) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                if (indentFactor > 0) {
+                    writer.write('\n');
+                }
+                JSONObject.indent(writer, newIndent);
+                this.writeElement(writer, iterator != null ? iterator.next() : Array.get(array, i),
+                        i, indentFactor, newIndent);
+            }
+            if (indentFactor > 0) {
+                writer.write('\n');
+            }
+            JSONObject.indent(writer, indent);
+        }
+        writer.write(']');
+    }
+
+    private void writeElement(Writer writer, Object element, int index,
+            int indentFactor, int indent) throws JSONException {
+        try {
+            this.writeValue(writer, element, indentFactor, indent);
+        } catch (Exception e) {
+            throw new JSONException("Unable to write JSONArray value at index: " + index, e);
+        }
+    }
+
+    private void writeMap(Writer writer, Map<?, ?> map, int indentFactor, int indent)
+            throws JSONException, IOException {
+        final Map<String, Object> members;
+        try {
+            // as JSONObject(Map) makes it
+            members = new HashMap<String, Object>(map.size());
+            for (final Entry<?, ?> entry : map.entrySet()) {
+                final Object key = entry.getKey();
+                if (key == null) {
+                    // JSONObject(Map) rejects it, so wrap gives null
+                    writer.write("null");
+                    return;
+                }
+                final Object value = entry.getValue();
+                if (value != null) {
+                    members.put(String.valueOf(key), value);
+                }
+            }
+        } catch (RuntimeException e) {
+            writer.write("null");
+            return;
+        }
+        this.writeMembers(writer, members, false, indentFactor, indent);
+    }
+
+    private void writeBean(Writer writer, Object bean, int indentFactor, int indent)
+            throws JSONException, IOException {
+        final JSONBeanInfo info = JSONBeanInfo.of(bean.getClass());
+        final JSONBeanInfo.Accessor[] accessors = info.accessors;
+        final String[] keys = info.keys;
+        // as JSONObject(Object) makes it
+        final Map<String, Object> members = new HashMap<String, Object>();
+        for (int i = 0; i < accessors.length; i += 1) {
+            final Object result;
+            try {
+                result = accessors[i].get(bean);
+            } catch (IllegalAccessException ignore) {
+                continue;
+            } catch (IllegalArgumentException ignore) {
+                continue;
+            } catch (InvocationTargetException ignore) {
+                continue;
+            }
+            if (result != null) {
+                close(members.put(keys[i], result));
+            }
+        }
+        this.writeMembers(writer, members, true, indentFactor, indent);
+    }
+
+    /**
+     * Write the members of a bean or a map like <code>JSONObject.write</code>
+     * does.
+     *
+     * @param close
+     *            whether to close values that are <code>Closeable</code>
+     *            once written, as a JSONObject made from a bean does.
+     */
+    private void writeMembers(Writer writer, Map<String, Object> members, boolean close,
+            int indentFactor, int indent) throws JSONException, IOException {
+        final int length = members.size();
+        writer.write('{');
+        if (length == 1) {
+            final Entry<String, Object> entry = members.entrySet().iterator().next();
+            this.writeMember(writer, entry.getKey(), entry.getValue(), close,
+                    indentFactor, indent);
+        } else if (length != 0) {
+            final int newIndent = indent + indentFactor;
+            boolean needsComma = false;
+            for (final Entry<String, Object> entry : members.entrySet()) {
+                if (needsComma) {
+                    writer.write(',');
+                }
+                if (indentFactor > 0) {
+                    writer.write('\n');
+                }
+                JSONObject.indent(writer, newIndent);
+                this.writeMember(writer, entry.getKey(), entry.getValue(), close,
+                        indentFactor, newIndent);
+                needsComma = true;
+            }
+            if (indentFactor > 0) {
+                writer.write('\n');
+            }
+            JSONObject.indent(writer, indent);
+        }
+        writer.write('}');
+    }
+
+    private void writeMember(Writer writer, String key, Object value, boolean close,
+            int indentFactor, int indent) throws JSONException, IOException {
+        writer.write(JSONKeyCache.quoted(key));
+        writer.write(':');
+        if (indentFactor > 0) {
+            writer.write(' ');
+        }
+        try {
+            this.writeValue(writer, value, indentFactor, indent);
+        } catch (Exception e) {
+            throw new JSONException("Unable to write JSONObject value for key: " + key, e);
+        }
+        if (close) {
+            close(value);
+        }
+    }
+
+    /**
+     * Close a value if it is <code>Closeable</code>, ignoring failures.
+     */
+    private static void close(Object value) {
+        if (value instanceof Closeable) {
+            try {
+                ((Closeable) value).close();
+            } catch (IOException ignore) {
+            }
+        }
+    }
+}
@@ -0,0 +1,289 @@
+package org.json;
+
+/*
+Copyright (c) 2002 JSON.org
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+The Software shall be used for Good, not Evil.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Arrays;
+
+/**
+ * Writes JSON values in the canonical form of RFC 8785 (JSON
+ * Canonicalization Scheme), so that equal values give equal texts that can
+ * be hashed, signed, cached and compared byte by byte:
+ * <ul>
+ * <li>no whitespace;</li>
+ * <li>object members sorted by their names, compared as UTF-16 code
+ * units;</li>
+ * <li>strings escaped only where JSON requires it, with the short escapes
+ * where there is one and <code>\u001f</code> style escapes otherwise;</li>
+ * <li>numbers in the form ECMAScript gives them, so <code>1.0</code>,
+ * <code>1</code> and <code>1E0</code> are all <code>1</code>.</li>
+ * </ul>
+ * The members of each object are sorted in a scratch array that the writer
+ * keeps, rather than in a copy of the object, so a writer that is reused
+ * does not allocate for sorting once the array is large enough.
+ * <p>
+ * RFC 8785 only knows numbers that are doubles, so BigDecimals, which is
+ * how decimals are parsed, are written as the nearest double. Integers that
+ * a double cannot hold exactly, such as longs above 2^53, are written in
+ * full rather than rounded, as are BigDecimals beyond the range of a double.
+ * Strings with unpaired surrogates cannot be canonicalized and are
+ * rejected.
+ * <p>
+ * A writer is not thread safe.
+ *
+ * @author JSON.org
+ */
+public class JSONCanonicalWriter {
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    /**
+     * The names of the objects being written, each object's names in a
+     * slice above those of the object containing it.
+     */
+    private String[] names = new String[64];
+
+    /**
+     * The number of slots of {@link #names} in use.
+     */
+    private int top;
+
+    /**
+     * Make a writer.
+     */
+    public JSONCanonicalWriter() {
+    }
+
+    /**
+     * Produce the canonical text of a value.
+     *
+     * @param value
+     *            a JSONObject, JSONArray or any other value a JSONObject
+     *            can hold.
+     * @return the canonical text.
+     * @throws JSONException
+     *             if a number is not finite or a string has an unpaired
+     *             surrogate.
+     */
+    public static String toString(Object value) throws JSONException {
+        StringWriter writer = new StringWriter();
+        new JSONCanonicalWriter().write(value, writer);
+        return writer.toString();
+    }
+
+    /**
+     * Produce the UTF-8 bytes of the canonical text of a value, which is
+     * what RFC 8785 hashes and signs.
+     *
+     * @param value
+     *            a JSONObject, JSONArray or any other value a JSONObject
+     *            can hold.
+     * @return the bytes.
+     * @throws JSONException
+     *             if a number is not finite or a string has an unpaired
+     *             surrogate.
+     */
+    public byte[] toBytesUtf8(Object value) throws JSONException {
+        JSONUtf8Writer writer = new JSONUtf8Writer();
+        this.write(value, writer);
+        return writer.toByteArray();
+    }
+
+    /**
+     * Write the canonical text of a value.
+     *
+     * @param value
+     *            a JSONObject, JSONArray or any other value a JSONObject
+     *            can hold.
+     * @param writer
+     *            the destination.
+     * @return the writer.
+     * @throws JSONException
+     *             if a number is not finite, a string has an unpaired
+     *             surrogate, or the writer fails.
+     */
+    public Writer write(Object value, Writer writer) throws JSONException {
+        this.top = 0;
+        try {
+            this.writeValue(value, writer);
+        } catch (IOException e) {
+            throw new JSONException(e);
+        } finally {
+            // do not hold on to the names
+            Arrays.fill(this.names, 0, Math.min(this.top, this.names.length), null);
+            this.top = 0;
+        }
+        return writer;
+    }
+
+    private void writeValue(Object value, Writer writer) throws IOException {
+        if (value == null || JSONObject.NULL.equals(value)) {
+            writer.write("null");
+        } else if (value instanceof String) {
+            quote((String) value, writer);
+        } else if (value instanceof Boolean) {
+            writer.write(((Boolean) value).booleanValue() ? "true" : "false");
+        } else if (value instanceof Integer || value instanceof Long
+                || value instanceof Short || value instanceof Byte) {
+            JSONNumberWriter.write(writer, ((Number) value).longValue());
+        } else if (value instanceof Double || value instanceof Float) {
+            final double d = ((Number) value).doubleValue();
+            BinaryOutput.testValidity(d);
+            JSONNumberWriter.writeECMAScript(writer, d);
+        } else if (value instanceof BigInteger) {
+            writeBigInteger((BigInteger) value, writer);
+        } else if (value instanceof BigDecimal) {
+            writeBigDecimal((BigDecimal) value, writer);
+        } else if (value instanceof JSONObject) {
+            this.writeObject((JSONObject) value, writer);
+        } else if (value instanceof JSONArray) {
+            JSONArray ja = (JSONArray) value;
+            final int length = ja.length();
+            writer.write('[');
+            for (int i = 0; i < length; i += 1) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                this.writeValue(ja.opt(i), writer);
+            }
+            writer.write(']');
+        } else {
+            this.writeValue(BinaryOutput.plain(value), writer);
+        }
+    }
+
+    private void writeObject(JSONObject jo, Writer writer) throws IOException {
+        final int from = this.top;
+        final int length = jo.length();
+        if (this.names.length - from < length) {
+            this.names = Arrays.copyOf(this.names, Math.max(this.names.length * 2, from + length));
+        }
+        int to = from;
+        for (String key : jo.keySet()) {
+            this.names[to++] = key;
+        }
+        this.top = to;
+        Arrays.sort(this.names, from, to);
+        writer.write('{');
+        for (int i = from; i < to; i += 1) {
+            if (i > from) {
+                writer.write(',');
+            }
+            // read the field each time, writing a member may grow the array
+            final String key = this.names[i];
+            quote(key, writer);
+            writer.write(':');
+            this.writeValue(jo.opt(key), writer);
+        }
+        writer.write('}');
+        Arrays.fill(this.names, from, to, null);
+        this.top = from;
+    }
+
+    private static void writeBigInteger(BigInteger n, Writer writer) throws IOException {
+        if (n.bitLength() <= 63) {
+            JSONNumberWriter.write(writer, n.longValue());
+            return;
+        }
+        final double d = n.doubleValue();
+        if (!Double.isInfinite(d) && new BigDecimal(d).toBigIntegerExact().equals(n)) {
+            JSONNumberWriter.writeECMAScript(writer, d);
+        } else {
+            writer.write(n.toString());
+        }
+    }
+
+    private static void writeBigDecimal(BigDecimal n, Writer writer) throws IOException {
+        final double d = n.doubleValue();
+        if (!Double.isInfinite(d)) {
+            JSONNumberWriter.writeECMAScript(writer, d);
+            return;
+        }
+        final String text = n.stripTrailingZeros().toString();
+        final int e = text.indexOf('E');
+        if (e < 0) {
+            writer.write(text);
+        } else {
+            writer.write(text, 0, e);
+            writer.write('e');
+            writer.write(text, e + 1, text.length() - e - 1);
+        }
+    }
+
+    private static void quote(String string, Writer w) throws IOException {
+        final int length = string.length();
+        w.write('"');
+        int run = 0;
+        for (int i = 0; i < length; i += 1) {
+            final char c = string.charAt(i);
+            if (c >= 0x20 && c != '"' && c != '\\' && !Character.isSurrogate(c)) {
+                continue;
+            }
+            if (Character.isHighSurrogate(c) && i + 1 < length
+                    && Character.isLowSurrogate(string.charAt(i + 1))) {
+                i += 1;
+                continue;
+            }
+            w.write(string, run, i - run);
+            run = i + 1;
+            switch (c) {
+            case '"':
+                w.write("\\\"");
+                break;
+            case '\\':
+                w.write("\\\\");
+                break;
+            case '\b':
+                w.write("\\b");
+                break;
+            case '\t':
+                w.write("\\t");
+                break;
+            case '\n':
+                w.write("\\n");
+                break;
+            case '\f':
+                w.write("\\f");
+                break;
+            case '\r':
+                w.write("\\r");
+                break;
+            default:
+                if (Character.isSurrogate(c)) {
+                    throw new JSONException("Unpaired surrogate at " + i + " cannot be canonicalized.");
+                }
+                w.write("\\u00");
+                w.write(HEX[c >> 4]);
+                w.write(HEX[c & 0xF]);
+            }
+        }
+        w.write(string, run, length - run);
+        w.write('"');
+    }
+}
@@ -0,0 +1,186 @@
+package org.json;
+
+/*
+Copyright (c) 2002 JSON.org
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+The Software shall be used for Good, not Evil.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+/**
+ * Computes the 64 bit structural hash behind {@link JSONObject#fingerprint()}
+ * and {@link JSONArray#fingerprint()} by walking the values, without
+ * producing any text.
+ * <p>
+ * Values that {@link JSONObject#similar(Object)} considers equal hash alike:
+ * the members of an object are combined with a commutative sum, so their
+ * order does not matter, and numbers are hashed by their value, so
+ * <code>2</code>, <code>2L</code>, <code>2.0</code> and
+ * <code>new BigDecimal("2.00")</code> all hash the same. Elements of an
+ * array are combined in order. Other values are hashed by the value their
+ * JSON text would parse to.
+ * <p>
+ * The hash is meant for deduplication and cache keys. It is not a
+ * cryptographic hash.
+ *
+ * @author JSON.org
+ */
+final class JSONFingerprint {
+
+    private static final long NULL_HASH = 0x6A09E667F3BCC908L;
+    private static final long TRUE_HASH = 0xBB67AE8584CAA73BL;
+    private static final long FALSE_HASH = 0x3C6EF372FE94F82BL;
+    private static final long NUMBER_SEED = 0xA54FF53A5F1D36F1L;
+    private static final long STRING_SEED = 0x510E527FADE682D1L;
+    private static final long OBJECT_SEED = 0x9B05688C2B3E6C1FL;
+    private static final long ARRAY_SEED = 0x1F83D9ABFB41BD6BL;
+
+    private static final long M = 0x9E3779B97F4A7C15L;
+
+    private static final BigDecimal LONG_MIN = BigDecimal.valueOf(Long.MIN_VALUE);
+    private static final BigDecimal LONG_MAX = BigDecimal.valueOf(Long.MAX_VALUE);
+
+    private JSONFingerprint() {
+    }
+
+    /**
+     * The finalizer of MurmurHash3, which spreads every input bit over the
+     * whole result.
+     */
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    /**
+     * Hash a JSONObject from its members.
+     *
+     * @param jo the object
+     * @return the hash
+     */
+    static long of(JSONObject jo) {
+        long sum = 0;
+        for (String key : jo.keySet()) {
+            final long k = string(key);
+            final long v = value(jo.opt(key));
+            // each member on its own, then summed so that order does not matter
+            sum += mix(k * M + v);
+        }
+        return mix(OBJECT_SEED ^ sum ^ ((long) jo.length() * M));
+    }
+
+    /**
+     * Hash a JSONArray from its elements.
+     *
+     * @param ja the array
+     * @return the hash
+     */
+    static long of(JSONArray ja) {
+        final int length = ja.length();
+        long h = ARRAY_SEED;
+        for (int i = 0; i < length; i += 1) {
+            h = Long.rotateLeft(h ^ value(ja.opt(i)), 27) * M;
+        }
+        return mix(h ^ length);
+    }
+
+    private static long value(Object value) {
+        if (value instanceof JSONNumber) {
+            value = ((JSONNumber) value).toNumber();
+        }
+        if (value == null || JSONObject.NULL.equals(value)) {
+            return NULL_HASH;
+        }
+        if (value instanceof String) {
+            return string((String) value);
+        }
+        if (value instanceof Boolean) {
+            return ((Boolean) value).booleanValue() ? TRUE_HASH : FALSE_HASH;
+        }
+        if (value instanceof JSONObject) {
+            return ((JSONObject) value).fingerprint();
+        }
+        if (value instanceof JSONArray) {
+            return ((JSONArray) value).fingerprint();
+        }
+        if (value instanceof Integer || value instanceof Long
+                || value instanceof Short || value instanceof Byte) {
+            return integer(((Number) value).longValue());
+        }
+        if (value instanceof Double || value instanceof Float) {
+            final double d = ((Number) value).doubleValue();
+            if (Double.isNaN(d) || Double.isInfinite(d)) {
+                // never similar to anything
+                return string(Double.toString(d));
+            }
+            return decimal(new BigDecimal(d));
+        }
+        if (value instanceof BigInteger && ((BigInteger) value).bitLength() <= 63) {
+            return integer(((BigInteger) value).longValue());
+        }
+        if (value instanceof Number) {
+            final BigDecimal d = JSONObject.objectToBigDecimal(value, null);
+            return d == null ? string(value.toString()) : decimal(d);
+        }
+        try {
+            return value(BinaryOutput.plain(value));
+        } catch (JSONException e) {
+            return string(value.toString());
+        }
+    }
+
+    private static long integer(long n) {
+        return mix(NUMBER_SEED ^ n);
+    }
+
+    private static long decimal(BigDecimal d) {
+        if (d.signum() == 0) {
+            return integer(0);
+        }
+        final BigDecimal stripped = d.stripTrailingZeros();
+        final int scale = stripped.scale();
+        if (scale <= 0 && stripped.compareTo(LONG_MIN) >= 0
+                && stripped.compareTo(LONG_MAX) <= 0) {
+            // an integer a long can hold hashes like that long
+            return integer(stripped.longValueExact());
+        }
+        final BigInteger unscaled = stripped.unscaledValue();
+        final long h = unscaled.bitLength() <= 63
+                ? unscaled.longValue()
+                : string(unscaled.toString());
+        return mix(NUMBER_SEED ^ mix(h) ^ ((long) scale * M));
+    }
+
+    private static long string(String s) {
+        final int length = s.length();
+        long h = STRING_SEED ^ length;
+        for (int i = 0; i < length; i += 1) {
+            h = (h ^ s.charAt(i)) * 0x100000001B3L;
+        }
+        return mix(h);
+    }
+}
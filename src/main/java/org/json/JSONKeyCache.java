@@ -0,0 +1,91 @@
+package org.json;
+
+/*
+Copyright (c) 2002 JSON.org
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+The Software shall be used for Good, not Evil.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+
+/**
+ * A bounded cache of member names in their quoted and escaped form, so that
+ * writing many objects with the same keys does not escape the same keys over
+ * and over. The writer then copies each key with a single call.
+ * <p>
+ * The cache is a fixed size table indexed by the hash code of the key. A key
+ * replaces whatever key shared its slot, so the cache never grows and needs no
+ * locking: entries are immutable and a lost update only costs a recomputation.
+ * Long keys are not cached.
+ *
+ * @author JSON.org
+ */
+final class JSONKeyCache {
+
+    /**
+     * The number of slots, a power of two.
+     */
+    private static final int SIZE = 1024;
+
+    /**
+     * The longest key that is cached.
+     */
+    private static final int MAX_KEY_LENGTH = 64;
+
+    /**
+     * The slots, each holding the last key that hashed to it.
+     */
+    private static final Entry[] TABLE = new Entry[SIZE];
+
+    private JSONKeyCache() {
+    }
+
+    /**
+     * Get a key as it appears in a JSON text, in double quotes and with
+     * backslash sequences where needed.
+     *
+     * @param key
+     *            the member name.
+     * @return the same as {@link JSONObject#quote(String)}.
+     */
+    static String quoted(String key) {
+        if (key.length() > MAX_KEY_LENGTH) {
+            return JSONObject.quote(key);
+        }
+        int h = key.hashCode();
+        final int index = (h ^ (h >>> 16)) & (SIZE - 1);
+        final Entry entry = TABLE[index];
+        if (entry != null && (entry.key == key || entry.key.equals(key))) {
+            return entry.quoted;
+        }
+        final String quoted = JSONObject.quote(key);
+        TABLE[index] = new Entry(key, quoted);
+        return quoted;
+    }
+
+    private static final class Entry {
+        final String key;
+        final String quoted;
+
+        Entry(String key, String quoted) {
+            this.key = key;
+            this.quoted = quoted;
+        }
+    }
+}
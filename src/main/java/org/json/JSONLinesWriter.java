@@ -0,0 +1,225 @@
+package org.json;
+
+/*
+Copyright (c) 2002 JSON.org
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+The Software shall be used for Good, not Evil.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes JSON Lines, also known as NDJSON: one compact JSON text per record,
+ * each followed by a new line, encoded as UTF-8. For example, <pre>
+ * try (JSONLinesWriter lines = new JSONLinesWriter(out, true, 1000, 0)) {
+ *     lines.writeAll(records);
+ * }</pre>
+ * writes gzipped JSON Lines and flushes them every 1000 records.
+ * <p>
+ * Each record is written straight into a byte buffer in front of the stream,
+ * without making a String of it first. The stream is flushed when the number
+ * of records or bytes since the last flush reaches a threshold, and on
+ * <code>flush</code> and <code>close</code>.
+ * <p>
+ * This class is not thread safe.
+ *
+ * @author JSON.org
+ */
+public class JSONLinesWriter implements Closeable, Flushable {
+
+    /**
+     * The encoder in front of the stream.
+     */
+    private final JSONUtf8Writer writer;
+
+    /**
+     * Flush after this many records, 0 for no limit.
+     */
+    private final int flushRecords;
+
+    /**
+     * Flush after this many uncompressed bytes, 0 for no limit.
+     */
+    private final long flushBytes;
+
+    /**
+     * The number of records since the last flush.
+     */
+    private int pendingRecords;
+
+    /**
+     * The byte count of the writer at the last flush.
+     */
+    private long flushedBytes;
+
+    /**
+     * The number of records written.
+     */
+    private long recordCount;
+
+    /**
+     * Make a JSONLinesWriter that only flushes on request.
+     *
+     * @param out
+     *            the stream receiving the bytes.
+     */
+    public JSONLinesWriter(OutputStream out) {
+        this.writer = new JSONUtf8Writer(out);
+        this.flushRecords = 0;
+        this.flushBytes = 0;
+    }
+
+    /**
+     * Make a JSONLinesWriter.
+     *
+     * @param out
+     *            the stream receiving the bytes.
+     * @param gzip
+     *            true to compress the lines with gzip. Flushing then ends
+     *            the current deflate block, so that a reader can see all the
+     *            records written so far.
+     * @param flushRecords
+     *            the number of records after which the stream is flushed, or
+     *            0 for no limit.
+     * @param flushBytes
+     *            the number of uncompressed bytes after which the stream is
+     *            flushed, or 0 for no limit.
+     * @throws IOException
+     *             if the gzip header cannot be written.
+     */
+    public JSONLinesWriter(OutputStream out, boolean gzip, int flushRecords, long flushBytes)
+            throws IOException {
+        if (flushRecords < 0 || flushBytes < 0) {
+            throw new IllegalArgumentException("Negative flush threshold.");
+        }
+        this.writer = new JSONUtf8Writer(gzip ? new GZIPOutputStream(out, 8192, true) : out);
+        this.flushRecords = flushRecords;
+        this.flushBytes = flushBytes;
+    }
+
+    /**
+     * Write a record.
+     *
+     * @param record
+     *            the record.
+     * @return this.
+     * @throws JSONException
+     *             if the record cannot be written, or the stream fails.
+     */
+    public JSONLinesWriter write(JSONObject record) throws JSONException {
+        if (record == null) {
+            throw new JSONException("Null record.");
+        }
+        record.write(this.writer);
+        try {
+            this.writer.write('\n');
+            this.recordCount += 1;
+            this.pendingRecords += 1;
+            if ((this.flushRecords > 0 && this.pendingRecords >= this.flushRecords)
+                    || (this.flushBytes > 0
+                            && this.writer.byteCount() - this.flushedBytes >= this.flushBytes)) {
+                this.flush();
+            }
+        } catch (IOException e) {
+            throw new JSONException(e);
+        }
+        return this;
+    }
+
+    /**
+     * Write the records of an iterator.
+     *
+     * @param records
+     *            the records.
+     * @return this.
+     * @throws JSONException
+     *             if a record cannot be written, or the stream fails.
+     */
+    public JSONLinesWriter writeAll(Iterator<JSONObject> records) throws JSONException {
+        while (records.hasNext()) {
+            this.write(records.next());
+        }
+        return this;
+    }
+
+    /**
+     * Write the records of a stream, in the order of the stream.
+     *
+     * @param records
+     *            the records.
+     * @return this.
+     * @throws JSONException
+     *             if a record cannot be written, or the stream fails.
+     */
+    public JSONLinesWriter writeAll(Stream<JSONObject> records) throws JSONException {
+        records.forEachOrdered(this::write);
+        return this;
+    }
+
+    /**
+     * Write the records of an XML stream, in the order of the stream.
+     *
+     * @param records
+     *            the records.
+     * @return this.
+     * @throws JSONException
+     *             if a record cannot be written, or the stream fails.
+     */
+    @SuppressWarnings("unchecked")
+    public JSONLinesWriter writeAll(XMLtoJSONStream records) throws JSONException {
+        records.forEachOrdered(record -> this.write((JSONObject) record));
+        return this;
+    }
+
+    /**
+     * Get the number of records written.
+     *
+     * @return the number of records.
+     */
+    public long getRecordCount() {
+        return this.recordCount;
+    }
+
+    /**
+     * Pass the buffered records on to the stream and flush it.
+     */
+    @Override
+    public void flush() throws IOException {
+        this.writer.flush();
+        this.pendingRecords = 0;
+        this.flushedBytes = this.writer.byteCount();
+    }
+
+    /**
+     * Flush the records and close the stream, finishing the gzip trailer if
+     * the lines are compressed.
+     */
+    @Override
+    public void close() throws IOException {
+        this.writer.close();
+    }
+}
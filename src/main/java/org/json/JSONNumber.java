@@ -0,0 +1,212 @@
+package org.json;
+
+/*
+Copyright (c) 2002 JSON.org
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+The Software shall be used for Good, not Evil.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+
+
+/**
+ * A number kept as the text it was parsed from. A {@link JSONTokener} made
+ * with {@link JSONParserConfiguration#withLazyNumbers(boolean)} produces
+ * JSONNumbers instead of converting each number to an Integer, Long,
+ * BigInteger or BigDecimal, so numbers that are never read cost no
+ * conversion.
+ * <p>
+ * The number is converted the first time it is read as a Number, to the
+ * same value <code>JSONObject.stringToValue</code> would have produced, and
+ * the result is kept. <code>getBigDecimal</code> and
+ * <code>getBigInteger</code> read the text directly, without losing any
+ * precision. Writing the number, in a JSON text or through
+ * {@link JSONWriter}, copies the text exactly as it was parsed; replace the
+ * value to change it.
+ * <p>
+ * This class is immutable, and safe to share between threads.
+ *
+ * @author JSON.org
+ */
+public final class JSONNumber extends Number implements JSONString {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The text of the number.
+     */
+    private final String text;
+
+    /**
+     * The converted number, once read. Racing threads convert equal numbers.
+     */
+    private transient Number value;
+
+    /**
+     * Make a number from text already known to be a JSON number.
+     *
+     * @param text
+     *            the text.
+     */
+    JSONNumber(String text) {
+        this.text = text;
+    }
+
+    /**
+     * Make a number from its text.
+     *
+     * @param text
+     *            the text of a JSON number, such as <code>-1.50e3</code>.
+     * @return the number.
+     * @throws JSONException
+     *             if the text is not a JSON number.
+     */
+    public static JSONNumber valueOf(String text) throws JSONException {
+        if (text == null || !isNumber(text)) {
+            throw new JSONException("Not a JSON number: " + text);
+        }
+        return new JSONNumber(text);
+    }
+
+    /**
+     * Tell if a text is a number as the JSON grammar has it: an optional
+     * minus, an integer without leading zeros, an optional fraction and an
+     * optional exponent. The tokener also accepts other forms, such as
+     * <code>0x1F</code>, which are converted right away.
+     *
+     * @param text
+     *            the text.
+     * @return true if the text is a JSON number.
+     */
+    static boolean isNumber(String text) {
+        final int length = text.length();
+        int i = 0;
+        if (i < length && text.charAt(i) == '-') {
+            i += 1;
+        }
+        if (i >= length) {
+            return false;
+        }
+        if (text.charAt(i) == '0') {
+            i += 1;
+        } else {
+            final int start = i;
+            i = skipDigits(text, i);
+            if (i == start) {
+                return false;
+            }
+        }
+        if (i < length && text.charAt(i) == '.') {
+            final int start = i + 1;
+            i = skipDigits(text, start);
+            if (i == start) {
+                return false;
+            }
+        }
+        if (i < length && (text.charAt(i) == 'e' || text.charAt(i) == 'E')) {
+            i += 1;
+            if (i < length && (text.charAt(i) == '+' || text.charAt(i) == '-')) {
+                i += 1;
+            }
+            final int start = i;
+            i = skipDigits(text, start);
+            if (i == start) {
+                return false;
+            }
+        }
+        return i == length;
+    }
+
+    private static int skipDigits(String text, int i) {
+        while (i < text.length() && text.charAt(i) >= '0' && text.charAt(i) <= '9') {
+            i += 1;
+        }
+        return i;
+    }
+
+    /**
+     * Get the number this text converts to: an Integer, Long or BigInteger
+     * for integers, a BigDecimal for other numbers, and a Double for negative
+     * zero.
+     *
+     * @return the converted number.
+     */
+    public Number toNumber() {
+        Number result = this.value;
+        if (result == null) {
+            result = JSONObject.stringToNumber(this.text);
+            this.value = result;
+        }
+        return result;
+    }
+
+    @Override
+    public int intValue() {
+        return this.toNumber().intValue();
+    }
+
+    @Override
+    public long longValue() {
+        return this.toNumber().longValue();
+    }
+
+    @Override
+    public float floatValue() {
+        return this.toNumber().floatValue();
+    }
+
+    @Override
+    public double doubleValue() {
+        return this.toNumber().doubleValue();
+    }
+
+    /**
+     * Get the text of the number, as it was parsed.
+     *
+     * @return the text.
+     */
+    @Override
+    public String toJSONString() {
+        return this.text;
+    }
+
+    /**
+     * Get the text of the number, as it was parsed.
+     *
+     * @return the text.
+     */
+    @Override
+    public String toString() {
+        return this.text;
+    }
+
+    /**
+     * Tell if another JSONNumber converts to an equal number.
+     */
+    @Override
+    public boolean equals(Object other) {
+        return other == this || (other instanceof JSONNumber
+                && this.toNumber().equals(((JSONNumber) other).toNumber()));
+    }
+
+    @Override
+    public int hashCode() {
+        return this.toNumber().hashCode();
+    }
+}
@@ -0,0 +1,451 @@
+package org.json;
+
+/*
+Copyright (c) 2002 JSON.org
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+The Software shall be used for Good, not Evil.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigInteger;
+
+/**
+ * Writes longs and doubles as JSON numbers without intermediate Strings.
+ * <p>
+ * Longs are written two digits at a time from a table. Doubles are written
+ * with the fewest significant digits that still read back as the same double,
+ * found with the Schubfach algorithm (R. Giulietti, "The Schubfach way to
+ * render doubles"). Among the shortest candidates the one closest to the
+ * double is chosen, and at least two digits are considered, which is also
+ * what <code>Double.toString</code> does since Java 19. The layout matches
+ * <code>Double.toString</code> with the trailing zeros of plain decimals
+ * removed, as {@link JSONObject#doubleToString(double)} always did:
+ * <code>0.001</code>, <code>1234567</code>, <code>1.0E7</code>,
+ * <code>1.5E-4</code>.
+ *
+ * @author JSON.org
+ */
+final class JSONNumberWriter {
+
+    /** The precision of a double, in bits. */
+    private static final int P = 53;
+
+    /** The smallest exponent of a double with an integer significand. */
+    private static final int Q_MIN = -1074;
+
+    /** The smallest significand of a normal double. */
+    private static final long C_MIN = 1L << (P - 1);
+
+    /** Subnormal significands below this yield a single digit at first. */
+    private static final long C_TINY = 3;
+
+    /** The number of digits in the normalized decimal significand. */
+    private static final int H = 17;
+
+    /** The range of the decimal exponents k used by the algorithm. */
+    private static final int K_MIN = -324;
+    private static final int K_MAX = 292;
+
+    private static final long MASK_63 = (1L << 63) - 1;
+
+    /** "00" to "99", the tens digit at even and the ones digit at odd indexes. */
+    private static final char[] DIGIT_PAIRS = new char[200];
+
+    private static final long[] POW10 = new long[H + 2];
+
+    /** Scratch space for the characters of one number. */
+    private static final ThreadLocal<char[]> BUFFER = new ThreadLocal<char[]>() {
+        @Override
+        protected char[] initialValue() {
+            return new char[32];
+        }
+    };
+
+    static {
+        for (int i = 0; i < 100; i += 1) {
+            DIGIT_PAIRS[2 * i] = (char) ('0' + i / 10);
+            DIGIT_PAIRS[2 * i + 1] = (char) ('0' + i % 10);
+        }
+        long p = 1;
+        for (int i = 0; i < POW10.length; i += 1) {
+            POW10[i] = p;
+            p *= 10;
+        }
+    }
+
+    private JSONNumberWriter() {
+    }
+
+    /**
+     * Write a long.
+     *
+     * @param writer the destination
+     * @param value the number
+     * @throws IOException if the writer fails
+     */
+    static void write(Writer writer, long value) throws IOException {
+        final char[] buf = BUFFER.get();
+        final int start = putLong(buf, buf.length, value);
+        writer.write(buf, start, buf.length - start);
+    }
+
+    /**
+     * Write a finite double.
+     *
+     * @param writer the destination
+     * @param value the number
+     * @throws IOException if the writer fails
+     */
+    static void write(Writer writer, double value) throws IOException {
+        final char[] buf = BUFFER.get();
+        writer.write(buf, 0, putDouble(buf, value, false));
+    }
+
+    /**
+     * Write a finite double the way ECMAScript's <code>Number.toString</code>
+     * does, as RFC 8785 asks for: the shortest digits, even when a single
+     * digit suffices, plain decimals below 10^21 and from 10^-6 on, and
+     * <code>1e+21</code> style exponents otherwise. Negative zero is
+     * written as <code>0</code>.
+     *
+     * @param writer the destination
+     * @param value the number
+     * @throws IOException if the writer fails
+     */
+    static void writeECMAScript(Writer writer, double value) throws IOException {
+        final char[] buf = BUFFER.get();
+        writer.write(buf, 0, putDouble(buf, value == 0 ? 0.0 : value, true));
+    }
+
+    /**
+     * Format a finite double.
+     *
+     * @param value the number
+     * @return the shortest text for the number
+     */
+    static String toString(double value) {
+        final char[] buf = BUFFER.get();
+        return new String(buf, 0, putDouble(buf, value, false));
+    }
+
+    /**
+     * Put the digits of a long at the end of a buffer.
+     *
+     * @param buf the buffer, at least 20 chars long
+     * @param end the index after the last digit
+     * @param value the number
+     * @return the index of the first char
+     */
+    private static int putLong(char[] buf, int end, long value) {
+        if (value == Long.MIN_VALUE) {
+            // cannot be negated
+            end = putLong(buf, end, 8);
+            return putLong(buf, end, Long.MIN_VALUE / 10);
+        }
+        final boolean negative = value < 0;
+        long q = negative ? -value : value;
+        int i = end;
+        while (q >= 100) {
+            final int r = (int) (q % 100);
+            q /= 100;
+            buf[--i] = DIGIT_PAIRS[2 * r + 1];
+            buf[--i] = DIGIT_PAIRS[2 * r];
+        }
+        final int r = (int) q;
+        buf[--i] = DIGIT_PAIRS[2 * r + 1];
+        if (r >= 10) {
+            buf[--i] = DIGIT_PAIRS[2 * r];
+        }
+        if (negative) {
+            buf[--i] = '-';
+        }
+        return i;
+    }
+
+    /**
+     * Put a finite double at the start of a buffer.
+     *
+     * @param buf the buffer, at least 32 chars long
+     * @param v the number
+     * @param ecmaScript true for the ECMAScript layout
+     * @return the number of chars
+     */
+    private static int putDouble(char[] buf, double v, boolean ecmaScript) {
+        final long bits = Double.doubleToRawLongBits(v);
+        int pos = 0;
+        if (bits < 0) {
+            buf[pos++] = '-';
+        }
+        final long t = bits & ((1L << (P - 1)) - 1);
+        final int bq = (int) (bits >>> (P - 1)) & 0x7FF;
+        if (bq == 0 && t == 0) {
+            buf[pos++] = '0';
+            return pos;
+        }
+        long c;
+        int q;
+        if (bq != 0) {
+            c = C_MIN | t;
+            q = bq + Q_MIN - 1;
+            // integers below 2^53 are their own shortest decimal
+            if (q < 0 && q > -P) {
+                final long f = c >> -q;
+                if (f << -q == c) {
+                    return putDecimal(buf, pos, f, 0, ecmaScript);
+                }
+            }
+        } else {
+            c = t;
+            q = Q_MIN;
+            if (c < C_TINY && !ecmaScript) {
+                // look at two digits, like for all other doubles
+                return shortest(buf, pos, 10 * c, q, -1, false);
+            }
+        }
+        return shortest(buf, pos, c, q, 0, ecmaScript);
+    }
+
+    /**
+     * Find the shortest decimal for c 2^q 10^dk and put it in the buffer.
+     */
+    private static int shortest(char[] buf, int pos, long c, int q, int dk, boolean ecmaScript) {
+        // the rounding interval is closed when the significand is even
+        final int out = (int) c & 1;
+        final long cb = c << 2;
+        final long cbr = cb + 2;
+        final long cbl;
+        final int k;
+        if (c != C_MIN || q == Q_MIN) {
+            cbl = cb - 2;
+            k = flog10pow2(q);
+        } else {
+            // the lower neighbour is only half as far away
+            cbl = cb - 1;
+            k = flog10threeQuartersPow2(q);
+        }
+        final int h = q + flog2pow10(-k) + 2;
+        final int g = 2 * (-k - (-K_MAX));
+        final long[] table = Tables.G;
+        final long g1 = table[g];
+        final long g0 = table[g + 1];
+
+        final long vb = roundOdd(g1, g0, cb << h);
+        final long vbl = roundOdd(g1, g0, cbl << h) + out;
+        final long vbr = roundOdd(g1, g0, cbr << h) - out;
+
+        final long s = vb >> 2;
+        if (s >= 100) {
+            // try one digit less
+            final long sp10 = s / 10 * 10;
+            final long tp10 = sp10 + 10;
+            final boolean upin = vbl <= sp10 << 2;
+            final boolean wpin = (tp10 << 2) <= vbr;
+            if (upin != wpin) {
+                return putDecimal(buf, pos, upin ? sp10 : tp10, k + dk, ecmaScript);
+            }
+        }
+        final long tt = s + 1;
+        final boolean uin = vbl <= s << 2;
+        final boolean win = (tt << 2) <= vbr;
+        if (uin != win) {
+            return putDecimal(buf, pos, uin ? s : tt, k + dk, ecmaScript);
+        }
+        // both or neither are in the interval, take the closest
+        final long cmp = vb - ((s + tt) << 1);
+        return putDecimal(buf, pos, cmp < 0 || (cmp == 0 && (s & 1) == 0) ? s : tt, k + dk, ecmaScript);
+    }
+
+    /**
+     * Put f 10^e in the layout of Double.toString, without the ".0" of
+     * integral plain decimals, or in the layout of ECMAScript.
+     */
+    private static int putDecimal(char[] buf, int pos, long f, int e, boolean ecmaScript) {
+        // drop trailing zeros, the exponent keeps the value
+        while (f % 10 == 0) {
+            f /= 10;
+            e += 1;
+        }
+        final int start = putLong(buf, buf.length, f);
+        final int n = buf.length - start;
+        // the value is 0.ddd 10^x
+        final int x = e + n;
+        if (ecmaScript) {
+            return putECMAScript(buf, pos, start, n, x);
+        }
+        if (x > 0 && x <= 7) {
+            if (n <= x) {
+                System.arraycopy(buf, start, buf, pos, n);
+                pos += n;
+                for (int i = n; i < x; i += 1) {
+                    buf[pos++] = '0';
+                }
+            } else {
+                System.arraycopy(buf, start, buf, pos, x);
+                pos += x;
+                buf[pos++] = '.';
+                System.arraycopy(buf, start + x, buf, pos, n - x);
+                pos += n - x;
+            }
+        } else if (x > -3 && x <= 0) {
+            buf[pos++] = '0';
+            buf[pos++] = '.';
+            for (int i = x; i < 0; i += 1) {
+                buf[pos++] = '0';
+            }
+            System.arraycopy(buf, start, buf, pos, n);
+            pos += n;
+        } else {
+            buf[pos++] = buf[start];
+            buf[pos++] = '.';
+            if (n == 1) {
+                buf[pos++] = '0';
+            } else {
+                System.arraycopy(buf, start + 1, buf, pos, n - 1);
+                pos += n - 1;
+            }
+            buf[pos++] = 'E';
+            final int exp = putLong(buf, buf.length, x - 1);
+            System.arraycopy(buf, exp, buf, pos, buf.length - exp);
+            pos += buf.length - exp;
+        }
+        return pos;
+    }
+
+    /**
+     * Put 0.ddd 10^x in the layout of ECMAScript, with the n digits at the
+     * end of the buffer from start.
+     */
+    private static int putECMAScript(char[] buf, int pos, int start, int n, int x) {
+        if (x > 0 && x <= 21) {
+            if (n <= x) {
+                System.arraycopy(buf, start, buf, pos, n);
+                pos += n;
+                for (int i = n; i < x; i += 1) {
+                    buf[pos++] = '0';
+                }
+            } else {
+                System.arraycopy(buf, start, buf, pos, x);
+                pos += x;
+                buf[pos++] = '.';
+                System.arraycopy(buf, start + x, buf, pos, n - x);
+                pos += n - x;
+            }
+        } else if (x > -6 && x <= 0) {
+            buf[pos++] = '0';
+            buf[pos++] = '.';
+            for (int i = x; i < 0; i += 1) {
+                buf[pos++] = '0';
+            }
+            System.arraycopy(buf, start, buf, pos, n);
+            pos += n;
+        } else {
+            buf[pos++] = buf[start];
+            if (n > 1) {
+                buf[pos++] = '.';
+                System.arraycopy(buf, start + 1, buf, pos, n - 1);
+                pos += n - 1;
+            }
+            buf[pos++] = 'e';
+            if (x > 0) {
+                buf[pos++] = '+';
+            }
+            final int exp = putLong(buf, buf.length, x - 1);
+            System.arraycopy(buf, exp, buf, pos, buf.length - exp);
+            pos += buf.length - exp;
+        }
+        return pos;
+    }
+
+    /**
+     * Compute g cp 2^-127, rounded to odd, where g = g1 2^63 + g0.
+     */
+    private static long roundOdd(long g1, long g0, long cp) {
+        final long x1 = multiplyHigh(g0, cp);
+        final long y0 = g1 * cp;
+        final long y1 = multiplyHigh(g1, cp);
+        final long z = (y0 >>> 1) + x1;
+        final long vbp = y1 + (z >>> 63);
+        return vbp | ((z & MASK_63) + MASK_63) >>> 63;
+    }
+
+    /**
+     * The high 64 bits of the 128 bit product of two longs.
+     */
+    private static long multiplyHigh(long x, long y) {
+        final long x1 = x >> 32;
+        final long x2 = x & 0xFFFFFFFFL;
+        final long y1 = y >> 32;
+        final long y2 = y & 0xFFFFFFFFL;
+        final long z2 = x2 * y2;
+        final long t = x1 * y2 + (z2 >>> 32);
+        long z1 = t & 0xFFFFFFFFL;
+        final long z0 = t >> 32;
+        z1 += x2 * y1;
+        return x1 * y1 + z0 + (z1 >> 32);
+    }
+
+    /** floor(log10(2^e)) for |e| &lt;= 5456721. */
+    private static int flog10pow2(int e) {
+        return (int) (e * 661971961083L >> 41);
+    }
+
+    /** floor(log10(3/4 2^e)) for |e| &lt;= 2500. */
+    private static int flog10threeQuartersPow2(int e) {
+        return (int) (e * 661971961083L - 274743187321L >> 41);
+    }
+
+    /** floor(log2(10^e)) for |e| &lt;= 1233. */
+    private static int flog2pow10(int e) {
+        return (int) (e * 913124641741L >> 38);
+    }
+
+    /**
+     * The 126 bit approximations of the powers of ten, computed on first use.
+     */
+    private static final class Tables {
+
+        /**
+         * For e from -K_MAX to -K_MIN, the pair g1, g0 of
+         * g = floor(10^e 2^(125 - floor(log2(10^e)))) + 1 = g1 2^63 + g0.
+         */
+        static final long[] G = new long[2 * (K_MAX - K_MIN + 1)];
+
+        static {
+            final BigInteger ten = BigInteger.TEN;
+            final BigInteger mask = BigInteger.ONE.shiftLeft(63).subtract(BigInteger.ONE);
+            for (int e = -K_MAX; e <= -K_MIN; e += 1) {
+                final int shift = 125 - flog2pow10(e);
+                BigInteger g;
+                if (e >= 0) {
+                    g = ten.pow(e);
+                    g = shift >= 0 ? g.shiftLeft(shift) : g.shiftRight(-shift);
+                } else {
+                    g = BigInteger.ONE.shiftLeft(shift).divide(ten.pow(-e));
+                }
+                g = g.add(BigInteger.ONE);
+                final int i = 2 * (e + K_MAX);
+                G[i] = g.shiftRight(63).longValue();
+                G[i + 1] = g.and(mask).longValue();
+            }
+        }
+    }
+}
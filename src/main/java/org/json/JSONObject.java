@@ -33,7 +33,6 @@ import java.lang.annotation.Annotation;
 import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
-import java.lang.reflect.Modifier;
 import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.util.*;
@@ -148,15 +147,36 @@ public class JSONObject {
     
     /**
      *  Regular Expression Pattern that matches JSON Numbers. This is primarily used for
-     *  output to guarantee that we are always writing valid JSON. 
+     *  output to guarantee that we are always writing valid JSON. It is only
+     *  compiled once a number that is not a plain integer or double is
+     *  written, which most programs never do.
      */
-    static final Pattern NUMBER_PATTERN = Pattern.compile("-?(?:0|[1-9]\\d*)(?:\\.\\d+)?(?:[eE][+-]?\\d+)?");
+    private static final class NumberPattern {
+        static final Pattern INSTANCE = Pattern.compile("-?(?:0|[1-9]\\d*)(?:\\.\\d+)?(?:[eE][+-]?\\d+)?");
+    }
+
+    /**
+     * Get the pattern that matches JSON numbers.
+     *
+     * @return the pattern.
+     */
+    static Pattern numberPattern() {
+        return NumberPattern.INSTANCE;
+    }
 
     /**
      * The map where the JSONObject's properties are kept.
      */
     private final Map<String, Object> map;
 
+    /**
+     * The memoized serialized form of this JSONObject, or null if the
+     * serialization cache has not been enabled.
+     *
+     * @see #enableSerializationCache()
+     */
+    private JSONSerializationCache serializationCache;
+
     /**
      * It is sometimes more convenient and less ambiguous to have a
      * <code>NULL</code> object than to use Java's <code>null</code> value.
@@ -208,7 +228,8 @@ public class JSONObject {
      *             duplicated key.
      */
     public JSONObject(JSONTokener x) throws JSONException {
-        this();
+        this(x.objectCapacity());
+        final String hintKey = x.hintKey();
         char c;
         String key;
 
@@ -221,6 +242,7 @@ public class JSONObject {
             case 0:
                 throw x.syntaxError("A JSONObject text must end with '}'");
             case '}':
+                x.parsed(hintKey, this.map.size());
                 return;
             default:
                 x.back();
@@ -243,6 +265,9 @@ public class JSONObject {
                     throw x.syntaxError("Duplicate key \"" + key + "\"");
                 }
                 // Only add value if non-null
+                if (hintKey != null) {
+                    x.hintKey(key);
+                }
                 Object value = x.nextValue();
                 if (value!=null) {
                     this.put(key, value);
@@ -255,11 +280,13 @@ public class JSONObject {
             case ';':
             case ',':
                 if (x.nextClean() == '}') {
+                    x.parsed(hintKey, this.map.size());
                     return;
                 }
                 x.back();
                 break;
             case '}':
+                x.parsed(hintKey, this.map.size());
                 return;
             default:
                 throw x.syntaxError("Expected a ',' or '}'");
@@ -400,6 +427,24 @@ public class JSONObject {
         this(new JSONTokener(source));
     }
 
+    /**
+     * Construct a JSONObject from a source JSON text string, parsing with a
+     * configuration.
+     *
+     * @param source
+     *            A string beginning with <code>{</code>&nbsp;<small>(left
+     *            brace)</small> and ending with <code>}</code>
+     *            &nbsp;<small>(right brace)</small>.
+     * @param config
+     *            The parser configuration.
+     * @exception JSONException
+     *                If there is a syntax error in the source string or a
+     *                duplicated key.
+     */
+    public JSONObject(String source, JSONParserConfiguration config) throws JSONException {
+        this(new JSONTokener(source, config));
+    }
+
     /**
      * Construct a JSONObject from a ResourceBundle.
      *
@@ -454,6 +499,47 @@ public class JSONObject {
         this.map = new HashMap<String, Object>(initialCapacity);
     }
 
+    /**
+     * Construct a JSONObject viewing a map.
+     *
+     * @param members
+     *            the members of the view.
+     */
+    private JSONObject(JSONViews.ObjectMembers members) {
+        this.map = members;
+    }
+
+    /**
+     * Make a JSONObject backed by a map, without copying it. Unlike
+     * {@link #JSONObject(Map)}, which wraps all of the values up front, the
+     * view wraps a value each time it is read, and reads nested maps and
+     * random access lists through views of their own. This makes handing a
+     * large map to org.json just to write it as JSON text cheap.
+     * <p>
+     * The view holds the entries of the map whose value is not null, with
+     * the string form of their keys. It reflects later changes to the map,
+     * and cannot be modified: <code>put</code> and <code>remove</code>
+     * throw <code>UnsupportedOperationException</code>. Its members are
+     * written in the order of the map. Values that are not valid JSON, like
+     * non-finite numbers, are found when they are read.
+     * <p>
+     * Since the entries whose value is null are left out,
+     * <code>length()</code> walks the whole map to count them each time it is
+     * called, which costs as much as reading every member. Keep the length
+     * rather than asking for it again in a loop. <code>isEmpty()</code> only
+     * looks as far as the first member.
+     *
+     * @param map
+     *            the map. If null, an empty JSONObject is returned.
+     * @return a JSONObject backed by the map.
+     */
+    public static JSONObject view(Map<?, ?> map) {
+        if (map == null) {
+            return new JSONObject();
+        }
+        return new JSONObject(new JSONViews.ObjectMembers(map));
+    }
+
     /**
      * Accumulate values under a key. It is similar to the put method except
      * that if there is already an object stored under the key then a JSONArray
@@ -522,7 +608,8 @@ public class JSONObject {
 
     /**
      * Produce a string from a double. The string "null" will be returned if the
-     * number is not finite.
+     * number is not finite. The string has the fewest digits that still read
+     * back as the same double.
      *
      * @param d
      *            A double.
@@ -532,20 +619,7 @@ public class JSONObject {
         if (Double.isInfinite(d) || Double.isNaN(d)) {
             return "null";
         }
-
-// Shave off trailing zeros and decimal point, if possible.
-
-        String string = Double.toString(d);
-        if (string.indexOf('.') > 0 && string.indexOf('e') < 0
-                && string.indexOf('E') < 0) {
-            while (string.endsWith("0")) {
-                string = string.substring(0, string.length() - 1);
-            }
-            if (string.endsWith(".")) {
-                string = string.substring(0, string.length() - 1);
-            }
-        }
-        return string;
+        return JSONNumberWriter.toString(d);
     }
 
     /**
@@ -885,6 +959,9 @@ public class JSONObject {
      */
     public JSONObject increment(String key) throws JSONException {
         Object value = this.opt(key);
+        if (value instanceof JSONNumber) {
+            value = ((JSONNumber) value).toNumber();
+        }
         if (value == null) {
             this.put(key, 1);
         } else if (value instanceof Integer) {
@@ -972,6 +1049,12 @@ public class JSONObject {
      * The JSONObject will be empty after this call returns.
      */
     public void clear() {
+        if (this.serializationCache != null) {
+            for (Object value : this.map.values()) {
+                this.serializationCache.release(value);
+            }
+            this.serializationCache.invalidate();
+        }
         this.map.clear();
     }
 
@@ -984,6 +1067,114 @@ public class JSONObject {
         return this.map.isEmpty();
     }
 
+    /**
+     * Memoize the compact JSON text of this JSONObject. Once enabled,
+     * <code>toString()</code> and <code>write(Writer)</code> serialize the
+     * object only the first time and copy the stored text afterwards, until the
+     * object changes. The cache is enabled for every JSONObject and JSONArray
+     * nested in this one as well, so serializing an unchanged subtree is a
+     * bulk copy, and a <code>put</code> or <code>remove</code> anywhere below
+     * this object discards the stored text of every enclosing container.
+     * {@link #fingerprint()} is memoized the same way.
+     * <p>
+     * Only changes made through the JSONObject and JSONArray methods are
+     * noticed. Changes made through {@link #keySet()}, the JSONArray iterator,
+     * or to a value that is not a JSONObject or JSONArray (a Map, a bean, a
+     * {@link JSONString}) leave a stale text behind. Pretty printed output is
+     * never cached. A view cannot be cached, and a container holding a view,
+     * at any depth, is serialized afresh each time.
+     *
+     * @return this.
+     * @throws UnsupportedOperationException
+     *             if this JSONObject is a view, see {@link #view(Map)}.
+     */
+    public JSONObject enableSerializationCache() {
+        if (this.isView()) {
+            throw new UnsupportedOperationException("A view cannot be cached.");
+        }
+        this.serializationCache();
+        return this;
+    }
+
+    /**
+     * Check whether this JSONObject is a view of a collection it does not own.
+     *
+     * @return true if this JSONObject was made by {@link #view(Map)}.
+     */
+    boolean isView() {
+        return this.map instanceof JSONViews.ObjectMembers;
+    }
+
+    /**
+     * Get the serialization cache of this JSONObject, enabling it first if
+     * necessary.
+     *
+     * @return the cache, never null.
+     */
+    JSONSerializationCache serializationCache() {
+        if (this.serializationCache == null) {
+            JSONSerializationCache cache = new JSONSerializationCache();
+            for (Object value : this.map.values()) {
+                cache.adopt(value);
+            }
+            this.serializationCache = cache;
+        }
+        return this.serializationCache;
+    }
+
+    /**
+     * Compute a 64 bit structural hash of this JSONObject, without producing
+     * its text. JSONObjects that are {@link #similar(Object)} have the same
+     * fingerprint: the order of object members does not matter, and numbers
+     * hash by their value, so <code>2</code>, <code>2.0</code> and
+     * <code>2.00</code> are alike. Different JSONObjects can share a
+     * fingerprint, though rarely; the fingerprint is not a cryptographic hash.
+     * <p>
+     * With the serialization cache enabled the fingerprint is kept until the
+     * JSONObject or a nested container changes, so repeated calls are cheap.
+     *
+     * @return the fingerprint.
+     * @see #enableSerializationCache()
+     */
+    public long fingerprint() {
+        final JSONSerializationCache cache = this.serializationCache;
+        if (cache == null) {
+            return JSONFingerprint.of(this);
+        }
+        final Long cached = cache.fingerprint;
+        if (cached != null) {
+            return cached.longValue();
+        }
+        final long fingerprint = JSONFingerprint.of(this);
+        if (cache.isCacheable()) {
+            cache.fingerprint = Long.valueOf(fingerprint);
+        }
+        return fingerprint;
+    }
+
+    /**
+     * Get the compact JSON text of this JSONObject from the serialization
+     * cache, serializing it if it changed since it was last written.
+     *
+     * @return the compact JSON text.
+     * @throws JSONException
+     *             If the object contains an invalid number.
+     */
+    private String serializedText() throws JSONException {
+        final JSONSerializationCache cache = this.serializationCache;
+        String text = cache.text;
+        if (text == null) {
+            StringWriter w = new StringWriter();
+            synchronized (w.getBuffer()) {
+                text = this.writeMembers(w, 0, 0).toString();
+            }
+            if (cache.isCacheable()) {
+                cache.text = text;
+            }
+        }
+        return text;
+    }
+
     /**
      * Produce a JSONArray containing the names of the elements of this
      * JSONObject.
@@ -1012,6 +1203,9 @@ public class JSONObject {
             throw new JSONException("Null pointer");
         }
         testValidity(number);
+        if (number instanceof Double) {
+            return JSONNumberWriter.toString(number.doubleValue());
+        }
 
         // Shave off trailing zeros and decimal point, if possible.
 
@@ -1029,14 +1223,19 @@ public class JSONObject {
     }
 
     /**
-     * Get an optional value associated with a key.
+     * Get an optional value associated with a key. For a {@link JSONRaw}
+     * value this is its parsed value, a new copy each time if it is a
+     * JSONObject or JSONArray; the JSONRaw stays in place.
      *
      * @param key
      *            A key string.
      * @return An object which is the value, or null if there is no value.
      */
     public Object opt(String key) {
-        return key == null ? null : this.map.get(key);
+        if (key == null) {
+            return null;
+        }
+        return JSONRaw.contents(this.map.get(key));
     }
 
     /**
@@ -1482,51 +1681,52 @@ public class JSONObject {
      *            the bean
      */
     private void populateMap(Object bean) {
-        Class<?> klass = bean.getClass();
-
-        // If klass is a System class then set includeSuperClass to false.
-
-        boolean includeSuperClass = klass.getClassLoader() != null;
-
-        Method[] methods = includeSuperClass ? klass.getMethods() : klass.getDeclaredMethods();
-        for (final Method method : methods) {
-            final int modifiers = method.getModifiers();
-            if (Modifier.isPublic(modifiers)
-                    && !Modifier.isStatic(modifiers)
-                    && method.getParameterTypes().length == 0
-                    && !method.isBridge()
-                    && method.getReturnType() != Void.TYPE
-                    && isValidMethodName(method.getName())) {
-                final String key = getKeyNameFromMethod(method);
-                if (key != null && !key.isEmpty()) {
-                    try {
-                        final Object result = method.invoke(bean);
-                        if (result != null) {
-                            this.map.put(key, wrap(result));
-                            // we don't use the result anywhere outside of wrap
-                            // if it's a resource we should be sure to close it
-                            // after calling toString
-                            if (result instanceof Closeable) {
-                                try {
-                                    ((Closeable) result).close();
-                                } catch (IOException ignore) {
-                                }
-                            }
+        final JSONBeanInfo info = JSONBeanInfo.of(bean.getClass());
+        final JSONBeanInfo.Accessor[] accessors = info.accessors;
+        final String[] keys = info.keys;
+        for (int i = 0; i < accessors.length; i += 1) {
+            try {
+                final Object result = accessors[i].get(bean);
+                if (result != null) {
+                    this.map.put(keys[i], wrap(result));
+                    // we don't use the result anywhere outside of wrap
+                    // if it's a resource we should be sure to close it
+                    // after calling toString
+                    if (result instanceof Closeable) {
+                        try {
+                            ((Closeable) result).close();
+                        } catch (IOException ignore) {
                         }
-                    } catch (IllegalAccessException ignore) {
-                    } catch (IllegalArgumentException ignore) {
-                    } catch (InvocationTargetException ignore) {
                     }
                 }
+            } catch (IllegalAccessException ignore) {
+            } catch (IllegalArgumentException ignore) {
+            } catch (InvocationTargetException ignore) {
             }
         }
     }
 
-    private static boolean isValidMethodName(String name) {
+    static boolean isValidMethodName(String name) {
         return !"getClass".equals(name) && !"getDeclaringClass".equals(name);
     }
 
-    private static String getKeyNameFromMethod(Method method) {
+    static String getKeyNameFromMethod(Method method) {
+        return getKeyNameFromMethod(method, false);
+    }
+
+    /**
+     * Get the key a setter binds, like {@link #getKeyNameFromMethod(Method)}
+     * gets the key of a getter.
+     *
+     * @param method
+     *            a method taking one argument.
+     * @return the key, or null if the method is not a setter or is ignored.
+     */
+    static String getKeyNameFromSetter(Method method) {
+        return getKeyNameFromMethod(method, true);
+    }
+
+    private static String getKeyNameFromMethod(Method method, boolean setter) {
         final int ignoreDepth = getAnnotationDepth(method, JSONPropertyIgnore.class);
         if (ignoreDepth > 0) {
             final int forcedNameDepth = getAnnotationDepth(method, JSONPropertyName.class);
@@ -1540,15 +1740,29 @@ public class JSONObject {
         if (annotation != null && annotation.value() != null && !annotation.value().isEmpty()) {
             return annotation.value();
         }
-        String key;
         final String name = method.getName();
-        if (name.startsWith("get") && name.length() > 3) {
-            key = name.substring(3);
+        if (setter) {
+            if (name.startsWith("set") && name.length() > 3) {
+                return getKeyNameFromProperty(name.substring(3));
+            }
+        } else if (name.startsWith("get") && name.length() > 3) {
+            return getKeyNameFromProperty(name.substring(3));
         } else if (name.startsWith("is") && name.length() > 2) {
-            key = name.substring(2);
-        } else {
-            return null;
+            return getKeyNameFromProperty(name.substring(2));
         }
+        return null;
+    }
+
+    /**
+     * Get the key of a property from what follows the prefix of its getter
+     * or setter.
+     *
+     * @param key
+     *            the name of the method without "get", "is" or "set".
+     * @return the key, or null if the name does not start with an uppercase
+     *         letter.
+     */
+    static String getKeyNameFromProperty(String key) {
         // if the first letter in the key is not uppercase, then skip.
         // This is to maintain backwards compatibility before PR406
         // (https://github.com/stleary/JSON-java/pull/406/)
@@ -1821,7 +2035,12 @@ public class JSONObject {
         }
         if (value != null) {
             testValidity(value);
-            this.map.put(key, value);
+            Object previous = this.map.put(key, value);
+            if (this.serializationCache != null) {
+                this.serializationCache.release(previous);
+                this.serializationCache.adopt(value);
+                this.serializationCache.invalidate();
+            }
         } else {
             this.remove(key);
         }
@@ -1957,7 +2176,14 @@ public class JSONObject {
      * @return A String correctly formatted for insertion in a JSON text.
      */
     public static String quote(String string) {
-        StringWriter sw = new StringWriter();
+        if (string == null || string.isEmpty()) {
+            return "\"\"";
+        }
+        if (isPlain(string)) {
+            return new StringBuilder(string.length() + 2)
+                    .append('"').append(string).append('"').toString();
+        }
+        StringWriter sw = new StringWriter(string.length() + 16);
         synchronized (sw.getBuffer()) {
             try {
                 return quote(string, sw).toString();
@@ -1968,6 +2194,19 @@ public class JSONObject {
         }
     }
 
+    /**
+     * Produce a string in double quotes with backslash sequences in all the
+     * right places, see {@link #quote(String)}. Runs of characters that need
+     * no escaping are written with a single call.
+     *
+     * @param string
+     *            A String
+     * @param w
+     *            The Writer to write the quoted string to
+     * @return The Writer
+     * @throws IOException
+     *             If the writer fails
+     */
     public static Writer quote(String string, Writer w) throws IOException {
         if (string == null || string.isEmpty()) {
             w.write("\"\"");
@@ -1979,21 +2218,24 @@ public class JSONObject {
         String hhhh;
         int i;
         int len = string.length();
+        int run = 0;
 
         w.write('"');
         for (i = 0; i < len; i += 1) {
             b = c;
             c = string.charAt(i);
+            if (isPlain(c, b)) {
+                continue;
+            }
+            if (run < i) {
+                w.write(string, run, i - run);
+            }
+            run = i + 1;
             switch (c) {
             case '\\':
             case '"':
-                w.write('\\');
-                w.write(c);
-                break;
             case '/':
-                if (b == '<') {
-                    w.write('\\');
-                }
+                w.write('\\');
                 w.write(c);
                 break;
             case '\b':
@@ -2012,21 +2254,55 @@ public class JSONObject {
                 w.write("\\r");
                 break;
             default:
-                if (c < ' ' || (c >= '\u0080' && c < '\u00a0')
-                        || (c >= '\u2000' && c < '\u2100')) {
-                    w.write("\\u");
-                    hhhh = Integer.toHexString(c);
-                    w.write("0000", 0, 4 - hhhh.length());
-                    w.write(hhhh);
-                } else {
-                    w.write(c);
-                }
+                w.write("\\u");
+                hhhh = Integer.toHexString(c);
+                w.write("0000", 0, 4 - hhhh.length());
+                w.write(hhhh);
             }
         }
+        if (run < len) {
+            w.write(string, run, len - run);
+        }
         w.write('"');
         return w;
     }
 
+    /**
+     * Check whether a string can be quoted without escaping any character.
+     *
+     * @param string
+     *            A String
+     * @return true if no character needs escaping.
+     */
+    private static boolean isPlain(String string) {
+        char c = 0;
+        for (int i = 0, len = string.length(); i < len; i += 1) {
+            char b = c;
+            c = string.charAt(i);
+            if (!isPlain(c, b)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Check whether a character can be written as is inside a quoted string.
+     * A slash needs escaping only after a &lt;.
+     *
+     * @param c
+     *            the character
+     * @param previous
+     *            the character before it, or 0
+     * @return true if the character needs no escaping.
+     */
+    private static boolean isPlain(char c, char previous) {
+        if (c < '\u0080') {
+            return c >= ' ' && c != '\\' && c != '"' && (c != '/' || previous != '<');
+        }
+        return c >= '\u00a0' && (c < '\u2000' || c >= '\u2100');
+    }
+
     /**
      * Remove a name and its value, if present.
      *
@@ -2036,7 +2312,12 @@ public class JSONObject {
      *         no value.
      */
     public Object remove(String key) {
-        return this.map.remove(key);
+        Object previous = this.map.remove(key);
+        if (previous != null && this.serializationCache != null) {
+            this.serializationCache.release(previous);
+            this.serializationCache.invalidate();
+        }
+        return previous;
     }
 
     /**
@@ -2057,7 +2338,7 @@ public class JSONObject {
             }
             for (final Entry<String,?> entry : this.entrySet()) {
                 String name = entry.getKey();
-                Object valueThis = entry.getValue();
+                Object valueThis = JSONRaw.contents(entry.getValue());
                 Object valueOther = ((JSONObject)other).get(name);
                 if(valueThis == valueOther) {
                 	continue;
@@ -2125,7 +2406,7 @@ public class JSONObject {
         return lBigDecimal.compareTo(rBigDecimal) == 0;
     }
     
-    private static boolean numberIsFinite(Number n) {
+    static boolean numberIsFinite(Number n) {
         if (n instanceof Double && (((Double) n).isInfinite() || ((Double) n).isNaN())) {
             return false;
         } else if (n instanceof Float && (((Float) n).isInfinite() || ((Float) n).isNaN())) {
@@ -2310,6 +2591,9 @@ public class JSONObject {
     @Override
     public String toString() {
         try {
+            if (this.serializationCache != null) {
+                return this.serializedText();
+            }
             return this.toString(0);
         } catch (Exception e) {
             return null;
@@ -2493,40 +2777,123 @@ public class JSONObject {
             if (NULL.equals(object)) {
                 return NULL;
             }
-            if (object instanceof JSONObject || object instanceof JSONArray
-                    || NULL.equals(object) || object instanceof JSONString
-                    || object instanceof Byte || object instanceof Character
-                    || object instanceof Short || object instanceof Integer
-                    || object instanceof Long || object instanceof Boolean
-                    || object instanceof Float || object instanceof Double
-                    || object instanceof String || object instanceof BigInteger
-                    || object instanceof BigDecimal || object instanceof Enum) {
+            switch (WRAP_KINDS.get(object.getClass())) {
+            case AS_IS:
                 return object;
+            case COLLECTION:
+                return new JSONArray((Collection<?>) object);
+            case ARRAY:
+                return new JSONArray(object);
+            case MAP:
+                return new JSONObject((Map<?, ?>) object);
+            case STRING:
+                return object.toString();
+            default:
+                return new JSONObject(object);
             }
+        } catch (Exception exception) {
+            return null;
+        }
+    }
 
-            if (object instanceof Collection) {
-                Collection<?> coll = (Collection<?>) object;
-                return new JSONArray(coll);
+    /**
+     * What {@link #wrap(Object)} makes of the instances of a class, in the
+     * order it checks for them.
+     */
+    enum WrapKind {
+        /**
+         * JSONObjects, JSONArrays, JSONStrings, the boxed primitives, Strings,
+         * BigIntegers, BigDecimals and enums, which are JSON values as they
+         * are.
+         */
+        AS_IS,
+        /**
+         * Collections, wrapped in a JSONArray.
+         */
+        COLLECTION,
+        /**
+         * Arrays, wrapped in a JSONArray.
+         */
+        ARRAY,
+        /**
+         * Maps, wrapped in a JSONObject.
+         */
+        MAP,
+        /**
+         * Other classes of the JDK, turned into their <code>toString()</code>.
+         */
+        STRING,
+        /**
+         * Anything else, read into a JSONObject through its getters.
+         */
+        BEAN
+    }
+
+    /**
+     * The kind of each class {@link #wrap(Object)} has seen, so that it does
+     * not test every value against all the types it knows.
+     */
+    static final ClassValue<WrapKind> WRAP_KINDS = new ClassValue<WrapKind>() {
+        @Override
+        protected WrapKind computeValue(Class<?> klass) {
+            if (JSONObject.class.isAssignableFrom(klass)
+                    || JSONArray.class.isAssignableFrom(klass)
+                    || klass == Null.class
+                    || JSONString.class.isAssignableFrom(klass)
+                    || klass == Byte.class || klass == Character.class
+                    || klass == Short.class || klass == Integer.class
+                    || klass == Long.class || klass == Boolean.class
+                    || klass == Float.class || klass == Double.class
+                    || klass == String.class
+                    || BigInteger.class.isAssignableFrom(klass)
+                    || BigDecimal.class.isAssignableFrom(klass)
+                    || Enum.class.isAssignableFrom(klass)) {
+                return WrapKind.AS_IS;
             }
-            if (object.getClass().isArray()) {
-                return new JSONArray(object);
+            if (Collection.class.isAssignableFrom(klass)) {
+                return WrapKind.COLLECTION;
             }
-            if (object instanceof Map) {
-                Map<?, ?> map = (Map<?, ?>) object;
-                return new JSONObject(map);
+            if (klass.isArray()) {
+                return WrapKind.ARRAY;
             }
-            Package objectPackage = object.getClass().getPackage();
-            String objectPackageName = objectPackage != null ? objectPackage
-                    .getName() : "";
-            if (objectPackageName.startsWith("java.")
-                    || objectPackageName.startsWith("javax.")
-                    || object.getClass().getClassLoader() == null) {
-                return object.toString();
+            if (Map.class.isAssignableFrom(klass)) {
+                return WrapKind.MAP;
             }
-            return new JSONObject(object);
-        } catch (Exception exception) {
-            return null;
+            if (wrapsAsString(klass)) {
+                return WrapKind.STRING;
+            }
+            return WrapKind.BEAN;
         }
+    };
+
+    /**
+     * Tell if {@link #wrap(Object)} returns a value as it is.
+     *
+     * @param object
+     *            the value, not null.
+     * @return true for JSONObjects, JSONArrays, JSONStrings, the boxed
+     *         primitives, Strings, BigIntegers, BigDecimals and enums.
+     */
+    static boolean wrapsAsIs(Object object) {
+        return WRAP_KINDS.get(object.getClass()) == WrapKind.AS_IS;
+    }
+
+    /**
+     * Tell if {@link #wrap(Object)} turns objects of a class that is not a
+     * collection, array or map into their <code>toString()</code> rather
+     * than into a bean JSONObject.
+     *
+     * @param klass
+     *            the class of the object.
+     * @return true for the classes of the JDK.
+     */
+    static boolean wrapsAsString(Class<?> klass) {
+        Package objectPackage = klass.getPackage();
+        String objectPackageName = objectPackage != null ? objectPackage
+                .getName() : "";
+        return objectPackageName.startsWith("java.")
+                || objectPackageName.startsWith("javax.")
+                || klass.getClassLoader() == null;
     }
 
     /**
@@ -2555,10 +2922,15 @@ public class JSONObject {
                 throw new JSONException(e);
             }
             writer.write(o != null ? o.toString() : quote(value.toString()));
+        } else if (value instanceof Integer || value instanceof Long
+                || value instanceof Short || value instanceof Byte) {
+            JSONNumberWriter.write(writer, ((Number) value).longValue());
+        } else if (value instanceof Double && numberIsFinite((Double) value)) {
+            JSONNumberWriter.write(writer, ((Double) value).doubleValue());
         } else if (value instanceof Number) {
             // not all Numbers may match actual JSON Numbers. i.e. fractions or Imaginary
             final String numberAsString = numberToString((Number) value);
-            if(NUMBER_PATTERN.matcher(numberAsString).matches()) {
+            if(numberPattern().matcher(numberAsString).matches()) {
                 writer.write(numberAsString);
             } else {
                 // The Number value is not a valid JSON number.
@@ -2622,6 +2994,122 @@ public class JSONObject {
      */
     public Writer write(Writer writer, int indentFactor, int indent)
             throws JSONException {
+        if (this.serializationCache != null && indentFactor == 0 && indent == 0) {
+            try {
+                writer.write(this.serializedText());
+                return writer;
+            } catch (IOException exception) {
+                throw new JSONException(exception);
+            }
+        }
+        return this.writeMembers(writer, indentFactor, indent);
+    }
+
+    /**
+     * Write the parts of this JSONObject that a filter selects as compact
+     * JSON text, without copying them into a new JSONObject first. For
+     * example, <pre>
+     * myJSONObject.write(writer, JSONSerializationFilter.include("id", "name"));</pre>
+     * writes the same text as
+     * <code>new JSONObject(myJSONObject, "id", "name").write(writer)</code>.
+     * <p><b>
+     * Warning: This method assumes that the data structure is acyclical.
+     * </b>
+     *
+     * @param writer
+     *            Writes the serialized JSON
+     * @param filter
+     *            Selects the members to write, and the parts of their values.
+     * @return The writer.
+     * @throws JSONException if a called function has an error or a write error
+     * occurs
+     */
+    public Writer write(Writer writer, JSONSerializationFilter filter)
+            throws JSONException {
+        if (filter == JSONSerializationFilter.ALL) {
+            return this.write(writer);
+        }
+        try {
+            boolean needsComma = false;
+            writer.write('{');
+            for (final Entry<String,?> entry : this.entrySet()) {
+                final String key = entry.getKey();
+                final JSONSerializationFilter nested = filter.member(key);
+                if (nested == null) {
+                    continue;
+                }
+                if (needsComma) {
+                    writer.write(',');
+                }
+                writer.write(JSONKeyCache.quoted(key));
+                writer.write(':');
+                try {
+                    writeValue(writer, entry.getValue(), nested);
+                } catch (Exception e) {
+                    throw new JSONException("Unable to write JSONObject value for key: " + key, e);
+                }
+                needsComma = true;
+            }
+            writer.write('}');
+            return writer;
+        } catch (IOException exception) {
+            throw new JSONException(exception);
+        }
+    }
+
+    /**
+     * Write the parts of a value that a filter selects as compact JSON text.
+     *
+     * @param writer
+     *            Writes the serialized JSON
+     * @param value
+     *            The value to write
+     * @param filter
+     *            Selects the parts of the value to write
+     * @return The writer.
+     */
+    static final Writer writeValue(Writer writer, Object value,
+            JSONSerializationFilter filter) throws JSONException, IOException {
+        if (filter == JSONSerializationFilter.ALL) {
+            return writeValue(writer, value, 0, 0);
+        }
+        if (value instanceof JSONObject) {
+            return ((JSONObject) value).write(writer, filter);
+        }
+        if (value instanceof JSONArray) {
+            return ((JSONArray) value).write(writer, filter);
+        }
+        if (value instanceof JSONRaw) {
+            return writeValue(writer, ((JSONRaw) value).value(), filter);
+        }
+        if (value instanceof Map) {
+            return new JSONObject((Map<?, ?>) value).write(writer, filter);
+        }
+        if (value instanceof Collection) {
+            return new JSONArray((Collection<?>) value).write(writer, filter);
+        }
+        if (value != null && value.getClass().isArray()) {
+            return new JSONArray(value).write(writer, filter);
+        }
+        return writeValue(writer, value, 0, 0);
+    }
+
+    /**
+     * Write the contents of the JSONObject as JSON text to a writer without
+     * consulting the serialization cache.
+     *
+     * @param writer
+     *            Writes the serialized JSON
+     * @param indentFactor
+     *            The number of spaces to add to each level of indentation.
+     * @param indent
+     *            The indentation of the top level.
+     * @return The writer.
+     * @throws JSONException if a called function has an error or a write error
+     * occurs
+     */
+    private Writer writeMembers(Writer writer, int indentFactor, int indent)
+            throws JSONException {
         try {
             boolean needsComma = false;
             final int length = this.length();
@@ -2630,7 +3118,7 @@ public class JSONObject {
             if (length == 1) {
             	final Entry<String,?> entry = this.entrySet().iterator().next();
                 final String key = entry.getKey();
-                writer.write(quote(key));
+                writer.write(JSONKeyCache.quoted(key));
                 writer.write(':');
                 if (indentFactor > 0) {
                     writer.write(' ');
@@ -2651,7 +3139,7 @@ public class JSONObject {
                     }
                     indent(writer, newIndent);
                     final String key = entry.getKey();
-                    writer.write(quote(key));
+                    writer.write(JSONKeyCache.quoted(key));
                     writer.write(':');
                     if (indentFactor > 0) {
                         writer.write(' ');
@@ -2701,6 +3189,40 @@ public class JSONObject {
         }
         return results;
     }
+
+    /**
+     * Returns a java.util.Map view of this object, which holds the values the
+     * way {@link #toMap()} does, without copying them. A nested JSONObject or
+     * JSONArray is seen as a Map or List view of its own, and
+     * <code>NULL</code> as <code>null</code>. The view reflects later changes
+     * to this object, and cannot be modified.
+     *
+     * @return a java.util.Map view of this object
+     */
+    public Map<String, Object> asMap() {
+        return new JSONViews.MapView(this);
+    }
+
+    /**
+     * Binds this object to a new instance of a class, through the class's
+     * public no-argument constructor and its setters or public fields. A
+     * member is bound to the setter whose key, derived the way
+     * {@link #JSONObject(Object)} derives keys from getters and honoring
+     * {@link JSONPropertyName}, is the member's name. Members without a
+     * setter are ignored. See {@link JSONBeanReader}.
+     *
+     * @param <T>
+     *            the type of the result.
+     * @param klass
+     *            a bean class, or a map class.
+     * @return a new instance of the class
+     * @throws JSONException
+     *             if the class cannot be instantiated, or a member does not
+     *             fit the property it is bound to.
+     */
+    public <T> T toBean(Class<T> klass) throws JSONException {
+        return JSONBeanReader.toBean(this, klass);
+    }
     
     /**
      * Create a new JSONException in a common format for incorrect conversions.
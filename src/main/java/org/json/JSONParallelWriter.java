@@ -0,0 +1,353 @@
+package org.json;
+
+/*
+Copyright (c) 2002 JSON.org
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+The Software shall be used for Good, not Evil.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map.Entry;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Serializes large JSONObjects and JSONArrays on several cores. The members
+ * of a container that has more than a chunk's worth of them are split into
+ * chunks; each chunk is written into its own buffer by a task on a
+ * <code>ForkJoinPool</code>, and the buffers are copied onto the writer in
+ * order as they complete. The text is identical to the one
+ * <code>write(Writer)</code> and <code>write(Writer, int, int)</code>
+ * produce.
+ * <p>
+ * Only a window of chunks is in flight at any time, so the memory used for
+ * buffers stays bounded however large the document is. Containers with few
+ * members are written by the calling thread, which descends into them to
+ * find large containers further down; the members of a chunk are written
+ * sequentially.
+ * <p>
+ * The document must not be modified while it is written.
+ *
+ * @author JSON.org
+ */
+public class JSONParallelWriter {
+
+    /**
+     * The pool running the chunk tasks.
+     */
+    private final ForkJoinPool pool;
+
+    /**
+     * The number of members in a chunk.
+     */
+    private final int chunkSize;
+
+    /**
+     * The largest number of chunks in flight.
+     */
+    private final int window;
+
+    /**
+     * Make a writer using the common pool, chunks of 1024 members and a
+     * window of twice the pool's parallelism.
+     */
+    public JSONParallelWriter() {
+        this(ForkJoinPool.commonPool(), 1024, 2 * ForkJoinPool.commonPool().getParallelism());
+    }
+
+    /**
+     * Make a writer.
+     *
+     * @param pool
+     *            the pool running the chunk tasks.
+     * @param chunkSize
+     *            the number of members of a container written by one task.
+     *            Containers with no more members than this are not split.
+     * @param window
+     *            the largest number of chunks written or waiting to be
+     *            copied at any time.
+     */
+    public JSONParallelWriter(ForkJoinPool pool, int chunkSize, int window) {
+        if (pool == null) {
+            throw new NullPointerException("Null pool.");
+        }
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("chunkSize must be positive: " + chunkSize);
+        }
+        if (window < 1) {
+            throw new IllegalArgumentException("window must be positive: " + window);
+        }
+        this.pool = pool;
+        this.chunkSize = chunkSize;
+        this.window = window;
+    }
+
+    /**
+     * Write the compact JSON text of a value.
+     *
+     * @param value
+     *            a JSONObject, JSONArray or any other value a JSONObject
+     *            can hold.
+     * @param writer
+     *            the destination.
+     * @return the writer.
+     * @throws JSONException
+     *             if a value cannot be written, or the writer fails.
+     */
+    public Writer write(Object value, Writer writer) throws JSONException {
+        return this.write(value, writer, 0);
+    }
+
+    /**
+     * Write the JSON text of a value, indented like
+     * <code>toString(indentFactor)</code>.
+     *
+     * @param value
+     *            a JSONObject, JSONArray or any other value a JSONObject
+     *            can hold.
+     * @param writer
+     *            the destination.
+     * @param indentFactor
+     *            the number of spaces to add to each level of indentation.
+     * @return the writer.
+     * @throws JSONException
+     *             if a value cannot be written, or the writer fails.
+     */
+    public Writer write(Object value, Writer writer, int indentFactor) throws JSONException {
+        try {
+            this.writeValue(writer, value, indentFactor, 0);
+            return writer;
+        } catch (IOException e) {
+            throw new JSONException(e);
+        }
+    }
+
+    private void writeValue(Writer writer, Object value, int indentFactor, int indent)
+            throws IOException {
+        final int length;
+        if (value instanceof JSONArray) {
+            length = ((JSONArray) value).length();
+        } else if (value instanceof JSONObject) {
+            length = ((JSONObject) value).length();
+        } else {
+            length = 0;
+        }
+        if (length < 2) {
+            // nothing to split or descend into
+            JSONObject.writeValue(writer, value, indentFactor, indent);
+            return;
+        }
+        final boolean array = value instanceof JSONArray;
+        final Iterator<?> members = array
+                ? ((JSONArray) value).iterator()
+                : ((JSONObject) value).entrySet().iterator();
+        final int newIndent = indent + indentFactor;
+        writer.write(array ? '[' : '{');
+        if (length > this.chunkSize) {
+            this.writeChunks(writer, members, array, indentFactor, newIndent);
+        } else {
+            for (int i = 0; members.hasNext(); i += 1) {
+                Object member = members.next();
+                if (i > 0) {
+                    writer.write(',');
+                }
+                if (indentFactor > 0) {
+                    writer.write('\n');
+                }
+                JSONObject.indent(writer, newIndent);
+                if (array) {
+                    try {
+                        this.writeValue(writer, member, indentFactor, newIndent);
+                    } catch (Exception e) {
+                        throw new JSONException("Unable to write JSONArray value at index: " + i, e);
+                    }
+                } else {
+                    Entry<?, ?> entry = (Entry<?, ?>) member;
+                    final String key = (String) entry.getKey();
+                    writeKey(writer, key, indentFactor);
+                    try {
+                        this.writeValue(writer, entry.getValue(), indentFactor, newIndent);
+                    } catch (Exception e) {
+                        throw new JSONException("Unable to write JSONObject value for key: " + key, e);
+                    }
+                }
+            }
+        }
+        if (indentFactor > 0) {
+            writer.write('\n');
+        }
+        JSONObject.indent(writer, indent);
+        writer.write(array ? ']' : '}');
+    }
+
+    private static void writeKey(Writer writer, String key, int indentFactor) throws IOException {
+        writer.write(JSONKeyCache.quoted(key));
+        writer.write(':');
+        if (indentFactor > 0) {
+            writer.write(' ');
+        }
+    }
+
+    /**
+     * Hand the members out in chunks, and copy the finished chunks in order.
+     */
+    private void writeChunks(Writer writer, Iterator<?> members, boolean array,
+            int indentFactor, int indent) throws IOException {
+        final ArrayDeque<Future<Chunk>> inFlight = new ArrayDeque<Future<Chunk>>(this.window);
+        try {
+            int index = 0;
+            while (members.hasNext()) {
+                Object[] slice = new Object[this.chunkSize];
+                int n = 0;
+                while (n < slice.length && members.hasNext()) {
+                    slice[n++] = members.next();
+                }
+                if (n < slice.length) {
+                    slice = Arrays.copyOf(slice, n);
+                }
+                if (inFlight.size() == this.window) {
+                    inFlight.removeFirst().get().writeTo(writer);
+                }
+                inFlight.addLast(this.pool.submit(new Chunk(slice, index, array, indentFactor, indent)));
+                index += n;
+            }
+            while (!inFlight.isEmpty()) {
+                inFlight.removeFirst().get().writeTo(writer);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new JSONException(e);
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new JSONException(cause);
+        } finally {
+            for (Future<Chunk> chunk : inFlight) {
+                chunk.cancel(false);
+            }
+        }
+    }
+
+    /**
+     * A run of consecutive members, written into its own growable buffer.
+     */
+    private static final class Chunk extends Writer implements Callable<Chunk> {
+
+        private final Object[] members;
+        private final int firstIndex;
+        private final boolean array;
+        private final int indentFactor;
+        private final int indent;
+
+        private char[] buf = new char[1024];
+        private int count;
+
+        Chunk(Object[] members, int firstIndex, boolean array, int indentFactor, int indent) {
+            this.members = members;
+            this.firstIndex = firstIndex;
+            this.array = array;
+            this.indentFactor = indentFactor;
+            this.indent = indent;
+        }
+
+        @Override
+        public Chunk call() throws IOException {
+            for (int i = 0; i < this.members.length; i += 1) {
+                final int index = this.firstIndex + i;
+                if (index > 0) {
+                    this.write(',');
+                }
+                if (this.indentFactor > 0) {
+                    this.write('\n');
+                }
+                JSONObject.indent(this, this.indent);
+                if (this.array) {
+                    try {
+                        JSONObject.writeValue(this, this.members[i], this.indentFactor, this.indent);
+                    } catch (Exception e) {
+                        throw new JSONException("Unable to write JSONArray value at index: " + index, e);
+                    }
+                } else {
+                    Entry<?, ?> entry = (Entry<?, ?>) this.members[i];
+                    final String key = (String) entry.getKey();
+                    writeKey(this, key, this.indentFactor);
+                    try {
+                        JSONObject.writeValue(this, entry.getValue(), this.indentFactor, this.indent);
+                    } catch (Exception e) {
+                        throw new JSONException("Unable to write JSONObject value for key: " + key, e);
+                    }
+                }
+                // the members are not needed any more
+                this.members[i] = null;
+            }
+            return this;
+        }
+
+        private void ensure(int n) {
+            if (this.buf.length - this.count < n) {
+                this.buf = Arrays.copyOf(this.buf, Math.max(this.buf.length * 2, this.count + n));
+            }
+        }
+
+        @Override
+        public void write(int c) {
+            this.ensure(1);
+            this.buf[this.count++] = (char) c;
+        }
+
+        @Override
+        public void write(char[] cbuf, int off, int len) {
+            this.ensure(len);
+            System.arraycopy(cbuf, off, this.buf, this.count, len);
+            this.count += len;
+        }
+
+        @Override
+        public void write(String str, int off, int len) {
+            this.ensure(len);
+            str.getChars(off, off + len, this.buf, this.count);
+            this.count += len;
+        }
+
+        void writeTo(Writer writer) throws IOException {
+            writer.write(this.buf, 0, this.count);
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package org.json;
+
+/*
+Copyright (c) 2002 JSON.org
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+The Software shall be used for Good, not Evil.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+
+
+/**
+ * Configuration object for the JSON parser. The configuration is immutable.
+ *
+ * @author JSON.org
+ */
+public class JSONParserConfiguration {
+    /** Original configuration of the JSON parser. */
+    public static final JSONParserConfiguration ORIGINAL
+        = new JSONParserConfiguration();
+    /** Original configuration of the JSON parser except that numbers are kept as {@link JSONNumber}s. */
+    public static final JSONParserConfiguration LAZY_NUMBERS
+        = new JSONParserConfiguration().withLazyNumbers(true);
+
+    /**
+     * Specifies if numbers are kept as their text, in {@link JSONNumber}s
+     * (<code>true</code>), or converted while parsing (<code>false</code>).
+     */
+    private boolean lazyNumbers;
+
+    /**
+     * The size hints to presize containers with, or <code>null</code>.
+     */
+    private JSONSizeHints sizeHints;
+
+    /**
+     * Default parser configuration. Numbers are converted while parsing.
+     */
+    public JSONParserConfiguration() {
+        this.lazyNumbers = false;
+        this.sizeHints = null;
+    }
+
+    /**
+     * Provides a new instance of the same configuration.
+     */
+    @Override
+    protected JSONParserConfiguration clone() {
+        JSONParserConfiguration newConfig = new JSONParserConfiguration();
+        newConfig.lazyNumbers = this.lazyNumbers;
+        // the hints are shared on purpose, they learn from every parse
+        newConfig.sizeHints = this.sizeHints;
+        return newConfig;
+    }
+
+    /**
+     * When parsing JSON, specifies if numbers are kept as their text until
+     * they are read (<code>true</code>), or converted to Integer, Long,
+     * BigInteger or BigDecimal right away (<code>false</code>).
+     *
+     * @return The {@link #lazyNumbers} configuration value.
+     */
+    public boolean isLazyNumbers() {
+        return this.lazyNumbers;
+    }
+
+    /**
+     * When parsing JSON, specifies if numbers are kept as their text until
+     * they are read (<code>true</code>), or converted to Integer, Long,
+     * BigInteger or BigDecimal right away (<code>false</code>). Numbers that
+     * do not follow the JSON grammar, such as <code>0x1F</code>, are always
+     * converted.
+     *
+     * @param newVal
+     *      new value to use for the {@link #lazyNumbers} configuration option.
+     *
+     * @return The existing configuration will not be modified. A new configuration is returned.
+     */
+    public JSONParserConfiguration withLazyNumbers(final boolean newVal) {
+        JSONParserConfiguration newConfig = this.clone();
+        newConfig.lazyNumbers = newVal;
+        return newConfig;
+    }
+
+    /**
+     * When parsing JSON, specifies the size hints that objects and arrays are
+     * presized with, and that learn from the containers parsed.
+     *
+     * @return The {@link #sizeHints} configuration value, <code>null</code> if none.
+     */
+    public JSONSizeHints getSizeHints() {
+        return this.sizeHints;
+    }
+
+    /**
+     * When parsing JSON, specifies the size hints that objects and arrays are
+     * presized with, and that learn from the containers parsed. Use the same
+     * hints for all documents of a kind.
+     *
+     * @param newVal
+     *      new value to use for the {@link #sizeHints} configuration option,
+     *      <code>null</code> for none.
+     *
+     * @return The existing configuration will not be modified. A new configuration is returned.
+     */
+    public JSONParserConfiguration withSizeHints(final JSONSizeHints newVal) {
+        JSONParserConfiguration newConfig = this.clone();
+        newConfig.sizeHints = newVal;
+        return newConfig;
+    }
+}
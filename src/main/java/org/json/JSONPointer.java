@@ -247,6 +247,15 @@ public class JSONPointer {
         }
     }
 
+    /**
+     * Get the unescaped reference tokens of this pointer.
+     *
+     * @return an unmodifiable list of the tokens
+     */
+    List<String> getRefTokens() {
+        return Collections.unmodifiableList(this.refTokens);
+    }
+
     /**
      * Returns a string representing the JSONPointer path value using string
      * representation
@@ -0,0 +1,333 @@
+package org.json;
+
+/*
+Copyright (c) 2002 JSON.org
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+The Software shall be used for Good, not Evil.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+
+/**
+ * A JSON text that is copied into the output as it is. Use it to forward a
+ * JSON value that is already serialized, for example a fragment received from
+ * another service, without parsing it and writing it again: <pre>
+ * myJSONObject.put("payload", JSONRaw.trusted(cachedText));</pre>
+ * <p>
+ * The text is only parsed when its contents are needed, by
+ * <code>opt</code> and the methods built on it, and its JSONObject or
+ * JSONArray keeps the JSONRaw, so reading never changes the container. A
+ * string, number or boolean is parsed once and kept. A JSONObject or
+ * JSONArray is parsed afresh on every read, so each caller gets a copy of its
+ * own: the text is what gets written, and changes made to a copy are not,
+ * unless the copy is put back in place of the JSONRaw.
+ * <p>
+ * A trusted JSONRaw is not checked at all, so the caller must make sure that
+ * the text is a single, strictly syntactically correct JSON value. A validated
+ * JSONRaw has been checked against the strict JSON grammar when it was made:
+ * unquoted strings, single quotes, trailing commas, hexadecimal numbers and
+ * the other forms that <code>JSONTokener</code> tolerates are rejected.
+ *
+ * @author JSON.org
+ */
+public final class JSONRaw implements JSONString {
+
+    /**
+     * The JSON text.
+     */
+    private final String text;
+
+    /**
+     * The parsed value once needed, if it is neither a JSONObject nor a
+     * JSONArray.
+     */
+    private volatile Object value;
+
+    private JSONRaw(String text) {
+        this.text = text;
+    }
+
+    /**
+     * Make a JSONRaw without checking the text.
+     *
+     * @param text
+     *            a JSON text of one value.
+     * @return the JSONRaw.
+     * @throws JSONException
+     *             if the text is null.
+     */
+    public static JSONRaw trusted(String text) throws JSONException {
+        if (text == null) {
+            throw new JSONException("Null pointer");
+        }
+        return new JSONRaw(text);
+    }
+
+    /**
+     * Make a JSONRaw after checking that the text is one value of the strict
+     * JSON grammar, surrounded by nothing but whitespace.
+     *
+     * @param text
+     *            a JSON text of one value.
+     * @return the JSONRaw.
+     * @throws JSONException
+     *             if the text is null or not a JSON value.
+     */
+    public static JSONRaw validated(String text) throws JSONException {
+        if (text == null) {
+            throw new JSONException("Null pointer");
+        }
+        int i = skipWhitespace(text, 0);
+        i = skipValue(text, i);
+        if (skipWhitespace(text, i) != text.length()) {
+            throw syntaxError(i, "Unexpected text after the JSON value");
+        }
+        return new JSONRaw(text);
+    }
+
+    /**
+     * Get the value of the text.
+     *
+     * @return a new JSONObject or JSONArray each time, or the String,
+     *         Boolean, Number or JSONObject.NULL parsed the first time.
+     * @throws JSONException
+     *             if the text is not a JSON value.
+     */
+    Object value() throws JSONException {
+        Object result = this.value;
+        if (result == null) {
+            final JSONTokener x = new JSONTokener(this.text);
+            result = x.nextValue();
+            if (x.nextClean() != 0) {
+                throw x.syntaxError("Unexpected text after the JSON value");
+            }
+            if (!(result instanceof JSONObject) && !(result instanceof JSONArray)) {
+                // immutable, so it can be shared
+                this.value = result;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Get the contents of a value of a JSONObject or JSONArray.
+     *
+     * @param value
+     *            the value.
+     * @return the parsed value if it is a JSONRaw, the value itself otherwise.
+     * @throws JSONException
+     *             if it is a JSONRaw whose text is not a JSON value.
+     */
+    static Object contents(Object value) throws JSONException {
+        return value instanceof JSONRaw ? ((JSONRaw) value).value() : value;
+    }
+
+    private static int skipWhitespace(String text, int i) {
+        while (i < text.length()) {
+            final char c = text.charAt(i);
+            if (c != ' ' && c != '\t' && c != '\n' && c != '\r') {
+                break;
+            }
+            i += 1;
+        }
+        return i;
+    }
+
+    /**
+     * Skip one value of the strict JSON grammar.
+     *
+     * @param text
+     *            the text.
+     * @param i
+     *            the index of the first character of the value.
+     * @return the index after the value.
+     * @throws JSONException
+     *             if there is no valid value at the index.
+     */
+    private static int skipValue(String text, int i) throws JSONException {
+        if (i >= text.length()) {
+            throw syntaxError(i, "Missing value");
+        }
+        final char c = text.charAt(i);
+        switch (c) {
+        case '{':
+            return skipObject(text, i);
+        case '[':
+            return skipArray(text, i);
+        case '"':
+            return skipString(text, i);
+        case 't':
+            return skipLiteral(text, i, "true");
+        case 'f':
+            return skipLiteral(text, i, "false");
+        case 'n':
+            return skipLiteral(text, i, "null");
+        default:
+            if (c == '-' || (c >= '0' && c <= '9')) {
+                return skipNumber(text, i);
+            }
+            throw syntaxError(i, "Unexpected character '" + c + "'");
+        }
+    }
+
+    private static int skipObject(String text, int i) throws JSONException {
+        i = skipWhitespace(text, i + 1);
+        if (i < text.length() && text.charAt(i) == '}') {
+            return i + 1;
+        }
+        for (;;) {
+            if (i >= text.length() || text.charAt(i) != '"') {
+                throw syntaxError(i, "Expected a quoted key");
+            }
+            i = skipWhitespace(text, skipString(text, i));
+            if (i >= text.length() || text.charAt(i) != ':') {
+                throw syntaxError(i, "Expected a ':' after a key");
+            }
+            i = skipWhitespace(text, skipValue(text, skipWhitespace(text, i + 1)));
+            if (i < text.length() && text.charAt(i) == ',') {
+                i = skipWhitespace(text, i + 1);
+            } else if (i < text.length() && text.charAt(i) == '}') {
+                return i + 1;
+            } else {
+                throw syntaxError(i, "Expected a ',' or '}'");
+            }
+        }
+    }
+
+    private static int skipArray(String text, int i) throws JSONException {
+        i = skipWhitespace(text, i + 1);
+        if (i < text.length() && text.charAt(i) == ']') {
+            return i + 1;
+        }
+        for (;;) {
+            i = skipWhitespace(text, skipValue(text, i));
+            if (i < text.length() && text.charAt(i) == ',') {
+                i = skipWhitespace(text, i + 1);
+            } else if (i < text.length() && text.charAt(i) == ']') {
+                return i + 1;
+            } else {
+                throw syntaxError(i, "Expected a ',' or ']'");
+            }
+        }
+    }
+
+    private static int skipString(String text, int i) throws JSONException {
+        i += 1;
+        while (i < text.length()) {
+            final char c = text.charAt(i);
+            if (c == '"') {
+                return i + 1;
+            }
+            if (c < ' ') {
+                throw syntaxError(i, "Unescaped control character in string");
+            }
+            if (c == '\\') {
+                i += 1;
+                final char e = i < text.length() ? text.charAt(i) : 0;
+                if (e == 'u') {
+                    for (int k = 1; k <= 4; k += 1) {
+                        if (i + k >= text.length() || !isHexDigit(text.charAt(i + k))) {
+                            throw syntaxError(i, "Illegal \\u escape");
+                        }
+                    }
+                    i += 4;
+                } else if ("\"\\/bfnrt".indexOf(e) < 0) {
+                    throw syntaxError(i, "Illegal escape");
+                }
+            }
+            i += 1;
+        }
+        throw syntaxError(i, "Unterminated string");
+    }
+
+    /**
+     * Tell if a character is an ASCII hexadecimal digit.
+     */
+    private static boolean isHexDigit(char c) {
+        return (c >= '0' && c <= '9') || ((c | 0x20) >= 'a' && (c | 0x20) <= 'f');
+    }
+
+    private static int skipLiteral(String text, int i, String literal) throws JSONException {
+        if (!text.startsWith(literal, i)) {
+            throw syntaxError(i, "Expected " + literal);
+        }
+        return i + literal.length();
+    }
+
+    private static int skipNumber(String text, int i) throws JSONException {
+        final int start = i;
+        if (i < text.length() && text.charAt(i) == '-') {
+            i += 1;
+        }
+        if (i < text.length() && text.charAt(i) == '0') {
+            i += 1;
+        } else {
+            i = skipDigits(text, i, start);
+        }
+        if (i < text.length() && text.charAt(i) == '.') {
+            i = skipDigits(text, i + 1, start);
+        }
+        if (i < text.length() && (text.charAt(i) == 'e' || text.charAt(i) == 'E')) {
+            i += 1;
+            if (i < text.length() && (text.charAt(i) == '+' || text.charAt(i) == '-')) {
+                i += 1;
+            }
+            i = skipDigits(text, i, start);
+        }
+        return i;
+    }
+
+    /**
+     * Skip one or more digits of the number starting at start.
+     */
+    private static int skipDigits(String text, int i, int start) throws JSONException {
+        final int first = i;
+        while (i < text.length() && text.charAt(i) >= '0' && text.charAt(i) <= '9') {
+            i += 1;
+        }
+        if (i == first) {
+            throw syntaxError(start, "Invalid number");
+        }
+        return i;
+    }
+
+    private static JSONException syntaxError(int i, String message) {
+        return new JSONException(message + " at " + i + " in the JSON text");
+    }
+
+    /**
+     * Get the JSON text.
+     *
+     * @return the JSON text.
+     */
+    @Override
+    public String toJSONString() {
+        return this.text;
+    }
+
+    /**
+     * Get the JSON text.
+     *
+     * @return the JSON text.
+     */
+    @Override
+    public String toString() {
+        return this.text;
+    }
+}
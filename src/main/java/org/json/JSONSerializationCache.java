@@ -0,0 +1,245 @@
+package org.json;
+
+/*
+Copyright (c) 2002 JSON.org
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+The Software shall be used for Good, not Evil.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+
+import java.lang.ref.WeakReference;
+
+/**
+ * The memoized compact JSON text and fingerprint of a {@link JSONObject} or
+ * {@link JSONArray}.
+ * <p>
+ * Each cache knows the caches of the containers that hold its owner as a
+ * value, so a mutation of a nested container marks every enclosing container
+ * dirty as well. The links are weak so that a shared nested container does not
+ * keep the text of discarded parents alive.
+ * <p>
+ * A container is only cached while all of its nested containers are, because
+ * writing or hashing a container goes through the caches of its nested
+ * containers. Invalidation relies on that to stop at the first cache that
+ * holds neither a text nor a fingerprint.
+ * <p>
+ * A view made by {@link JSONObject#view(java.util.Map)} or
+ * {@link JSONArray#view(java.util.List)} follows its backing collection
+ * without telling anyone, so a container holding a view, directly or further
+ * down, stores neither a text nor a fingerprint until the view is removed.
+ *
+ * @author JSON.org
+ */
+final class JSONSerializationCache {
+
+    /**
+     * The compact JSON text of the owner, or null if the owner has changed
+     * since it was last written.
+     */
+    String text;
+
+    /**
+     * The fingerprint of the owner, or null if the owner has changed since it
+     * was last hashed. A single reference, so that another thread never sees
+     * a half written fingerprint.
+     */
+    volatile Long fingerprint;
+
+    /**
+     * The caches of the containers holding the owner. A container that holds
+     * the owner more than once is listed once per occurrence.
+     */
+    private WeakReference<JSONSerializationCache>[] parents;
+
+    /**
+     * The number of used slots in {@link #parents}.
+     */
+    private int parentCount;
+
+    /**
+     * The number of values held by the owner that are views, or containers
+     * that cannot be cached themselves.
+     */
+    private int uncacheable;
+
+    /**
+     * Check whether the text and fingerprint of the owner may be stored.
+     *
+     * @return true if the owner holds no view, however deeply nested.
+     */
+    boolean isCacheable() {
+        return this.uncacheable == 0;
+    }
+
+    /**
+     * Mark the owner and every container holding it as changed.
+     */
+    void invalidate() {
+        if (this.text == null && this.fingerprint == null) {
+            return;
+        }
+        this.text = null;
+        this.fingerprint = null;
+        for (int i = 0; i < this.parentCount; i += 1) {
+            JSONSerializationCache parent = this.parents[i].get();
+            if (parent != null) {
+                parent.invalidate();
+            }
+        }
+    }
+
+    /**
+     * Link a value that was just stored in the owner. Nested containers get
+     * their own cache so that their mutations reach the owner.
+     *
+     * @param value
+     *            the stored value, may be null.
+     */
+    void adopt(Object value) {
+        JSONSerializationCache cache = nested(value);
+        if (cache != null) {
+            cache.addParent(this);
+            if (!cache.isCacheable()) {
+                this.addUncacheable();
+            }
+        } else if (isView(value)) {
+            this.addUncacheable();
+        }
+    }
+
+    /**
+     * Unlink a value that was just removed or replaced in the owner.
+     *
+     * @param value
+     *            the removed value, may be null.
+     */
+    void release(Object value) {
+        JSONSerializationCache cache = nested(value);
+        if (cache != null) {
+            cache.removeParent(this);
+            if (!cache.isCacheable()) {
+                this.removeUncacheable();
+            }
+        } else if (isView(value)) {
+            this.removeUncacheable();
+        }
+    }
+
+    /**
+     * Get the cache of a nested container, enabling it first if necessary.
+     *
+     * @param value
+     *            a value held by the owner, may be null.
+     * @return the cache, or null if the value is not a container or is a
+     *         view.
+     */
+    private static JSONSerializationCache nested(Object value) {
+        if (isView(value)) {
+            return null;
+        }
+        if (value instanceof JSONObject) {
+            return ((JSONObject) value).serializationCache();
+        }
+        if (value instanceof JSONArray) {
+            return ((JSONArray) value).serializationCache();
+        }
+        return null;
+    }
+
+    private static boolean isView(Object value) {
+        return (value instanceof JSONObject && ((JSONObject) value).isView())
+                || (value instanceof JSONArray && ((JSONArray) value).isView());
+    }
+
+    /**
+     * Count one more view below the owner, dropping the stored text and
+     * fingerprint and telling the parents when it is the first.
+     */
+    private void addUncacheable() {
+        this.uncacheable += 1;
+        if (this.uncacheable == 1) {
+            this.text = null;
+            this.fingerprint = null;
+            for (int i = 0; i < this.parentCount; i += 1) {
+                JSONSerializationCache parent = this.parents[i].get();
+                if (parent != null) {
+                    parent.addUncacheable();
+                }
+            }
+        }
+    }
+
+    /**
+     * Count one less view below the owner, telling the parents when it was
+     * the last.
+     */
+    private void removeUncacheable() {
+        this.uncacheable -= 1;
+        if (this.uncacheable == 0) {
+            for (int i = 0; i < this.parentCount; i += 1) {
+                JSONSerializationCache parent = this.parents[i].get();
+                if (parent != null) {
+                    parent.removeUncacheable();
+                }
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void addParent(JSONSerializationCache parent) {
+        this.expungeStaleParents();
+        if (this.parents == null) {
+            this.parents = (WeakReference<JSONSerializationCache>[]) new WeakReference<?>[2];
+        } else if (this.parentCount == this.parents.length) {
+            WeakReference<JSONSerializationCache>[] grown =
+                    (WeakReference<JSONSerializationCache>[]) new WeakReference<?>[this.parentCount * 2];
+            System.arraycopy(this.parents, 0, grown, 0, this.parentCount);
+            this.parents = grown;
+        }
+        this.parents[this.parentCount] = new WeakReference<JSONSerializationCache>(parent);
+        this.parentCount += 1;
+    }
+
+    private void removeParent(JSONSerializationCache parent) {
+        for (int i = 0; i < this.parentCount; i += 1) {
+            if (this.parents[i].get() == parent) {
+                this.removeParentAt(i);
+                return;
+            }
+        }
+    }
+
+    private void removeParentAt(int i) {
+        this.parentCount -= 1;
+        this.parents[i] = this.parents[this.parentCount];
+        this.parents[this.parentCount] = null;
+    }
+
+    /**
+     * Drop the links to parents that have been garbage collected.
+     */
+    private void expungeStaleParents() {
+        for (int i = this.parentCount - 1; i >= 0; i -= 1) {
+            if (this.parents[i].get() == null) {
+                this.removeParentAt(i);
+            }
+        }
+    }
+}
@@ -0,0 +1,260 @@
+package org.json;
+
+/*
+Copyright (c) 2002 JSON.org
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+The Software shall be used for Good, not Evil.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Selects the parts of a JSONObject or JSONArray to write, for
+ * {@link JSONObject#write(java.io.Writer, JSONSerializationFilter)} and
+ * {@link JSONArray#write(java.io.Writer, JSONSerializationFilter)}. The
+ * writer asks the filter about each member and element as it walks the
+ * document, and skips what is left out, so no projected copy of the
+ * document is made.
+ * <p>
+ * A filter answers with the filter for the value of the member or element,
+ * or null to leave it out. {@link #ALL} keeps a value whole. For example,
+ * <pre>
+ * JSONSerializationFilter.include("id", "name")
+ *         .with("owner", JSONSerializationFilter.include("login"))</pre>
+ * keeps <code>id</code>, <code>name</code> and the <code>login</code> of the
+ * <code>owner</code>. Applied to an array, a filter applies to each element,
+ * so the same filter projects every object of an array of objects.
+ *
+ * @author JSON.org
+ */
+public abstract class JSONSerializationFilter {
+
+    /**
+     * The filter that keeps everything.
+     */
+    public static final JSONSerializationFilter ALL = new JSONSerializationFilter() {
+        @Override
+        public JSONSerializationFilter member(String key) {
+            return this;
+        }
+    };
+
+    /**
+     * Make a filter.
+     */
+    protected JSONSerializationFilter() {
+    }
+
+    /**
+     * Decide about a member of an object.
+     *
+     * @param key
+     *            the name of the member.
+     * @return the filter for the value of the member, or null to leave the
+     *         member out.
+     */
+    public abstract JSONSerializationFilter member(String key);
+
+    /**
+     * Decide about an element of an array. Left out elements are not
+     * written, so the elements that follow move up.
+     *
+     * @param index
+     *            the index of the element.
+     * @return the filter for the element, or null to leave it out. This
+     *         implementation returns this filter, applying it to every
+     *         element.
+     */
+    public JSONSerializationFilter element(int index) {
+        return this;
+    }
+
+    /**
+     * Make a filter that keeps only the members of the given names, with
+     * their values whole.
+     *
+     * @param keys
+     *            the names to keep.
+     * @return the filter.
+     */
+    public static JSONSerializationFilter include(String... keys) {
+        final Set<String> kept = new HashSet<String>(Arrays.asList(keys));
+        return new JSONSerializationFilter() {
+            @Override
+            public JSONSerializationFilter member(String key) {
+                return kept.contains(key) ? ALL : null;
+            }
+        };
+    }
+
+    /**
+     * Make a filter that leaves out the members of the given names, and
+     * keeps the other members whole.
+     *
+     * @param keys
+     *            the names to leave out.
+     * @return the filter.
+     */
+    public static JSONSerializationFilter exclude(String... keys) {
+        final Set<String> dropped = new HashSet<String>(Arrays.asList(keys));
+        return new JSONSerializationFilter() {
+            @Override
+            public JSONSerializationFilter member(String key) {
+                return dropped.contains(key) ? null : ALL;
+            }
+        };
+    }
+
+    /**
+     * Make a filter that keeps the members whose names pass a test, at every
+     * depth. For example <code>keys(k -&gt; !k.startsWith("_"))</code> leaves
+     * out all members whose name starts with an underscore.
+     *
+     * @param predicate
+     *            the test.
+     * @return the filter.
+     */
+    public static JSONSerializationFilter keys(final Predicate<String> predicate) {
+        return new JSONSerializationFilter() {
+            @Override
+            public JSONSerializationFilter member(String key) {
+                return predicate.test(key) ? this : null;
+            }
+        };
+    }
+
+    /**
+     * Make a filter that keeps the values the pointers refer to, and the
+     * members and elements leading to them. Array elements are matched by
+     * index.
+     *
+     * @param pointers
+     *            the values to keep.
+     * @return the filter.
+     */
+    public static JSONSerializationFilter pointers(JSONPointer... pointers) {
+        return pointers(Arrays.asList(pointers));
+    }
+
+    /**
+     * Make a filter that keeps the values the pointers refer to, and the
+     * members and elements leading to them. Array elements are matched by
+     * index.
+     *
+     * @param pointers
+     *            the values to keep.
+     * @return the filter.
+     */
+    public static JSONSerializationFilter pointers(Collection<JSONPointer> pointers) {
+        PointerNode root = new PointerNode();
+        for (JSONPointer pointer : pointers) {
+            root.add(pointer.getRefTokens());
+        }
+        return root.filter();
+    }
+
+    /**
+     * Make a filter that applies another filter to the value of one member,
+     * keeping that member, and decides about the other members like this
+     * filter.
+     *
+     * @param key
+     *            the name of the member.
+     * @param nested
+     *            the filter for its value.
+     * @return the filter.
+     */
+    public JSONSerializationFilter with(final String key, final JSONSerializationFilter nested) {
+        final JSONSerializationFilter base = this;
+        return new JSONSerializationFilter() {
+            @Override
+            public JSONSerializationFilter member(String name) {
+                return key.equals(name) ? nested : base.member(name);
+            }
+
+            @Override
+            public JSONSerializationFilter element(int index) {
+                final JSONSerializationFilter filter = base.element(index);
+                return filter == base ? this : filter;
+            }
+        };
+    }
+
+    /**
+     * A node of the tree of pointer tokens.
+     */
+    private static final class PointerNode {
+
+        private final Map<String, PointerNode> children = new HashMap<String, PointerNode>();
+
+        /**
+         * Whether a pointer ends here, which keeps the whole value.
+         */
+        private boolean whole;
+
+        private JSONSerializationFilter filter;
+
+        void add(List<String> tokens) {
+            PointerNode node = this;
+            for (String token : tokens) {
+                if (node.whole) {
+                    return;
+                }
+                PointerNode child = node.children.get(token);
+                if (child == null) {
+                    child = new PointerNode();
+                    node.children.put(token, child);
+                }
+                node = child;
+            }
+            node.whole = true;
+            node.children.clear();
+        }
+
+        JSONSerializationFilter filter() {
+            if (this.whole) {
+                return ALL;
+            }
+            if (this.filter == null) {
+                this.filter = new JSONSerializationFilter() {
+                    @Override
+                    public JSONSerializationFilter member(String key) {
+                        final PointerNode child = PointerNode.this.children.get(key);
+                        return child == null ? null : child.filter();
+                    }
+
+                    @Override
+                    public JSONSerializationFilter element(int index) {
+                        return this.member(String.valueOf(index));
+                    }
+                };
+            }
+            return this.filter;
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package org.json;
+
+/*
+Copyright (c) 2002 JSON.org
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+The Software shall be used for Good, not Evil.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The typical sizes of the objects and arrays in a kind of document, so that
+ * the parser can make their maps and lists big enough from the start instead
+ * of growing them member by member. Pass the same instance to every parse of
+ * a feed with {@link JSONParserConfiguration#withSizeHints(JSONSizeHints)}:
+ * it learns the sizes as documents are parsed, and it can be given sizes up
+ * front with {@link #hint(String, int)}.
+ * <p>
+ * Containers are told apart by the key they are the value of, not by their
+ * full path. The elements of an array go by the array's key followed by
+ * <code>[]</code>, and the outermost value by the empty string. In
+ * <pre>{"orders":[{"id":1,"lines":[{"sku":"a"}]}]}</pre> the object holding
+ * <code>orders</code> goes by <code>""</code>, the array by
+ * <code>orders</code>, the objects in it by <code>orders[]</code>, and so on.
+ * <p>
+ * A learned size follows a larger container at once, and a smaller one by a
+ * quarter of the difference at a time. Learned sizes are capped, and only
+ * the first few thousand keys are tracked, so that documents keyed by ids do
+ * not grow the profile without bounds.
+ * <p>
+ * This class is safe to share between threads. Racing parses may lose an
+ * update, which only costs a resize later on.
+ *
+ * @author JSON.org
+ */
+public final class JSONSizeHints {
+
+    /**
+     * The largest number of keys tracked.
+     */
+    private static final int MAX_SLOTS = 4096;
+
+    /**
+     * The largest size learned.
+     */
+    private static final int MAX_LEARNED_SIZE = 1 << 16;
+
+    /**
+     * The sizes, by key.
+     */
+    private final ConcurrentHashMap<String, Slot> slots = new ConcurrentHashMap<String, Slot>();
+
+    /**
+     * Make a profile that has not seen any documents yet.
+     */
+    public JSONSizeHints() {
+    }
+
+    /**
+     * Set the size of the containers found under a key. The size is used as
+     * it is, and not changed by the documents parsed.
+     *
+     * @param key
+     *            the key, <code>key[]</code> for the elements of an array, or
+     *            the empty string for the outermost value.
+     * @param size
+     *            the number of members or elements.
+     * @return this.
+     * @throws IllegalArgumentException
+     *             if the size is negative.
+     */
+    public JSONSizeHints hint(String key, int size) {
+        if (size < 0) {
+            throw new IllegalArgumentException("Negative size: " + size);
+        }
+        this.slots.put(key, new Slot(size, true));
+        return this;
+    }
+
+    /**
+     * Get the size expected for the containers found under a key.
+     *
+     * @param key
+     *            the key.
+     * @return the number of members or elements, or 0 if nothing is known.
+     */
+    public int hint(String key) {
+        final Slot slot = this.slots.get(key);
+        return slot == null ? 0 : slot.size;
+    }
+
+    /**
+     * Learn the size of a container just parsed.
+     *
+     * @param key
+     *            the key of the container.
+     * @param size
+     *            its number of members or elements.
+     */
+    void observe(String key, int size) {
+        final Slot slot = this.slots.get(key);
+        if (slot == null) {
+            if (this.slots.size() < MAX_SLOTS) {
+                this.slots.putIfAbsent(key, new Slot(Math.min(size, MAX_LEARNED_SIZE), false));
+            }
+        } else if (!slot.fixed) {
+            final int old = slot.size;
+            if (size > old) {
+                slot.size = Math.min(size, MAX_LEARNED_SIZE);
+            } else if (size < old) {
+                slot.size = old - (old - size + 3) / 4;
+            }
+        }
+    }
+
+    /**
+     * The size of the containers under one key.
+     */
+    private static final class Slot {
+        volatile int size;
+        final boolean fixed;
+
+        Slot(int size, boolean fixed) {
+            this.size = size;
+            this.fixed = fixed;
+        }
+    }
+}
@@ -0,0 +1,804 @@
+package org.json;
+
+/*
+Copyright (c) 2002 JSON.org
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+The Software shall be used for Good, not Evil.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * A binary snapshot of a JSON value, meant for large documents that are
+ * written once and loaded many times. Loading a snapshot does no text
+ * scanning or number parsing: strings are decoded in bulk, numbers are read
+ * in their binary form, and containers are presized.
+ * <p>
+ * A snapshot is laid out as follows, all integers big endian:
+ * <pre>
+ * magic     "JSNP"
+ * version   int
+ * keys      int count, then count strings
+ * value     the root value
+ * checksum  int, the CRC-32 of all bytes before it
+ * </pre>
+ * Each value starts with a tag byte. Strings are an int byte length followed
+ * by UTF-8. Objects and arrays are an int byte length of their contents and
+ * an int count; object members refer to their name by its index in the key
+ * table, so each distinct name is stored once. The byte lengths let
+ * {@link #open(Path)} map a file and answer {@link #query(JSONPointer)}
+ * without decoding anything beside the path taken.
+ * <p>
+ * A snapshot must be smaller than 2 GB.
+ *
+ * @author JSON.org
+ */
+public class JSONSnapshot {
+
+    /** The first four bytes of a snapshot, "JSNP". */
+    private static final int MAGIC = 0x4A534E50;
+
+    /** The version of the layout written by this class. */
+    private static final int VERSION = 1;
+
+    /** Nesting deeper than this is rejected when reading. */
+    private static final int MAX_DEPTH = 512;
+
+    private static final int T_NULL = 0;
+    private static final int T_FALSE = 1;
+    private static final int T_TRUE = 2;
+    private static final int T_INT = 3;
+    private static final int T_LONG = 4;
+    private static final int T_DOUBLE = 5;
+    private static final int T_BIG_INTEGER = 6;
+    private static final int T_BIG_DECIMAL = 7;
+    private static final int T_STRING = 8;
+    private static final int T_OBJECT = 9;
+    private static final int T_ARRAY = 10;
+
+    /**
+     * The snapshot bytes, without the checksum.
+     */
+    private final ByteBuffer buffer;
+
+    /**
+     * The key table.
+     */
+    private final String[] keys;
+
+    /**
+     * The position of the root value.
+     */
+    private final int root;
+
+    private JSONSnapshot(ByteBuffer buffer, String[] keys, int root) {
+        this.buffer = buffer;
+        this.keys = keys;
+        this.root = root;
+    }
+
+    /**
+     * Write a value as a snapshot.
+     *
+     * @param value
+     *            a JSONObject, JSONArray or any other value a JSONObject
+     *            can hold.
+     * @param out
+     *            the stream receiving the bytes. It is not flushed.
+     * @throws JSONException
+     *             if a number is not finite, the snapshot would be too
+     *             large, or the stream fails.
+     */
+    public static void write(Object value, OutputStream out) throws JSONException {
+        Layout layout = new Layout();
+        final Object plan = layout.plan(value, 0);
+        final long size = Layout.size(plan) + layout.keyTableSize + 12;
+        if (size > Integer.MAX_VALUE - 8) {
+            throw new JSONException("Snapshot too large: " + size + " bytes.");
+        }
+        try {
+            CRC32 crc = new CRC32();
+            BinaryOutput output = new BinaryOutput(new CheckedOutputStream(out, crc));
+            output.writeInt(MAGIC);
+            output.writeInt(VERSION);
+            output.writeInt(layout.keyList.size());
+            for (String key : layout.keyList) {
+                output.writeInt(BinaryOutput.utf8Length(key));
+                output.writeUtf8(key);
+            }
+            Layout.write(output, plan);
+            output.flush();
+            final int checksum = (int) crc.getValue();
+            out.write(checksum >>> 24);
+            out.write(checksum >>> 16);
+            out.write(checksum >>> 8);
+            out.write(checksum);
+        } catch (IOException e) {
+            throw new JSONException(e);
+        }
+    }
+
+    /**
+     * Write a value as a snapshot file.
+     *
+     * @param value
+     *            a JSONObject, JSONArray or any other value a JSONObject
+     *            can hold.
+     * @param path
+     *            the file, which is replaced if it exists.
+     * @throws JSONException
+     *             if a number is not finite, the snapshot would be too
+     *             large, or the file cannot be written.
+     */
+    public static void write(Object value, Path path) throws JSONException {
+        try (OutputStream out = Files.newOutputStream(path)) {
+            write(value, out);
+        } catch (IOException e) {
+            throw new JSONException(e);
+        }
+    }
+
+    /**
+     * Encode a value as a snapshot.
+     *
+     * @param value
+     *            a JSONObject, JSONArray or any other value a JSONObject
+     *            can hold.
+     * @return the bytes.
+     * @throws JSONException
+     *             if a number is not finite or the snapshot would be too
+     *             large.
+     */
+    public static byte[] toByteArray(Object value) throws JSONException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        write(value, out);
+        return out.toByteArray();
+    }
+
+    /**
+     * Load a snapshot from an array, checking its checksum.
+     *
+     * @param bytes
+     *            the snapshot.
+     * @return a JSONObject, JSONArray, String, Boolean, Number or
+     *         JSONObject.NULL.
+     * @throws JSONException
+     *             if the bytes are not a valid snapshot.
+     */
+    public static Object read(byte[] bytes) throws JSONException {
+        return wrap(ByteBuffer.wrap(bytes), true).getRoot();
+    }
+
+    /**
+     * Load a snapshot from a stream, checking its checksum. The stream is
+     * read to its end.
+     *
+     * @param in
+     *            the stream.
+     * @return a JSONObject, JSONArray, String, Boolean, Number or
+     *         JSONObject.NULL.
+     * @throws JSONException
+     *             if the stream does not hold a valid snapshot, or fails.
+     */
+    public static Object read(InputStream in) throws JSONException {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(8192);
+            byte[] chunk = new byte[8192];
+            for (int n; (n = in.read(chunk)) >= 0; ) {
+                bytes.write(chunk, 0, n);
+            }
+            return read(bytes.toByteArray());
+        } catch (IOException e) {
+            throw new JSONException(e);
+        }
+    }
+
+    /**
+     * Load a snapshot file, checking its checksum.
+     *
+     * @param path
+     *            the file.
+     * @return a JSONObject, JSONArray, String, Boolean, Number or
+     *         JSONObject.NULL.
+     * @throws JSONException
+     *             if the file is not a valid snapshot, or cannot be read.
+     */
+    public static Object read(Path path) throws JSONException {
+        try {
+            return read(Files.readAllBytes(path));
+        } catch (IOException e) {
+            throw new JSONException(e);
+        }
+    }
+
+    /**
+     * Map a snapshot file into memory, checking its checksum. Nothing
+     * beyond the key table is decoded until it is asked for.
+     *
+     * @param path
+     *            the file.
+     * @return the snapshot.
+     * @throws JSONException
+     *             if the file is not a valid snapshot, or cannot be mapped.
+     */
+    public static JSONSnapshot open(Path path) throws JSONException {
+        return open(path, true);
+    }
+
+    /**
+     * Map a snapshot file into memory. Nothing beyond the key table is
+     * decoded until it is asked for. Skipping the checksum avoids touching
+     * every page of the file, at the risk of reading a corrupted value.
+     *
+     * @param path
+     *            the file.
+     * @param verifyChecksum
+     *            true to check the checksum of the whole file.
+     * @return the snapshot.
+     * @throws JSONException
+     *             if the file is not a valid snapshot, or cannot be mapped.
+     */
+    public static JSONSnapshot open(Path path, boolean verifyChecksum) throws JSONException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            final long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new JSONException("Snapshot too large: " + size + " bytes.");
+            }
+            return wrap(channel.map(FileChannel.MapMode.READ_ONLY, 0, size), verifyChecksum);
+        } catch (IOException e) {
+            throw new JSONException(e);
+        }
+    }
+
+    private static JSONSnapshot wrap(ByteBuffer bytes, boolean verifyChecksum) throws JSONException {
+        final int length = bytes.remaining() - 4;
+        if (length < 12 || bytes.getInt(0) != MAGIC) {
+            throw new JSONException("Not a JSON snapshot.");
+        }
+        final int version = bytes.getInt(4);
+        if (version != VERSION) {
+            throw new JSONException("Unsupported JSON snapshot version: " + version);
+        }
+        ByteBuffer content = bytes.duplicate();
+        content.limit(length);
+        if (verifyChecksum) {
+            CRC32 crc = new CRC32();
+            crc.update(content.duplicate());
+            if ((int) crc.getValue() != bytes.getInt(length)) {
+                throw new JSONException("JSON snapshot checksum mismatch.");
+            }
+        }
+        Decoder decoder = new Decoder(content, null);
+        decoder.position = 8;
+        final int count = decoder.count(4);
+        String[] keys = new String[count];
+        for (int i = 0; i < count; i += 1) {
+            keys[i] = decoder.string();
+        }
+        return new JSONSnapshot(content, keys, decoder.position);
+    }
+
+    /**
+     * Decode the whole snapshot.
+     *
+     * @return a JSONObject, JSONArray, String, Boolean, Number or
+     *         JSONObject.NULL.
+     * @throws JSONException
+     *             if the snapshot is corrupted.
+     */
+    public Object getRoot() throws JSONException {
+        Decoder decoder = new Decoder(this.buffer, this.keys);
+        decoder.position = this.root;
+        return decoder.value(0);
+    }
+
+    /**
+     * Decode the value a JSON Pointer refers to, skipping over everything
+     * else. The result is the same as
+     * <code>pointer.queryFrom(getRoot())</code>.
+     *
+     * @param pointer
+     *            a JSON Pointer.
+     * @return the value, or null if an object has no member of that name.
+     * @throws JSONPointerException
+     *             if the pointer cannot be followed.
+     * @throws JSONException
+     *             if the snapshot is corrupted.
+     */
+    public Object query(JSONPointer pointer) throws JSONException {
+        Decoder decoder = new Decoder(this.buffer, this.keys);
+        decoder.position = this.root;
+        for (String token : pointer.getRefTokens()) {
+            if (!decoder.select(token)) {
+                return null;
+            }
+        }
+        return decoder.value(0);
+    }
+
+    /**
+     * Decode the value a JSON Pointer refers to, skipping over everything
+     * else.
+     *
+     * @param pointer
+     *            a JSON Pointer, like "/a/0".
+     * @return the value, or null if an object has no member of that name.
+     * @throws JSONPointerException
+     *             if the pointer is malformed or cannot be followed.
+     * @throws JSONException
+     *             if the snapshot is corrupted.
+     */
+    public Object query(String pointer) throws JSONException {
+        return this.query(new JSONPointer(pointer));
+    }
+
+    /**
+     * Reads values from a snapshot. Reads use absolute positions, so that
+     * several decoders can share one buffer.
+     */
+    private static final class Decoder {
+
+        private final ByteBuffer buffer;
+        private final String[] keys;
+        private byte[] scratch;
+        int position;
+
+        Decoder(ByteBuffer buffer, String[] keys) {
+            this.buffer = buffer;
+            this.keys = keys;
+        }
+
+        private int need(int n) throws JSONException {
+            final int p = this.position;
+            if (n < 0 || n > this.buffer.limit() - p) {
+                throw new JSONException("Truncated JSON snapshot at " + p + ".");
+            }
+            this.position = p + n;
+            return p;
+        }
+
+        private int tag() throws JSONException {
+            return this.buffer.get(this.need(1)) & 0xFF;
+        }
+
+        private int readInt() throws JSONException {
+            return this.buffer.getInt(this.need(4));
+        }
+
+        private long readLong() throws JSONException {
+            return this.buffer.getLong(this.need(8));
+        }
+
+        /**
+         * Read a count of items that take at least the given number of
+         * bytes each, making sure that many can be present.
+         */
+        int count(int itemSize) throws JSONException {
+            final int n = this.readInt();
+            if (n < 0 || (long) n * itemSize > this.buffer.limit() - this.position) {
+                throw new JSONException("Bad count in JSON snapshot at " + (this.position - 4) + ".");
+            }
+            return n;
+        }
+
+        private byte[] bytes(int n) throws JSONException {
+            final int p = this.need(n);
+            byte[] b = new byte[n];
+            ByteBuffer source = this.buffer.duplicate();
+            source.position(p);
+            source.get(b);
+            return b;
+        }
+
+        String string() throws JSONException {
+            final int n = this.readInt();
+            final int p = this.need(n);
+            if (this.buffer.hasArray()) {
+                return new String(this.buffer.array(), this.buffer.arrayOffset() + p, n,
+                        StandardCharsets.UTF_8);
+            }
+            if (this.scratch == null || this.scratch.length < n) {
+                this.scratch = new byte[Math.max(n, 256)];
+            }
+            ByteBuffer source = this.buffer.duplicate();
+            source.position(p);
+            source.get(this.scratch, 0, n);
+            return new String(this.scratch, 0, n, StandardCharsets.UTF_8);
+        }
+
+        private String key() throws JSONException {
+            final int k = this.readInt();
+            if (k < 0 || k >= this.keys.length) {
+                throw new JSONException("Bad key index in JSON snapshot: " + k);
+            }
+            return this.keys[k];
+        }
+
+        /**
+         * Read the byte length of a container, and check that it is there.
+         *
+         * @return the position just after the container
+         */
+        private int extent() throws JSONException {
+            final int size = this.readInt();
+            final int p = this.position;
+            this.need(size);
+            this.position = p;
+            return p + size;
+        }
+
+        Object value(int depth) throws JSONException {
+            final int tag = this.tag();
+            switch (tag) {
+            case T_NULL:
+                return JSONObject.NULL;
+            case T_FALSE:
+                return Boolean.FALSE;
+            case T_TRUE:
+                return Boolean.TRUE;
+            case T_INT:
+                return Integer.valueOf(this.readInt());
+            case T_LONG:
+                return Long.valueOf(this.readLong());
+            case T_DOUBLE:
+                return Double.valueOf(Double.longBitsToDouble(this.readLong()));
+            case T_BIG_INTEGER:
+                return new BigInteger(this.bytes(this.readInt()));
+            case T_BIG_DECIMAL: {
+                final int scale = this.readInt();
+                return new BigDecimal(new BigInteger(this.bytes(this.readInt())), scale);
+            }
+            case T_STRING:
+                return this.string();
+            case T_OBJECT: {
+                if (depth >= MAX_DEPTH) {
+                    throw new JSONException("Nesting too deep.");
+                }
+                final int end = this.extent();
+                final int n = this.count(5);
+                JSONObject jo = new JSONObject(n);
+                for (int i = 0; i < n; i += 1) {
+                    jo.put(this.key(), this.value(depth + 1));
+                }
+                this.checkEnd(end);
+                return jo;
+            }
+            case T_ARRAY: {
+                if (depth >= MAX_DEPTH) {
+                    throw new JSONException("Nesting too deep.");
+                }
+                final int end = this.extent();
+                final int n = this.count(1);
+                JSONArray ja = new JSONArray(n);
+                for (int i = 0; i < n; i += 1) {
+                    ja.put(this.value(depth + 1));
+                }
+                this.checkEnd(end);
+                return ja;
+            }
+            default:
+                throw new JSONException("Bad tag in JSON snapshot at " + (this.position - 1) + ": " + tag);
+            }
+        }
+
+        private void checkEnd(int end) throws JSONException {
+            if (this.position != end) {
+                throw new JSONException("Bad length in JSON snapshot before " + end + ".");
+            }
+        }
+
+        /**
+         * Move past the value at the current position without decoding it.
+         */
+        private void skip() throws JSONException {
+            final int tag = this.tag();
+            switch (tag) {
+            case T_NULL:
+            case T_FALSE:
+            case T_TRUE:
+                break;
+            case T_INT:
+                this.need(4);
+                break;
+            case T_LONG:
+            case T_DOUBLE:
+                this.need(8);
+                break;
+            case T_BIG_DECIMAL:
+                this.need(4);
+                this.need(this.readInt());
+                break;
+            case T_BIG_INTEGER:
+            case T_STRING:
+            case T_OBJECT:
+            case T_ARRAY:
+                this.need(this.readInt());
+                break;
+            default:
+                throw new JSONException("Bad tag in JSON snapshot at " + (this.position - 1) + ": " + tag);
+            }
+        }
+
+        /**
+         * Move to a member or element of the container at the current
+         * position, like {@link JSONPointer#queryFrom(Object)} does.
+         *
+         * @return false if an object has no member of that name
+         */
+        boolean select(String token) throws JSONException {
+            final int start = this.position;
+            final int tag = this.tag();
+            if (tag == T_OBJECT) {
+                this.extent();
+                final int n = this.count(5);
+                for (int i = 0; i < n; i += 1) {
+                    if (token.equals(this.key())) {
+                        return true;
+                    }
+                    this.skip();
+                }
+                return false;
+            }
+            if (tag == T_ARRAY) {
+                this.extent();
+                final int n = this.count(1);
+                final int index;
+                try {
+                    index = Integer.parseInt(token);
+                } catch (NumberFormatException e) {
+                    throw new JSONPointerException(String.format("%s is not an array index", token), e);
+                }
+                if (index >= n) {
+                    throw new JSONPointerException(String.format(
+                            "index %s is out of bounds - the array has %d elements", token, Integer.valueOf(n)));
+                }
+                if (index < 0) {
+                    throw new JSONPointerException("Error reading value at index position " + index);
+                }
+                for (int i = 0; i < index; i += 1) {
+                    this.skip();
+                }
+                return true;
+            }
+            this.position = start;
+            throw new JSONPointerException(String.format(
+                    "value [%s] is not an array or object therefore its key %s cannot be resolved",
+                    this.value(0), token));
+        }
+    }
+
+    /**
+     * Plans a snapshot: collects the key table and turns the value into a
+     * tree of plain values and {@link Container}s in a first pass, so that
+     * the second pass can stream. Values such as JSONStrings, maps and beans
+     * are only reduced once, and both passes see the same data even if they
+     * would come out differently a second time.
+     */
+    private static final class Layout {
+
+        final Map<String, Integer> keyIndex = new HashMap<String, Integer>();
+        final List<String> keyList = new ArrayList<String>();
+        long keyTableSize;
+
+        private static Object normalize(Object value) {
+            if (value == null || value instanceof String || value instanceof Boolean
+                    || value instanceof JSONObject || value instanceof JSONArray
+                    || value instanceof Integer || value instanceof Long || value instanceof Double
+                    || value instanceof BigInteger || value instanceof BigDecimal
+                    || JSONObject.NULL.equals(value)) {
+                return value;
+            }
+            if (value instanceof Short || value instanceof Byte) {
+                return Integer.valueOf(((Number) value).intValue());
+            }
+            if (value instanceof Float) {
+                return Double.valueOf(((Float) value).doubleValue());
+            }
+            return normalize(BinaryOutput.plain(value));
+        }
+
+        /**
+         * Reduce a value to what will be written.
+         *
+         * @param value
+         *            the value.
+         * @param depth
+         *            the nesting depth of the value.
+         * @return null, JSONObject.NULL, a String, Boolean, Integer, Long,
+         *         Double, BigInteger, BigDecimal or Container.
+         * @throws JSONException
+         *             if a number is not finite, or the value is nested too
+         *             deep or too large.
+         */
+        Object plan(Object value, int depth) throws JSONException {
+            value = normalize(value);
+            if (value instanceof Double) {
+                BinaryOutput.testValidity(((Double) value).doubleValue());
+            }
+            if (!(value instanceof JSONObject) && !(value instanceof JSONArray)) {
+                return value;
+            }
+            if (depth >= MAX_DEPTH) {
+                throw new JSONException("Nesting too deep.");
+            }
+            final Container container;
+            long size = 4;
+            if (value instanceof JSONObject) {
+                JSONObject jo = (JSONObject) value;
+                final String[] keys = jo.keySet().toArray(new String[0]);
+                container = new Container(T_OBJECT, new int[keys.length], new Object[keys.length]);
+                for (int i = 0; i < keys.length; i += 1) {
+                    final String key = keys[i];
+                    Integer index = this.keyIndex.get(key);
+                    if (index == null) {
+                        index = Integer.valueOf(this.keyList.size());
+                        this.keyIndex.put(key, index);
+                        this.keyList.add(key);
+                        this.keyTableSize += 4 + BinaryOutput.utf8Length(key);
+                    }
+                    container.keys[i] = index.intValue();
+                    container.values[i] = this.plan(jo.opt(key), depth + 1);
+                    size += 4 + size(container.values[i]);
+                }
+            } else {
+                JSONArray ja = (JSONArray) value;
+                final int length = ja.length();
+                container = new Container(T_ARRAY, null, new Object[length]);
+                for (int i = 0; i < length; i += 1) {
+                    container.values[i] = this.plan(ja.opt(i), depth + 1);
+                    size += size(container.values[i]);
+                }
+            }
+            if (size > Integer.MAX_VALUE - 8) {
+                throw new JSONException("Snapshot too large: " + size + " bytes.");
+            }
+            container.size = (int) size;
+            return container;
+        }
+
+        /**
+         * Get the number of bytes a planned value takes.
+         *
+         * @param value
+         *            a value returned by {@link #plan(Object, int)}.
+         * @return the number of bytes.
+         */
+        static long size(Object value) {
+            if (value instanceof String) {
+                return 5 + BinaryOutput.utf8Length((String) value);
+            }
+            if (value instanceof Integer) {
+                return 5;
+            }
+            if (value instanceof Long || value instanceof Double) {
+                return 9;
+            }
+            if (value instanceof BigInteger) {
+                return 5 + (((BigInteger) value).bitLength() / 8 + 1);
+            }
+            if (value instanceof BigDecimal) {
+                return 9 + (((BigDecimal) value).unscaledValue().bitLength() / 8 + 1);
+            }
+            if (value instanceof Container) {
+                return 5 + ((Container) value).size;
+            }
+            // null, JSONObject.NULL and Boolean
+            return 1;
+        }
+
+        private static void writeBytes(BinaryOutput out, byte[] bytes) throws IOException {
+            out.writeInt(bytes.length);
+            out.write(bytes, 0, bytes.length);
+        }
+
+        /**
+         * Write a planned value.
+         *
+         * @param out
+         *            the output.
+         * @param value
+         *            a value returned by {@link #plan(Object, int)}.
+         * @throws IOException
+         *             if the output fails.
+         */
+        static void write(BinaryOutput out, Object value) throws IOException {
+            if (value == null || JSONObject.NULL.equals(value)) {
+                out.write(T_NULL);
+            } else if (value instanceof String) {
+                out.write(T_STRING);
+                out.writeInt(BinaryOutput.utf8Length((String) value));
+                out.writeUtf8((String) value);
+            } else if (value instanceof Boolean) {
+                out.write(((Boolean) value).booleanValue() ? T_TRUE : T_FALSE);
+            } else if (value instanceof Integer) {
+                out.write(T_INT);
+                out.writeInt(((Integer) value).intValue());
+            } else if (value instanceof Long) {
+                out.write(T_LONG);
+                out.writeLong(((Long) value).longValue());
+            } else if (value instanceof Double) {
+                out.write(T_DOUBLE);
+                out.writeLong(Double.doubleToLongBits(((Double) value).doubleValue()));
+            } else if (value instanceof BigInteger) {
+                out.write(T_BIG_INTEGER);
+                writeBytes(out, ((BigInteger) value).toByteArray());
+            } else if (value instanceof BigDecimal) {
+                BigDecimal d = (BigDecimal) value;
+                out.write(T_BIG_DECIMAL);
+                out.writeInt(d.scale());
+                writeBytes(out, d.unscaledValue().toByteArray());
+            } else {
+                Container container = (Container) value;
+                out.write(container.type);
+                out.writeInt(container.size);
+                out.writeInt(container.values.length);
+                for (int i = 0; i < container.values.length; i += 1) {
+                    if (container.keys != null) {
+                        out.writeInt(container.keys[i]);
+                    }
+                    write(out, container.values[i]);
+                }
+            }
+        }
+    }
+
+    /**
+     * A planned object or array.
+     */
+    private static final class Container {
+        final int type;
+
+        /**
+         * The indexes of the keys in the key table, or null for an array.
+         */
+        final int[] keys;
+
+        final Object[] values;
+
+        /**
+         * The number of bytes after the type and the size.
+         */
+        int size;
+
+        Container(int type, int[] keys, Object[] values) {
+            this.type = type;
+            this.keys = keys;
+            this.values = values;
+        }
+    }
+}
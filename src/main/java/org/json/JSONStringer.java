@@ -24,13 +24,14 @@ OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
 SOFTWARE.
 */
 
-import java.io.StringWriter;
+import java.io.IOException;
+import java.io.OutputStream;
 
 /**
  * JSONStringer provides a quick and convenient way of producing JSON text.
  * The texts produced strictly conform to JSON syntax rules. No whitespace is
  * added, so the results are ready for transmission or storage. Each instance of
- * JSONStringer can produce one JSON text.
+ * JSONStringer can produce one JSON text at a time.
  * <p>
  * A JSONStringer instance provides a <code>value</code> method for appending
  * values to the
@@ -50,18 +51,88 @@ import java.io.StringWriter;
  * <p>
  * The first method called must be <code>array</code> or <code>object</code>.
  * There are no methods for adding commas or colons. JSONStringer adds them for
- * you. Objects and arrays can be nested up to 20 levels deep.
+ * you. Objects and arrays can be nested up to 200 levels deep.
+ * <p>
+ * After the text is taken with <code>toString</code>, <code>toBytesUtf8</code>
+ * or <code>writeTo</code>, <code>reset</code> makes the JSONStringer ready for
+ * the next text. The buffers are kept for that text unless they have grown
+ * beyond the retained capacity, so a JSONStringer that is reused on one thread
+ * settles on buffers that fit its usual texts. A JSONStringer is not thread
+ * safe.
  * <p>
  * This can sometimes be easier than using a JSONObject to build a string.
  * @author JSON.org
  * @version 2015-12-09
  */
 public class JSONStringer extends JSONWriter {
+
+    /**
+     * The capacity of a new character buffer.
+     */
+    private final int initialCapacity;
+
     /**
-     * Make a fresh JSONStringer. It can be used to build one JSON text.
+     * The largest buffer, in chars or bytes, that is kept by
+     * <code>reset</code>.
+     */
+    private final int maxRetainedCapacity;
+
+    /**
+     * The character buffer, also the appendable of the JSONWriter.
+     */
+    private StringBuilder buffer;
+
+    /**
+     * The UTF-8 bytes of the text, made on demand.
+     */
+    private JSONUtf8Writer bytes;
+
+    /**
+     * Whether {@link #bytes} holds the current text.
+     */
+    private boolean bytesValid;
+
+    /**
+     * Make a fresh JSONStringer. It can be used to build one JSON text at a
+     * time.
      */
     public JSONStringer() {
-        super(new StringWriter());
+        this(256, 64 * 1024);
+    }
+
+    /**
+     * Make a fresh JSONStringer. It can be used to build one JSON text at a
+     * time.
+     * @param initialCapacity the initial capacity of the buffer, in chars
+     * @param maxRetainedCapacity the capacity above which <code>reset</code>
+     *  drops a buffer instead of reusing it
+     */
+    public JSONStringer(int initialCapacity, int maxRetainedCapacity) {
+        super(new StringBuilder(initialCapacity));
+        this.initialCapacity = initialCapacity;
+        this.maxRetainedCapacity = maxRetainedCapacity;
+        this.buffer = (StringBuilder) this.writer;
+    }
+
+    /**
+     * Discard the JSON text so that another one can be built. The buffers are
+     * kept unless they have grown beyond the retained capacity.
+     * @return this
+     */
+    @Override
+    public JSONStringer reset() {
+        super.reset();
+        if (this.buffer.capacity() > this.maxRetainedCapacity) {
+            this.buffer = new StringBuilder(this.initialCapacity);
+            this.writer = this.buffer;
+        } else {
+            this.buffer.setLength(0);
+        }
+        if (this.bytes != null && this.bytes.size() > this.maxRetainedCapacity) {
+            this.bytes = null;
+        }
+        this.bytesValid = false;
+        return this;
     }
 
     /**
@@ -74,6 +145,50 @@ public class JSONStringer extends JSONWriter {
      */
     @Override
     public String toString() {
-        return this.mode == 'd' ? this.writer.toString() : null;
+        return this.mode == 'd' ? this.buffer.toString() : null;
+    }
+
+    /**
+     * Return the JSON text encoded as UTF-8. It will return <code>null</code>
+     * if the JSON text is not complete, like <code>toString</code>.
+     * @return The UTF-8 bytes of the JSON text.
+     */
+    public byte[] toBytesUtf8() {
+        return this.mode == 'd' ? this.encode().toByteArray() : null;
+    }
+
+    /**
+     * Write the JSON text encoded as UTF-8 to a stream. The bytes are passed
+     * on from the internal buffer without another copy.
+     * @param out the stream receiving the bytes
+     * @throws JSONException if the JSON text is not complete
+     * @throws IOException if the stream fails
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        if (this.mode != 'd') {
+            throw new JSONException("Incomplete JSON text.");
+        }
+        this.encode().writeTo(out);
+    }
+
+    /**
+     * Encode the JSON text, once per text.
+     * @return the writer holding the bytes
+     */
+    private JSONUtf8Writer encode() {
+        if (!this.bytesValid) {
+            if (this.bytes == null) {
+                this.bytes = new JSONUtf8Writer(this.buffer.length());
+            } else {
+                this.bytes.reset();
+            }
+            try {
+                this.bytes.append(this.buffer, 0, this.buffer.length());
+            } catch (IOException ignored) {
+                // will not happen - the bytes are collected in memory
+            }
+            this.bytesValid = true;
+        }
+        return this.bytes;
     }
 }
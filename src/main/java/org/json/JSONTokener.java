@@ -39,6 +39,8 @@ SOFTWARE.
  * @version 2014-05-03
  */
 public class JSONTokener {
+    /** the capacity of a <code>HashMap</code> made without one. */
+    private static final int DEFAULT_OBJECT_CAPACITY = 16;
     /** current read character position on the current line. */
     private long character;
     /** flag to indicate if the end of the input has been found. */
@@ -55,6 +57,12 @@ public class JSONTokener {
     private boolean usePrevious;
     /** the number of characters read in the previous line. */
     private long characterPreviousLine;
+    /** whether numbers are kept as JSONNumbers. */
+    private final boolean lazyNumbers;
+    /** the size hints, or null. */
+    private final JSONSizeHints sizeHints;
+    /** the key of the size hint of the container about to be parsed. */
+    private String hintKey = "";
 
 
     /**
@@ -63,6 +71,20 @@ public class JSONTokener {
      * @param reader     A reader.
      */
     public JSONTokener(Reader reader) {
+        this(reader, JSONParserConfiguration.ORIGINAL);
+    }
+
+
+    /**
+     * Construct a JSONTokener from a Reader, parsing with a configuration.
+     * The caller must close the Reader.
+     *
+     * @param reader     A reader.
+     * @param config     The parser configuration.
+     */
+    public JSONTokener(Reader reader, JSONParserConfiguration config) {
+        this.lazyNumbers = config.isLazyNumbers();
+        this.sizeHints = config.getSizeHints();
         this.reader = reader.markSupported()
                 ? reader
                         : new BufferedReader(reader);
@@ -95,6 +117,71 @@ public class JSONTokener {
     }
 
 
+    /**
+     * Construct a JSONTokener from a string, parsing with a configuration.
+     *
+     * @param s      A source string.
+     * @param config The parser configuration.
+     */
+    public JSONTokener(String s, JSONParserConfiguration config) {
+        this(new StringReader(s), config);
+    }
+
+
+    /**
+     * Get the key of the size hint of the container about to be parsed.
+     *
+     * @return the key, or null if the tokener has no size hints.
+     */
+    String hintKey() {
+        return this.sizeHints == null ? null : this.hintKey;
+    }
+
+    /**
+     * Set the key of the size hint of the next container.
+     *
+     * @param key the key.
+     */
+    void hintKey(String key) {
+        this.hintKey = key;
+    }
+
+    /**
+     * Get the capacity of the map of the object about to be parsed.
+     *
+     * @return the capacity, that of a default <code>HashMap</code> if nothing
+     *  is known.
+     */
+    int objectCapacity() {
+        final int members = this.sizeHints == null ? 0 : this.sizeHints.hint(this.hintKey);
+        if (members <= DEFAULT_OBJECT_CAPACITY * 3 / 4) {
+            return DEFAULT_OBJECT_CAPACITY;
+        }
+        return (int) (members / 0.75f) + 1;
+    }
+
+    /**
+     * Get the number of elements expected in the array about to be parsed.
+     *
+     * @return the number of elements, or 0 if nothing is known.
+     */
+    int arrayCapacity() {
+        return this.sizeHints == null ? 0 : this.sizeHints.hint(this.hintKey);
+    }
+
+    /**
+     * Learn the size of a container just parsed, and go back to its key.
+     *
+     * @param key the key of the container, null if there are no size hints.
+     * @param size its number of members or elements.
+     */
+    void parsed(String key, int size) {
+        if (key != null) {
+            this.sizeHints.observe(key, size);
+            this.hintKey = key;
+        }
+    }
+
     /**
      * Back up one character. This provides a sort of lookahead capability,
      * so that you can test for a digit or letter before attempting to parse
@@ -413,7 +500,8 @@ public class JSONTokener {
 
     /**
      * Get the next value. The value can be a Boolean, Double, Integer,
-     * JSONArray, JSONObject, Long, or String, or the JSONObject.NULL object.
+     * JSONArray, JSONObject, Long, or String, or the JSONObject.NULL object,
+     * or a JSONNumber if the tokener keeps numbers as text.
      * @throws JSONException If syntax error.
      *
      * @return An object.
@@ -456,6 +544,9 @@ public class JSONTokener {
         if ("".equals(string)) {
             throw this.syntaxError("Missing value");
         }
+        if (this.lazyNumbers && JSONNumber.isNumber(string)) {
+            return new JSONNumber(string);
+        }
         return JSONObject.stringToValue(string);
     }
 
@@ -0,0 +1,458 @@
+package org.json;
+
+/*
+Copyright (c) 2002 JSON.org
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+The Software shall be used for Good, not Evil.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * A Writer that encodes the characters written to it as UTF-8 bytes, without
+ * going through an <code>OutputStreamWriter</code> or an intermediate
+ * <code>String</code>. Runs of ASCII characters, which make up most JSON
+ * texts, are copied into the byte buffer in a tight loop.
+ * <p>
+ * The bytes are collected in a growable <code>byte[]</code>, or passed on to
+ * an <code>OutputStream</code> or a <code>ByteBuffer</code> whenever the
+ * internal buffer fills up, on <code>flush()</code> and on
+ * <code>close()</code>. A <code>ByteBuffer</code> backed by an accessible
+ * array is written in place, without an internal buffer, and its position
+ * catches up on <code>flush()</code> and <code>close()</code>. For example, <pre>
+ * JSONUtf8Writer w = new JSONUtf8Writer();
+ * myJSONObject.write(w);
+ * byte[] bytes = w.toByteArray();</pre>
+ * produces the same bytes as
+ * <code>myJSONObject.toString().getBytes(StandardCharsets.UTF_8)</code>.
+ * Unpaired surrogates are replaced with <code>'?'</code>, just as the JDK
+ * encoder does.
+ * <p>
+ * This class is not thread safe.
+ *
+ * @author JSON.org
+ */
+public class JSONUtf8Writer extends Writer {
+
+    /**
+     * The size of the internal buffer used in front of a stream or byte buffer.
+     */
+    private static final int SINK_BUFFER_SIZE = 8192;
+
+    /**
+     * The encoded bytes that have not been passed on yet.
+     */
+    private byte[] buf;
+
+    /**
+     * The index in {@link #buf} of the first byte that has not been passed
+     * on. Always 0 unless the bytes go straight into the array of
+     * {@link #target}.
+     */
+    private int start;
+
+    /**
+     * The index in {@link #buf} after the last byte written.
+     */
+    private int count;
+
+    /**
+     * The index in {@link #buf} where the room for bytes ends.
+     */
+    private int limit;
+
+    /**
+     * The number of bytes already passed on.
+     */
+    private long drained;
+
+    /**
+     * The stream receiving the bytes, or null.
+     */
+    private final OutputStream out;
+
+    /**
+     * The byte buffer receiving the bytes, or null.
+     */
+    private final ByteBuffer target;
+
+    /**
+     * Whether {@link #buf} is the array of {@link #target}.
+     */
+    private final boolean inPlace;
+
+    /**
+     * A high surrogate waiting for its low surrogate, or 0.
+     */
+    private char pendingHighSurrogate;
+
+    /**
+     * Make a writer that collects the bytes in a growable buffer.
+     */
+    public JSONUtf8Writer() {
+        this(256);
+    }
+
+    /**
+     * Make a writer that collects the bytes in a growable buffer.
+     *
+     * @param initialCapacity
+     *            the initial size of the buffer in bytes.
+     */
+    public JSONUtf8Writer(int initialCapacity) {
+        if (initialCapacity < 0) {
+            throw new IllegalArgumentException("Negative initial capacity: " + initialCapacity);
+        }
+        this.buf = new byte[Math.max(initialCapacity, 16)];
+        this.limit = this.buf.length;
+        this.out = null;
+        this.target = null;
+        this.inPlace = false;
+    }
+
+    /**
+     * Make a writer that passes the bytes on to a stream.
+     *
+     * @param out
+     *            the stream receiving the bytes.
+     */
+    public JSONUtf8Writer(OutputStream out) {
+        if (out == null) {
+            throw new NullPointerException("Null stream.");
+        }
+        this.buf = new byte[SINK_BUFFER_SIZE];
+        this.limit = this.buf.length;
+        this.out = out;
+        this.target = null;
+        this.inPlace = false;
+    }
+
+    /**
+     * Make a writer that puts the bytes into a byte buffer. An
+     * <code>IOException</code> is thrown if the byte buffer has not enough
+     * room left. The byte buffer should not be used by anyone else until the
+     * writer is flushed.
+     *
+     * @param target
+     *            the byte buffer receiving the bytes.
+     */
+    public JSONUtf8Writer(ByteBuffer target) {
+        if (target == null) {
+            throw new NullPointerException("Null buffer.");
+        }
+        this.out = null;
+        this.target = target;
+        this.inPlace = target.hasArray();
+        if (this.inPlace) {
+            this.buf = target.array();
+            this.start = target.arrayOffset() + target.position();
+            this.count = this.start;
+            this.limit = target.arrayOffset() + target.limit();
+        } else {
+            // a direct buffer takes the bytes in bulk puts
+            this.buf = new byte[SINK_BUFFER_SIZE];
+            this.limit = this.buf.length;
+        }
+    }
+
+    @Override
+    public void write(int c) throws IOException {
+        if (c < 0x80 && this.pendingHighSurrogate == 0 && this.count < this.limit) {
+            this.buf[this.count++] = (byte) c;
+        } else {
+            this.encode((char) c);
+        }
+    }
+
+    @Override
+    public void write(char[] cbuf, int off, int len) throws IOException {
+        final int end = off + len;
+        while (off < end) {
+            if (this.pendingHighSurrogate == 0) {
+                // copy the run of ASCII characters that fits in the buffer
+                int room = this.limit - this.count;
+                if (room == 0) {
+                    this.makeRoom(1);
+                    room = this.limit - this.count;
+                }
+                final byte[] b = this.buf;
+                int n = this.count;
+                final int stop = off + Math.min(end - off, room);
+                char c;
+                while (off < stop && (c = cbuf[off]) < 0x80) {
+                    b[n++] = (byte) c;
+                    off += 1;
+                }
+                this.count = n;
+                if (off == end) {
+                    return;
+                }
+            }
+            this.encode(cbuf[off]);
+            off += 1;
+        }
+    }
+
+    @Override
+    public void write(String str, int off, int len) throws IOException {
+        final int end = off + len;
+        while (off < end) {
+            if (this.pendingHighSurrogate == 0) {
+                // copy the run of ASCII characters that fits in the buffer
+                int room = this.limit - this.count;
+                if (room == 0) {
+                    this.makeRoom(1);
+                    room = this.limit - this.count;
+                }
+                final byte[] b = this.buf;
+                int n = this.count;
+                final int stop = off + Math.min(end - off, room);
+                char c;
+                while (off < stop && (c = str.charAt(off)) < 0x80) {
+                    b[n++] = (byte) c;
+                    off += 1;
+                }
+                this.count = n;
+                if (off == end) {
+                    return;
+                }
+            }
+            this.encode(str.charAt(off));
+            off += 1;
+        }
+    }
+
+    @Override
+    public Writer append(CharSequence csq, int start, int end) throws IOException {
+        if (csq == null) {
+            csq = "null";
+        }
+        if (csq instanceof String) {
+            this.write((String) csq, start, end - start);
+        } else {
+            for (int i = start; i < end; i += 1) {
+                this.write(csq.charAt(i));
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Encode a single character, taking care of surrogate pairs.
+     *
+     * @param c
+     *            the character.
+     * @throws IOException
+     *             if the bytes cannot be passed on.
+     */
+    private void encode(char c) throws IOException {
+        if (this.pendingHighSurrogate != 0) {
+            final char high = this.pendingHighSurrogate;
+            this.pendingHighSurrogate = 0;
+            if (Character.isLowSurrogate(c)) {
+                final int cp = Character.toCodePoint(high, c);
+                this.makeRoom(4);
+                final byte[] b = this.buf;
+                int n = this.count;
+                b[n++] = (byte) (0xF0 | (cp >> 18));
+                b[n++] = (byte) (0x80 | ((cp >> 12) & 0x3F));
+                b[n++] = (byte) (0x80 | ((cp >> 6) & 0x3F));
+                b[n++] = (byte) (0x80 | (cp & 0x3F));
+                this.count = n;
+                return;
+            }
+            // the high surrogate was not followed by a low one
+            this.makeRoom(1);
+            this.buf[this.count++] = '?';
+        }
+        this.makeRoom(c < 0x80 || Character.isSurrogate(c) ? 1 : c < 0x800 ? 2 : 3);
+        final byte[] b = this.buf;
+        int n = this.count;
+        if (c < 0x80) {
+            b[n++] = (byte) c;
+        } else if (c < 0x800) {
+            b[n++] = (byte) (0xC0 | (c >> 6));
+            b[n++] = (byte) (0x80 | (c & 0x3F));
+        } else if (Character.isHighSurrogate(c)) {
+            this.pendingHighSurrogate = c;
+        } else if (Character.isLowSurrogate(c)) {
+            b[n++] = '?';
+        } else {
+            b[n++] = (byte) (0xE0 | (c >> 12));
+            b[n++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+            b[n++] = (byte) (0x80 | (c & 0x3F));
+        }
+        this.count = n;
+    }
+
+    /**
+     * Make sure there is room for at least the given number of bytes, either
+     * by passing the buffered bytes on or by growing the buffer.
+     *
+     * @param needed
+     *            the number of bytes about to be written.
+     * @throws IOException
+     *             if the bytes cannot be passed on.
+     */
+    private void makeRoom(int needed) throws IOException {
+        if (this.limit - this.count >= needed) {
+            return;
+        }
+        if (this.inPlace) {
+            throw new IOException("ByteBuffer has " + (this.limit - this.count)
+                    + " bytes left, " + needed + " needed.");
+        }
+        if (this.out != null || this.target != null) {
+            this.drain();
+        } else {
+            final int minCapacity = this.count + needed;
+            if (minCapacity < 0) {
+                throw new OutOfMemoryError("JSON text too large");
+            }
+            int newCapacity = this.buf.length << 1;
+            if (newCapacity - minCapacity < 0) {
+                newCapacity = minCapacity;
+            }
+            if (newCapacity < 0) {
+                newCapacity = Integer.MAX_VALUE - 8;
+            }
+            this.buf = Arrays.copyOf(this.buf, newCapacity);
+            this.limit = newCapacity;
+        }
+    }
+
+    /**
+     * Pass the buffered bytes on to the stream or the byte buffer.
+     *
+     * @throws IOException
+     *             if the stream fails or the byte buffer is full.
+     */
+    private void drain() throws IOException {
+        final int n = this.count - this.start;
+        if (n == 0) {
+            return;
+        }
+        if (this.inPlace) {
+            // the bytes are already there
+            this.target.position(this.count - this.target.arrayOffset());
+            this.start = this.count;
+            this.drained += n;
+            return;
+        }
+        if (this.out != null) {
+            this.out.write(this.buf, 0, n);
+        } else if (this.target != null) {
+            if (this.target.remaining() < n) {
+                throw new IOException("ByteBuffer has " + this.target.remaining()
+                        + " bytes left, " + n + " needed.");
+            }
+            this.target.put(this.buf, 0, n);
+        } else {
+            return;
+        }
+        this.drained += n;
+        this.count = 0;
+    }
+
+    /**
+     * Pass the buffered bytes on to the stream or the byte buffer, and flush
+     * the stream. Does nothing for a writer collecting into its own buffer.
+     */
+    @Override
+    public void flush() throws IOException {
+        this.drain();
+        if (this.out != null) {
+            this.out.flush();
+        }
+    }
+
+    /**
+     * Flush the writer and close the stream, if any. A dangling high
+     * surrogate is written as <code>'?'</code>.
+     */
+    @Override
+    public void close() throws IOException {
+        if (this.pendingHighSurrogate != 0) {
+            this.pendingHighSurrogate = 0;
+            this.makeRoom(1);
+            this.buf[this.count++] = '?';
+        }
+        this.flush();
+        if (this.out != null) {
+            this.out.close();
+        }
+    }
+
+    /**
+     * Get the number of bytes that are buffered. For a writer collecting into
+     * its own buffer this is the length of the text written so far.
+     *
+     * @return the number of buffered bytes.
+     */
+    public int size() {
+        return this.count - this.start;
+    }
+
+    /**
+     * Get the number of bytes written since the writer was made or reset,
+     * whether still buffered or already passed on.
+     *
+     * @return the number of bytes.
+     */
+    public long byteCount() {
+        return this.drained + this.count - this.start;
+    }
+
+    /**
+     * Get a copy of the buffered bytes.
+     *
+     * @return the buffered bytes.
+     */
+    public byte[] toByteArray() {
+        return Arrays.copyOfRange(this.buf, this.start, this.count);
+    }
+
+    /**
+     * Write the buffered bytes to a stream, without copying them first.
+     *
+     * @param stream
+     *            the stream receiving the bytes.
+     * @throws IOException
+     *             if the stream fails.
+     */
+    public void writeTo(OutputStream stream) throws IOException {
+        stream.write(this.buf, this.start, this.count - this.start);
+    }
+
+    /**
+     * Discard the buffered bytes so that the writer, and its buffer, can be
+     * used for another text.
+     */
+    public void reset() {
+        this.count = this.start;
+        this.drained = 0;
+        this.pendingHighSurrogate = 0;
+    }
+}
@@ -0,0 +1,375 @@
+package org.json;
+
+/*
+Copyright (c) 2002 JSON.org
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+The Software shall be used for Good, not Evil.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+
+
+import java.util.AbstractList;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+import java.util.Set;
+
+/**
+ * Read-only views that let maps and lists pass for JSONObjects and
+ * JSONArrays, and JSONObjects and JSONArrays for maps and lists, without
+ * copying them.
+ * <p>
+ * {@link JSONObject#view(Map)} and {@link JSONArray#view(List)} are backed
+ * by the caller's map or list, and wrap each value when it is read, the way
+ * the copying constructors wrap it, except that nested maps and random
+ * access lists are viewed rather than copied. Other collections and arrays
+ * nested in them are copied one level deep when they are read.
+ * <p>
+ * {@link JSONObject#asMap()} and {@link JSONArray#asList()} go the other
+ * way: they hold the values the way <code>toMap()</code> and
+ * <code>toList()</code> give them, nested objects and arrays as views,
+ * <code>NULL</code> as <code>null</code>.
+ * <p>
+ * All of these views reflect changes made to what they are backed by, and
+ * none can be modified through.
+ *
+ * @author JSON.org
+ */
+final class JSONViews {
+
+    private JSONViews() {
+    }
+
+    /**
+     * Wrap a value of a viewed map or list, like {@link JSONObject#wrap(Object)}
+     * but viewing nested maps and lists instead of copying them.
+     *
+     * @param value
+     *            the value.
+     * @return the JSON value, or null if it cannot be wrapped.
+     */
+    static Object wrap(Object value) {
+        if (JSONObject.NULL.equals(value)) {
+            return JSONObject.NULL;
+        }
+        try {
+            switch (JSONObject.WRAP_KINDS.get(value.getClass())) {
+            case MAP:
+                return JSONObject.view((Map<?, ?>) value);
+            case COLLECTION:
+                if (value instanceof List && value instanceof RandomAccess) {
+                    return JSONArray.view((List<?>) value);
+                }
+                final JSONArray copy = new JSONArray(((Collection<?>) value).size());
+                for (final Object element : (Collection<?>) value) {
+                    copy.put(wrap(element));
+                }
+                return copy;
+            case ARRAY:
+                if (value instanceof Object[]) {
+                    final Object[] elements = (Object[]) value;
+                    final JSONArray array = new JSONArray(elements.length);
+                    for (final Object element : elements) {
+                        array.put(wrap(element));
+                    }
+                    return array;
+                }
+                return new JSONArray(value);
+            default:
+                return JSONObject.wrap(value);
+            }
+        } catch (Exception exception) {
+            return null;
+        }
+    }
+
+    /**
+     * Turn a value of a JSONObject or JSONArray into what
+     * <code>toMap()</code> and <code>toList()</code> hold, viewing nested
+     * objects and arrays.
+     *
+     * @param value
+     *            the value.
+     * @return the value as a Java object.
+     */
+    static Object unwrap(Object value) {
+        if (value == null || JSONObject.NULL.equals(value)) {
+            return null;
+        }
+        if (value instanceof JSONObject) {
+            return ((JSONObject) value).asMap();
+        }
+        if (value instanceof JSONArray) {
+            return ((JSONArray) value).asList();
+        }
+        return value;
+    }
+
+    /**
+     * The members of a JSONObject viewing a map: the entries whose value is
+     * not null, keyed by the string form of their keys.
+     */
+    static final class ObjectMembers extends AbstractMap<String, Object> {
+
+        final Map<?, ?> map;
+
+        private final Set<Map.Entry<String, Object>> entrySet = new AbstractSet<Map.Entry<String, Object>>() {
+            @Override
+            public Iterator<Map.Entry<String, Object>> iterator() {
+                return new MemberIterator(ObjectMembers.this.map.entrySet().iterator());
+            }
+
+            @Override
+            public int size() {
+                return ObjectMembers.this.size();
+            }
+        };
+
+        ObjectMembers(Map<?, ?> map) {
+            this.map = map;
+        }
+
+        /**
+         * Get the value of a key as it is in the viewed map.
+         */
+        private Object raw(Object key) {
+            Object value;
+            try {
+                value = this.map.get(key);
+            } catch (ClassCastException e) {
+                // a sorted map of keys that are not strings
+                value = null;
+            }
+            if (value == null && !this.map.isEmpty()
+                    && !(this.map.keySet().iterator().next() instanceof String)) {
+                for (final Map.Entry<?, ?> entry : this.map.entrySet()) {
+                    if (entry.getKey() != null && String.valueOf(entry.getKey()).equals(key)) {
+                        return entry.getValue();
+                    }
+                }
+            }
+            return value;
+        }
+
+        @Override
+        public Object get(Object key) {
+            final Object value = this.raw(key);
+            return value == null ? null : wrap(value);
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return this.raw(key) != null;
+        }
+
+        /**
+         * Count the entries whose value is not null, walking the whole map.
+         */
+        @Override
+        public int size() {
+            int size = 0;
+            for (final Object value : this.map.values()) {
+                if (value != null) {
+                    size += 1;
+                }
+            }
+            return size;
+        }
+
+        @Override
+        public boolean isEmpty() {
+            // only as far as the first value that is not null
+            for (final Object value : this.map.values()) {
+                if (value != null) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public Set<Map.Entry<String, Object>> entrySet() {
+            return this.entrySet;
+        }
+    }
+
+    /**
+     * Iterates the entries of a viewed map whose value is not null.
+     */
+    private static final class MemberIterator implements Iterator<Map.Entry<String, Object>> {
+        private final Iterator<? extends Map.Entry<?, ?>> entries;
+        private Map.Entry<?, ?> next;
+
+        MemberIterator(Iterator<? extends Map.Entry<?, ?>> entries) {
+            this.entries = entries;
+            this.advance();
+        }
+
+        private void advance() {
+            this.next = null;
+            while (this.entries.hasNext()) {
+                final Map.Entry<?, ?> entry = this.entries.next();
+                if (entry.getValue() != null) {
+                    if (entry.getKey() == null) {
+                        throw new NullPointerException("Null key.");
+                    }
+                    this.next = entry;
+                    return;
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.next != null;
+        }
+
+        @Override
+        public Map.Entry<String, Object> next() {
+            final Map.Entry<?, ?> entry = this.next;
+            if (entry == null) {
+                throw new NoSuchElementException();
+            }
+            this.advance();
+            return new AbstractMap.SimpleImmutableEntry<String, Object>(
+                    String.valueOf(entry.getKey()), wrap(entry.getValue()));
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException("remove");
+        }
+    }
+
+    /**
+     * The elements of a JSONArray viewing a list.
+     */
+    static final class ArrayElements extends AbstractList<Object> implements RandomAccess {
+
+        final List<?> list;
+
+        ArrayElements(List<?> list) {
+            this.list = list;
+        }
+
+        @Override
+        public Object get(int index) {
+            return wrap(this.list.get(index));
+        }
+
+        @Override
+        public int size() {
+            return this.list.size();
+        }
+    }
+
+    /**
+     * A JSONObject seen as a map.
+     */
+    static final class MapView extends AbstractMap<String, Object> {
+
+        private final JSONObject jsonObject;
+
+        private final Set<Map.Entry<String, Object>> entrySet = new AbstractSet<Map.Entry<String, Object>>() {
+            @Override
+            public Iterator<Map.Entry<String, Object>> iterator() {
+                final Iterator<String> keys = MapView.this.jsonObject.keySet().iterator();
+                return new Iterator<Map.Entry<String, Object>>() {
+                    @Override
+                    public boolean hasNext() {
+                        return keys.hasNext();
+                    }
+
+                    @Override
+                    public Map.Entry<String, Object> next() {
+                        final String key = keys.next();
+                        return new AbstractMap.SimpleImmutableEntry<String, Object>(key,
+                                unwrap(MapView.this.jsonObject.opt(key)));
+                    }
+
+                    @Override
+                    public void remove() {
+                        throw new UnsupportedOperationException("remove");
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return MapView.this.jsonObject.length();
+            }
+        };
+
+        MapView(JSONObject jsonObject) {
+            this.jsonObject = jsonObject;
+        }
+
+        @Override
+        public Object get(Object key) {
+            return key instanceof String ? unwrap(this.jsonObject.opt((String) key)) : null;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return key instanceof String && this.jsonObject.has((String) key);
+        }
+
+        @Override
+        public int size() {
+            return this.jsonObject.length();
+        }
+
+        @Override
+        public Set<Map.Entry<String, Object>> entrySet() {
+            return this.entrySet;
+        }
+    }
+
+    /**
+     * A JSONArray seen as a list.
+     */
+    static final class ListView extends AbstractList<Object> implements RandomAccess {
+
+        private final JSONArray jsonArray;
+
+        ListView(JSONArray jsonArray) {
+            this.jsonArray = jsonArray;
+        }
+
+        @Override
+        public Object get(int index) {
+            if (index < 0 || index >= this.jsonArray.length()) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: "
+                        + this.jsonArray.length());
+            }
+            return unwrap(this.jsonArray.opt(index));
+        }
+
+        @Override
+        public int size() {
+            return this.jsonArray.length();
+        }
+    }
+}
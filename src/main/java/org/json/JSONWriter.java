@@ -1,6 +1,7 @@
 package org.json;
 
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Map;
 
@@ -32,7 +33,7 @@ SOFTWARE.
  * JSONWriter provides a quick and convenient way of producing JSON text.
  * The texts produced strictly conform to JSON syntax rules. No whitespace is
  * added, so the results are ready for transmission or storage. Each instance of
- * JSONWriter can produce one JSON text.
+ * JSONWriter can produce one JSON text at a time, see {@link #reset()}.
  * <p>
  * A JSONWriter instance provides a <code>value</code> method for appending
  * values to the
@@ -51,7 +52,12 @@ SOFTWARE.
  * <p>
  * The first method called must be <code>array</code> or <code>object</code>.
  * There are no methods for adding commas or colons. JSONWriter adds them for
- * you. Objects and arrays can be nested up to 200 levels deep.
+ * you. Objects and arrays can be nested up to 200 levels deep, unless another
+ * limit is given to the constructor.
+ * <p>
+ * Duplicate keys within an object are rejected. When the keys are known to be
+ * unique, for example because they are constants, the check can be turned off
+ * with {@link #JSONWriter(Appendable, int, boolean)}.
  * <p>
  * This can sometimes be easier than using a JSONObject to build a string.
  * @author JSON.org
@@ -60,6 +66,16 @@ SOFTWARE.
 public class JSONWriter {
     private static final int maxdepth = 200;
 
+    /**
+     * The maximum nesting depth of this writer.
+     */
+    private final int maxDepth;
+
+    /**
+     * Whether keys are checked for duplicates.
+     */
+    private final boolean checkDuplicateKeys;
+
     /**
      * The comma flag determines if a comma should be output before the next
      * value.
@@ -77,9 +93,17 @@ public class JSONWriter {
     protected char mode;
 
     /**
-     * The object/array stack.
+     * The object/array stack, holding 'a' for an array and 'k' for an object.
+     * It grows as needed up to the maximum depth.
      */
-    private final JSONObject stack[];
+    private char stack[];
+
+    /**
+     * The keys seen in the objects on the stack, if duplicate keys are
+     * checked. The sets are kept and reused when the stack shrinks and grows
+     * again.
+     */
+    private KeySet keys[];
 
     /**
      * The stack top index. A value of 0 indicates that the stack is empty.
@@ -96,13 +120,43 @@ public class JSONWriter {
      * @param w an appendable object
      */
     public JSONWriter(Appendable w) {
+        this(w, maxdepth, true);
+    }
+
+    /**
+     * Make a fresh JSONWriter. It can be used to build one JSON text.
+     * @param w an appendable object
+     * @param maxDepth the maximum nesting depth of objects and arrays
+     * @param checkDuplicateKeys false to skip checking that the keys of an
+     *  object are unique. The caller is then responsible for not producing
+     *  duplicate keys.
+     */
+    public JSONWriter(Appendable w, int maxDepth, boolean checkDuplicateKeys) {
+        if (maxDepth < 1) {
+            throw new IllegalArgumentException("maxDepth must be positive: " + maxDepth);
+        }
         this.comma = false;
         this.mode = 'i';
-        this.stack = new JSONObject[maxdepth];
+        this.maxDepth = maxDepth;
+        this.checkDuplicateKeys = checkDuplicateKeys;
+        this.stack = new char[Math.min(maxDepth, 16)];
         this.top = 0;
         this.writer = w;
     }
 
+    /**
+     * Forget the text written so far, so that this writer can produce another
+     * JSON text. The appendable is not touched, the next text is appended to
+     * it.
+     * @return this
+     */
+    public JSONWriter reset() {
+        this.comma = false;
+        this.mode = 'i';
+        this.top = 0;
+        return this;
+    }
+
     /**
      * Append a value.
      * @param string A string value.
@@ -145,7 +199,7 @@ public class JSONWriter {
      */
     public JSONWriter array() throws JSONException {
         if (this.mode == 'i' || this.mode == 'o' || this.mode == 'a') {
-            this.push(null);
+            this.push('a');
             this.append("[");
             this.comma = false;
             return this;
@@ -213,16 +267,13 @@ public class JSONWriter {
         }
         if (this.mode == 'k') {
             try {
-                JSONObject topObject = this.stack[this.top - 1];
-                // don't use the built in putOnce method to maintain Android support
-				if(topObject.has(string)) {
-					throw new JSONException("Duplicate key \"" + string + "\"");
-				}
-                topObject.put(string, true);
+                if (this.checkDuplicateKeys && !this.keys[this.top - 1].add(string)) {
+                    throw new JSONException("Duplicate key \"" + string + "\"");
+                }
                 if (this.comma) {
                     this.writer.append(',');
                 }
-                this.writer.append(JSONObject.quote(string));
+                this.writer.append(JSONKeyCache.quoted(string));
                 this.writer.append(':');
                 this.comma = false;
                 this.mode = 'o';
@@ -253,7 +304,7 @@ public class JSONWriter {
         }
         if (this.mode == 'o' || this.mode == 'a') {
             this.append("{");
-            this.push(new JSONObject());
+            this.push('k');
             this.comma = false;
             return this;
         }
@@ -271,29 +322,42 @@ public class JSONWriter {
         if (this.top <= 0) {
             throw new JSONException("Nesting error.");
         }
-        char m = this.stack[this.top - 1] == null ? 'a' : 'k';
-        if (m != c) {
+        if (this.stack[this.top - 1] != c) {
             throw new JSONException("Nesting error.");
         }
         this.top -= 1;
         this.mode = this.top == 0
             ? 'd'
-            : this.stack[this.top - 1] == null
-            ? 'a'
-            : 'k';
+            : this.stack[this.top - 1];
     }
 
     /**
      * Push an array or object scope.
-     * @param jo The scope to open.
+     * @param c The scope to open, 'a' or 'k'.
      * @throws JSONException If nesting is too deep.
      */
-    private void push(JSONObject jo) throws JSONException {
-        if (this.top >= maxdepth) {
+    private void push(char c) throws JSONException {
+        if (this.top >= this.maxDepth) {
             throw new JSONException("Nesting too deep.");
         }
-        this.stack[this.top] = jo;
-        this.mode = jo == null ? 'a' : 'k';
+        if (this.top == this.stack.length) {
+            this.stack = Arrays.copyOf(this.stack, Math.min(this.maxDepth, this.top * 2));
+        }
+        if (c == 'k' && this.checkDuplicateKeys) {
+            if (this.keys == null) {
+                this.keys = new KeySet[this.stack.length];
+            } else if (this.keys.length < this.stack.length) {
+                this.keys = Arrays.copyOf(this.keys, this.stack.length);
+            }
+            KeySet set = this.keys[this.top];
+            if (set == null) {
+                this.keys[this.top] = new KeySet();
+            } else {
+                set.clear();
+            }
+        }
+        this.stack[this.top] = c;
+        this.mode = c;
         this.top += 1;
     }
 
@@ -340,7 +404,7 @@ public class JSONWriter {
         if (value instanceof Number) {
             // not all Numbers may match actual JSON Numbers. i.e. Fractions or Complex
             final String numberAsString = JSONObject.numberToString((Number) value);
-            if(JSONObject.NUMBER_PATTERN.matcher(numberAsString).matches()) {
+            if(JSONObject.numberPattern().matcher(numberAsString).matches()) {
                 // Close enough to a JSON number that we will return it unquoted
                 return numberAsString;
             }
@@ -411,4 +475,73 @@ public class JSONWriter {
     public JSONWriter value(Object object) throws JSONException {
         return this.append(valueToString(object));
     }
+
+    /**
+     * A set of keys with open addressing, cleared and reused for every object
+     * written at the same depth.
+     */
+    private static final class KeySet {
+
+        /**
+         * Tables larger than this are dropped instead of cleared.
+         */
+        private static final int MAX_RETAINED = 256;
+
+        private String[] table = new String[16];
+
+        private int size;
+
+        /**
+         * Add a key.
+         * @param key the key
+         * @return false if the key was already in the set.
+         */
+        boolean add(String key) {
+            final int mask = this.table.length - 1;
+            final int h = key.hashCode();
+            int i = (h ^ (h >>> 16)) & mask;
+            for (String k; (k = this.table[i]) != null; i = (i + 1) & mask) {
+                if (k == key || k.equals(key)) {
+                    return false;
+                }
+            }
+            this.table[i] = key;
+            this.size += 1;
+            if (this.size * 2 > this.table.length) {
+                this.rehash();
+            }
+            return true;
+        }
+
+        /**
+         * Remove all keys.
+         */
+        void clear() {
+            if (this.size == 0) {
+                return;
+            }
+            if (this.table.length > MAX_RETAINED) {
+                this.table = new String[16];
+            } else {
+                Arrays.fill(this.table, null);
+            }
+            this.size = 0;
+        }
+
+        private void rehash() {
+            final String[] old = this.table;
+            this.table = new String[old.length * 2];
+            final int mask = this.table.length - 1;
+            for (String k : old) {
+                if (k != null) {
+                    final int h = k.hashCode();
+                    int i = (h ^ (h >>> 16)) & mask;
+                    while (this.table[i] != null) {
+                        i = (i + 1) & mask;
+                    }
+                    this.table[i] = k;
+                }
+            }
+        }
+    }
 }
@@ -0,0 +1,501 @@
+package org.json;
+
+/*
+Copyright (c) 2002 JSON.org
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+The Software shall be used for Good, not Evil.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Base64;
+
+/**
+ * Converts between JSON values and MessagePack, without going through a JSON
+ * text.
+ * <p>
+ * Values are written in the smallest form that holds them: integers as
+ * fixints or in 1 to 8 bytes, doubles as float 32 when that is exact and
+ * float 64 otherwise. MessagePack has no big numbers, so two extension types
+ * are used: type 1 holds a BigInteger as its two's-complement bytes, type 2
+ * holds a BigDecimal as a 4 byte scale followed by the two's-complement bytes
+ * of its unscaled value. Reading gives the values the JSON text parser would:
+ * integers narrowed to Integer, Long or BigInteger, floats as Double. Binary
+ * values are read as base64 strings, other extension types are rejected.
+ *
+ * @author JSON.org
+ */
+public class MessagePack {
+
+    /** Nesting deeper than this is rejected when reading. */
+    private static final int MAX_DEPTH = 512;
+
+    /** The extension type of a BigInteger. */
+    private static final int EXT_BIG_INTEGER = 1;
+
+    /** The extension type of a BigDecimal. */
+    private static final int EXT_BIG_DECIMAL = 2;
+
+    /**
+     * Write a value as MessagePack.
+     *
+     * @param value
+     *            a JSONObject, JSONArray or any other value a JSONObject
+     *            can hold.
+     * @param out
+     *            the stream receiving the bytes. It is not flushed.
+     * @throws JSONException
+     *             if a number is not finite, or the stream fails.
+     */
+    public static void write(Object value, OutputStream out) throws JSONException {
+        try {
+            BinaryOutput output = new BinaryOutput(out);
+            writeValue(output, value);
+            output.flush();
+        } catch (IOException e) {
+            throw new JSONException(e);
+        }
+    }
+
+    /**
+     * Encode a value as MessagePack.
+     *
+     * @param value
+     *            a JSONObject, JSONArray or any other value a JSONObject
+     *            can hold.
+     * @return the bytes.
+     * @throws JSONException
+     *             if a number is not finite.
+     */
+    public static byte[] toByteArray(Object value) throws JSONException {
+        try {
+            BinaryOutput output = new BinaryOutput(256);
+            writeValue(output, value);
+            return output.toByteArray();
+        } catch (IOException e) {
+            throw new JSONException(e);
+        }
+    }
+
+    /**
+     * Read one MessagePack value from a stream. The stream is not read beyond
+     * the value.
+     *
+     * @param in
+     *            the stream.
+     * @return a JSONObject, JSONArray, String, Boolean, Number or
+     *         JSONObject.NULL.
+     * @throws JSONException
+     *             if the input is not well formed MessagePack, or the stream
+     *             fails.
+     */
+    public static Object read(InputStream in) throws JSONException {
+        try {
+            return readValue(new BinaryInput(in), 0);
+        } catch (IOException e) {
+            throw new JSONException(e);
+        }
+    }
+
+    /**
+     * Read one MessagePack value from an array.
+     *
+     * @param bytes
+     *            the bytes, holding exactly one value.
+     * @return a JSONObject, JSONArray, String, Boolean, Number or
+     *         JSONObject.NULL.
+     * @throws JSONException
+     *             if the input is not well formed MessagePack.
+     */
+    public static Object read(byte[] bytes) throws JSONException {
+        try {
+            BinaryInput input = new BinaryInput(bytes, 0, bytes.length);
+            Object value = readValue(input, 0);
+            if (input.read() >= 0) {
+                throw new JSONException("Unexpected bytes after the MessagePack value.");
+            }
+            return value;
+        } catch (IOException e) {
+            throw new JSONException(e);
+        }
+    }
+
+    /**
+     * Read a MessagePack map from a stream.
+     *
+     * @param in
+     *            the stream.
+     * @return a JSONObject.
+     * @throws JSONException
+     *             if the input is not a well formed MessagePack map.
+     */
+    public static JSONObject toJSONObject(InputStream in) throws JSONException {
+        return asJSONObject(read(in));
+    }
+
+    /**
+     * Read a MessagePack map from an array.
+     *
+     * @param bytes
+     *            the bytes.
+     * @return a JSONObject.
+     * @throws JSONException
+     *             if the input is not a well formed MessagePack map.
+     */
+    public static JSONObject toJSONObject(byte[] bytes) throws JSONException {
+        return asJSONObject(read(bytes));
+    }
+
+    /**
+     * Read a MessagePack array from a stream.
+     *
+     * @param in
+     *            the stream.
+     * @return a JSONArray.
+     * @throws JSONException
+     *             if the input is not a well formed MessagePack array.
+     */
+    public static JSONArray toJSONArray(InputStream in) throws JSONException {
+        return asJSONArray(read(in));
+    }
+
+    /**
+     * Read a MessagePack array from an array.
+     *
+     * @param bytes
+     *            the bytes.
+     * @return a JSONArray.
+     * @throws JSONException
+     *             if the input is not a well formed MessagePack array.
+     */
+    public static JSONArray toJSONArray(byte[] bytes) throws JSONException {
+        return asJSONArray(read(bytes));
+    }
+
+    private static JSONObject asJSONObject(Object value) throws JSONException {
+        if (value instanceof JSONObject) {
+            return (JSONObject) value;
+        }
+        throw new JSONException("MessagePack value is not a map.");
+    }
+
+    private static JSONArray asJSONArray(Object value) throws JSONException {
+        if (value instanceof JSONArray) {
+            return (JSONArray) value;
+        }
+        throw new JSONException("MessagePack value is not an array.");
+    }
+
+    private static void writeInteger(BinaryOutput out, long n) throws IOException {
+        if (n >= 0) {
+            if (n < 0x80) {
+                out.write((int) n);
+            } else if (n <= 0xFF) {
+                out.write(0xCC);
+                out.write((int) n);
+            } else if (n <= 0xFFFF) {
+                out.write(0xCD);
+                out.writeShort((int) n);
+            } else if (n <= 0xFFFFFFFFL) {
+                out.write(0xCE);
+                out.writeInt((int) n);
+            } else {
+                out.write(0xCF);
+                out.writeLong(n);
+            }
+        } else if (n >= -32) {
+            out.write((int) n & 0xFF);
+        } else if (n >= Byte.MIN_VALUE) {
+            out.write(0xD0);
+            out.write((int) n & 0xFF);
+        } else if (n >= Short.MIN_VALUE) {
+            out.write(0xD1);
+            out.writeShort((int) n);
+        } else if (n >= Integer.MIN_VALUE) {
+            out.write(0xD2);
+            out.writeInt((int) n);
+        } else {
+            out.write(0xD3);
+            out.writeLong(n);
+        }
+    }
+
+    private static void writeDouble(BinaryOutput out, double d) throws IOException {
+        BinaryOutput.testValidity(d);
+        final float f = (float) d;
+        if (f == d) {
+            out.write(0xCA);
+            out.writeInt(Float.floatToIntBits(f));
+        } else {
+            out.write(0xCB);
+            out.writeLong(Double.doubleToLongBits(d));
+        }
+    }
+
+    private static void writeExt(BinaryOutput out, int type, int length) throws IOException {
+        switch (length) {
+        case 1:
+            out.write(0xD4);
+            break;
+        case 2:
+            out.write(0xD5);
+            break;
+        case 4:
+            out.write(0xD6);
+            break;
+        case 8:
+            out.write(0xD7);
+            break;
+        case 16:
+            out.write(0xD8);
+            break;
+        default:
+            if (length <= 0xFF) {
+                out.write(0xC7);
+                out.write(length);
+            } else if (length <= 0xFFFF) {
+                out.write(0xC8);
+                out.writeShort(length);
+            } else {
+                out.write(0xC9);
+                out.writeInt(length);
+            }
+        }
+        out.write(type);
+    }
+
+    private static void writeHead(BinaryOutput out, int fix, int fixMax, int format16, int length)
+            throws IOException {
+        if (length <= fixMax) {
+            out.write(fix | length);
+        } else if (length <= 0xFFFF) {
+            out.write(format16);
+            out.writeShort(length);
+        } else {
+            // the 32 bit format always follows the 16 bit one
+            out.write(format16 + 1);
+            out.writeInt(length);
+        }
+    }
+
+    private static void writeString(BinaryOutput out, String s) throws IOException {
+        final int length = BinaryOutput.utf8Length(s);
+        if (length > 31 && length <= 0xFF) {
+            out.write(0xD9);
+            out.write(length);
+        } else {
+            writeHead(out, 0xA0, 31, 0xDA, length);
+        }
+        out.writeUtf8(s);
+    }
+
+    private static void writeValue(BinaryOutput out, Object value) throws IOException {
+        if (value == null || JSONObject.NULL.equals(value)) {
+            out.write(0xC0);
+        } else if (value instanceof String) {
+            writeString(out, (String) value);
+        } else if (value instanceof Boolean) {
+            out.write(((Boolean) value).booleanValue() ? 0xC3 : 0xC2);
+        } else if (value instanceof Integer || value instanceof Long
+                || value instanceof Short || value instanceof Byte) {
+            writeInteger(out, ((Number) value).longValue());
+        } else if (value instanceof Double || value instanceof Float) {
+            writeDouble(out, ((Number) value).doubleValue());
+        } else if (value instanceof BigInteger) {
+            BigInteger n = (BigInteger) value;
+            if (n.bitLength() <= 63) {
+                writeInteger(out, n.longValue());
+            } else if (n.signum() > 0 && n.bitLength() == 64) {
+                out.write(0xCF);
+                out.writeLong(n.longValue());
+            } else {
+                byte[] bytes = n.toByteArray();
+                writeExt(out, EXT_BIG_INTEGER, bytes.length);
+                out.write(bytes, 0, bytes.length);
+            }
+        } else if (value instanceof BigDecimal) {
+            BigDecimal d = (BigDecimal) value;
+            byte[] bytes = d.unscaledValue().toByteArray();
+            writeExt(out, EXT_BIG_DECIMAL, 4 + bytes.length);
+            out.writeInt(d.scale());
+            out.write(bytes, 0, bytes.length);
+        } else if (value instanceof JSONObject) {
+            JSONObject jo = (JSONObject) value;
+            writeHead(out, 0x80, 15, 0xDE, jo.length());
+            for (String key : jo.keySet()) {
+                writeString(out, key);
+                writeValue(out, jo.opt(key));
+            }
+        } else if (value instanceof JSONArray) {
+            JSONArray ja = (JSONArray) value;
+            final int length = ja.length();
+            writeHead(out, 0x90, 15, 0xDC, length);
+            for (int i = 0; i < length; i += 1) {
+                writeValue(out, ja.opt(i));
+            }
+        } else {
+            writeValue(out, BinaryOutput.plain(value));
+        }
+    }
+
+    private static Object readValue(BinaryInput in, int depth) throws IOException {
+        final int b = in.readUnsignedByte();
+        if (b < 0x80) {
+            return Integer.valueOf(b);
+        }
+        if (b >= 0xE0) {
+            return Integer.valueOf((byte) b);
+        }
+        if (b >= 0xA0 && b <= 0xBF) {
+            return in.readUtf8(b & 0x1F);
+        }
+        if (b >= 0x90 && b <= 0x9F) {
+            return readArray(in, b & 0x0F, depth);
+        }
+        if (b <= 0x8F) {
+            return readMap(in, b & 0x0F, depth);
+        }
+        switch (b) {
+        case 0xC0:
+            return JSONObject.NULL;
+        case 0xC2:
+            return Boolean.FALSE;
+        case 0xC3:
+            return Boolean.TRUE;
+        case 0xC4:
+            return base64(in.readBytes(in.readUnsignedByte()));
+        case 0xC5:
+            return base64(in.readBytes(in.readUnsignedShort()));
+        case 0xC6:
+            return base64(in.readBytes(in.readInt() & 0xFFFFFFFFL));
+        case 0xC7:
+            return readExt(in, in.readUnsignedByte());
+        case 0xC8:
+            return readExt(in, in.readUnsignedShort());
+        case 0xC9:
+            return readExt(in, in.readInt() & 0xFFFFFFFFL);
+        case 0xCA:
+            return readDouble(Float.intBitsToFloat(in.readInt()));
+        case 0xCB:
+            return readDouble(Double.longBitsToDouble(in.readLong()));
+        case 0xCC:
+            return Integer.valueOf(in.readUnsignedByte());
+        case 0xCD:
+            return Integer.valueOf(in.readUnsignedShort());
+        case 0xCE:
+            return BinaryOutput.narrow(in.readInt() & 0xFFFFFFFFL);
+        case 0xCF: {
+            final long n = in.readLong();
+            if (n < 0) {
+                return BigInteger.valueOf(n).add(BigInteger.ONE.shiftLeft(64));
+            }
+            return BinaryOutput.narrow(n);
+        }
+        case 0xD0:
+            return Integer.valueOf((byte) in.readUnsignedByte());
+        case 0xD1:
+            return Integer.valueOf((short) in.readUnsignedShort());
+        case 0xD2:
+            return Integer.valueOf(in.readInt());
+        case 0xD3:
+            return BinaryOutput.narrow(in.readLong());
+        case 0xD4:
+            return readExt(in, 1);
+        case 0xD5:
+            return readExt(in, 2);
+        case 0xD6:
+            return readExt(in, 4);
+        case 0xD7:
+            return readExt(in, 8);
+        case 0xD8:
+            return readExt(in, 16);
+        case 0xD9:
+            return in.readUtf8(in.readUnsignedByte());
+        case 0xDA:
+            return in.readUtf8(in.readUnsignedShort());
+        case 0xDB:
+            return in.readUtf8(in.readInt() & 0xFFFFFFFFL);
+        case 0xDC:
+            return readArray(in, in.readUnsignedShort(), depth);
+        case 0xDD:
+            return readArray(in, in.readInt() & 0xFFFFFFFFL, depth);
+        case 0xDE:
+            return readMap(in, in.readUnsignedShort(), depth);
+        case 0xDF:
+            return readMap(in, in.readInt() & 0xFFFFFFFFL, depth);
+        default:
+            throw new JSONException("Unsupported MessagePack format: 0x" + Integer.toHexString(b));
+        }
+    }
+
+    private static JSONArray readArray(BinaryInput in, long n, int depth) throws IOException {
+        if (depth >= MAX_DEPTH) {
+            throw new JSONException("Nesting too deep.");
+        }
+        JSONArray ja = new JSONArray(BinaryInput.capacity(n));
+        for (long i = 0; i < n; i += 1) {
+            ja.put(readValue(in, depth + 1));
+        }
+        return ja;
+    }
+
+    private static JSONObject readMap(BinaryInput in, long n, int depth) throws IOException {
+        if (depth >= MAX_DEPTH) {
+            throw new JSONException("Nesting too deep.");
+        }
+        JSONObject jo = new JSONObject(BinaryInput.capacity(n));
+        for (long i = 0; i < n; i += 1) {
+            Object key = readValue(in, depth + 1);
+            if (!(key instanceof String)) {
+                throw new JSONException("MessagePack map key must be a string.");
+            }
+            if (jo.has((String) key)) {
+                throw new JSONException("Duplicate key \"" + key + "\"");
+            }
+            jo.put((String) key, readValue(in, depth + 1));
+        }
+        return jo;
+    }
+
+    private static Object readExt(BinaryInput in, long length) throws IOException {
+        final int type = in.readUnsignedByte();
+        if (type == EXT_BIG_INTEGER && length > 0) {
+            return BinaryOutput.narrow(new BigInteger(in.readBytes(length)));
+        }
+        if (type == EXT_BIG_DECIMAL && length > 4) {
+            final int scale = in.readInt();
+            return new BigDecimal(new BigInteger(in.readBytes(length - 4)), scale);
+        }
+        throw new JSONException("Unsupported MessagePack extension type: " + (byte) type);
+    }
+
+    private static Double readDouble(double d) throws JSONException {
+        BinaryOutput.testValidity(d);
+        return Double.valueOf(d);
+    }
+
+    private static String base64(byte[] bytes) {
+        return Base64.getEncoder().encodeToString(bytes);
+    }
+}
@@ -29,7 +29,6 @@ import java.io.StringReader;
 import java.lang.reflect.Method;
 import java.math.BigDecimal;
 import java.math.BigInteger;
-import java.util.Iterator;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.stream.Stream;
@@ -79,46 +78,6 @@ public class XML {
 
     public static final String TYPE_ATTR = "xsi:type";
 
-    /**
-     * Creates an iterator for navigating Code Points in a string instead of
-     * characters. Once Java7 support is dropped, this can be replaced with
-     * <code>
-     * string.codePoints()
-     * </code>
-     * which is available in Java8 and above.
-     *
-     * @see <a href=
-     *      "http://stackoverflow.com/a/21791059/6030888">http://stackoverflow.com/a/21791059/6030888</a>
-     */
-    private static Iterable<Integer> codePointIterator(final String string) {
-        return new Iterable<Integer>() {
-            @Override
-            public Iterator<Integer> iterator() {
-                return new Iterator<Integer>() {
-                    private int nextIndex = 0;
-                    private int length = string.length();
-
-                    @Override
-                    public boolean hasNext() {
-                        return this.nextIndex < this.length;
-                    }
-
-                    @Override
-                    public Integer next() {
-                        int result = string.codePointAt(this.nextIndex);
-                        this.nextIndex += Character.charCount(result);
-                        return result;
-                    }
-
-                    @Override
-                    public void remove() {
-                        throw new UnsupportedOperationException();
-                    }
-                };
-            }
-        };
-    }
-
     /**
      * Replace special characters with XML escapes:
      *
@@ -135,35 +94,50 @@ public class XML {
      * @return The escaped string.
      */
     public static String escape(String string) {
-        StringBuilder sb = new StringBuilder(string.length());
-        for (final int cp : codePointIterator(string)) {
-            switch (cp) {
+        final int length = string.length();
+        StringBuilder sb = null;
+        int run = 0;
+        for (int i = 0; i < length; i += 1) {
+            final char c = string.charAt(i);
+            final String replacement;
+            switch (c) {
             case '&':
-                sb.append("&amp;");
+                replacement = "&amp;";
                 break;
             case '<':
-                sb.append("&lt;");
+                replacement = "&lt;";
                 break;
             case '>':
-                sb.append("&gt;");
+                replacement = "&gt;";
                 break;
             case '"':
-                sb.append("&quot;");
+                replacement = "&quot;";
                 break;
             case '\'':
-                sb.append("&apos;");
+                replacement = "&apos;";
                 break;
             default:
-                if (mustEscape(cp)) {
-                    sb.append("&#x");
-                    sb.append(Integer.toHexString(cp));
-                    sb.append(';');
-                } else {
-                    sb.appendCodePoint(cp);
+                if ((c >= 0x20 && c < 0x7F) || !mustEscape(c)) {
+                    continue;
                 }
+                if (Character.isHighSurrogate(c) && i + 1 < length
+                        && Character.isLowSurrogate(string.charAt(i + 1))) {
+                    // a supplementary code point, always valid
+                    i += 1;
+                    continue;
+                }
+                replacement = "&#x" + Integer.toHexString(c) + ';';
+            }
+            if (sb == null) {
+                sb = new StringBuilder(length + 16);
             }
+            sb.append(string, run, i).append(replacement);
+            run = i + 1;
         }
-        return sb.toString();
+        if (sb == null) {
+            return string;
+        }
+        return sb.append(string, run, length).toString();
     }
 
     /**
@@ -200,27 +174,27 @@ public class XML {
      * @return string with converted entities
      */
     public static String unescape(String string) {
-        StringBuilder sb = new StringBuilder(string.length());
-        for (int i = 0, length = string.length(); i < length; i++) {
-            char c = string.charAt(i);
-            if (c == '&') {
-                final int semic = string.indexOf(';', i);
-                if (semic > i) {
-                    final String entity = string.substring(i + 1, semic);
-                    sb.append(XMLTokener.unescapeEntity(entity));
-                    // skip past the entity we just parsed.
-                    i += entity.length() + 1;
-                } else {
-                    // this shouldn't happen in most cases since the parser
-                    // errors on unclosed entries.
-                    sb.append(c);
-                }
-            } else {
-                // not part of an entity
-                sb.append(c);
+        int amp = string.indexOf('&');
+        if (amp < 0) {
+            return string;
+        }
+        final int length = string.length();
+        StringBuilder sb = new StringBuilder(length);
+        int run = 0;
+        while (amp >= 0) {
+            final int semic = string.indexOf(';', amp);
+            if (semic < 0) {
+                // this shouldn't happen in most cases since the parser
+                // errors on unclosed entries.
+                break;
             }
+            sb.append(string, run, amp);
+            sb.append(XMLTokener.unescapeEntity(string.substring(amp + 1, semic)));
+            // skip past the entity we just parsed.
+            run = semic + 1;
+            amp = string.indexOf('&', run);
         }
-        return sb.toString();
+        return sb.append(string, run, length).toString();
     }
 
     /**
@@ -35,6 +35,21 @@ import java.io.Reader;
 public class XMLTokener extends JSONTokener {
 
 
+   /**
+    * One character strings for the ASCII range, shared by decoded entities.
+    * Kept in a holder so the table is only built once a numeric or known
+    * entity is decoded.
+    */
+   private static final class Ascii {
+       static final String[] STRINGS = new String[128];
+
+       static {
+           for (int i = 0; i < STRINGS.length; i += 1) {
+               STRINGS[i] = String.valueOf((char) i);
+           }
+       }
+   }
+
    /** The table of entity values. It initially contains Character values for
     * amp, apos, gt, lt, quot.
     */
@@ -169,10 +184,13 @@ public class XMLTokener extends JSONTokener {
             int cp;
             if (e.charAt(1) == 'x' || e.charAt(1) == 'X') {
                 // hex encoded unicode
-                cp = Integer.parseInt(e.substring(2), 16);
+                cp = parseCodePoint(e, 2, 16);
             } else {
                 // decimal encoded unicode
-                cp = Integer.parseInt(e.substring(1));
+                cp = parseCodePoint(e, 1, 10);
+            }
+            if (cp >= 0 && cp < Ascii.STRINGS.length) {
+                return Ascii.STRINGS[cp];
             }
             return new String(new int[] {cp},0,1);
         } 
@@ -181,9 +199,40 @@ public class XMLTokener extends JSONTokener {
             // we don't know the entity so keep it encoded
             return '&' + e + ';';
         }
-        return knownEntity.toString();
+        char c = knownEntity.charValue();
+        return c < Ascii.STRINGS.length ? Ascii.STRINGS[c] : knownEntity.toString();
     }
 
+    /**
+     * Parse the digits of a numeric entity. Plain digit sequences are parsed
+     * in place, anything else is left to Integer.parseInt so that it fails the
+     * same way.
+     *
+     * @param e entity value
+     * @param start index of the first digit
+     * @param radix 10 or 16
+     * @return the code point, or a negative number
+     * @throws NumberFormatException if the digits are not a number
+     */
+    private static int parseCodePoint(String e, int start, int radix) {
+        final int length = e.length();
+        // at most 7 digits, so that the value cannot overflow
+        if (length > start && length - start <= 7) {
+            int cp = 0;
+            int i = start;
+            for (; i < length; i += 1) {
+                int digit = Character.digit(e.charAt(i), radix);
+                if (digit < 0) {
+                    break;
+                }
+                cp = cp * radix + digit;
+            }
+            if (i == length) {
+                return cp;
+            }
+        }
+        return Integer.parseInt(e.substring(start), radix);
+    }
 
     /**
      * <pre>{@code 
@@ -0,0 +1,188 @@
+package org.json.junit;
+
+/*
+Copyright (c) 2020 JSON.org
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+The Software shall be used for Good, not Evil.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Arrays;
+
+import org.json.*;
+import org.junit.Test;
+
+/**
+ * Tests for CBOR and MessagePack.
+ */
+public class BinaryFormatTest {
+
+    private static JSONObject sample() {
+        return new JSONObject()
+                .put("int", 1)
+                .put("negative", -100000)
+                .put("long", 1L << 40)
+                .put("minLong", Long.MIN_VALUE)
+                .put("double", 2.5)
+                .put("precise", 0.1)
+                .put("big", new BigInteger("123456789012345678901234567890"))
+                .put("negativeBig", new BigInteger("-18446744073709551617"))
+                .put("decimal", new BigDecimal("-12.3400"))
+                .put("text", "café 😀")
+                .put("flags", new JSONArray().put(true).put(false).put(JSONObject.NULL))
+                .put("nested", new JSONObject().put("empty", new JSONArray()).put("o", new JSONObject()));
+    }
+
+    private static void assertSameTypes(JSONObject expected, JSONObject actual) {
+        assertTrue(expected.similar(actual));
+        for (String key : expected.keySet()) {
+            assertEquals(key, expected.get(key).getClass(), actual.get(key).getClass());
+        }
+    }
+
+    /**
+     * Values come back with the same types, through arrays and streams.
+     */
+    @Test
+    public void roundTrip() {
+        JSONObject jsonObject = sample();
+        assertSameTypes(jsonObject, CBOR.toJSONObject(CBOR.toByteArray(jsonObject)));
+        assertSameTypes(jsonObject, MessagePack.toJSONObject(MessagePack.toByteArray(jsonObject)));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        CBOR.write(jsonObject, out);
+        MessagePack.write(jsonObject.getJSONArray("flags"), out);
+        ByteArrayInputStream in = new ByteArrayInputStream(out.toByteArray());
+        assertSameTypes(jsonObject, CBOR.toJSONObject(in));
+        assertTrue(jsonObject.getJSONArray("flags").similar(MessagePack.toJSONArray(in)));
+        assertEquals(-1, in.read());
+    }
+
+    /**
+     * Numbers use the smallest encoding that holds them.
+     */
+    @Test
+    public void smallestWidths() {
+        assertArrayEquals(bytes(0xA1, 0x61, 'a', 0x01), CBOR.toByteArray(new JSONObject().put("a", 1)));
+        assertArrayEquals(bytes(0x81, 0x38, 0x63), CBOR.toByteArray(new JSONArray().put(-100)));
+        assertArrayEquals(bytes(0x19, 0x03, 0xE8), CBOR.toByteArray(1000));
+        assertArrayEquals(bytes(0xF9, 0x3E, 0x00), CBOR.toByteArray(1.5));
+        assertArrayEquals(bytes(0xF9, 0x00, 0x01), CBOR.toByteArray(5.960464477539063e-8));
+        assertArrayEquals(bytes(0xFA, 0x47, 0xC3, 0x50, 0x00), CBOR.toByteArray(100000.0));
+        assertArrayEquals(bytes(0xFB, 0x3F, 0xB9, 0x99, 0x99, 0x99, 0x99, 0x99, 0x9A), CBOR.toByteArray(0.1));
+        assertArrayEquals(bytes(0x1B, 0xFF, 0xFF, 0xFF, 0xFF, 0xFF, 0xFF, 0xFF, 0xFF),
+                CBOR.toByteArray(new BigInteger("18446744073709551615")));
+
+        assertArrayEquals(bytes(0x81, 0xA1, 'a', 0x01), MessagePack.toByteArray(new JSONObject().put("a", 1)));
+        assertArrayEquals(bytes(0x91, 0xD0, 0x9C), MessagePack.toByteArray(new JSONArray().put(-100)));
+        assertArrayEquals(bytes(0xFF), MessagePack.toByteArray(-1));
+        assertArrayEquals(bytes(0xCD, 0x03, 0xE8), MessagePack.toByteArray(1000));
+        assertArrayEquals(bytes(0xCA, 0x3F, 0xC0, 0x00, 0x00), MessagePack.toByteArray(1.5));
+        assertEquals(Double.valueOf(1.5), CBOR.read(bytes(0xF9, 0x3E, 0x00)));
+        assertEquals(new BigInteger("18446744073709551615"),
+                MessagePack.read(bytes(0xCF, 0xFF, 0xFF, 0xFF, 0xFF, 0xFF, 0xFF, 0xFF, 0xFF)));
+    }
+
+    /**
+     * CBOR items JSON texts cannot produce are read as their nearest JSON value.
+     */
+    @Test
+    public void cborExtras() {
+        // indefinite length map with an indefinite length string
+        assertTrue(new JSONObject("{\"ab\":[1,2]}").similar(CBOR.read(
+                bytes(0xBF, 0x7F, 0x61, 'a', 0x61, 'b', 0xFF, 0x9F, 0x01, 0x02, 0xFF, 0xFF))));
+        // byte strings as base64, tagged date as its string, undefined as null
+        assertEquals("AQI=", CBOR.read(bytes(0x42, 0x01, 0x02)));
+        assertEquals("x", CBOR.read(bytes(0xC0, 0x61, 'x')));
+        assertEquals(JSONObject.NULL, CBOR.read(bytes(0xF7)));
+        assertEquals(new BigDecimal("273.15"), CBOR.read(bytes(0xC4, 0x82, 0x21, 0x19, 0x6A, 0xB3)));
+    }
+
+    /**
+     * Malformed input, forged lengths and values JSON cannot hold are
+     * rejected with a JSONException.
+     */
+    @Test
+    public void malformed() {
+        byte[][] badCbor = {
+            bytes(),
+            bytes(0xA1, 0x61, 'a'),
+            bytes(0x7B, 0x7F, 0xFF, 0xFF, 0xFF, 0xFF, 0xFF, 0xFF, 0xFF),
+            bytes(0x9B, 0x00, 0x00, 0x00, 0x01, 0x00, 0x00, 0x00, 0x00),
+            bytes(0xA1, 0x01, 0x01),
+            bytes(0xA2, 0x61, 'a', 0x01, 0x61, 'a', 0x02),
+            bytes(0xF9, 0x7C, 0x00),
+            bytes(0x01, 0x02),
+            bytes(0xFF),
+        };
+        for (byte[] input : badCbor) {
+            try {
+                CBOR.read(input);
+                fail("Expected an exception for " + Arrays.toString(input));
+            } catch (JSONException e) {
+                // expected
+            }
+        }
+        byte[][] badMessagePack = {
+            bytes(0x81, 0xA1, 'a'),
+            bytes(0xDB, 0x7F, 0xFF, 0xFF, 0xFF),
+            bytes(0xDD, 0xFF, 0xFF, 0xFF, 0xFF),
+            bytes(0x81, 0x01, 0x01),
+            bytes(0xD4, 0x05, 0x00),
+            bytes(0xC1),
+        };
+        for (byte[] input : badMessagePack) {
+            try {
+                MessagePack.read(input);
+                fail("Expected an exception for " + Arrays.toString(input));
+            } catch (JSONException e) {
+                // expected
+            }
+        }
+        byte[] deep = new byte[1000];
+        Arrays.fill(deep, (byte) 0x81);
+        try {
+            CBOR.read(new ByteArrayInputStream(deep));
+            fail("Expected an exception");
+        } catch (JSONException e) {
+            assertEquals("Nesting too deep.", e.getMessage());
+        }
+        try {
+            CBOR.toByteArray(Double.NaN);
+            fail("Expected an exception");
+        } catch (JSONException e) {
+            // expected
+        }
+    }
+
+    private static byte[] bytes(int... values) {
+        byte[] bytes = new byte[values.length];
+        for (int i = 0; i < values.length; i += 1) {
+            bytes[i] = (byte) values[i];
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,131 @@
+package org.json.junit;
+
+/*
+Copyright (c) 2020 JSON.org
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+The Software shall be used for Good, not Evil.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+
+import static org.junit.Assert.*;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.json.*;
+import org.junit.Test;
+
+/**
+ * Tests for JSONObject.fingerprint() and JSONArray.fingerprint().
+ */
+public class FingerprintTest {
+
+    /**
+     * Similar documents have the same fingerprint, whatever the member order
+     * and number types.
+     */
+    @Test
+    public void similarDocumentsMatch() {
+        JSONObject a = new JSONObject("{\"id\":2,\"price\":1.50,\"tags\":[\"x\",\"y\"],\"big\":12345678901234567890,"
+                + "\"nested\":{\"on\":true,\"off\":null}}");
+        JSONObject b = new JSONObject()
+                .put("nested", new JSONObject().put("off", JSONObject.NULL).put("on", true))
+                .put("big", new BigDecimal("1.2345678901234567890E19"))
+                .put("tags", new JSONArray().put("x").put("y"))
+                .put("price", new BigDecimal("1.5"))
+                .put("id", 2.0);
+        assertEquals(a.fingerprint(), b.fingerprint());
+        assertEquals(new JSONObject().put("n", 2).fingerprint(), new JSONObject().put("n", 2L).fingerprint());
+        assertEquals(new JSONObject().put("n", 2).fingerprint(),
+                new JSONObject().put("n", BigInteger.valueOf(2)).fingerprint());
+        assertEquals(new JSONObject().put("n", 0.5).fingerprint(),
+                new JSONObject().put("n", new BigDecimal("0.500")).fingerprint());
+        assertEquals(new JSONObject().fingerprint(), new JSONObject("{}").fingerprint());
+    }
+
+    /**
+     * Integers written with an exponent hash like the same integer written
+     * out, whether it is held as a Long, a Double, a BigInteger or a
+     * BigDecimal.
+     */
+    @Test
+    public void integersWithExponentsMatch() {
+        assertEquals(new JSONObject("{\"a\":1e16}").fingerprint(),
+                new JSONObject("{\"a\":10000000000000000}").fingerprint());
+        assertEquals(new JSONObject("{\"a\":1E+18}").fingerprint(),
+                new JSONObject("{\"a\":1000000000000000000}").fingerprint());
+        Object[][] alike = {
+            { Long.valueOf(10000000000000000L), Double.valueOf(1e16), new BigDecimal("1E+16"),
+                BigInteger.TEN.pow(16) },
+            { Long.valueOf(1000000000000000000L), Double.valueOf(1e18), new BigDecimal("1E+18"),
+                new BigDecimal("1000000000000000000.000") },
+            { Long.valueOf(-4096), Double.valueOf(-4096.0), new BigDecimal("-4.096E+3") },
+            { Long.valueOf(Long.MAX_VALUE), BigInteger.valueOf(Long.MAX_VALUE),
+                new BigDecimal(Long.MAX_VALUE).setScale(2) },
+            { Double.valueOf(1e20), new BigDecimal("1E+20"), BigInteger.TEN.pow(20) },
+        };
+        for (Object[] values : alike) {
+            JSONArray first = new JSONArray().put(values[0]);
+            for (Object value : values) {
+                JSONArray other = new JSONArray().put(value);
+                assertTrue(value.toString(), first.similar(other));
+                assertEquals(value.toString(), first.fingerprint(), other.fingerprint());
+            }
+        }
+    }
+
+    /**
+     * Small changes give different fingerprints.
+     */
+    @Test
+    public void differentDocumentsDiffer() {
+        String[] texts = {
+            "{}", "[]", "[[]]", "[{}]", "{\"a\":null}", "{\"a\":false}", "{\"a\":true}", "{\"a\":0}",
+            "{\"a\":\"0\"}", "{\"a\":0.1}", "{\"a\":1E-1000}", "{\"b\":0}", "{\"a\":[]}", "{\"a\":{}}",
+            "[1,2]", "[2,1]", "[1,[2]]", "[[1],2]", "{\"a\":1,\"b\":2}", "{\"a\":2,\"b\":1}",
+            "{\"ab\":1}", "{\"a\":{\"b\":1}}", "[\"ab\"]", "[\"a\",\"b\"]", "[null]", "[null,null]",
+        };
+        Set<Long> fingerprints = new HashSet<Long>();
+        for (String text : texts) {
+            Object value = text.startsWith("{") ? new JSONObject(text) : new JSONArray(text);
+            long fingerprint = value instanceof JSONObject
+                    ? ((JSONObject) value).fingerprint() : ((JSONArray) value).fingerprint();
+            assertTrue(text, fingerprints.add(Long.valueOf(fingerprint)));
+        }
+    }
+
+    /**
+     * The cached fingerprint follows changes to nested containers.
+     */
+    @Test
+    public void cachedFingerprintIsInvalidated() {
+        JSONObject jsonObject = new JSONObject("{\"list\":[1,{\"k\":\"v\"}]}").enableSerializationCache();
+        long before = jsonObject.fingerprint();
+        assertEquals(before, jsonObject.fingerprint());
+        jsonObject.getJSONArray("list").getJSONObject(1).put("k", "w");
+        long after = jsonObject.fingerprint();
+        assertNotEquals(before, after);
+        assertEquals(new JSONObject(jsonObject.toString()).fingerprint(), after);
+        jsonObject.getJSONArray("list").getJSONObject(1).put("k", "v");
+        assertEquals(before, jsonObject.fingerprint());
+    }
+}
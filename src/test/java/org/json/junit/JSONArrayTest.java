@@ -29,6 +29,7 @@ import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 import java.io.IOException;
 import java.io.StringWriter;
@@ -1222,6 +1223,39 @@ public class JSONArrayTest {
         }
     }
     
+    /**
+     * Arrays of primitives are copied as boxed values, and non-finite
+     * numbers are rejected.
+     */
+    @Test
+    public void testPrimitiveArrayConstructor() {
+        assertEquals("[1,-2]", new JSONArray(new int[] {1, -2}).toString());
+        assertEquals("[3]", new JSONArray(new long[] {3L}).toString());
+        assertEquals("[1.5,2]", new JSONArray(new double[] {1.5, 2}).toString());
+        assertEquals("[0.25]", new JSONArray(new float[] {0.25f}).toString());
+        assertEquals("[true,false]", new JSONArray(new boolean[] {true, false}).toString());
+        assertEquals("[\"x\"]", new JSONArray(new char[] {'x'}).toString());
+        assertEquals("[7]", new JSONArray(new short[] {7}).toString());
+        assertEquals("[-1]", new JSONArray(new byte[] {-1}).toString());
+        assertEquals(Integer.valueOf(1), new JSONArray(new int[] {1}).get(0));
+        assertEquals(Character.valueOf('x'), new JSONArray(new char[] {'x'}).get(0));
+        assertEquals("[[1,2],[]]", new JSONArray(new int[][] {{1, 2}, {}}).toString());
+        assertEquals("{\"a\":[1.5]}", new JSONObject().put("a", new double[] {1.5}).toString());
+        try {
+            new JSONArray(new double[] {1, Double.NaN});
+            fail("Expected an exception");
+        } catch (JSONException e) {
+            assertEquals("JSON does not allow non-finite numbers.", e.getMessage());
+        }
+        JSONArray jsonArray = new JSONArray();
+        try {
+            jsonArray.putAll(new float[] {1, Float.POSITIVE_INFINITY});
+            fail("Expected an exception");
+        } catch (JSONException e) {
+            assertEquals("[1]", jsonArray.toString());
+        }
+    }
+
     /**
      * Verifies that the JSONArray constructor properly copies the original.
      */
@@ -0,0 +1,268 @@
+package org.json.junit;
+
+/*
+Copyright (c) 2020 JSON.org
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+The Software shall be used for Good, not Evil.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+
+import org.json.*;
+import org.junit.Assume;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests for JSONBeanProcessor and the adapters it generates.
+ */
+public class JSONBeanProcessorTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static final String[] SOURCES = {
+        "p/Base.java",
+        "package p;\n"
+        + "public class Base implements Named {\n"
+        + "    public String getName() { return \"base\"; }\n"
+        + "    public int getSecret() { return 7; }\n"
+        + "    public static int getStatic() { return 1; }\n"
+        + "}\n",
+        "p/Named.java",
+        "package p;\n"
+        + "public interface Named {\n"
+        + "    @org.json.JSONPropertyName(\"title\")\n"
+        + "    String getName();\n"
+        + "    @org.json.JSONPropertyIgnore\n"
+        + "    int getSecret();\n"
+        + "}\n",
+        "p/Bean.java",
+        "package p;\n"
+        + "@org.json.JSONBean\n"
+        + "public class Bean extends Base {\n"
+        + "    public boolean isOn() { return true; }\n"
+        + "    public double getRatio() { return 0.5; }\n"
+        + "    public char getC() { return 'c'; }\n"
+        + "    public java.util.List<String> getItems() { return java.util.Arrays.asList(\"a\", \"b\"); }\n"
+        + "    public String getNothing() { return null; }\n"
+        + "    public int getBroken() { throw new IllegalStateException(); }\n"
+        + "    public int getBad() throws java.io.IOException { throw new java.io.IOException(); }\n"
+        + "    public Inner getInner() { return new Inner(); }\n"
+        + "    @org.json.JSONPropertyName(\"odd \\\"key\\\"\\n\\u00e9\")\n"
+        + "    public int getOdd() { return 3; }\n"
+        + "    public static class Inner {\n"
+        + "        @org.json.JSONPropertyName(\"x\")\n"
+        + "        public long getValue() { return 5L; }\n"
+        + "    }\n"
+        + "}\n",
+        "p/Plain.java",
+        "package p;\n"
+        + "public class Plain {\n"
+        + "    public int getA() { return 1; }\n"
+        + "}\n",
+    };
+
+    /**
+     * Compile the sources, or only run the processor on them.
+     *
+     * @return the errors and warnings.
+     */
+    private List<Diagnostic<? extends JavaFileObject>> compile(String[] sources,
+            File out, boolean process) throws IOException {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        Assume.assumeNotNull(compiler);
+        File src = this.folder.newFolder();
+        List<File> files = new ArrayList<File>();
+        for (int i = 0; i < sources.length; i += 2) {
+            File file = new File(src, sources[i]);
+            file.getParentFile().mkdirs();
+            Writer writer = new OutputStreamWriter(new FileOutputStream(file),
+                    StandardCharsets.UTF_8);
+            try {
+                writer.write(sources[i + 1]);
+            } finally {
+                writer.close();
+            }
+            files.add(file);
+        }
+        String classPath = new File(JSONObject.class.getProtectionDomain()
+                .getCodeSource().getLocation().getPath()).getPath();
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<JavaFileObject>();
+        StandardJavaFileManager fileManager = compiler.getStandardFileManager(null, null,
+                StandardCharsets.UTF_8);
+        try {
+            JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, diagnostics,
+                    Arrays.asList("-d", out.getPath(), "-classpath", classPath,
+                            "-encoding", "UTF-8", process ? "-proc:only" : "-proc:none"),
+                    null, fileManager.getJavaFileObjectsFromFiles(files));
+            if (process) {
+                task.setProcessors(Arrays.asList(new JSONBeanProcessor()));
+            }
+            task.call();
+        } finally {
+            fileManager.close();
+        }
+        List<Diagnostic<? extends JavaFileObject>> problems =
+                new ArrayList<Diagnostic<? extends JavaFileObject>>();
+        for (Diagnostic<? extends JavaFileObject> diagnostic : diagnostics.getDiagnostics()) {
+            if (diagnostic.getKind() != Diagnostic.Kind.NOTE) {
+                problems.add(diagnostic);
+            }
+        }
+        return problems;
+    }
+
+    /**
+     * Beans read through generated adapters give the same JSON as beans read
+     * through reflection.
+     */
+    @Test
+    public void adaptersMatchReflection() throws Exception {
+        File reflected = this.folder.newFolder();
+        File adapted = this.folder.newFolder();
+        assertEquals(0, this.compile(SOURCES, reflected, false).size());
+        // generate the adapters, then compile them along with the beans
+        File generated = this.folder.newFolder();
+        assertEquals(0, this.compile(SOURCES, generated, true).size());
+        List<String> sources = new ArrayList<String>(Arrays.asList(SOURCES));
+        for (String name : new String[] { "p/Bean_JSONBeanAdapter.java",
+                "p/Bean_Inner_JSONBeanAdapter.java" }) {
+            File file = new File(generated, name);
+            assertTrue(name, file.isFile());
+            sources.add(name);
+            sources.add(new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8));
+        }
+        assertFalse(new File(generated, "p/Plain_JSONBeanAdapter.java").exists());
+        assertFalse(new File(generated, "p/Base_JSONBeanAdapter.java").exists());
+        File reflectConfig = new File(generated,
+                "META-INF/native-image/p/json-bean-adapters/reflect-config.json");
+        assertTrue(reflectConfig.isFile());
+        JSONArray entries = new JSONArray(new String(Files.readAllBytes(reflectConfig.toPath()),
+                StandardCharsets.UTF_8));
+        assertEquals(2, entries.length());
+        assertEquals("p.Bean_JSONBeanAdapter", entries.getJSONObject(0).getString("name"));
+        assertEquals("<init>", entries.getJSONObject(1).getJSONArray("methods")
+                .getJSONObject(0).getString("name"));
+        assertEquals(0, this.compile(sources.toArray(new String[sources.size()]), adapted, false).size());
+        assertTrue(new File(adapted, "p/Bean_JSONBeanAdapter.class").isFile());
+
+        ClassLoader parent = JSONObject.class.getClassLoader();
+        URLClassLoader reflectedLoader = new URLClassLoader(new URL[] { reflected.toURI().toURL() }, parent);
+        URLClassLoader adaptedLoader = new URLClassLoader(new URL[] { adapted.toURI().toURL() }, parent);
+        for (String name : new String[] { "p.Bean", "p.Bean$Inner", "p.Plain" }) {
+            Object expected = reflectedLoader.loadClass(name).getConstructor().newInstance();
+            Object actual = adaptedLoader.loadClass(name).getConstructor().newInstance();
+            assertEquals(name, new JSONObject(expected).toString(), new JSONObject(actual).toString());
+            assertEquals(name, JSONBeanWriter.toString(expected), JSONBeanWriter.toString(actual));
+        }
+        Object bean = adaptedLoader.loadClass("p.Bean").getConstructor().newInstance();
+        JSONBeanAdapter adapter = (JSONBeanAdapter) adaptedLoader
+                .loadClass("p.Bean_JSONBeanAdapter").getConstructor().newInstance();
+        assertSame(bean.getClass(), adapter.beanClass());
+        List<String> keys = Arrays.asList(adapter.keys());
+        assertEquals(Boolean.TRUE, adapter.get(bean, keys.indexOf("on")));
+        assertEquals(Character.valueOf('c'), adapter.get(bean, keys.indexOf("c")));
+        assertFalse(keys.contains("secret"));
+
+        JSONObject jsonObject = new JSONObject(bean);
+        assertEquals("base", jsonObject.get("title"));
+        assertEquals(3, jsonObject.get("odd \"key\"\n\u00e9"));
+        assertEquals(5L, jsonObject.getJSONObject("inner").get("x"));
+        assertFalse(jsonObject.has("secret"));
+        assertFalse(jsonObject.has("broken"));
+        assertFalse(jsonObject.has("static"));
+    }
+
+    /**
+     * An explicitly opted-in class that cannot have an adapter is an error.
+     */
+    @Test
+    public void rejectsAbstractBeans() throws Exception {
+        String[] sources = { "q/Shape.java",
+            "package q;\n@org.json.JSONBean\npublic abstract class Shape {\n"
+            + "    public int getSides() { return 0; }\n}\n" };
+        List<Diagnostic<? extends JavaFileObject>> diagnostics =
+                this.compile(sources, this.folder.newFolder(), true);
+        assertEquals(1, diagnostics.size());
+        assertEquals(Diagnostic.Kind.ERROR, diagnostics.get(0).getKind());
+        assertTrue(diagnostics.get(0).getMessage(null).contains("is abstract"));
+    }
+
+    /**
+     * A registered adapter is used in place of reflection, also for a class
+     * that was read before.
+     */
+    @Test
+    public void registeredAdapters() {
+        Point point = new Point();
+        assertEquals("{\"x\":1}", new JSONObject(point).toString());
+        JSONBeanAdapters.register(new JSONBeanAdapter() {
+            @Override
+            public Class<?> beanClass() {
+                return Point.class;
+            }
+
+            @Override
+            public String[] keys() {
+                return new String[] { "x", "y" };
+            }
+
+            @Override
+            public Object get(Object bean, int index) {
+                return index == 0 ? Integer.valueOf(((Point) bean).getX()) : "adapted";
+            }
+        });
+        assertEquals("{\"x\":1,\"y\":\"adapted\"}", new JSONObject(point).toString());
+        assertEquals("{\"x\":1,\"y\":\"adapted\"}", JSONBeanWriter.toString(point));
+    }
+
+    /**
+     * A bean only read by {@link #registeredAdapters()}.
+     */
+    public static class Point {
+        public int getX() {
+            return 1;
+        }
+    }
+}
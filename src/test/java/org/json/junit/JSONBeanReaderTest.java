@@ -0,0 +1,196 @@
+package org.json.junit;
+
+/*
+Copyright (c) 2020 JSON.org
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+The Software shall be used for Good, not Evil.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.json.*;
+import org.junit.Test;
+
+/**
+ * Tests for JSONBeanReader.
+ */
+public class JSONBeanReaderTest {
+
+    /**
+     * A bean with setters, including a renamed one.
+     */
+    public static class Item {
+        private String name;
+        private int count;
+        private double price;
+        private boolean active;
+        private List<Item> children;
+        private Map<String, Integer> tags;
+        private int[] sizes;
+        private Set<String> labels;
+
+        public String getName() { return this.name; }
+        public void setName(String name) { this.name = name; }
+
+        @JSONPropertyName("qty")
+        public int getCount() { return this.count; }
+        public void setCount(int count) { this.count = count; }
+
+        public double getPrice() { return this.price; }
+        public void setPrice(double price) { this.price = price; }
+
+        public boolean isActive() { return this.active; }
+        public void setActive(boolean active) { this.active = active; }
+
+        public List<Item> getChildren() { return this.children; }
+        public void setChildren(List<Item> children) { this.children = children; }
+
+        public Map<String, Integer> getTags() { return this.tags; }
+        public void setTags(Map<String, Integer> tags) { this.tags = tags; }
+
+        public int[] getSizes() { return this.sizes; }
+        public void setSizes(int[] sizes) { this.sizes = sizes; }
+
+        public Set<String> getLabels() { return this.labels; }
+        public void setLabels(Set<String> labels) { this.labels = labels; }
+    }
+
+    /**
+     * A bean with public fields and no setters.
+     */
+    public static class Point {
+        public int x;
+        public int y;
+    }
+
+    /**
+     * A bean without a public no-argument constructor.
+     */
+    public static class NoDefault {
+        public NoDefault(int unused) {
+        }
+    }
+
+    private static final String ITEM = "{\"name\":\"box\",\"qty\":\"3\",\"price\":2.5,"
+            + "\"active\":true,\"unknown\":{\"a\":[1,{}]},"
+            + "\"children\":[{\"name\":\"lid\",\"qty\":1},null],"
+            + "\"tags\":{\"red\":1,\"blue\":2.7},\"sizes\":[1,2,3],"
+            + "\"labels\":[\"a\",\"b\",\"a\"]}";
+
+    private static void checkItem(Item item) {
+        assertEquals("box", item.getName());
+        assertEquals(3, item.getCount());
+        assertEquals(2.5, item.getPrice(), 0.0);
+        assertTrue(item.isActive());
+        assertEquals(2, item.getChildren().size());
+        assertEquals("lid", item.getChildren().get(0).getName());
+        assertEquals(1, item.getChildren().get(0).getCount());
+        assertNull(item.getChildren().get(1));
+        assertEquals(Integer.valueOf(1), item.getTags().get("red"));
+        assertEquals(Integer.valueOf(2), item.getTags().get("blue"));
+        assertArrayEquals(new int[] { 1, 2, 3 }, item.getSizes());
+        assertEquals(2, item.getLabels().size());
+    }
+
+    /**
+     * Objects bind to beans through setters, with the names the getters
+     * were given, and to public fields.
+     */
+    @Test
+    public void bindsBeans() {
+        checkItem(new JSONObject(ITEM).toBean(Item.class));
+
+        Item item = new JSONObject(ITEM).toBean(Item.class);
+        JSONObject written = new JSONObject(item);
+        assertEquals(3, written.getInt("qty"));
+        assertEquals("box", written.toBean(Item.class).getName());
+
+        List<Point> points = new JSONArray("[{\"x\":1,\"y\":2},{\"x\":3}]").toList(Point.class);
+        assertEquals(2, points.size());
+        assertEquals(2, points.get(0).y);
+        assertEquals(3, points.get(1).x);
+        assertEquals(0, points.get(1).y);
+    }
+
+    /**
+     * Reading from a tokener binds the same values as binding a parsed
+     * object, and skips members that do not bind.
+     */
+    @Test
+    public void readsFromTokener() {
+        checkItem(JSONBeanReader.read(new JSONTokener(ITEM), Item.class));
+
+        List<Point> points = JSONBeanReader.readList(
+                new JSONTokener("[{\"x\":1,\"z\":[[],{}],\"y\":2},,{\"x\":3},]"), Point.class);
+        assertEquals(3, points.size());
+        assertEquals(2, points.get(0).y);
+        assertNull(points.get(1));
+        assertEquals(3, points.get(2).x);
+
+        Object value = JSONBeanReader.read(new JSONTokener("{\"a\":[1,\"x\",null]}"), Map.class);
+        assertEquals(Arrays.asList(1, "x", null), ((Map<?, ?>) value).get("a"));
+    }
+
+    /**
+     * Values that do not fit their properties, and texts that are not
+     * valid, fail the way JSONObject and the tokener fail.
+     */
+    @Test
+    public void failures() {
+        List<String> messages = new ArrayList<String>();
+        String[] texts = { "{\"qty\":\"many\"}", "{\"qty\":null}", "{\"children\":[1]}",
+                "{\"sizes\":[1,true]}", "{\"name\":\"a\",\"name\":\"b\"}", "{\"name\":\"a\"" };
+        for (String text : texts) {
+            try {
+                JSONBeanReader.read(new JSONTokener(text), Item.class);
+                fail("Expected an exception for " + text);
+            } catch (JSONException e) {
+                messages.add(e.getMessage());
+            }
+        }
+        assertEquals("JSONObject[\"qty\"] is not a int.", messages.get(0));
+        assertEquals("JSONObject[\"qty\"] is not a int.", messages.get(1));
+        assertEquals("JSONArray[0] is not a Item.", messages.get(2));
+        assertEquals("JSONArray[1] is not a int.", messages.get(3));
+        assertTrue(messages.get(4).startsWith("Duplicate key \"name\""));
+        assertTrue(messages.get(5).startsWith("Expected a ',' or '}'"));
+
+        try {
+            new JSONObject("{\"qty\":\"many\"}").toBean(Item.class);
+            fail("Expected an exception");
+        } catch (JSONException e) {
+            assertEquals(messages.get(0), e.getMessage());
+        }
+        try {
+            new JSONObject().toBean(NoDefault.class);
+            fail("Expected an exception");
+        } catch (JSONException e) {
+            assertTrue(e.getMessage().contains("no public no-argument constructor"));
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package org.json.junit;
+
+/*
+Copyright (c) 2020 JSON.org
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+The Software shall be used for Good, not Evil.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.json.*;
+import org.json.junit.data.MyBeanCustomName;
+import org.json.junit.data.MyBeanCustomNameSubClass;
+import org.json.junit.data.MyNumberContainer;
+import org.junit.Test;
+
+/**
+ * Tests for JSONBeanWriter.
+ */
+public class JSONBeanWriterTest {
+
+    /**
+     * Beans are written like the JSONObjects made from them, annotations and
+     * member order included.
+     */
+    @Test
+    public void beansMatchJSONObject() {
+        Object[] beans = { new MyBeanCustomName(), new MyBeanCustomNameSubClass(),
+                new MyNumberContainer() };
+        for (Object bean : beans) {
+            JSONObject jsonObject = new JSONObject(bean);
+            assertEquals(jsonObject.toString(), JSONBeanWriter.toString(bean));
+            assertEquals(jsonObject.toString(2), JSONBeanWriter.toString(bean, 2));
+        }
+        List<Object> list = new ArrayList<Object>();
+        list.add(new MyNumberContainer());
+        list.add(null);
+        list.add(new int[] {1, 2});
+        list.add(Arrays.asList("a", new MyBeanCustomName()));
+        assertEquals(new JSONArray(list).toString(), JSONBeanWriter.toString(list));
+        assertEquals(new JSONArray(list).toString(3), JSONBeanWriter.toString(list, 3));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new JSONBeanWriter().write(new MyBeanCustomNameSubClass(), out);
+        assertEquals(new JSONObject(new MyBeanCustomNameSubClass()).toString(),
+                new String(out.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Maps of all sizes are written in the order the JSONObjects made from
+     * them hold their members.
+     */
+    @Test
+    public void mapsMatchJSONObject() {
+        JSONBeanWriter writer = new JSONBeanWriter();
+        for (int size = 0; size < 300; size += 7) {
+            Map<String, Object> map = new LinkedHashMap<String, Object>();
+            for (int i = 0; i < size; i += 1) {
+                map.put("key" + (i * 7919 % 1000), i % 5 == 0 ? null : Integer.valueOf(i));
+            }
+            Map<String, Object> outer = new HashMap<String, Object>();
+            outer.put("map", map);
+            outer.put("size", size);
+            StringWriter text = new StringWriter();
+            writer.write(outer, text);
+            assertEquals(new JSONObject(outer).toString(), text.toString());
+        }
+        // keys that all have the same hash code
+        Map<String, Object> colliding = new LinkedHashMap<String, Object>();
+        String[] halves = { "Aa", "BB" };
+        for (int i = 0; i < 64; i += 1) {
+            StringBuilder key = new StringBuilder();
+            for (int bit = 0; bit < 6; bit += 1) {
+                key.append(halves[(i >> bit) & 1]);
+            }
+            colliding.put(key.toString(), i);
+        }
+        assertEquals(new JSONObject(colliding).toString(), JSONBeanWriter.toString(colliding));
+    }
+
+    /**
+     * Values that wrap cannot turn into JSON are written as null, and
+     * values that cannot be written fail the same way.
+     */
+    @Test
+    public void failuresMatchWrap() {
+        Map<Object, Object> map = new HashMap<Object, Object>();
+        map.put("list", Arrays.asList(1.0, Double.NaN));
+        map.put("array", new double[] {Double.POSITIVE_INFINITY});
+        map.put(null, "x");
+        assertEquals("null", JSONBeanWriter.toString(map));
+        map.remove(null);
+        assertEquals(new JSONObject(map).toString(), JSONBeanWriter.toString(map));
+        assertTrue(JSONBeanWriter.toString(map).contains("\"list\":null"));
+        map.put(1, "one");
+        assertEquals(new JSONObject(map).toString(), JSONBeanWriter.toString(map));
+
+        map.put("nan", Double.NaN);
+        try {
+            JSONBeanWriter.toString(map);
+            fail("Expected an exception");
+        } catch (JSONException e) {
+            assertEquals("Unable to write JSONObject value for key: nan", e.getMessage());
+        }
+    }
+}
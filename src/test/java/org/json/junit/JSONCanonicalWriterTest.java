@@ -0,0 +1,126 @@
+package org.json.junit;
+
+/*
+Copyright (c) 2020 JSON.org
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+The Software shall be used for Good, not Evil.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+
+import static org.junit.Assert.*;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.json.*;
+import org.junit.Test;
+
+/**
+ * Tests for JSONCanonicalWriter.
+ */
+public class JSONCanonicalWriterTest {
+
+    /**
+     * The example of RFC 8785 section 3.2.2.
+     */
+    @Test
+    public void rfc8785Example() {
+        JSONObject jsonObject = new JSONObject("{\"numbers\":[333333333.33333329,1E30,4.50,2e-3,"
+                + "0.000000000000000000000000001],\"string\":\"\\u20ac$\\u000F\\u000aA'\\u0042"
+                + "\\u0022\\u005c\\\\\\\"\\/\",\"literals\":[null,true,false]}");
+        assertEquals("{\"literals\":[null,true,false],\"numbers\":[333333333.3333333,1e+30,4.5,0.002,1e-27],"
+                + "\"string\":\"€$\\u000f\\nA'B\\\"\\\\\\\\\\\"/\"}",
+                JSONCanonicalWriter.toString(jsonObject));
+    }
+
+    /**
+     * Members are sorted by UTF-16 code units, as in RFC 8785 section 3.2.3.
+     */
+    @Test
+    public void sortOrder() {
+        JSONObject jsonObject = new JSONObject()
+                .put("€", "Euro Sign")
+                .put("\r", "Carriage Return")
+                .put("דּ", "Hebrew Letter Dalet With Dagesh")
+                .put("1", "One")
+                .put("😀", "Emoji: Grinning Face")
+                .put("\u0080", "Control")
+                .put("ö", "Latin Small Letter O With Diaeresis");
+        String text = JSONCanonicalWriter.toString(jsonObject);
+        String[] values = { "Carriage Return", "One", "Control", "Latin Small Letter O With Diaeresis",
+            "Euro Sign", "Emoji: Grinning Face", "Hebrew Letter Dalet With Dagesh" };
+        int previous = -1;
+        for (String value : values) {
+            int index = text.indexOf(value);
+            assertTrue(value, index > previous);
+            previous = index;
+        }
+        assertArrayEquals(text.getBytes(StandardCharsets.UTF_8),
+                new JSONCanonicalWriter().toBytesUtf8(jsonObject));
+    }
+
+    /**
+     * Numbers take the ECMAScript form, whatever type holds them.
+     */
+    @Test
+    public void numbers() {
+        JSONArray jsonArray = new JSONArray()
+                .put(1).put(1.0).put(new BigDecimal("1E0")).put(-0.0).put(1e21).put(1e20)
+                .put(1e-7).put(0.000001).put(Double.MIN_VALUE).put(Long.MAX_VALUE)
+                .put(new BigInteger("18446744073709551616")).put(new BigInteger("18446744073709551617"));
+        assertEquals("[1,1,1,0,1e+21,100000000000000000000,1e-7,0.000001,5e-324,"
+                + "9223372036854775807,18446744073709552000,18446744073709551617]",
+                JSONCanonicalWriter.toString(jsonArray));
+        assertEquals(JSONCanonicalWriter.toString(new JSONObject("{\"a\":1.50,\"b\":[2E2]}")),
+                JSONCanonicalWriter.toString(new JSONObject("{ \"b\" : [ 200 ], \"a\" : 1.5 }")));
+    }
+
+    /**
+     * A writer is reused across documents, and its scratch array grows
+     * while nested objects are written.
+     */
+    @Test
+    public void reuse() {
+        JSONObject inner = new JSONObject();
+        for (int i = 0; i < 100; i += 1) {
+            inner.put("k" + i, i);
+        }
+        JSONObject outer = new JSONObject();
+        for (int i = 0; i < 50; i += 1) {
+            outer.put("o" + i, i == 25 ? inner : (Object) Integer.valueOf(i));
+        }
+        JSONCanonicalWriter writer = new JSONCanonicalWriter();
+        String first = new String(writer.toBytesUtf8(outer), StandardCharsets.UTF_8);
+        String second = new String(writer.toBytesUtf8(new JSONObject(outer.toString())), StandardCharsets.UTF_8);
+        assertEquals(first, second);
+        assertTrue(first.startsWith("{\"o0\":0,\"o1\":1,\"o10\":10,"));
+        assertTrue(first.contains("\"o25\":{\"k0\":0,\"k1\":1,\"k10\":10,"));
+        assertTrue(first.endsWith(",\"o9\":9}"));
+
+        try {
+            writer.toBytesUtf8(new JSONArray(Arrays.asList("a\ud800")));
+            fail("Expected an exception");
+        } catch (JSONException e) {
+            assertEquals("Unpaired surrogate at 1 cannot be canonicalized.", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package org.json.junit;
+
+/*
+Copyright (c) 2020 JSON.org
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+The Software shall be used for Good, not Evil.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import org.json.*;
+import org.junit.Test;
+
+/**
+ * Tests for JSONLinesWriter.
+ */
+public class JSONLinesWriterTest {
+
+    private static List<JSONObject> records(int n) {
+        List<JSONObject> records = new ArrayList<JSONObject>();
+        for (int i = 0; i < n; i += 1) {
+            records.add(new JSONObject().put("id", i).put("name", "né" + i));
+        }
+        return records;
+    }
+
+    private static String expected(List<JSONObject> records) {
+        StringBuilder sb = new StringBuilder();
+        for (JSONObject record : records) {
+            sb.append(record.toString()).append('\n');
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Records from an iterator and a stream, one per line.
+     */
+    @Test
+    public void writeLines() throws IOException {
+        List<JSONObject> records = records(3);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        JSONLinesWriter lines = new JSONLinesWriter(out);
+        lines.writeAll(records.iterator());
+        lines.writeAll(records.stream());
+        lines.close();
+        assertEquals(6, lines.getRecordCount());
+        assertEquals(expected(records) + expected(records),
+                new String(out.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Gzipped lines, flushed by record count.
+     */
+    @Test
+    public void gzipAndFlush() throws IOException {
+        final int[] flushes = new int[1];
+        ByteArrayOutputStream out = new ByteArrayOutputStream() {
+            @Override
+            public void flush() {
+                flushes[0] += 1;
+            }
+        };
+        List<JSONObject> records = records(1000);
+        JSONLinesWriter lines = new JSONLinesWriter(out, true, 100, 0);
+        lines.writeAll(records.iterator());
+        assertEquals(10, flushes[0]);
+        lines.close();
+
+        GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(out.toByteArray()));
+        ByteArrayOutputStream unzipped = new ByteArrayOutputStream();
+        byte[] buffer = new byte[4096];
+        for (int n; (n = in.read(buffer)) > 0; ) {
+            unzipped.write(buffer, 0, n);
+        }
+        assertEquals(expected(records), new String(unzipped.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Lines are flushed by size.
+     */
+    @Test
+    public void flushBySize() throws IOException {
+        final int[] flushes = new int[1];
+        ByteArrayOutputStream out = new ByteArrayOutputStream() {
+            @Override
+            public void flush() {
+                flushes[0] += 1;
+            }
+        };
+        JSONLinesWriter lines = new JSONLinesWriter(out, false, 0, 1000);
+        lines.writeAll(records(1000).iterator());
+        int size = out.size();
+        assertTrue("Expected flushes by size", flushes[0] >= size / 1100 && flushes[0] <= size / 1000);
+    }
+
+    /**
+     * The top level elements of an XML document, one per line.
+     */
+    @Test
+    public void writeXMLStream() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        JSONLinesWriter lines = new JSONLinesWriter(out);
+        lines.writeAll(XML.toJSONObjectStream(new StringReader("<a>1</a><b>x</b>")));
+        lines.flush();
+        assertEquals(2, lines.getRecordCount());
+        assertEquals("{\"a\":1}\n{\"b\":\"x\"}\n", new String(out.toByteArray(), StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,107 @@
+package org.json.junit;
+
+/*
+Copyright (c) 2020 JSON.org
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+The Software shall be used for Good, not Evil.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+
+
+import static org.junit.Assert.*;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+import org.json.*;
+import org.junit.Test;
+
+/**
+ * Tests for JSONNumber and lazily converted numbers.
+ */
+public class JSONNumberTest {
+
+    private static final String TEXT =
+            "{\"a\":1.50,\"b\":1e400,\"c\":-0,\"d\":123456789012345678901234,"
+            + "\"e\":[0.1,2E+3,-7,4294967296],\"f\":1.}";
+
+    /**
+     * Numbers are written back exactly as they were parsed.
+     */
+    @Test
+    public void writtenAsParsed() {
+        JSONObject lazy = new JSONObject(TEXT, JSONParserConfiguration.LAZY_NUMBERS);
+        assertTrue(lazy.get("a") instanceof JSONNumber);
+        assertTrue(lazy.getJSONArray("e").get(1) instanceof JSONNumber);
+        // not a JSON number, converted right away like before
+        assertEquals(new BigDecimal("1."), lazy.get("f"));
+        assertEquals("{\"a\":1.50,\"b\":1e400,\"c\":-0,\"d\":123456789012345678901234,"
+                + "\"e\":[0.1,2E+3,-7,4294967296],\"f\":1}", lazy.toString());
+        assertEquals("[1.50]", new JSONStringer().array()
+                .value(lazy.get("a")).endArray().toString());
+
+        lazy.increment("a");
+        assertEquals(new BigDecimal("2.50"), lazy.get("a"));
+        assertFalse(new JSONObject(TEXT).get("a") instanceof JSONNumber);
+    }
+
+    /**
+     * Reading a number gives what eager parsing gives.
+     */
+    @Test
+    public void readAsEager() {
+        JSONObject lazy = new JSONObject(TEXT, JSONParserConfiguration.LAZY_NUMBERS);
+        JSONObject eager = new JSONObject(TEXT);
+        for (String key : new String[] { "a", "b", "c", "d" }) {
+            assertEquals(key, eager.getInt(key), lazy.getInt(key));
+            assertEquals(key, eager.getLong(key), lazy.getLong(key));
+            assertEquals(key, eager.getDouble(key), lazy.getDouble(key), 0.0);
+            assertEquals(key, eager.getBigInteger(key), lazy.getBigInteger(key));
+            assertEquals(key, eager.get(key), ((JSONNumber) lazy.get(key)).toNumber());
+        }
+        assertEquals(new BigDecimal("1.50"), lazy.getBigDecimal("a"));
+        assertEquals(new BigInteger("123456789012345678901234"), lazy.getBigInteger("d"));
+        assertEquals(Double.valueOf(-0.0), ((JSONNumber) lazy.get("c")).toNumber());
+        assertEquals(4294967296L, lazy.getJSONArray("e").getLong(3));
+        assertTrue(lazy.similar(eager));
+        assertTrue(eager.similar(lazy));
+        assertEquals(eager.fingerprint(), lazy.fingerprint());
+        assertArrayEquals(CBOR.toByteArray(eager), CBOR.toByteArray(lazy));
+        assertEquals(lazy.get("a"), JSONNumber.valueOf("1.50"));
+    }
+
+    /**
+     * Only JSON numbers can be made from text.
+     */
+    @Test
+    public void valueOf() {
+        String[] bad = { "", "-", "01", "1.", ".5", "+1", "1e", "0x1F", "1 ", "NaN" };
+        for (String text : bad) {
+            try {
+                JSONNumber.valueOf(text);
+                fail("Expected an exception for " + text);
+            } catch (JSONException e) {
+                // expected
+            }
+        }
+        assertEquals("-0.5E-3", JSONNumber.valueOf("-0.5E-3").toString());
+        assertEquals(-0.0005, JSONNumber.valueOf("-0.5E-3").doubleValue(), 0.0);
+    }
+}
@@ -693,6 +693,27 @@ public class JSONObjectTest {
                 jsonObject.has("Getable"));
     }
 
+    /**
+     * The getters of a bean class are looked up once and shared by all
+     * instances, while a subclass keeps its own overridden names.
+     */
+    @Test
+    public void jsonObjectByBeanSharesMetadataPerClass() {
+        JSONObject base = new JSONObject(new MyBeanCustomName());
+        JSONObject sub = new JSONObject(new MyBeanCustomNameSubClass());
+        for (int i = 0; i < 10; i += 1) {
+            assertTrue("Same class should give the same object",
+                    base.similar(new JSONObject(new MyBeanCustomName())));
+            assertTrue("Same subclass should give the same object",
+                    sub.similar(new JSONObject(new MyBeanCustomNameSubClass())));
+        }
+        assertTrue(base.has("Some Weird NAme that Normally Wouldn't be possible!"));
+        assertFalse(sub.has("Some Weird NAme that Normally Wouldn't be possible!"));
+        assertTrue(sub.has("AMoreNormalName"));
+        assertFalse(base.has("forcedInt"));
+        assertTrue(sub.has("forcedInt"));
+    }
+
     /**
      * A bean is also an object. But in order to test the JSONObject
      * ctor that takes an object and a list of names, 
@@ -3150,7 +3171,36 @@ public class JSONObjectTest {
         assertTrue(jo.get("closeable") instanceof JSONObject);
         assertTrue(jo.getJSONObject("closeable").has("string"));
     }
-    
+
+    /**
+     * Getters are read the same way whichever accessor is used: primitives
+     * are boxed, and getters of a class that is not accessible are skipped.
+     */
+    @Test
+    public void testBeanAccessors() {
+        for (int i = 0; i < 3; i += 1) {
+            JSONObject jo = new JSONObject(new PrimitiveBean());
+            assertEquals(3, jo.length());
+            assertEquals(Integer.valueOf(7), jo.get("int"));
+            assertEquals(Boolean.TRUE, jo.get("true"));
+            assertEquals('x', jo.get("char"));
+            assertTrue(new JSONObject(new InaccessibleBean()).isEmpty());
+            assertEquals(1, new JSONObject(new ExceptionalBean()).length());
+        }
+    }
+
+    /** A bean with primitive getters. */
+    public static final class PrimitiveBean {
+        public int getInt() { return 7; }
+        public boolean isTrue() { return true; }
+        public char getChar() { return 'x'; }
+    }
+
+    /** A bean that JSONObject cannot reach. */
+    private static final class InaccessibleBean {
+        public int getInt() { return 7; }
+    }
+
     @Test(expected=NullPointerException.class)
     public void testPutNullBoolean() {
         // null put key 
@@ -0,0 +1,102 @@
+package org.json.junit;
+
+/*
+Copyright (c) 2020 JSON.org
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+The Software shall be used for Good, not Evil.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+
+import static org.junit.Assert.*;
+
+import java.io.StringWriter;
+import java.util.concurrent.ForkJoinPool;
+
+import org.json.*;
+import org.junit.Test;
+
+/**
+ * Tests for JSONParallelWriter.
+ */
+public class JSONParallelWriterTest {
+
+    private static JSONObject document() {
+        JSONArray items = new JSONArray();
+        for (int i = 0; i < 5000; i += 1) {
+            items.put(new JSONObject()
+                    .put("id", i)
+                    .put("name", "item \"" + i + "\"")
+                    .put("price", i / 7.0)
+                    .put("tags", new JSONArray().put("t" + (i % 3)).put(i % 2 == 0)));
+        }
+        JSONObject index = new JSONObject();
+        for (int i = 0; i < 300; i += 1) {
+            index.put("k" + i, new JSONArray().put(i).put(new JSONObject().put("v", i)));
+        }
+        return new JSONObject()
+                .put("meta", new JSONObject().put("count", 5000).put("empty", new JSONArray()))
+                .put("items", items)
+                .put("index", index);
+    }
+
+    /**
+     * The text is the same as the sequential one, compact and indented.
+     */
+    @Test
+    public void sameTextAsSequential() {
+        JSONObject jsonObject = document();
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            JSONParallelWriter writer = new JSONParallelWriter(pool, 64, 3);
+            assertEquals(jsonObject.toString(), writer.write(jsonObject, new StringWriter()).toString());
+            assertEquals(jsonObject.toString(2), writer.write(jsonObject, new StringWriter(), 2).toString());
+            JSONArray items = jsonObject.getJSONArray("items");
+            assertEquals(items.toString(), writer.write(items, new StringWriter()).toString());
+            assertEquals("1", writer.write(Integer.valueOf(1), new StringWriter()).toString());
+        } finally {
+            pool.shutdown();
+        }
+        assertEquals(jsonObject.toString(), new JSONParallelWriter().write(jsonObject, new StringWriter()).toString());
+    }
+
+    /**
+     * A value that cannot be written fails the whole text, with the message
+     * of the sequential writer.
+     */
+    @Test
+    public void failureInChunk() {
+        JSONArray jsonArray = new JSONArray();
+        for (int i = 0; i < 1000; i += 1) {
+            jsonArray.put(i);
+        }
+        jsonArray.put(777, new JSONString() {
+            @Override
+            public String toJSONString() {
+                throw new IllegalStateException("broken");
+            }
+        });
+        try {
+            new JSONParallelWriter(ForkJoinPool.commonPool(), 10, 2).write(jsonArray, new StringWriter());
+            fail("Expected an exception");
+        } catch (JSONException e) {
+            assertEquals("Unable to write JSONArray value at index: 777", e.getMessage());
+        }
+    }
+}
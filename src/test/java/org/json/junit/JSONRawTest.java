@@ -0,0 +1,125 @@
+package org.json.junit;
+
+/*
+Copyright (c) 2020 JSON.org
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+The Software shall be used for Good, not Evil.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+
+import static org.junit.Assert.*;
+
+import org.json.*;
+import org.junit.Test;
+
+/**
+ * Tests for JSONRaw.
+ */
+public class JSONRawTest {
+
+    /**
+     * Raw text is written as it is, also inside JSONWriter texts.
+     */
+    @Test
+    public void writtenAsIs() {
+        JSONObject jsonObject = new JSONObject()
+                .put("id", 1)
+                .put("payload", JSONRaw.trusted("{ \"b\" : [1, 2.50] }"));
+        assertTrue(jsonObject.toString().contains("\"payload\":{ \"b\" : [1, 2.50] }"));
+        assertTrue(jsonObject.toString(2).contains("\"payload\": { \"b\" : [1, 2.50] }"));
+
+        JSONArray jsonArray = new JSONArray().put(JSONRaw.validated("[true,null]"));
+        assertEquals("[[true,null]]", jsonArray.toString());
+        assertEquals("[[true,null]]", new JSONStringer().array()
+                .value(JSONRaw.trusted("[true,null]")).endArray().toString());
+    }
+
+    /**
+     * Reading the contents parses the text once, and leaves the raw value
+     * in place.
+     */
+    @Test
+    public void parsedOnAccess() {
+        JSONObject jsonObject = new JSONObject()
+                .put("payload", JSONRaw.trusted("{\"b\" : [1,2]}"))
+                .enableSerializationCache();
+        assertEquals("{\"payload\":{\"b\" : [1,2]}}", jsonObject.toString());
+        assertTrue(jsonObject.get("payload") instanceof JSONObject);
+        assertNotSame(jsonObject.get("payload"), jsonObject.opt("payload"));
+        assertTrue(jsonObject.getJSONObject("payload").similar(jsonObject.opt("payload")));
+
+        // every read is a copy, and the text is what gets written, until a
+        // changed copy is put back
+        JSONObject payload = jsonObject.getJSONObject("payload");
+        payload.getJSONArray("b").put(3);
+        assertEquals(2, jsonObject.getJSONObject("payload").getJSONArray("b").length());
+        assertEquals("{\"payload\":{\"b\" : [1,2]}}", jsonObject.toString());
+        jsonObject.put("payload", payload);
+        assertEquals("{\"payload\":{\"b\":[1,2,3]}}", jsonObject.toString());
+
+        JSONArray jsonArray = new JSONArray().put(JSONRaw.trusted(" 42 "));
+        assertEquals(42, jsonArray.getInt(0));
+        assertEquals("[ 42 ]", jsonArray.toString());
+    }
+
+    /**
+     * Serializers, fingerprints and comparisons read the parsed value without
+     * touching the document.
+     */
+    @Test
+    public void readsWithoutChanges() {
+        JSONObject jsonObject = new JSONObject()
+                .put("payload", JSONRaw.trusted("{\"b\": [1, 2]}"))
+                .enableSerializationCache();
+        String text = jsonObject.toString();
+        JSONObject parsed = new JSONObject("{\"payload\":{\"b\":[1,2]}}");
+        assertTrue(jsonObject.similar(parsed));
+        assertTrue(parsed.similar(jsonObject));
+        assertEquals(parsed.fingerprint(), jsonObject.fingerprint());
+        assertArrayEquals(CBOR.toByteArray(parsed), CBOR.toByteArray(jsonObject));
+        assertArrayEquals(MessagePack.toByteArray(parsed), MessagePack.toByteArray(jsonObject));
+        assertEquals(JSONCanonicalWriter.toString(parsed), JSONCanonicalWriter.toString(jsonObject));
+        assertEquals(text, jsonObject.toString());
+        assertEquals("{\"payload\":{\"b\": [1, 2]}}", text);
+    }
+
+    /**
+     * Validation rejects anything but a single JSON value.
+     */
+    @Test
+    public void validation() {
+        String[] bad = { "", "{\"a\":", "[1] [2]", "{\"a\":1}}", "hello", "{a:1}",
+            "['x']", "[1,]", "{\"a\":1,}", "0x1F", "01", "1.", "-", "[1;2]", "{\"a\"=1}",
+            "\"tab\there\"", "\"\\x\"", "\"\\u12\"", "True", "nul", "[1 2]", "/* */1",
+            // only ASCII hexadecimal digits
+            "\"\\u\uFF10\uFF10\uFF10\uFF10\"", "\"\\u\u0660\u0661\u0662\u0663\"", "\"\\u00eg\"" };
+        for (String text : bad) {
+            try {
+                JSONRaw.validated(text);
+                fail("Expected an exception for " + text);
+            } catch (JSONException e) {
+                // expected
+            }
+        }
+        assertEquals("\"x\"", JSONRaw.validated("\"x\"").toJSONString());
+        String good = " {\"a\" : [1, -0.5e+3, true, false, null, \"\\u00e9\\uABcd\\n\\/\"], \"b\":{}}\r\n";
+        assertEquals(good, JSONRaw.validated(good).toJSONString());
+    }
+}
@@ -0,0 +1,114 @@
+package org.json.junit;
+
+/*
+Copyright (c) 2020 JSON.org
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+The Software shall be used for Good, not Evil.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+
+import static org.junit.Assert.*;
+
+import java.io.StringWriter;
+
+import org.json.*;
+import org.junit.Test;
+
+/**
+ * Tests for JSONSerializationFilter.
+ */
+public class JSONSerializationFilterTest {
+
+    private static final String TEXT = "{\"id\":7,\"name\":\"n\",\"_secret\":\"s\","
+            + "\"owner\":{\"login\":\"l\",\"_token\":\"t\",\"email\":\"e\"},"
+            + "\"items\":[{\"id\":1,\"price\":2.5,\"_cost\":1},{\"id\":2,\"price\":3}]}";
+
+    private static String write(Object value, JSONSerializationFilter filter) {
+        StringWriter writer = new StringWriter();
+        if (value instanceof JSONObject) {
+            ((JSONObject) value).write(writer, filter);
+        } else {
+            ((JSONArray) value).write(writer, filter);
+        }
+        return writer.toString();
+    }
+
+    /**
+     * Include and exclude lists give the same text as a projected copy.
+     */
+    @Test
+    public void includeAndExclude() {
+        JSONObject jsonObject = new JSONObject(TEXT);
+        assertEquals(new JSONObject(jsonObject, "id", "owner").toString(),
+                write(jsonObject, JSONSerializationFilter.include("id", "owner", "missing")));
+        JSONObject expected = new JSONObject(TEXT);
+        expected.remove("items");
+        expected.remove("_secret");
+        assertTrue(expected.similar(new JSONObject(write(jsonObject,
+                JSONSerializationFilter.exclude("items", "_secret")))));
+        assertEquals(jsonObject.toString(), write(jsonObject, JSONSerializationFilter.ALL));
+    }
+
+    /**
+     * Nested filters project nested objects, and apply to every element of
+     * an array.
+     */
+    @Test
+    public void nestedProjection() {
+        JSONObject jsonObject = new JSONObject(TEXT);
+        JSONSerializationFilter filter = JSONSerializationFilter.include("id")
+                .with("owner", JSONSerializationFilter.include("login"))
+                .with("items", JSONSerializationFilter.include("id"));
+        assertTrue(new JSONObject("{\"id\":7,\"owner\":{\"login\":\"l\"},\"items\":[{\"id\":1},{\"id\":2}]}")
+                .similar(new JSONObject(write(jsonObject, filter))));
+        assertEquals("[{\"id\":1},{\"id\":2}]",
+                write(jsonObject.getJSONArray("items"), JSONSerializationFilter.include("id")));
+    }
+
+    /**
+     * Pointers keep the values they refer to and the path to them.
+     */
+    @Test
+    public void pointers() {
+        JSONObject jsonObject = new JSONObject(TEXT);
+        JSONSerializationFilter filter = JSONSerializationFilter.pointers(
+                new JSONPointer("/owner/login"), new JSONPointer("/items/1"), new JSONPointer("/items/0/price"));
+        assertTrue(new JSONObject("{\"owner\":{\"login\":\"l\"},\"items\":[{\"price\":2.5},{\"id\":2,\"price\":3}]}")
+                .similar(new JSONObject(write(jsonObject, filter))));
+        assertEquals(jsonObject.toString(), write(jsonObject, JSONSerializationFilter.pointers(new JSONPointer(""))));
+        assertEquals("{}", write(jsonObject, JSONSerializationFilter.pointers()));
+    }
+
+    /**
+     * A predicate on names applies at every depth, also to maps and raw
+     * values.
+     */
+    @Test
+    public void predicate() {
+        JSONObject jsonObject = new JSONObject(TEXT)
+                .put("raw", JSONRaw.trusted("{\"_x\":1,\"y\":2}"));
+        JSONSerializationFilter filter = JSONSerializationFilter.keys(key -> !key.startsWith("_"));
+        String text = write(jsonObject, filter);
+        assertFalse(text, text.contains("\"_"));
+        assertTrue(new JSONObject(text).similar(new JSONObject("{\"id\":7,\"name\":\"n\","
+                + "\"owner\":{\"login\":\"l\",\"email\":\"e\"},\"items\":[{\"id\":1,\"price\":2.5},"
+                + "{\"id\":2,\"price\":3}],\"raw\":{\"y\":2}}")));
+    }
+}
@@ -0,0 +1,90 @@
+package org.json.junit;
+
+/*
+Copyright (c) 2020 JSON.org
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+The Software shall be used for Good, not Evil.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+
+
+import static org.junit.Assert.*;
+
+import org.json.*;
+import org.junit.Test;
+
+/**
+ * Tests for JSONSizeHints.
+ */
+public class JSONSizeHintsTest {
+
+    private static final String ORDERS = "{\"orders\":["
+            + "{\"id\":1,\"lines\":[{\"sku\":\"a\"},{\"sku\":\"b\"},{\"sku\":\"c\"}]},"
+            + "{\"id\":2,\"lines\":[]}]}";
+
+    /**
+     * Parsing learns the sizes of the containers by their keys, and gives
+     * the same values as parsing without hints.
+     */
+    @Test
+    public void learnsSizes() {
+        JSONSizeHints hints = new JSONSizeHints();
+        JSONParserConfiguration config = new JSONParserConfiguration().withSizeHints(hints);
+        JSONObject jsonObject = new JSONObject(ORDERS, config);
+        assertTrue(jsonObject.similar(new JSONObject(ORDERS)));
+        assertEquals(1, hints.hint(""));
+        assertEquals(2, hints.hint("orders"));
+        assertEquals(2, hints.hint("orders[]"));
+        // three lines, then none
+        assertEquals(2, hints.hint("lines"));
+        assertEquals(1, hints.hint("lines[]"));
+        assertEquals(0, hints.hint("sku"));
+
+        // a larger container is followed at once, smaller ones slowly
+        JSONArray big = new JSONArray("[" + new String(new char[99]).replace("\0", "0,") + "0]", config);
+        assertEquals(100, big.length());
+        assertEquals(100, hints.hint(""));
+        new JSONArray("[]", config);
+        assertEquals(75, hints.hint(""));
+    }
+
+    /**
+     * Given sizes are used as they are, and several values can be read from
+     * one tokener.
+     */
+    @Test
+    public void givenSizes() {
+        JSONSizeHints hints = new JSONSizeHints().hint("lines", 40).hint("", 20);
+        JSONTokener x = new JSONTokener(ORDERS + " " + ORDERS,
+                JSONParserConfiguration.ORIGINAL.withSizeHints(hints));
+        JSONObject first = (JSONObject) x.nextValue();
+        JSONObject second = (JSONObject) x.nextValue();
+        assertTrue(first.similar(second));
+        assertEquals(40, hints.hint("lines"));
+        assertEquals(20, hints.hint(""));
+        assertEquals(2, hints.hint("orders"));
+        try {
+            hints.hint("lines", -1);
+            fail("Expected an exception");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+}
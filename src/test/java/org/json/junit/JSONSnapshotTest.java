@@ -0,0 +1,183 @@
+package org.json.junit;
+
+/*
+Copyright (c) 2020 JSON.org
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+The Software shall be used for Good, not Evil.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.AbstractMap;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+
+import org.json.*;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests for JSONSnapshot.
+ */
+public class JSONSnapshotTest {
+
+    @Rule
+    public TemporaryFolder testFolder = new TemporaryFolder();
+
+    private static JSONObject sample() {
+        JSONArray items = new JSONArray();
+        for (int i = 0; i < 100; i += 1) {
+            items.put(new JSONObject().put("id", i).put("name", "item " + i).put("tags", new JSONArray().put("a")));
+        }
+        return new JSONObject()
+                .put("int", 7)
+                .put("long", 1L << 40)
+                .put("double", 0.1)
+                .put("big", new BigInteger("-123456789012345678901234567890"))
+                .put("decimal", new BigDecimal("12.3400"))
+                .put("text", "café 😀")
+                .put("flags", new JSONArray().put(true).put(false).put(JSONObject.NULL))
+                .put("empty", new JSONObject())
+                .put("items", items);
+    }
+
+    /**
+     * Values come back with the same types, from bytes and from streams.
+     */
+    @Test
+    public void roundTrip() {
+        JSONObject jsonObject = sample();
+        byte[] bytes = JSONSnapshot.toByteArray(jsonObject);
+        JSONObject loaded = (JSONObject) JSONSnapshot.read(bytes);
+        assertTrue(jsonObject.similar(loaded));
+        assertEquals(jsonObject.toString(), loaded.toString());
+        for (String key : jsonObject.keySet()) {
+            assertEquals(key, jsonObject.get(key).getClass(), loaded.get(key).getClass());
+        }
+        assertTrue(jsonObject.similar(JSONSnapshot.read(new ByteArrayInputStream(bytes))));
+        assertEquals("x", JSONSnapshot.read(JSONSnapshot.toByteArray("x")));
+    }
+
+    /**
+     * A mapped snapshot answers pointer queries like the decoded document.
+     */
+    @Test
+    public void openAndQuery() throws IOException {
+        JSONObject jsonObject = sample();
+        File file = testFolder.newFile("sample.snapshot");
+        JSONSnapshot.write(jsonObject, file.toPath());
+        assertTrue(jsonObject.similar(JSONSnapshot.read(file.toPath())));
+
+        JSONSnapshot snapshot = JSONSnapshot.open(file.toPath());
+        String[] pointers = { "", "/int", "/items/42", "/items/99/tags/0", "/text", "/flags/2" };
+        for (String pointer : pointers) {
+            Object expected = jsonObject.query(pointer);
+            Object actual = snapshot.query(pointer);
+            if (expected instanceof JSONObject || expected instanceof JSONArray) {
+                assertTrue(pointer, new JSONArray().put(expected).similar(new JSONArray().put(actual)));
+            } else {
+                assertEquals(pointer, expected, actual);
+            }
+        }
+        assertNull(snapshot.query("/missing"));
+        assertNull(snapshot.query(new JSONPointer("/items/3/missing")));
+        String[] bad = { "/items/100", "/items/x", "/int/a" };
+        for (String pointer : bad) {
+            try {
+                snapshot.query(pointer);
+                fail("Expected an exception for " + pointer);
+            } catch (JSONPointerException e) {
+                // expected
+            }
+        }
+        assertTrue(jsonObject.similar(snapshot.getRoot()));
+    }
+
+    /**
+     * Corrupted and truncated snapshots are rejected.
+     */
+    @Test
+    public void corruption() {
+        byte[] bytes = JSONSnapshot.toByteArray(sample());
+        byte[] flipped = bytes.clone();
+        flipped[flipped.length / 2] ^= 1;
+        try {
+            JSONSnapshot.read(flipped);
+            fail("Expected an exception");
+        } catch (JSONException e) {
+            assertEquals("JSON snapshot checksum mismatch.", e.getMessage());
+        }
+        byte[][] bad = {
+            Arrays.copyOf(bytes, bytes.length - 1),
+            Arrays.copyOf(bytes, 10),
+            "{\"a\":1}".getBytes(),
+        };
+        for (byte[] input : bad) {
+            try {
+                JSONSnapshot.read(input);
+                fail("Expected an exception");
+            } catch (JSONException e) {
+                // expected
+            }
+        }
+    }
+
+    /**
+     * Values that come out differently each time they are read are read
+     * once, so the snapshot is consistent.
+     */
+    @Test
+    public void changingValues() {
+        JSONString growing = new JSONString() {
+            private String text = "\"a\"";
+
+            @Override
+            public String toJSONString() {
+                String result = this.text;
+                this.text += "bc";
+                return result;
+            }
+        };
+        Map<String, Object> shifting = new AbstractMap<String, Object>() {
+            private int calls;
+
+            @Override
+            public Set<Map.Entry<String, Object>> entrySet() {
+                this.calls += 1;
+                return Collections.<String, Object>singletonMap("k" + this.calls, 1).entrySet();
+            }
+        };
+        JSONObject jsonObject = new JSONObject()
+                .put("text", growing)
+                .put("view", JSONObject.view(shifting));
+        JSONObject read = (JSONObject) JSONSnapshot.read(JSONSnapshot.toByteArray(jsonObject));
+        assertEquals("a", read.getString("text"));
+        assertEquals(1, read.getJSONObject("view").length());
+    }
+}
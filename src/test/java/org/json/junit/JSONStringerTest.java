@@ -26,7 +26,10 @@ SOFTWARE.
 
 import static org.junit.Assert.*;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
 
 import org.json.*;
@@ -242,6 +245,89 @@ public class JSONStringerTest {
         }
     }
 
+    /**
+     * Duplicate keys are found in every object, also in objects that follow
+     * an earlier object at the same depth.
+     * Expects a JSONException
+     */
+    @Test
+    public void duplicateKeyException() {
+        JSONStringer jsonStringer = new JSONStringer();
+        jsonStringer.array().
+            object().key("a").value(1).key("b").value(2).endObject().
+            object().key("b").value(3).key("c").value(4);
+        try {
+            jsonStringer.key("c");
+            fail("Expected an exception");
+        } catch (JSONException e) {
+            assertEquals("Expected an exception message",
+                    "Duplicate key \"c\"", e.getMessage());
+        }
+    }
+
+    /**
+     * A JSONWriter with its own nesting depth and without duplicate key
+     * checking.
+     */
+    @Test
+    public void writerOptions() {
+        StringBuilder sb = new StringBuilder();
+        new JSONWriter(sb, 2, false).object().
+            key("a").value(1).key("a").value(2).
+            key("b").array().endArray().
+        endObject();
+        assertEquals("{\"a\":1,\"a\":2,\"b\":[]}", sb.toString());
+
+        JSONWriter jsonWriter = new JSONWriter(new StringBuilder(), 2, true).array().array();
+        try {
+            jsonWriter.object();
+            fail("Expected an exception");
+        } catch (JSONException e) {
+            assertEquals("Expected an exception message",
+                    "Nesting too deep.", e.getMessage());
+        }
+    }
+
+    /**
+     * A JSONStringer builds one text after another when it is reset, and
+     * hands them out as chars or UTF-8 bytes.
+     */
+    @Test
+    public void resetAndReuse() throws IOException {
+        JSONStringer jsonStringer = new JSONStringer(4, 64);
+        jsonStringer.object().key("k").value("café").endObject();
+        assertEquals("{\"k\":\"café\"}", jsonStringer.toString());
+        byte[] expected = "{\"k\":\"café\"}".getBytes(StandardCharsets.UTF_8);
+        assertArrayEquals(expected, jsonStringer.toBytesUtf8());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        jsonStringer.writeTo(out);
+        assertArrayEquals(expected, out.toByteArray());
+
+        // the same key is no duplicate in the next text
+        jsonStringer.reset().array().object().key("k");
+        assertNull("Expected no text yet", jsonStringer.toString());
+        assertNull("Expected no bytes yet", jsonStringer.toBytesUtf8());
+        jsonStringer.value(1).endObject().endArray();
+        assertEquals("[{\"k\":1}]", jsonStringer.toString());
+        assertEquals("[{\"k\":1}]", new String(jsonStringer.toBytesUtf8(), StandardCharsets.UTF_8));
+
+        // a text larger than the retained capacity
+        jsonStringer.reset().array();
+        for (int i = 0; i < 100; i += 1) {
+            jsonStringer.value(i);
+        }
+        jsonStringer.endArray();
+        assertEquals(new JSONArray(jsonStringer.toString()).length(), 100);
+        jsonStringer.reset().object().endObject();
+        assertEquals("{}", jsonStringer.toString());
+        try {
+            jsonStringer.reset().writeTo(out);
+            fail("Expected an exception");
+        } catch (JSONException e) {
+            assertEquals("Incomplete JSON text.", e.getMessage());
+        }
+    }
+
     /**
      * Build a JSON doc using JSONString API calls,
      * then convert to JSONObject
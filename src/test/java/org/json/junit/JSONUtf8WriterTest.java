@@ -0,0 +1,156 @@
+package org.json.junit;
+
+/*
+Copyright (c) 2020 JSON.org
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+The Software shall be used for Good, not Evil.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.json.*;
+import org.junit.Test;
+
+/**
+ * Tests for JSONUtf8Writer.
+ */
+public class JSONUtf8WriterTest {
+
+    private static final String SAMPLE = "{\"ascii\":\"plain\",\"latin\":\"café\","
+            + "\"cjk\":\"日本語\",\"emoji\":\"😀\",\"list\":[1,2.5,true,null],"
+            + "\"nested\":{\"k\":\"\\u0001\\t\"}}";
+
+    /**
+     * The growable buffer holds the same bytes as toString().
+     */
+    @Test
+    public void growableBufferMatchesToString() {
+        JSONObject jsonObject = new JSONObject(SAMPLE);
+        // start small so that the buffer has to grow
+        JSONUtf8Writer writer = new JSONUtf8Writer(0);
+        jsonObject.write(writer);
+        byte[] expected = jsonObject.toString().getBytes(StandardCharsets.UTF_8);
+        assertArrayEquals(expected, writer.toByteArray());
+        assertEquals(expected.length, writer.size());
+
+        writer.reset();
+        JSONArray jsonArray = jsonObject.getJSONArray("list");
+        jsonArray.write(writer);
+        assertArrayEquals(jsonArray.toString().getBytes(StandardCharsets.UTF_8), writer.toByteArray());
+    }
+
+    /**
+     * Large texts pass through the stream in several chunks.
+     */
+    @Test
+    public void streamMatchesToString() throws IOException {
+        JSONArray jsonArray = new JSONArray();
+        for (int i = 0; i < 2000; i += 1) {
+            jsonArray.put(new JSONObject(SAMPLE).put("i", i));
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        JSONUtf8Writer writer = new JSONUtf8Writer(out);
+        jsonArray.write(writer);
+        writer.flush();
+        assertArrayEquals(jsonArray.toString().getBytes(StandardCharsets.UTF_8), out.toByteArray());
+    }
+
+    /**
+     * Bytes land in the byte buffer, which must have room for them.
+     */
+    @Test
+    public void byteBufferMatchesToString() throws IOException {
+        JSONObject jsonObject = new JSONObject(SAMPLE);
+        byte[] expected = jsonObject.toString().getBytes(StandardCharsets.UTF_8);
+        ByteBuffer buffer = ByteBuffer.allocate(expected.length);
+        JSONUtf8Writer writer = new JSONUtf8Writer(buffer);
+        jsonObject.write(writer);
+        writer.flush();
+        assertEquals(expected.length, buffer.position());
+        assertArrayEquals(expected, buffer.array());
+
+        // written in place, at the position of a slice of a larger array
+        ByteBuffer slice = ByteBuffer.wrap(new byte[expected.length + 10], 3, expected.length + 5)
+                .slice();
+        slice.position(2);
+        writer = new JSONUtf8Writer(slice);
+        jsonObject.write(writer);
+        assertEquals(2, slice.position());
+        assertEquals(expected.length, writer.size());
+        writer.flush();
+        assertEquals(expected.length + 2, slice.position());
+        assertEquals(expected.length, writer.byteCount());
+        assertArrayEquals(expected, Arrays.copyOfRange(slice.array(), 5, expected.length + 5));
+
+        ByteBuffer direct = ByteBuffer.allocateDirect(expected.length);
+        writer = new JSONUtf8Writer(direct);
+        jsonObject.write(writer);
+        writer.close();
+        byte[] bytes = new byte[expected.length];
+        direct.flip();
+        direct.get(bytes);
+        assertArrayEquals(expected, bytes);
+
+        ByteBuffer small = ByteBuffer.allocate(4);
+        writer = new JSONUtf8Writer(small);
+        try {
+            jsonObject.write(writer);
+            fail("Expected an exception");
+        } catch (JSONException e) {
+            assertTrue(e.getCause() instanceof IOException);
+            assertTrue(e.getCause().getMessage().startsWith("ByteBuffer has 0 bytes left"));
+        }
+
+        ByteBuffer smallDirect = ByteBuffer.allocateDirect(4);
+        writer = new JSONUtf8Writer(smallDirect);
+        jsonObject.write(writer);
+        try {
+            writer.flush();
+            fail("Expected an exception");
+        } catch (IOException e) {
+            assertTrue(e.getMessage().startsWith("ByteBuffer has 4 bytes left"));
+        }
+    }
+
+    /**
+     * Surrogate pairs split across writes are joined, unpaired surrogates
+     * become '?' like the JDK encoder.
+     */
+    @Test
+    public void surrogates() throws IOException {
+        JSONUtf8Writer writer = new JSONUtf8Writer();
+        writer.write('\ud83d');
+        writer.write("\ude00a");
+        writer.write(new char[] {'\ude00', 'b', '\ud83d'});
+        writer.write("c\ud83d");
+        writer.close();
+        String text = "😀a\ude00b\ud83dc\ud83d";
+        assertArrayEquals(text.getBytes(StandardCharsets.UTF_8), writer.toByteArray());
+        assertTrue(Arrays.equals("😀a?b?c?".getBytes(StandardCharsets.UTF_8),
+                writer.toByteArray()));
+    }
+}
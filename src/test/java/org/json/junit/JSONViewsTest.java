@@ -0,0 +1,200 @@
+package org.json.junit;
+
+/*
+Copyright (c) 2020 JSON.org
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+The Software shall be used for Good, not Evil.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.json.*;
+import org.json.junit.data.MyNumber;
+import org.junit.Test;
+
+/**
+ * Tests for the views of JSONObject and JSONArray.
+ */
+public class JSONViewsTest {
+
+    private static Map<String, Object> sample() {
+        Map<String, Object> inner = new LinkedHashMap<String, Object>();
+        inner.put("b", Boolean.TRUE);
+        inner.put("gone", null);
+        Map<Integer, Object> numbered = new TreeMap<Integer, Object>();
+        numbered.put(Integer.valueOf(1), "one");
+        Map<String, Object> map = new LinkedHashMap<String, Object>();
+        map.put("inner", inner);
+        map.put("numbered", numbered);
+        map.put("list", new ArrayList<Object>(Arrays.asList(1, null, inner, "s")));
+        map.put("set", new LinkedHashSet<Object>(Arrays.asList("x", inner)));
+        map.put("array", new Object[] { inner, 2.5 });
+        map.put("ints", new int[] { 1, 2 });
+        map.put("bean", new MyNumber());
+        map.put("builder", new StringBuilder("sb"));
+        map.put("nothing", null);
+        return map;
+    }
+
+    /**
+     * A view of a map reads like a copy of it, and follows changes to it.
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    public void viewOfMap() {
+        Map<String, Object> map = sample();
+        JSONObject view = JSONObject.view(map);
+        JSONObject copy = new JSONObject(map);
+        assertTrue(view.similar(copy));
+        assertEquals(copy.length(), view.length());
+        assertEquals(copy.keySet(), view.keySet());
+        assertTrue(new JSONObject(view.toString()).similar(copy));
+        assertFalse(view.has("nothing"));
+        assertNull(view.opt("nothing"));
+        assertEquals("one", view.getJSONObject("numbered").get("1"));
+        assertEquals("sb", view.get("builder"));
+        assertTrue(view.getJSONArray("list").isNull(1));
+        assertTrue(view.getJSONArray("list").getJSONObject(2).getBoolean("b"));
+
+        map.put("added", Arrays.asList(3));
+        ((Map<String, Object>) map.get("inner")).put("c", "d");
+        assertEquals(3, view.getJSONArray("added").getInt(0));
+        assertEquals("d", view.getJSONObject("inner").getString("c"));
+        assertEquals("d", view.getJSONArray("set").getJSONObject(1).getString("c"));
+
+        try {
+            view.put("x", 1);
+            fail("Expected an exception");
+        } catch (UnsupportedOperationException e) {
+            // expected
+        }
+        try {
+            JSONArray.view(new ArrayList<Object>()).put(1);
+            fail("Expected an exception");
+        } catch (UnsupportedOperationException e) {
+            // expected
+        }
+        assertEquals(0, JSONObject.view(null).length());
+        Map<String, Object> nulls = new HashMap<String, Object>();
+        nulls.put("a", null);
+        assertTrue(JSONObject.view(nulls).isEmpty());
+        assertEquals(0, JSONObject.view(nulls).length());
+        nulls.put("b", 1);
+        assertFalse(JSONObject.view(nulls).isEmpty());
+        assertEquals(1, JSONObject.view(nulls).length());
+        assertEquals("[1,{\"b\":true},null]", JSONArray.view(Arrays.asList(1,
+                Collections.singletonMap("b", true), null)).toString());
+    }
+
+    /**
+     * Map and List views of JSONObjects and JSONArrays hold what toMap and
+     * toList hold, and follow changes.
+     */
+    @Test
+    public void asMapAndAsList() {
+        JSONObject jsonObject = new JSONObject(
+                "{\"a\":[1,{\"b\":null},[]],\"c\":{\"d\":\"e\"},\"f\":null,\"g\":2.5}");
+        Map<String, Object> map = jsonObject.asMap();
+        assertEquals(jsonObject.toMap(), map);
+        assertEquals(map, new HashMap<String, Object>(map));
+        assertEquals(jsonObject.toMap().hashCode(), map.hashCode());
+        assertTrue(map.containsKey("f"));
+        assertNull(map.get("f"));
+        assertNull(map.get("missing"));
+
+        List<Object> list = jsonObject.getJSONArray("a").asList();
+        assertEquals(jsonObject.getJSONArray("a").toList(), list);
+        assertTrue(list.get(1) instanceof Map);
+
+        jsonObject.getJSONObject("c").put("h", 1);
+        jsonObject.getJSONArray("a").put("i");
+        assertEquals(1, ((Map<?, ?>) map.get("c")).get("h"));
+        assertEquals("i", list.get(3));
+        assertEquals(4, list.size());
+
+        try {
+            map.put("x", 1);
+            fail("Expected an exception");
+        } catch (UnsupportedOperationException e) {
+            // expected
+        }
+        try {
+            list.add(1);
+            fail("Expected an exception");
+        } catch (UnsupportedOperationException e) {
+            // expected
+        }
+    }
+
+    /**
+     * A view cannot be cached, and neither can a container holding one.
+     */
+    @Test
+    public void viewsAndSerializationCache() {
+        try {
+            JSONObject.view(new HashMap<String, Object>()).enableSerializationCache();
+            fail("Expected an exception");
+        } catch (UnsupportedOperationException e) {
+            // expected
+        }
+        try {
+            JSONArray.view(new ArrayList<Object>()).enableSerializationCache();
+            fail("Expected an exception");
+        } catch (UnsupportedOperationException e) {
+            // expected
+        }
+
+        Map<String, Object> map = new LinkedHashMap<String, Object>();
+        map.put("a", 1);
+        JSONObject inner = new JSONObject().put("view", JSONObject.view(map));
+        JSONObject outer = new JSONObject().enableSerializationCache();
+        outer.put("inner", inner);
+        JSONArray array = new JSONArray().put(JSONArray.view(Arrays.asList(map)))
+                .enableSerializationCache();
+        assertEquals("{\"inner\":{\"view\":{\"a\":1}}}", outer.toString());
+        assertEquals("[[{\"a\":1}]]", array.toString());
+        long fingerprint = outer.fingerprint();
+
+        map.put("a", 2);
+        assertEquals("{\"inner\":{\"view\":{\"a\":2}}}", outer.toString());
+        assertEquals("[[{\"a\":2}]]", array.toString());
+        assertNotEquals(fingerprint, outer.fingerprint());
+
+        inner.remove("view");
+        assertEquals("{\"inner\":{}}", outer.toString());
+        inner.put("view", 3);
+        assertEquals("{\"inner\":{\"view\":3}}", outer.toString());
+        inner.put("view", JSONObject.view(map));
+        map.put("a", 4);
+        assertEquals("{\"inner\":{\"view\":{\"a\":4}}}", outer.toString());
+    }
+}
@@ -0,0 +1,95 @@
+package org.json.junit;
+
+/*
+Copyright (c) 2020 JSON.org
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+The Software shall be used for Good, not Evil.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+
+import static org.junit.Assert.*;
+
+import java.io.StringWriter;
+
+import org.json.*;
+import org.junit.Test;
+
+/**
+ * Tests for the cache of quoted member names, through the text that
+ * JSONObject and JSONStringer write.
+ */
+public class KeyCacheTest {
+
+    private static String member(String key) {
+        return new JSONObject().put(key, 1).toString();
+    }
+
+    /**
+     * Keys that need escaping are written as JSONObject.quote quotes them,
+     * the first time and when they are written again.
+     */
+    @Test
+    public void escapedKeys() {
+        String[] keys = { "a\"b", "back\\slash", "tab\tnew\nline", "</script>",
+            "\u0001\u001f", "  ", "caf\u00e9", "" };
+        for (String key : keys) {
+            String expected = "{" + JSONObject.quote(key) + ":1}";
+            assertEquals(key, expected, member(key));
+            assertEquals(key, expected, member(key));
+            assertEquals(key, expected,
+                    new JSONStringer().object().key(key).value(1).endObject().toString());
+        }
+        assertEquals("{\"a\\\"b\":1}", member("a\"b"));
+        assertEquals("{\"<\\/script>\":1}", member("</script>"));
+    }
+
+    /**
+     * Keys with the same hash code, written in turns, keep their own text.
+     */
+    @Test
+    public void collidingKeys() {
+        assertEquals("Aa".hashCode(), "BB".hashCode());
+        for (int i = 0; i < 3; i += 1) {
+            assertEquals("{\"Aa\":1}", member("Aa"));
+            assertEquals("{\"BB\":1}", member("BB"));
+        }
+        StringWriter writer = new StringWriter();
+        new JSONObject().put("Aa", 1).put("BB", 2).write(writer);
+        assertTrue(new JSONObject().put("Aa", 1).put("BB", 2)
+                .similar(new JSONObject(writer.toString())));
+    }
+
+    /**
+     * Keys longer than the cache holds, and many distinct keys, are written
+     * correctly.
+     */
+    @Test
+    public void longAndManyKeys() {
+        String longKey = new String(new char[65]).replace('\0', 'k') + "\"";
+        String expected = "{" + JSONObject.quote(longKey) + ":1}";
+        assertEquals(expected, member(longKey));
+        assertEquals(expected, member(longKey));
+        for (int i = 0; i < 100000; i += 1) {
+            String key = "key" + i;
+            assertEquals("{\"" + key + "\":1}", member(key));
+        }
+        assertEquals("{\"key0\":1}", member("key0"));
+    }
+}
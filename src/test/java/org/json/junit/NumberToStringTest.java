@@ -0,0 +1,107 @@
+package org.json.junit;
+
+/*
+Copyright (c) 2020 JSON.org
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+The Software shall be used for Good, not Evil.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.json.*;
+import org.junit.Test;
+
+/**
+ * Tests for the formatting of numbers in JSON texts.
+ */
+public class NumberToStringTest {
+
+    /**
+     * Doubles keep the layout of Double.toString without the trailing zeros
+     * of plain decimals.
+     */
+    @Test
+    public void doubleLayout() {
+        assertEquals("0", JSONObject.doubleToString(0.0));
+        assertEquals("-0", JSONObject.doubleToString(-0.0));
+        assertEquals("1", JSONObject.doubleToString(1.0));
+        assertEquals("-1.5", JSONObject.doubleToString(-1.5));
+        assertEquals("0.001", JSONObject.doubleToString(0.001));
+        assertEquals("1.0E-4", JSONObject.doubleToString(0.0001));
+        assertEquals("1.5E-4", JSONObject.doubleToString(0.00015));
+        assertEquals("9999999", JSONObject.doubleToString(9999999.0));
+        assertEquals("1234567.125", JSONObject.doubleToString(1234567.125));
+        assertEquals("1.0E7", JSONObject.doubleToString(1.0E7));
+        assertEquals("1.2345678E7", JSONObject.doubleToString(12345678.0));
+        assertEquals("1.0E23", JSONObject.doubleToString(1.0E23));
+        assertEquals("4.9E-324", JSONObject.doubleToString(Double.MIN_VALUE));
+        assertEquals("1.7976931348623157E308", JSONObject.doubleToString(Double.MAX_VALUE));
+        assertEquals("null", JSONObject.doubleToString(Double.NaN));
+    }
+
+    /**
+     * Doubles are written with the fewest digits that read back as the same
+     * value, also where Double.toString of older Java versions used more.
+     */
+    @Test
+    public void doublesAreShortest() {
+        assertEquals("0.30000000000000004", JSONObject.doubleToString(0.1 + 0.2));
+        assertEquals("2.0E23", JSONObject.doubleToString(2.0E23));
+        assertEquals("-2.0095612261975418E17",
+                JSONObject.doubleToString(-2.00956122619754176E17));
+        assertEquals("{\"d\":1.043033716732378E18}",
+                new JSONObject().put("d", 1.04303371673237798E18).toString());
+        assertEquals("[-2.0095612261975418E17]",
+                new JSONArray().put(-2.00956122619754176E17).toString());
+    }
+
+    /**
+     * Written doubles are read back as the same value.
+     */
+    @Test
+    public void doublesRoundTrip() {
+        Random random = new Random(20261019L);
+        for (int i = 0; i < 100000; i += 1) {
+            double d = Double.longBitsToDouble(random.nextLong());
+            if (Double.isNaN(d) || Double.isInfinite(d) || d == 0) {
+                continue;
+            }
+            String string = JSONObject.numberToString(d);
+            Object value = JSONObject.stringToValue(string);
+            assertEquals(string, d, ((Number) value).doubleValue(), 0.0);
+            assertEquals(d, new JSONArray("[" + string + "]").getDouble(0), 0.0);
+        }
+    }
+
+    /**
+     * Integral numbers are written as Long.toString does.
+     */
+    @Test
+    public void integers() {
+        JSONArray jsonArray = new JSONArray()
+                .put(0).put(-7).put(42L).put(Long.MIN_VALUE).put(Long.MAX_VALUE)
+                .put(Integer.MIN_VALUE).put(Short.valueOf((short) -300)).put(Byte.valueOf((byte) 99));
+        assertEquals("[0,-7,42,-9223372036854775808,9223372036854775807,"
+                + "-2147483648,-300,99]", jsonArray.toString());
+    }
+}
@@ -0,0 +1,118 @@
+package org.json.junit;
+
+/*
+Copyright (c) 2020 JSON.org
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+The Software shall be used for Good, not Evil.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+
+import static org.junit.Assert.*;
+
+import java.io.StringWriter;
+
+import org.json.*;
+import org.junit.Test;
+
+/**
+ * Tests for the memoized serialized form of JSONObject and JSONArray.
+ */
+public class SerializationCacheTest {
+
+    /**
+     * A cached object returns the same text instance until it changes.
+     */
+    @Test
+    public void cachedTextIsReused() {
+        JSONObject jsonObject = new JSONObject("{\"a\":1,\"b\":[true,\"x\"]}")
+                .enableSerializationCache();
+        String first = jsonObject.toString();
+        assertSame("Expected the cached text", first, jsonObject.toString());
+        assertTrue("Expected same content",
+                new JSONObject(first).similar(new JSONObject("{\"a\":1,\"b\":[true,\"x\"]}")));
+        StringWriter writer = new StringWriter();
+        jsonObject.write(writer);
+        assertEquals("write should copy the cached text", first, writer.toString());
+    }
+
+    /**
+     * Changes deep inside the tree invalidate every enclosing container.
+     */
+    @Test
+    public void nestedChangesPropagateUp() {
+        JSONObject inner = new JSONObject().put("x", 1);
+        JSONArray array = new JSONArray().put(inner);
+        JSONObject outer = new JSONObject().put("array", array).enableSerializationCache();
+        assertEquals("{\"array\":[{\"x\":1}]}", outer.toString());
+
+        inner.put("x", 2);
+        assertEquals("{\"array\":[{\"x\":2}]}", outer.toString());
+
+        array.put(3);
+        assertEquals("{\"array\":[{\"x\":2},3]}", outer.toString());
+
+        array.remove(0);
+        assertEquals("{\"array\":[3]}", outer.toString());
+
+        // the removed object no longer reaches the outer object
+        String before = outer.toString();
+        inner.put("x", 4);
+        assertSame("Removed child must not invalidate", before, outer.toString());
+
+        array.clear();
+        assertEquals("{\"array\":[]}", outer.toString());
+
+        outer.remove("array");
+        assertEquals("{}", outer.toString());
+    }
+
+    /**
+     * Containers added after the cache was enabled are tracked too.
+     */
+    @Test
+    public void addedContainersAreTracked() {
+        JSONArray array = new JSONArray().enableSerializationCache();
+        JSONObject child = new JSONObject();
+        array.put(child);
+        array.put(0, child);
+        assertEquals("[{}]", array.toString());
+        child.put("k", "v");
+        assertEquals("[{\"k\":\"v\"}]", array.toString());
+
+        JSONArray other = new JSONArray().put(new JSONObject());
+        array.putAll(other);
+        assertEquals("[{\"k\":\"v\"},{}]", array.toString());
+        other.getJSONObject(0).put("n", 1);
+        assertEquals("[{\"k\":\"v\"},{\"n\":1}]", array.toString());
+    }
+
+    /**
+     * Pretty printing is never served from the cache.
+     */
+    @Test
+    public void indentedOutputIsNotCached() {
+        JSONObject jsonObject = new JSONObject().put("a", 1).put("b", 2).enableSerializationCache();
+        String compact = jsonObject.toString();
+        String pretty = jsonObject.toString(2);
+        assertNotEquals(compact, pretty);
+        assertTrue("Expected new lines", pretty.contains("\n"));
+        assertSame(compact, jsonObject.toString());
+    }
+}
@@ -27,6 +27,7 @@ SOFTWARE.
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
@@ -880,6 +881,23 @@ public class XMLTest {
                 XML.toJSONObject("<xml>Can cope &amp;#x34; </xml>").toString());
         assertEquals("Can cope &#x34; ", XML.unescape("Can cope &amp;#x34; "));
 
+        // no entities, or an entity without ';'
+        String plain = "Nothing to do here; ";
+        assertSame(plain, XML.unescape(plain));
+        assertEquals("A&B &#65", XML.unescape("&#65;&amp;B &#65"));
+   }
+
+    /**
+     * test to validate escaping of special, invalid and supplementary
+     * characters.
+     */
+    @Test
+    public void testEscape() {
+        String plain = "Nothing to do here é 😀";
+        assertSame(plain, XML.escape(plain));
+        assertEquals("a&lt;b&gt;&amp;&quot;&apos;c", XML.escape("a<b>&\"'c"));
+        assertEquals("&#x1;&#x9;&#x7f;&#xfffe;&#xd83d;x&#xde00;",
+                XML.escape("\u0001\t\u007f￾\ud83dx\ude00"));
    }
 
     /**